@@ -43,7 +43,6 @@ import java.nio.channels.AsynchronousChannelGroup;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -92,10 +91,9 @@ public final class DbleServer {
     private ExecutorService complexQueryExecutor;
     private ExecutorService timerExecutor;
     private Map<String, ThreadWorkUsage> threadUsedMap = new ConcurrentHashMap<>();
-    private BlockingQueue<FrontendCommandHandler> frontHandlerQueue;
+    private HandlerWorkerPool<FrontendCommandHandler> frontHandlerPool;
     private BlockingQueue<List<WriteToBackendTask>> writeToBackendQueue;
-    private Queue<FrontendCommandHandler> concurrentFrontHandlerQueue;
-    private Queue<BackendAsyncHandler> concurrentBackHandlerQueue;
+    private HandlerWorkerPool<BackendAsyncHandler> backHandlerPool;
 
     private DbleServer() {
     }
@@ -284,21 +282,12 @@ public final class DbleServer {
     }
 
     private void initTaskQueue(SystemConfig system) {
-        if (system.getUsePerformanceMode() == 1) {
-            concurrentFrontHandlerQueue = new ConcurrentLinkedQueue<>();
-            for (int i = 0; i < system.getProcessorExecutor(); i++) {
-                businessExecutor.execute(new ConcurrentFrontEndHandlerRunnable(concurrentFrontHandlerQueue));
-            }
-
-            concurrentBackHandlerQueue = new ConcurrentLinkedQueue<>();
-            for (int i = 0; i < system.getBackendProcessorExecutor(); i++) {
-                backendBusinessExecutor.execute(new ConcurrentBackEndHandlerRunnable(concurrentBackHandlerQueue));
-            }
-        } else {
-            frontHandlerQueue = new LinkedBlockingQueue<>();
-            for (int i = 0; i < system.getProcessorExecutor(); i++) {
-                businessExecutor.execute(new FrontEndHandlerRunnable(frontHandlerQueue));
-            }
+        boolean performanceMode = system.getUsePerformanceMode() == 1;
+        frontHandlerPool = new HandlerWorkerPool<>(system.getProcessorExecutor(), performanceMode, true, FrontendCommandHandler::handle);
+        frontHandlerPool.start(businessExecutor);
+        if (performanceMode) {
+            backHandlerPool = new HandlerWorkerPool<>(system.getBackendProcessorExecutor(), true, false, BackendAsyncHandler::executeQueue);
+            backHandlerPool.start(backendBusinessExecutor);
         }
 
         writeToBackendQueue = new LinkedBlockingQueue<>();
@@ -351,12 +340,8 @@ public final class DbleServer {
         return threadUsedMap;
     }
 
-    public Queue<FrontendCommandHandler> getFrontHandlerQueue() {
-        if (config.getSystem().getUsePerformanceMode() == 1) {
-            return concurrentFrontHandlerQueue;
-        } else {
-            return frontHandlerQueue;
-        }
+    public HandlerWorkerPool<FrontendCommandHandler> getFrontHandlerPool() {
+        return frontHandlerPool;
     }
 
 
@@ -627,8 +612,8 @@ public final class DbleServer {
     }
 
 
-    public Queue<BackendAsyncHandler> getBackHandlerQueue() {
-        return concurrentBackHandlerQueue;
+    public HandlerWorkerPool<BackendAsyncHandler> getBackHandlerPool() {
+        return backHandlerPool;
     }
 
     public NIOProcessor[] getFrontProcessors() {
@@ -9,6 +9,7 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.datasource.PhysicalDataSource;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.net.NIOProcessor;
+import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.util.StringUtil;
 
 import java.util.Collection;
@@ -37,19 +38,22 @@ public class ConMap {
         return items.get(schema == null ? KEY_STRING_FOR_NULL_DATABASE : schema);
     }
 
-    public BackendConnection tryTakeCon(final String schema, boolean autoCommit) {
+    /**
+     * the connection of the schema is preferred, then the autocommit and then the state of the source
+     */
+    public BackendConnection tryTakeCon(final String schema, boolean autoCommit, ServerConnection source) {
 
         final ConQueue queue = items.get(schema == null ? KEY_STRING_FOR_NULL_DATABASE : schema);
         BackendConnection con = null;
         if (queue != null) {
-            con = tryTakeCon(queue, autoCommit);
+            con = tryTakeCon(queue, autoCommit, source);
         }
         if (con != null) {
             return con;
         } else {
             for (ConQueue queue2 : items.values()) {
                 if (queue != queue2) {
-                    con = tryTakeCon(queue2, autoCommit);
+                    con = tryTakeCon(queue2, autoCommit, source);
                     if (con != null) {
                         return con;
                     }
@@ -60,10 +64,10 @@ public class ConMap {
 
     }
 
-    private BackendConnection tryTakeCon(ConQueue queue, boolean autoCommit) {
+    private BackendConnection tryTakeCon(ConQueue queue, boolean autoCommit, ServerConnection source) {
 
         BackendConnection con;
-        if (queue != null && ((con = queue.takeIdleCon(autoCommit)) != null)) {
+        if (queue != null && ((con = queue.takeIdleCon(autoCommit, source)) != null)) {
             return con;
         } else {
             return null;
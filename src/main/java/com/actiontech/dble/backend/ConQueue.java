@@ -5,15 +5,30 @@
 
 package com.actiontech.dble.backend;
 
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.server.ServerConnection;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class ConQueue {
+    // the idle connections checked for the same session state as the front connection
+    private static final int STATE_MATCH_SCAN_SIZE = 16;
+
     private final ConcurrentLinkedQueue<BackendConnection> autoCommitCons = new ConcurrentLinkedQueue<>();
     private final ConcurrentLinkedQueue<BackendConnection> manCommitCons = new ConcurrentLinkedQueue<>();
     private long executeCount;
 
     public BackendConnection takeIdleCon(boolean autoCommit) {
+        return takeIdleCon(autoCommit, null);
+    }
+
+    /**
+     * @param source the front connection, the idle connection with the same charset, isolation and system variables
+     *               is preferred, so the query is sent without the syn sql. null if no preference
+     */
+    public BackendConnection takeIdleCon(boolean autoCommit, ServerConnection source) {
         ConcurrentLinkedQueue<BackendConnection> f1 = autoCommitCons;
         ConcurrentLinkedQueue<BackendConnection> f2 = manCommitCons;
 
@@ -22,6 +37,12 @@ public class ConQueue {
             f2 = autoCommitCons;
 
         }
+        if (source != null) {
+            BackendConnection matched = takeStateMatchedCon(f1, source);
+            if (matched != null) {
+                return matched;
+            }
+        }
         BackendConnection con = f1.poll();
         if (con == null || con.isClosed()) {
             con = f2.poll();
@@ -34,6 +55,19 @@ public class ConQueue {
 
     }
 
+    private BackendConnection takeStateMatchedCon(ConcurrentLinkedQueue<BackendConnection> queue, ServerConnection source) {
+        Iterator<BackendConnection> iterator = queue.iterator();
+        for (int i = 0; i < STATE_MATCH_SCAN_SIZE && iterator.hasNext(); i++) {
+            BackendConnection con = iterator.next();
+            // remove returns false if the connection is taken by others at the same time
+            if (!con.isClosed() && con instanceof MySQLConnection && ((MySQLConnection) con).isStateMatched(source) &&
+                    queue.remove(con)) {
+                return con;
+            }
+        }
+        return null;
+    }
+
     public long getExecuteCount() {
         return executeCount;
     }
@@ -20,6 +20,7 @@ import com.actiontech.dble.config.helper.KeyVariables;
 import com.actiontech.dble.config.loader.zkprocess.parse.JsonProcessBase;
 import com.actiontech.dble.config.loader.zkprocess.zookeeper.process.DataSourceStatus;
 import com.actiontech.dble.config.model.DataHostConfig;
+import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.singleton.HaConfigManager;
 import com.alibaba.fastjson.JSONObject;
 import com.google.gson.reflect.TypeToken;
@@ -205,7 +206,7 @@ public class PhysicalDataHost {
         return new LinkedList<>(allSourceMap.values());
     }
 
-    void getRWBalanceCon(String schema, boolean autocommit, ResponseHandler handler, Object attachment) throws Exception {
+    void getRWBalanceCon(String schema, boolean autocommit, ServerConnection source, ResponseHandler handler, Object attachment) throws Exception {
         PhysicalDataSource theNode = getRWBalanceNode();
         if (theNode.isDisabled() || theNode.isFakeNode()) {
             if (this.getAllActiveDataSources().size() > 0) {
@@ -230,7 +231,7 @@ public class PhysicalDataHost {
             AlertUtil.alert(AlarmCode.DATA_HOST_CAN_NOT_REACH, Alert.AlertLevel.WARN, heartbeatError, "mysql", theNode.getConfig().getId(), labels);
             throw new IOException(heartbeatError);
         }
-        theNode.getConnection(schema, autocommit, handler, attachment, false);
+        theNode.getConnection(schema, autocommit, source, handler, attachment, false);
     }
 
     PhysicalDataSource getRWBalanceNode() {
@@ -239,12 +240,12 @@ public class PhysicalDataHost {
         switch (balance) {
             case BALANCE_ALL: {
                 okSources = getAllActiveRWSources(true, checkSlaveSynStatus());
-                theNode = randomSelect(okSources, true);
+                theNode = selectReadSource(okSources, true);
                 break;
             }
             case BALANCE_ALL_BACK: {
                 okSources = getAllActiveRWSources(false, checkSlaveSynStatus());
-                theNode = randomSelect(okSources, true);
+                theNode = selectReadSource(okSources, true);
                 break;
             }
             case BALANCE_NONE:
@@ -264,11 +265,11 @@ public class PhysicalDataHost {
         if (balance == BALANCE_NONE) {
             return null;
         } else {
-            return randomSelect(getAllActiveRWSources(false, checkSlaveSynStatus()), false);
+            return selectReadSource(getAllActiveRWSources(false, checkSlaveSynStatus()), false);
         }
     }
 
-    boolean getReadCon(String schema, boolean autocommit, ResponseHandler handler, Object attachment) throws
+    boolean getReadCon(String schema, boolean autocommit, ServerConnection source, ResponseHandler handler, Object attachment) throws
             Exception {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("!readSources.isEmpty() " + (allSourceMap.values().size() > 1));
@@ -277,7 +278,7 @@ public class PhysicalDataHost {
             PhysicalDataSource theNode = getRandomAliveReadNode();
             if (theNode != null) {
                 theNode.setReadCount();
-                theNode.getConnection(schema, autocommit, handler, attachment, false);
+                theNode.getConnection(schema, autocommit, source, handler, attachment, false);
                 return true;
             } else {
                 LOGGER.info("read host is not available.");
@@ -603,6 +604,42 @@ public class PhysicalDataHost {
         return hostName;
     }
 
+    private PhysicalDataSource selectReadSource(ArrayList<PhysicalDataSource> okSources, boolean useWriteWhenEmpty) {
+        if (okSources.size() > 1 && DbleServer.getInstance().getConfig().getSystem().isUseLatencyReadBalance()) {
+            return latencySelect(okSources);
+        }
+        return randomSelect(okSources, useWriteWhenEmpty);
+    }
+
+    /**
+     * pick two different sources randomly and use the one with the lower load,
+     * so a slow source gets less requests without sending all the requests to the fastest one
+     */
+    private PhysicalDataSource latencySelect(ArrayList<PhysicalDataSource> okSources) {
+        int length = okSources.size();
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+        PhysicalDataSource firstSource = okSources.get(first);
+        PhysicalDataSource secondSource = okSources.get(second);
+        int firstWeight = firstSource.getConfig().getWeight();
+        int secondWeight = secondSource.getConfig().getWeight();
+        if (firstWeight != secondWeight && (firstWeight <= 0 || secondWeight <= 0)) {
+            // same as randomSelect, the source without weight is not used if the weights are different
+            return firstWeight > 0 ? firstSource : secondSource;
+        }
+        return getLoad(firstSource, firstWeight) <= getLoad(secondSource, secondWeight) ? firstSource : secondSource;
+    }
+
+    /**
+     * the average response time multiplied by the running requests, divided by the weight
+     */
+    private static double getLoad(PhysicalDataSource source, int weight) {
+        return (double) (source.getAvgResponseTime() + 1) * (source.getRunningRequests() + 1) / Math.max(weight, 1);
+    }
+
     public PhysicalDataSource randomSelect(ArrayList<PhysicalDataSource> okSources, boolean useWriteWhenEmpty) {
         if (okSources.isEmpty()) {
             if (useWriteWhenEmpty) {
@@ -11,6 +11,7 @@ import com.actiontech.dble.alarm.AlertUtil;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
 import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.ServerConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -96,29 +97,42 @@ public class PhysicalDataNode {
 
     public void getConnection(String schema, boolean isMustWrite, boolean autoCommit, RouteResultsetNode rrs,
                               ResponseHandler handler, Object attachment) throws Exception {
+        getConnection(schema, isMustWrite, autoCommit, null, rrs, handler, attachment);
+    }
+
+    /**
+     * @param source the front connection, the idle connection in the same state is preferred
+     */
+    public void getConnection(String schema, boolean isMustWrite, boolean autoCommit, ServerConnection source,
+                              RouteResultsetNode rrs, ResponseHandler handler, Object attachment) throws Exception {
         if (isMustWrite) {
-            getWriteNodeConnection(schema, autoCommit, handler, attachment, false);
+            getWriteNodeConnection(schema, autoCommit, source, handler, attachment, false);
             return;
         }
         if (rrs.getRunOnSlave() == null) {
             if (rrs.canRunINReadDB(autoCommit)) {
-                dataHost.getRWBalanceCon(schema, autoCommit, handler, attachment);
+                dataHost.getRWBalanceCon(schema, autoCommit, source, handler, attachment);
             } else {
-                getWriteNodeConnection(schema, autoCommit, handler, attachment, false);
+                getWriteNodeConnection(schema, autoCommit, source, handler, attachment, false);
             }
         } else {
             if (rrs.getRunOnSlave()) {
-                if (!dataHost.getReadCon(schema, autoCommit, handler, attachment)) {
+                if (!dataHost.getReadCon(schema, autoCommit, source, handler, attachment)) {
                     throw new IllegalArgumentException("no valid readHost in DataHost:" + dataHost.getHostName());
                 }
             } else {
                 rrs.setCanRunInReadDB(false);
-                getWriteNodeConnection(schema, autoCommit, handler, attachment, false);
+                getWriteNodeConnection(schema, autoCommit, source, handler, attachment, false);
             }
         }
     }
 
     public BackendConnection getConnection(String schema, boolean autoCommit, Boolean runOnSlave, Object attachment) throws Exception {
+        return getConnection(schema, autoCommit, null, runOnSlave, attachment);
+    }
+
+    public BackendConnection getConnection(String schema, boolean autoCommit, ServerConnection source, Boolean runOnSlave,
+                                           Object attachment) throws Exception {
         if (runOnSlave == null) {
             PhysicalDataSource readSource = dataHost.getRWBalanceNode();
             if (!readSource.isAlive()) {
@@ -131,13 +145,13 @@ public class PhysicalDataNode {
                 AlertUtil.alert(AlarmCode.DATA_HOST_CAN_NOT_REACH, Alert.AlertLevel.WARN, heartbeatError, "mysql", readSource.getConfig().getId(), labels);
                 throw new IOException(heartbeatError);
             }
-            return readSource.getConnection(schema, autoCommit, attachment);
+            return readSource.getConnection(schema, autoCommit, source, attachment);
         } else if (runOnSlave) {
-            PhysicalDataSource source = dataHost.getRandomAliveReadNode();
-            if (source == null) {
+            PhysicalDataSource readNode = dataHost.getRandomAliveReadNode();
+            if (readNode == null) {
                 throw new IllegalArgumentException("no valid readHost in DataHost:" + dataHost.getHostName());
             }
-            return source.getConnection(schema, autoCommit, attachment);
+            return readNode.getConnection(schema, autoCommit, source, attachment);
         } else {
             checkRequest(schema);
             if (dataHost.isInitSuccess()) {
@@ -146,14 +160,15 @@ public class PhysicalDataNode {
                     throw new IllegalArgumentException("The Data Source[" + writeSource.getConfig().getUrl() + "] is running with the --read-only option so it cannot execute this statement");
                 }
                 writeSource.setWriteCount();
-                return writeSource.getConnection(schema, autoCommit, attachment);
+                return writeSource.getConnection(schema, autoCommit, source, attachment);
             } else {
                 throw new IllegalArgumentException("Invalid DataSource:" + dataHost.getHostName());
             }
         }
     }
 
-    private void getWriteNodeConnection(String schema, boolean autoCommit, ResponseHandler handler, Object attachment, boolean fakeRead) throws IOException {
+    private void getWriteNodeConnection(String schema, boolean autoCommit, ServerConnection source, ResponseHandler handler,
+                                        Object attachment, boolean fakeRead) throws IOException {
         checkRequest(schema);
         if (dataHost.isInitSuccess()) {
             PhysicalDataSource writeSource = dataHost.getWriteSource();
@@ -166,7 +181,7 @@ public class PhysicalDataNode {
                 throw new IllegalArgumentException("The Data Source[" + writeSource.getConfig().getUrl() + "] is running with the --read-only option so it cannot execute this statement");
             }
             writeSource.setWriteCount();
-            writeSource.getConnection(schema, autoCommit, handler, attachment, true);
+            writeSource.getConnection(schema, autoCommit, source, handler, attachment, true);
         } else {
             throw new IllegalArgumentException("Invalid DataSource:" + dataHost.getHostName());
         }
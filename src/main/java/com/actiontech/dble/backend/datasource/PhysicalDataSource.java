@@ -20,6 +20,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.NewConnectionRespHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
 import com.actiontech.dble.config.model.DataHostConfig;
 import com.actiontech.dble.config.model.DataSourceConfig;
+import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.util.StringUtil;
 import com.actiontech.dble.util.TimeUtil;
 import org.slf4j.Logger;
@@ -37,6 +38,8 @@ import java.util.concurrent.atomic.AtomicLong;
 public abstract class PhysicalDataSource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PhysicalDataSource.class);
+    // the weight of the new response time is 1/8
+    private static final int RESPONSE_TIME_EWMA_SHIFT = 3;
 
     private final String name;
     private int size;
@@ -56,6 +59,9 @@ public abstract class PhysicalDataSource {
     private volatile boolean fakeNode = false;
     private AtomicLong readCount = new AtomicLong(0);
     private AtomicLong writeCount = new AtomicLong(0);
+    // the requests waiting for the response and the ewma of the response time in nanoseconds, see useLatencyReadBalance
+    private final AtomicInteger runningRequests = new AtomicInteger();
+    private final AtomicLong avgResponseTime = new AtomicLong();
     private String dsVersion;
 
     public PhysicalDataSource(DataSourceConfig config, DataHostConfig hostConfig, boolean isReadNode) {
@@ -111,6 +117,38 @@ public abstract class PhysicalDataSource {
         writeCount.addAndGet(1);
     }
 
+    public void startRequest() {
+        runningRequests.incrementAndGet();
+    }
+
+    /**
+     * @param responseTime the nanoseconds from the request is sent to the first packet of the response is received
+     */
+    public void endRequest(long responseTime) {
+        runningRequests.decrementAndGet();
+        long oldAvg;
+        long newAvg;
+        do {
+            oldAvg = avgResponseTime.get();
+            newAvg = oldAvg == 0 ? responseTime : oldAvg + ((responseTime - oldAvg) >> RESPONSE_TIME_EWMA_SHIFT);
+        } while (!avgResponseTime.compareAndSet(oldAvg, newAvg));
+    }
+
+    /**
+     * the request is not responded because the connection is closed
+     */
+    public void cancelRequest() {
+        runningRequests.decrementAndGet();
+    }
+
+    public int getRunningRequests() {
+        return runningRequests.get();
+    }
+
+    public long getAvgResponseTime() {
+        return avgResponseTime.get();
+    }
+
     public DataHostConfig getHostConfig() {
         return hostConfig;
     }
@@ -454,7 +492,15 @@ public abstract class PhysicalDataSource {
 
     public void getConnection(String schema, boolean autocommit, final ResponseHandler handler,
                               final Object attachment, boolean mustWrite) throws IOException {
-        BackendConnection con = this.conMap.tryTakeCon(schema, autocommit);
+        getConnection(schema, autocommit, null, handler, attachment, mustWrite);
+    }
+
+    /**
+     * @param source the front connection which the connection is used for, null if not for a front connection
+     */
+    public void getConnection(String schema, boolean autocommit, ServerConnection source, final ResponseHandler handler,
+                              final Object attachment, boolean mustWrite) throws IOException {
+        BackendConnection con = this.conMap.tryTakeCon(schema, autocommit, source);
         if (con != null) {
             takeCon(con, handler, attachment, schema);
         } else {
@@ -464,7 +510,11 @@ public abstract class PhysicalDataSource {
 
 
     public BackendConnection getConnection(String schema, boolean autocommit, final Object attachment) throws IOException {
-        BackendConnection con = this.conMap.tryTakeCon(schema, autocommit);
+        return getConnection(schema, autocommit, null, attachment);
+    }
+
+    public BackendConnection getConnection(String schema, boolean autocommit, ServerConnection source, final Object attachment) throws IOException {
+        BackendConnection con = this.conMap.tryTakeCon(schema, autocommit, source);
         if (con == null) {
             if (disabled.get()) {
                 throw new IOException("the dataSource is disabled [" + this.name + "]");
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.LoadDataResponseHandler;
+import com.actiontech.dble.net.mysql.BinaryPacket;
+import com.actiontech.dble.singleton.WriteQueueFlowController;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * the rows of a streamed load data which are routed to one data node.
+ * the parser thread packs the rows and writes the packets to the backend connection while the client is still
+ * sending the file, the backend connection is given by the response handler when the backend requests the file.
+ */
+public class LoadDataForwarder {
+    private final Charset charset;
+    private final int packSize;
+    // only used by the parser thread
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private MySQLConnection conn;
+    private LoadDataResponseHandler handler;
+    private byte packetId;
+    private volatile boolean aborted = false;
+    private boolean finished = false;
+
+    public LoadDataForwarder(Charset charset) {
+        this.charset = charset;
+        this.packSize = DbleServer.getInstance().getConfig().getSystem().getBufferPoolChunkSize() - 5;
+    }
+
+    /**
+     * called by the response handler when the backend requests the file
+     */
+    public void connect(MySQLConnection c, byte packId) {
+        synchronized (this) {
+            if (!aborted) {
+                conn = c;
+                handler = (LoadDataResponseHandler) c.getRespHandler();
+                packetId = packId;
+                notifyAll();
+                return;
+            }
+        }
+        // no one forwards the file any more, the backend can't finish the statement without it
+        c.closeInner("load data is aborted");
+    }
+
+    /**
+     * @return false if the load data is aborted before the backend requests the file
+     */
+    public synchronized boolean awaitConnected() throws InterruptedException {
+        while (conn == null && !aborted) {
+            wait();
+        }
+        return !aborted;
+    }
+
+    public synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    /**
+     * the connection is failed and released by the response handler, it's not written any more
+     */
+    public synchronized void detach(BackendConnection c) {
+        if (conn == c) {
+            conn = null;
+        }
+        abort();
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * pack a line, the full packets are written by send
+     */
+    public void write(String line) {
+        byte[] bytes = line.getBytes(charset);
+        pending.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * write the full packets to the backend, waits while the backend connection is flow controlled
+     */
+    public void send() {
+        if (pending.size() < packSize) {
+            return;
+        }
+        byte[] data = pending.toByteArray();
+        pending.reset();
+        int offset = 0;
+        for (; data.length - offset >= packSize; offset += packSize) {
+            writePacket(Arrays.copyOfRange(data, offset, offset + packSize));
+        }
+        pending.write(data, offset, data.length - offset);
+    }
+
+    /**
+     * write the rest of the file and the empty packet, the backend responds after it
+     *
+     * @param lastPacketId the id of the empty packet from the client, the response to the client follows it
+     */
+    public void finish(byte lastPacketId) {
+        if (pending.size() > 0) {
+            writePacket(pending.toByteArray());
+            pending.reset();
+        }
+        LoadDataResponseHandler h;
+        synchronized (this) {
+            if (aborted || conn == null) {
+                return;
+            }
+            h = handler;
+        }
+        h.requestDataEnd(lastPacketId);
+        synchronized (this) {
+            if (aborted || conn == null) {
+                return;
+            }
+            finished = true;
+            byte[] empty = new byte[]{0, 0, 0, 3};
+            empty[3] = ++packetId;
+            conn.write(empty);
+        }
+    }
+
+    /**
+     * close the backend connection which is receiving the file, so the rows sent are not committed by the backend.
+     * the response handler sends the error with the reason
+     */
+    public void close(byte lastPacketId, String reason) {
+        MySQLConnection c;
+        LoadDataResponseHandler h;
+        synchronized (this) {
+            aborted = true;
+            notifyAll();
+            if (conn == null || finished) {
+                return;
+            }
+            c = conn;
+            h = handler;
+            conn = null;
+        }
+        h.requestDataEnd(lastPacketId);
+        c.closeInner(reason);
+    }
+
+    private void writePacket(byte[] data) {
+        MySQLConnection c;
+        synchronized (this) {
+            if (aborted || conn == null) {
+                return;
+            }
+            c = conn;
+        }
+        if (WriteQueueFlowController.isOverBudget(c)) {
+            c.startFlowControl(c);
+        }
+        while (c.isFlowControlled() && !aborted) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                //ignore error
+            }
+        }
+        synchronized (this) {
+            if (aborted || conn == null) {
+                return;
+            }
+            BinaryPacket packet = new BinaryPacket();
+            packet.setPacketId(++packetId);
+            packet.setData(data);
+            packet.write(conn);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.net.mysql.BinaryPacket;
+import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.singleton.WriteQueueFlowController;
 import com.actiontech.dble.sqlengine.mpp.LoadData;
@@ -30,6 +31,11 @@ public final class LoadDataUtil {
         LoadData loadData = rrn.getLoadData();
         List<String> loadDataData = loadData.getData();
         conn.setExecuting(false);
+        if (loadData.getForwarder() != null) {
+            // the rows are written by the parser of the client data while they are received
+            loadData.getForwarder().connect(c, packId);
+            return;
+        }
         BufferedInputStream in = null;
         try {
             if (loadDataData != null && loadDataData.size() > 0) {
@@ -62,6 +68,19 @@ public final class LoadDataUtil {
         }
     }
 
+    /**
+     * stop forwarding the streamed load data to all the data nodes, called by the response handler
+     * before the failed connection is released
+     */
+    public static void abortFileData(RouteResultset rrs, BackendConnection conn) {
+        for (RouteResultsetNode node : rrs.getNodes()) {
+            LoadData loadData = node.getLoadData();
+            if (loadData != null && loadData.getForwarder() != null) {
+                loadData.getForwarder().detach(conn);
+            }
+        }
+    }
+
     public static byte writeToBackConnection(byte packID, InputStream inputStream, MySQLConnection c) throws IOException {
         try {
             int packSize = DbleServer.getInstance().getConfig().getSystem().getBufferPoolChunkSize() - 5;
@@ -71,8 +90,7 @@ public final class LoadDataUtil {
             int len = -1;
 
             while ((len = inputStream.read(buffer)) != -1) {
-                if (WriteQueueFlowController.isEnableFlowControl() &&
-                        c.getWriteQueue().size() > WriteQueueFlowController.getFlowStart()) {
+                if (WriteQueueFlowController.isOverBudget(c)) {
                     c.startFlowControl(c);
                 }
                 while (c.isFlowControlled()) {
@@ -5,6 +5,8 @@
 */
 package com.actiontech.dble.backend.mysql;
 
+import com.actiontech.dble.route.PreparedRoutePlan;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
@@ -28,6 +30,8 @@ public class PreparedStatement {
      * </pre>
      */
     private Map<Long, ByteArrayOutputStream> longDataMap;
+    private PreparedRoutePlan routePlan;
+    private boolean routePlanBuilt = false;
 
     public PreparedStatement(long id, String statement, int columnsNumber, int parametersNumber) {
         this.id = id;
@@ -58,6 +62,19 @@ public class PreparedStatement {
         return parametersType;
     }
 
+    public PreparedRoutePlan getRoutePlan() {
+        return routePlan;
+    }
+
+    public boolean isRoutePlanBuilt() {
+        return routePlanBuilt;
+    }
+
+    public void setRoutePlan(PreparedRoutePlan routePlan) {
+        this.routePlan = routePlan;
+        this.routePlanBuilt = true;
+    }
+
     public ByteArrayOutputStream getLongData(long paramId) {
         return longDataMap.get(paramId);
     }
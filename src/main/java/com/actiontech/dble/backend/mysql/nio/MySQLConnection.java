@@ -34,11 +34,13 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.NetworkChannel;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author mycat
@@ -97,6 +99,10 @@ public class MySQLConnection extends AbstractConnection implements
     private static final CommandPacket COMMIT = new CommandPacket();
     private static final CommandPacket ROLLBACK = new CommandPacket();
 
+    private static final int PASSTHROUGH_INIT = 0;
+    private static final int PASSTHROUGH_HEADER = 1;
+    private static final int PASSTHROUGH_ROWS = 2;
+
     static {
         COMMIT.setPacketId(0);
         COMMIT.setCommand(MySQLPacket.COM_QUERY);
@@ -117,6 +123,14 @@ public class MySQLConnection extends AbstractConnection implements
     private boolean autocommitSynced;
     private boolean isolationSynced;
     private volatile ResponseHandler respHandler;
+    private volatile boolean rowPassthrough = false;
+    // the nanoTime when the request counted by the pool is sent, 0 if there is no such request
+    private final AtomicLong requestTime = new AtomicLong();
+    // the sqls executed and the ones sent with the syn sql, only for show @@backend
+    private volatile long executeCount;
+    private volatile long synExecuteCount;
+    // the result status seen by the reactor, only tracked in row passthrough mode
+    private int passthroughStatus = PASSTHROUGH_INIT;
 
     public MySQLConnection(NetworkChannel channel, boolean fromSlaveDB, boolean autocommitSynced, boolean isolationSynced) {
         super(channel);
@@ -403,9 +417,11 @@ public class MySQLConnection extends AbstractConnection implements
         int txIsolationSyn = (this.txIsolation == clientTxIsolation) ? 0 : 1;
         int autoCommitSyn = (this.autocommit == expectAutocommit) ? 0 : 1;
         int synCount = schemaSyn + charsetSyn + txIsolationSyn + autoCommitSyn + xaSyn + setSqlFlag;
+        executeCount++;
         if (synCount == 0) {
             return null;
         }
+        synExecuteCount++;
 
         StringBuilder sb = new StringBuilder();
         if (schemaSyn == 1) {
@@ -450,9 +466,11 @@ public class MySQLConnection extends AbstractConnection implements
             if (session != null) {
                 session.setBackendRequestTime(this.id);
             }
+            startRequest();
             DbleServer.getInstance().getWriteToBackendQueue().add(Collections.singletonList(sendQueryCmdTask(rrn.getStatement(), clientCharset)));
             return;
         }
+        startRequest();
         // syn schema
         List<WriteToBackendTask> taskList = new ArrayList<>(1);
         // and our query sql to multi command at last
@@ -492,6 +510,7 @@ public class MySQLConnection extends AbstractConnection implements
             if (session != null) {
                 session.setBackendRequestTime(this.id);
             }
+            startRequest();
             sendQueryCmd(rrn.getStatement(), clientCharset);
             return;
         }
@@ -502,11 +521,29 @@ public class MySQLConnection extends AbstractConnection implements
         if (session != null) {
             session.setBackendRequestTime(this.id);
         }
+        startRequest();
         this.sendQueryCmd(synSQL.toString(), clientCharset);
         // waiting syn result...
 
     }
 
+    /**
+     * @return true if the charset, isolation and system variables are the same as the front connection,
+     * the sql of the front connection is sent without the syn sql of them
+     */
+    public boolean isStateMatched(ServerConnection sc) {
+        return charsetName.equals(sc.getCharset()) && txIsolation == sc.getTxIsolation() &&
+                sysVariables.equals(sc.getSysVariables());
+    }
+
+    public long getExecuteCount() {
+        return executeCount;
+    }
+
+    public long getSynExecuteCount() {
+        return synExecuteCount;
+    }
+
     public void setRecycler(BackEndCleaner recycler) {
         this.recycler = recycler;
     }
@@ -712,10 +749,35 @@ public class MySQLConnection extends AbstractConnection implements
     private synchronized void innerTerminate(String reason) {
         if (!isClosed()) {
             super.close(reason);
+            if (requestTime.getAndSet(0) != 0) {
+                pool.cancelRequest();
+            }
             pool.connectionClosed(this);
         }
     }
 
+    /**
+     * count the request in the pool for the read balance by latency
+     */
+    private void startRequest() {
+        if (DbleServer.getInstance().getConfig().getSystem().isUseLatencyReadBalance() && requestTime.get() == 0) {
+            requestTime.set(System.nanoTime());
+            pool.startRequest();
+        }
+    }
+
+    /**
+     * called when a packet is received, the first packet after the request ends it
+     */
+    void endRequest() {
+        if (requestTime.get() != 0) {
+            long start = requestTime.getAndSet(0);
+            if (start != 0) {
+                pool.endRequest(System.nanoTime() - start);
+            }
+        }
+    }
+
     public void commit() {
         COMMIT.write(this);
     }
@@ -788,6 +850,7 @@ public class MySQLConnection extends AbstractConnection implements
         if (handler instanceof MySQLConnectionHandler) {
             ((MySQLConnectionHandler) handler).setResponseHandler(queryHandler);
             respHandler = queryHandler;
+            rowPassthrough = false;
             return true;
         } else if (queryHandler != null) {
             LOGGER.info("set not MySQLConnectionHandler " + queryHandler.getClass().getCanonicalName());
@@ -795,6 +858,86 @@ public class MySQLConnection extends AbstractConnection implements
         return false;
     }
 
+    /**
+     * must be set after the response handler and before the query is sent
+     */
+    public void setRowPassthrough(boolean rowPassthrough) {
+        if (rowPassthrough) {
+            passthroughStatus = PASSTHROUGH_INIT;
+        }
+        this.rowPassthrough = rowPassthrough;
+    }
+
+    @Override
+    public void handle(byte[] data) {
+        if (rowPassthrough && !isSupportCompress()) {
+            trackPassthroughStatus(data);
+        }
+        super.handle(data);
+    }
+
+    /**
+     * the same status machine as MySQLConnectionHandler, but it runs in the reactor before the packets are queued
+     */
+    private void trackPassthroughStatus(byte[] data) {
+        byte type = data[MySQLPacket.PACKET_HEADER_SIZE];
+        switch (passthroughStatus) {
+            case PASSTHROUGH_INIT:
+                if (type != OkPacket.FIELD_COUNT && type != ErrorPacket.FIELD_COUNT && type != RequestFilePacket.FIELD_COUNT) {
+                    passthroughStatus = PASSTHROUGH_HEADER;
+                }
+                break;
+            case PASSTHROUGH_HEADER:
+                if (type == ErrorPacket.FIELD_COUNT) {
+                    passthroughStatus = PASSTHROUGH_INIT;
+                } else if (type == EOFPacket.FIELD_COUNT) {
+                    passthroughStatus = PASSTHROUGH_ROWS;
+                }
+                break;
+            default:
+                if (type == ErrorPacket.FIELD_COUNT || (type == EOFPacket.FIELD_COUNT && data.length <= MySQLPacket.MAX_EOF_SIZE)) {
+                    passthroughStatus = PASSTHROUGH_INIT;
+                }
+                break;
+        }
+    }
+
+    /**
+     * copy the continuous row packets into one pooled buffer instead of one byte[] for each row
+     */
+    @Override
+    protected int passthroughRows(ByteBuffer buffer, int offset, int position) {
+        if (!rowPassthrough || passthroughStatus != PASSTHROUGH_ROWS || isSupportCompress() ||
+                !(handler instanceof MySQLConnectionHandler)) {
+            return offset;
+        }
+        int end = offset;
+        while (end + MySQLPacket.PACKET_HEADER_SIZE < position) {
+            int length = (buffer.get(end) & 0xff) | (buffer.get(end + 1) & 0xff) << 8 | (buffer.get(end + 2) & 0xff) << 16;
+            // the big row is merged by the packets one by one
+            if (length == 0 || length >= MySQLPacket.MAX_PACKET_SIZE || end + MySQLPacket.PACKET_HEADER_SIZE + length > position) {
+                break;
+            }
+            byte type = buffer.get(end + MySQLPacket.PACKET_HEADER_SIZE);
+            if (type == ErrorPacket.FIELD_COUNT ||
+                    (type == EOFPacket.FIELD_COUNT && MySQLPacket.PACKET_HEADER_SIZE + length <= MySQLPacket.MAX_EOF_SIZE)) {
+                break;
+            }
+            end += MySQLPacket.PACKET_HEADER_SIZE + length;
+        }
+        if (end == offset) {
+            return offset;
+        }
+        ByteBuffer rows = allocate(end - offset);
+        int limit = buffer.limit();
+        buffer.limit(end);
+        buffer.position(offset);
+        rows.put(buffer);
+        buffer.limit(limit);
+        ((MySQLConnectionHandler) handler).handleRows(rows);
+        return end;
+    }
+
     public ResponseHandler getRespHandler() {
         return respHandler;
     }
@@ -9,12 +9,14 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.nio.handler.LoadDataResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.RowPassthroughHandler;
 import com.actiontech.dble.net.handler.BackendAsyncHandler;
 import com.actiontech.dble.net.mysql.*;
 import com.actiontech.dble.server.NonBlockingSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -57,10 +59,30 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
 
     @Override
     public void handle(byte[] data) {
+        source.endRequest();
         if (session != null) {
             if (session.isKilled()) return;
             session.setBackendResponseTime(source);
         }
+        dispatch(data);
+    }
+
+    /**
+     * the row packets copied from the read buffer in passthrough mode, the buffer is owned by the handler
+     */
+    public void handleRows(ByteBuffer rows) {
+        source.endRequest();
+        if (session != null) {
+            if (session.isKilled()) {
+                source.recycle(rows);
+                return;
+            }
+            session.setBackendResponseTime(source);
+        }
+        dispatch(rows);
+    }
+
+    private void dispatch(Object data) {
         if (source.isComplexQuery()) {
             offerData(data, DbleServer.getInstance().getComplexQueryExecutor());
         } else if (DbleServer.getInstance().getConfig().getSystem().getUsePerformanceMode() == 1) {
@@ -139,6 +161,25 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
         }
     }
 
+    @Override
+    protected void handleRowData(ByteBuffer rows) {
+        ResponseHandler respHand = responseHandler;
+        if (!source.isClosed() && resultStatus == RESULT_STATUS_FIELD_EOF && respHand instanceof RowPassthroughHandler) {
+            ((RowPassthroughHandler) respHand).rowsResponse(rows, source);
+            return;
+        }
+        // the handler is changed, handle the packets one by one
+        rows.flip();
+        while (rows.hasRemaining()) {
+            int offset = rows.position();
+            int length = (rows.get(offset) & 0xff) | (rows.get(offset + 1) & 0xff) << 8 | (rows.get(offset + 2) & 0xff) << 16;
+            byte[] data = new byte[length + MySQLPacket.PACKET_HEADER_SIZE];
+            rows.get(data);
+            handleData(data);
+        }
+        source.recycle(rows);
+    }
+
     public void setResponseHandler(ResponseHandler responseHandler) {
         // logger.info("set response handler "+responseHandler);
         // if (this.responseHandler != null && responseHandler != null) {
@@ -243,7 +284,12 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
     protected void handleDataError(Exception e) {
         LOGGER.info(this.source.toString() + " handle data error:", e);
         while (dataQueue.size() > 0) {
-            dataQueue.clear();
+            Object data;
+            while ((data = dataQueue.poll()) != null) {
+                if (data instanceof ByteBuffer) {
+                    source.recycle((ByteBuffer) data);
+                }
+            }
             // clear all data from the client
             LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1000));
         }
@@ -19,6 +19,7 @@ import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.actiontech.dble.singleton.CacheService;
+import com.actiontech.dble.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +48,8 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
     protected final ReentrantLock lock = new ReentrantLock();
     private Condition result = lock.newCondition();
     private final NonBlockingSession session;
+    // the data node of every parent key, only used by executeBatch
+    private volatile Map<String, String> keyNodes;
 
     public FetchStoreNodeOfChildTableHandler(String sql, NonBlockingSession session) {
         this.sql = sql;
@@ -63,8 +66,6 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
             }
         }
 
-        int totalCount = dataNodes.size();
-
         LOGGER.debug("find child node with sql:" + sql);
         for (String dn : dataNodes) {
             if (!LOGGER.isDebugEnabled()) {
@@ -74,30 +75,70 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
                     return dataNode;
                 }
             }
-            PhysicalDataNode mysqlDN = DbleServer.getInstance().getConfig().getDataNodes().get(dn);
-            try {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("execute in data_node " + dn);
-                }
-                RouteResultsetNode node = new RouteResultsetNode(dn, ServerParse.SELECT, sql);
-                node.setRunOnSlave(false); // get child node from master
-                BackendConnection conn = session.getTarget(node);
-                if (session.tryExistsCon(conn, node)) {
-                    if (session.closed()) {
-                        session.clearResources(true);
-                        return null;
-                    }
-                    conn.setResponseHandler(this);
-                    conn.setSession(session);
-                    ((MySQLConnection) conn).setComplexQuery(true);
-                    conn.execute(node, session.getSource(), false);
-                } else {
-                    mysqlDN.getConnection(mysqlDN.getDatabase(), session.getSource().isTxStart(), session.getSource().isAutocommit(), node, this, node);
+            if (!query(dn)) {
+                return null;
+            }
+        }
+        waitForResult(dataNodes.size());
+
+        if (!LOGGER.isDebugEnabled()) {
+            //no cached when debug
+            if (dataNode != null && cache != null) {
+                cache.putIfAbsent(key, dataNode);
+            }
+        }
+        return dataNode;
+
+    }
+
+    /**
+     * the sql selects the parent keys by "in", query all the data nodes at once
+     *
+     * @return the data node of every parent key found, null if the session is closed
+     */
+    public Map<String, String> executeBatch(ArrayList<String> dataNodes) throws ConnectionException {
+        keyNodes = new ConcurrentHashMap<>();
+        LOGGER.debug("find child nodes with sql:" + sql);
+        for (String dn : dataNodes) {
+            if (!query(dn)) {
+                return null;
+            }
+        }
+        waitForResult(dataNodes.size());
+        return keyNodes;
+    }
+
+    /**
+     * @return false if the session is closed
+     */
+    private boolean query(String dn) {
+        PhysicalDataNode mysqlDN = DbleServer.getInstance().getConfig().getDataNodes().get(dn);
+        try {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("execute in data_node " + dn);
+            }
+            RouteResultsetNode node = new RouteResultsetNode(dn, ServerParse.SELECT, sql);
+            node.setRunOnSlave(false); // get child node from master
+            BackendConnection conn = session.getTarget(node);
+            if (session.tryExistsCon(conn, node)) {
+                if (session.closed()) {
+                    session.clearResources(true);
+                    return false;
                 }
-            } catch (Exception e) {
-                LOGGER.info("get connection err " + e);
+                conn.setResponseHandler(this);
+                conn.setSession(session);
+                ((MySQLConnection) conn).setComplexQuery(true);
+                conn.execute(node, session.getSource(), false);
+            } else {
+                mysqlDN.getConnection(mysqlDN.getDatabase(), session.getSource().isTxStart(), session.getSource().isAutocommit(), node, this, node);
             }
+        } catch (Exception e) {
+            LOGGER.info("get connection err " + e);
         }
+        return true;
+    }
+
+    private void waitForResult(int totalCount) throws ConnectionException {
         lock.lock();
         try {
             while (receiveMap.size() < totalCount) {
@@ -121,15 +162,6 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
             fatalErrorMsg.append("}");
             throw new ConnectionException(ErrorCode.ER_UNKNOWN_ERROR, fatalErrorMsg.toString());
         }
-
-        if (!LOGGER.isDebugEnabled()) {
-            //no cached when debug
-            if (dataNode != null && cache != null) {
-                cache.putIfAbsent(key, dataNode);
-            }
-        }
-        return dataNode;
-
     }
 
     /**
@@ -203,6 +235,16 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("received rowResponse response from  " + conn);
         }
+        if (keyNodes != null) {
+            RowDataPacket rowDataPkg = new RowDataPacket(1);
+            rowDataPkg.read(row);
+            String key = StringUtil.decode(rowDataPkg.fieldValues.get(0), session.getSource().getCharset().getResults());
+            String node = ((RouteResultsetNode) conn.getAttachment()).getName();
+            if (key != null && keyNodes.putIfAbsent(key, node) != null) {
+                LOGGER.info("find multi data nodes for child table store, parent key is " + key + ", sql is:  " + sql);
+            }
+            return false;
+        }
         if (hadResult.compareAndSet(false, true)) {
             lock.lock();
             try {
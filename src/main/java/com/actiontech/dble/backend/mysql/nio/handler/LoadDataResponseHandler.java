@@ -12,4 +12,9 @@ import com.actiontech.dble.backend.BackendConnection;
  */
 public interface LoadDataResponseHandler {
     void requestDataResponse(byte[] row, BackendConnection conn);
+
+    /**
+     * the file streamed to the backend is finished by the client, the response follows the last packet of the client
+     */
+    void requestDataEnd(byte lastPacketId);
 }
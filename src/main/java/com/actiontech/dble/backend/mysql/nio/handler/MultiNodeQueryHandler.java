@@ -15,7 +15,6 @@ import com.actiontech.dble.backend.mysql.nio.handler.transaction.AutoTxOperation
 import com.actiontech.dble.backend.mysql.nio.handler.transaction.TransactionHandler;
 import com.actiontech.dble.cache.LayerCachePool;
 import com.actiontech.dble.config.ErrorCode;
-import com.actiontech.dble.config.FlowCotrollerConfig;
 import com.actiontech.dble.log.transaction.TxnLogHelper;
 import com.actiontech.dble.net.mysql.*;
 import com.actiontech.dble.route.RouteResultset;
@@ -34,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -44,6 +44,7 @@ import java.util.concurrent.locks.LockSupport;
  */
 public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataResponseHandler, ExecutableHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(MultiNodeQueryHandler.class);
+    private static final String LIMIT_CANCEL_REASON = "the rows after the limit are not needed";
     protected final RouteResultset rrs;
     protected final boolean sessionAutocommit;
     private long affectedRows;
@@ -64,6 +65,9 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
     protected Set<RouteResultsetNode> connRrns = new ConcurrentSkipListSet<>();
     private Map<String, Integer> dataNodePauseInfo; // only for debug
     private AtomicBoolean recycledBuffer = new AtomicBoolean(false);
+    // the connections closed after the limit is satisfied, the responses of them are ignored
+    private volatile Set<BackendConnection> limitCancelledConns;
+    private boolean limitReached = false;
 
     public MultiNodeQueryHandler(RouteResultset rrs, NonBlockingSession session) {
         super(session);
@@ -130,7 +134,7 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
                 // create new connection
                 node.setRunOnSlave(rrs.getRunOnSlave());
                 PhysicalDataNode dn = DbleServer.getInstance().getConfig().getDataNodes().get(node.getName());
-                dn.getConnection(dn.getDatabase(), session.getSource().isTxStart(), sessionAutocommit, node, this, node);
+                dn.getConnection(dn.getDatabase(), session.getSource().isTxStart(), sessionAutocommit, session.getSource(), node, this, node);
             }
         }
     }
@@ -147,6 +151,9 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
 
     @Override
     public void clearAfterFailExecute() {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, null);
+        }
         if (!session.getSource().isAutocommit() || session.getSource().isTxStart()) {
             session.getSource().setTxInterrupt("ROLLBACK");
         }
@@ -166,6 +173,9 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
 
     @Override
     public void connectionClose(BackendConnection conn, String reason) {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, conn);
+        }
         pauseTime(conn);
         if (checkClosedConn(conn)) {
             return;
@@ -194,6 +204,9 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
 
     @Override
     public void connectionError(Throwable e, BackendConnection conn) {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, conn);
+        }
         LOGGER.warn("Backend connect Error, Connection info:" + conn, e);
         ErrorPacket errPacket = new ErrorPacket();
         byte lastPacketId = packetId;
@@ -222,7 +235,13 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
 
     @Override
     public void errorResponse(byte[] data, BackendConnection conn) {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, conn);
+        }
         pauseTime(conn);
+        if (isLimitCancelled(conn)) {
+            return;
+        }
         ErrorPacket errPacket = new ErrorPacket();
         errPacket.read(data);
         byte lastPacketId = packetId;
@@ -352,7 +371,7 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
         }
 
         this.netOutBytes += eof.length;
-        if (errorResponse.get()) {
+        if (errorResponse.get() || isLimitCancelled(conn)) {
             return;
         }
         RouteResultsetNode rNode = (RouteResultsetNode) conn.getAttachment();
@@ -416,6 +435,7 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
             //conn.close(error);
             return true;
         }
+        List<BackendConnection> cancelledConns = null;
         lock.lock();
         try {
             if (session.closed()) {
@@ -426,8 +446,10 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
             String dataNode = rNode.getName();
 
             if (rrs.getLimitSize() >= 0) {
-                if (selectRows <= rrs.getLimitStart() ||
-                        (selectRows > (rrs.getLimitStart() < 0 ? 0 : rrs.getLimitStart()) + rrs.getLimitSize())) {
+                if (selectRows > (rrs.getLimitStart() < 0 ? 0 : rrs.getLimitStart()) + rrs.getLimitSize()) {
+                    cancelledConns = cancelAfterLimit(conn);
+                    return false;
+                } else if (selectRows <= rrs.getLimitStart()) {
                     return false;
                 }
             }
@@ -449,9 +471,7 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
                 }
             }
             if (!errorResponse.get()) {
-                FlowCotrollerConfig fconfig = WriteQueueFlowController.getFlowCotrollerConfig();
-                if (fconfig.isEnableFlowControl() &&
-                        session.getSource().getWriteQueue().size() > fconfig.getStart()) {
+                if (WriteQueueFlowController.isOverBudget(session.getSource())) {
                     session.getSource().startFlowControl(conn);
                 }
                 if (session.isPrepared()) {
@@ -480,10 +500,83 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
             handleDataProcessException(e);
         } finally {
             lock.unlock();
+            if (cancelledConns != null) {
+                for (BackendConnection cancelledConn : cancelledConns) {
+                    cancelledConn.close(LIMIT_CANCEL_REASON);
+                }
+            }
         }
         return false;
     }
 
+    /**
+     * the rows after the limit are discarded, take the other connections which are still sending rows
+     * instead of waiting for their eof. the current connection is near its eof because the limit is pushed down.
+     *
+     * @return the connections to be closed out of the lock
+     */
+    private List<BackendConnection> cancelAfterLimit(BackendConnection current) {
+        if (limitReached) {
+            return null;
+        }
+        limitReached = true;
+        if (!isLimitCancelable()) {
+            return null;
+        }
+        List<BackendConnection> cancelledConns = new ArrayList<>();
+        RouteResultsetNode currentNode = (RouteResultsetNode) current.getAttachment();
+        for (RouteResultsetNode node : new ArrayList<>(unResponseRrns)) {
+            BackendConnection conn = session.getTarget(node);
+            if (conn != null && !node.equals(currentNode) && markLimitCancelled(conn)) {
+                unResponseRrns.remove(node);
+                cancelledConns.add(conn);
+            }
+        }
+        return cancelledConns;
+    }
+
+    /**
+     * the connection can be closed when it is not in a transaction and it may still send many rows
+     */
+    protected boolean isLimitCancelable() {
+        int cancelRows = DbleServer.getInstance().getConfig().getSystem().getLimitCancelRows();
+        ServerConnection source = session.getSource();
+        return cancelRows >= 0 && sessionAutocommit && !source.isTxStart() && !source.isLocked() &&
+                !rrs.isCallStatement() && rrs.getSqlType() == ServerParse.SELECT &&
+                (long) Math.max(rrs.getLimitStart(), 0) + rrs.getLimitSize() > cancelRows;
+    }
+
+    /**
+     * close the connection which is sending the rows not needed, it is never released to the pool
+     */
+    protected void cancelConnection(BackendConnection conn) {
+        if (markLimitCancelled(conn)) {
+            conn.close(LIMIT_CANCEL_REASON);
+        }
+    }
+
+    private boolean markLimitCancelled(BackendConnection conn) {
+        lock.lock();
+        try {
+            if (checkClosedConn(conn)) {
+                return false;
+            }
+            if (limitCancelledConns == null) {
+                limitCancelledConns = ConcurrentHashMap.newKeySet();
+            }
+            limitCancelledConns.add(conn);
+            session.getTargetMap().remove((RouteResultsetNode) conn.getAttachment());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected boolean isLimitCancelled(BackendConnection conn) {
+        Set<BackendConnection> cancelledConns = limitCancelledConns;
+        return cancelledConns != null && cancelledConns.contains(conn);
+    }
+
     @Override
     public void clearResources() {
         if (closedConnSet != null) {
@@ -497,6 +590,16 @@ public class MultiNodeQueryHandler extends MultiNodeHandler implements LoadDataR
         LoadDataUtil.requestFileDataResponse(data, conn);
     }
 
+    @Override
+    public void requestDataEnd(byte lastPacketId) {
+        lock.lock();
+        try {
+            packetId = lastPacketId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
 
     private void executeError(BackendConnection conn) {
         if (!isFail()) {
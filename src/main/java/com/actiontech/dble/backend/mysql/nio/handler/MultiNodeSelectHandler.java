@@ -115,6 +115,30 @@ public class MultiNodeSelectHandler extends MultiNodeQueryHandler {
         return false;
     }
 
+    /**
+     * wait for the eof of the connections, or close the connections which are still sending rows if they can be closed
+     */
+    private void discardAfterLimit(ArrayMinHeap<HeapItem> heap) throws InterruptedException {
+        boolean cancelable = isLimitCancelable();
+        while (!heap.isEmpty()) {
+            HeapItem itemToDiscard = heap.poll();
+            if (!itemToDiscard.isNullItem()) {
+                BlockingQueue<HeapItem> discardQueue = queues.get(itemToDiscard.getIndex());
+                if (cancelable) {
+                    if (!HandlerTool.discardQueuedRows(discardQueue)) {
+                        cancelConnection(itemToDiscard.getIndex());
+                    }
+                    continue;
+                }
+                while (true) {
+                    if (discardQueue.take().isNullItem() || isFail()) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
     private void mergeFieldEof(List<byte[]> fields, BackendConnection conn) throws IOException {
         fieldCount = fields.size();
         List<FieldPacket> fieldPackets = new ArrayList<>();
@@ -181,17 +205,7 @@ public class MultiNodeSelectHandler extends MultiNodeQueryHandler {
                             continue;
                         } else if (selectRows > (rrs.getLimitStart() < 0 ? 0 : rrs.getLimitStart()) + rrs.getLimitSize()) {
                             noNeedRows = true;
-                            while (!heap.isEmpty()) {
-                                HeapItem itemToDiscard = heap.poll();
-                                if (!itemToDiscard.isNullItem()) {
-                                    BlockingQueue<HeapItem> discardQueue = queues.get(itemToDiscard.getIndex());
-                                    while (true) {
-                                        if (discardQueue.take().isNullItem() || isFail()) {
-                                            break;
-                                        }
-                                    }
-                                }
-                            }
+                            discardAfterLimit(heap);
                             continue;
                         }
                     }
@@ -202,7 +216,10 @@ public class MultiNodeSelectHandler extends MultiNodeQueryHandler {
             while (iterator.hasNext()) {
                 Map.Entry<BackendConnection, BlockingQueue<HeapItem>> entry = iterator.next();
                 entry.getValue().clear();
-                session.releaseConnectionIfSafe(entry.getKey(), false);
+                // the connection closed after the limit is never released to the pool
+                if (!isLimitCancelled(entry.getKey())) {
+                    session.releaseConnectionIfSafe(entry.getKey(), false);
+                }
                 iterator.remove();
             }
             doSqlStat();
@@ -0,0 +1,21 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.BackendConnection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * the handler which forwards the row packets to the client without parsing them
+ */
+public interface RowPassthroughHandler {
+
+    /**
+     * @param rows the pooled buffer filled with complete row packets, it must be written or recycled by the handler
+     */
+    void rowsResponse(ByteBuffer rows, BackendConnection conn);
+}
@@ -12,7 +12,6 @@ import com.actiontech.dble.backend.mysql.LoadDataUtil;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.cache.LayerCachePool;
 import com.actiontech.dble.config.ErrorCode;
-import com.actiontech.dble.config.FlowCotrollerConfig;
 import com.actiontech.dble.config.ServerConfig;
 import com.actiontech.dble.log.transaction.TxnLogHelper;
 import com.actiontech.dble.net.mysql.*;
@@ -20,6 +19,7 @@ import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
 import com.actiontech.dble.singleton.CacheService;
 import com.actiontech.dble.singleton.WriteQueueFlowController;
 import com.actiontech.dble.statistic.stat.QueryResult;
@@ -37,7 +37,7 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * @author mycat
  */
-public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandler, ExecutableHandler {
+public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandler, ExecutableHandler, RowPassthroughHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SingleNodeHandler.class);
     protected final ReentrantLock lock = new ReentrantLock();
@@ -106,7 +106,7 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         node.setRunOnSlave(rrs.getRunOnSlave());
         ServerConfig conf = DbleServer.getInstance().getConfig();
         PhysicalDataNode dn = conf.getDataNodes().get(node.getName());
-        dn.getConnection(dn.getDatabase(), session.getSource().isTxStart(), session.getSource().isAutocommit(), node, this, node);
+        dn.getConnection(dn.getDatabase(), session.getSource().isTxStart(), session.getSource().isAutocommit(), session.getSource(), node, this, node);
     }
 
     protected void execute(BackendConnection conn) {
@@ -117,6 +117,9 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         }
         conn.setResponseHandler(this);
         conn.setSession(session);
+        if (conn instanceof MySQLConnection) {
+            ((MySQLConnection) conn).setRowPassthrough(isRowPassthrough());
+        }
         boolean isAutocommit = session.getSource().isAutocommit() && !session.getSource().isTxStart();
         if (!isAutocommit && node.isModifySQL()) {
             TxnLogHelper.putTxnLog(session.getSource(), node.getStatement());
@@ -124,8 +127,20 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         conn.execute(node, session.getSource(), isAutocommit);
     }
 
+    /**
+     * the rows of a plain select are sent to the client as they are
+     */
+    private boolean isRowPassthrough() {
+        return DbleServer.getInstance().getConfig().getSystem().getUseRowPassthrough() == 1 &&
+                rrs.getSqlType() == ServerParse.SELECT && !rrs.hasCacheKeyToCache() && !rrs.isCallStatement() &&
+                !session.isPrepared();
+    }
+
     @Override
     public void clearAfterFailExecute() {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, null);
+        }
         recycleBuffer();
     }
 
@@ -167,6 +182,9 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
     }
 
     protected void backConnectionErr(ErrorPacket errPkg, BackendConnection conn, boolean syncFinished) {
+        if (rrs.isLoadData()) {
+            LoadDataUtil.abortFileData(rrs, conn);
+        }
         ServerConnection source = session.getSource();
         String errUser = source.getUser();
         String errHost = source.getHost();
@@ -414,9 +432,7 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         lock.lock();
         try {
             if (!writeToClient.get()) {
-                FlowCotrollerConfig fconfig = WriteQueueFlowController.getFlowCotrollerConfig();
-                if (fconfig.isEnableFlowControl() &&
-                        session.getSource().getWriteQueue().size() > fconfig.getStart()) {
+                if (WriteQueueFlowController.isOverBudget(session.getSource())) {
                     session.getSource().startFlowControl(conn);
                 }
                 if (session.isPrepared()) {
@@ -446,6 +462,40 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         return false;
     }
 
+    @Override
+    public void rowsResponse(ByteBuffer rows, BackendConnection conn) {
+        int end = rows.position();
+        int offset = 0;
+        // the packet id is rewritten in place, the rows are not parsed
+        while (offset < end) {
+            int length = (rows.get(offset) & 0xff) | (rows.get(offset + 1) & 0xff) << 8 | (rows.get(offset + 2) & 0xff) << 16;
+            rows.put(offset + 3, ++packetId);
+            offset += MySQLPacket.PACKET_HEADER_SIZE + length;
+            this.selectRows++;
+        }
+        this.netOutBytes += end;
+        this.resultSize += end;
+
+        ServerConnection source = session.getSource();
+        lock.lock();
+        try {
+            if (writeToClient.get()) {
+                source.recycle(rows);
+                return;
+            }
+            if (WriteQueueFlowController.isOverBudget(source)) {
+                source.startFlowControl(conn);
+            }
+            if (buffer.position() > 0) {
+                source.writePart(buffer);
+                buffer = source.allocate();
+            }
+            source.writePart(rows);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void connectionClose(BackendConnection conn, String reason) {
         if (connClosed) {
@@ -467,6 +517,11 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         LoadDataUtil.requestFileDataResponse(data, conn);
     }
 
+    @Override
+    public void requestDataEnd(byte lastPacketId) {
+        packetId = lastPacketId;
+    }
+
     @Override
     public String toString() {
         return "SingleNodeHandler [node=" + node + ", packetId=" + packetId + "]";
@@ -317,6 +317,10 @@ public abstract class BaseHandlerBuilder {
      *
      */
     private boolean isJoinNodeOrderMatch(JoinNode jn, List<Order> orderBys) {
+        // hash join's output is not ordered
+        if (jn.getStrategy() == JoinNode.Strategy.HASH) {
+            return false;
+        }
         // onCondition column in orderBys will be saved to onOrders,
         // eg: if jn.onCond = (t1.id=t2.id),
         // orderBys is t1.id,t2.id,t1.name, and onOrders = {t1.id,t2.id};
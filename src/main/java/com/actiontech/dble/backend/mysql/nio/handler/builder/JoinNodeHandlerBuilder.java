@@ -9,21 +9,27 @@ import com.actiontech.dble.backend.mysql.nio.handler.builder.sqlvisitor.PushDown
 import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.OrderByHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.TempTableHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.HashJoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.JoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.NotInHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.CallBackHandler;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.TableConfig;
 import com.actiontech.dble.plan.common.exception.MySQLOutPutException;
+import com.actiontech.dble.plan.common.exception.TempTableException;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.common.item.Item.ItemType;
+import com.actiontech.dble.plan.common.item.ItemField;
 import com.actiontech.dble.plan.common.item.ItemInt;
 import com.actiontech.dble.plan.common.item.ItemString;
 import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncIn;
 import com.actiontech.dble.plan.node.JoinNode;
 import com.actiontech.dble.plan.node.PlanNode;
+import com.actiontech.dble.plan.node.TableNode;
 import com.actiontech.dble.plan.util.PlanUtil;
 import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
 import com.actiontech.dble.server.NonBlockingSession;
 
 import java.util.*;
@@ -108,6 +114,10 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             final Item keyToPass = keyToPasses.get(columnIndex);
             DMLResponseHandler endHandler = buildJoinChild(tnSmall, isLeftSmall);
             final TempTableHandler tempHandler = new TempTableHandler(getSequenceId(), session, keySource);
+            final TableConfig partitionTc = getPartitionTableConfig(tnBig, keyToPass);
+            if (partitionTc != null) {
+                tempHandler.setPartitionCount(partitionTc.getDataNodes().size());
+            }
             endHandler.setNextHandler(tempHandler);
             tempHandler.setLeft(isLeftSmall);
             pres.add(tempHandler);
@@ -116,7 +126,7 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
                 @Override
                 public void call() throws Exception {
                     Set<String> valueSet = tempHandler.getValueSet();
-                    buildNestFilters(tnBig, keyToPass, valueSet, tempHandler.getMaxPartSize());
+                    buildNestFilters(tnBig, keyToPass, valueSet, tempHandler, partitionTc);
                     DMLResponseHandler bigLh = buildJoinChild(tnBig, !isLeftSmall);
                     synchronized (tempHandler) {
                         bigLh.setNextHandlerOnly(tempHandler.getNextHandler());
@@ -132,7 +142,7 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             }
             tempHandler.setTempDoneCallBack(tempDone);
 
-        } else if (node.getStrategy() == JoinNode.Strategy.SORTMERGE) {
+        } else if (node.getStrategy() == JoinNode.Strategy.SORTMERGE || node.getStrategy() == JoinNode.Strategy.HASH) {
             DMLResponseHandler lh = buildJoinChild(left, true);
             pres.add(lh);
             DMLResponseHandler rh = buildJoinChild(right, false);
@@ -150,15 +160,17 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             this.getSubQueryBuilderList().addAll(builder.getSubQueryBuilderList());
         }
         DMLResponseHandler endHandler = builder.getEndHandler();
+        // hash join needn't ordered input
+        boolean needOrder = node.getStrategy() != JoinNode.Strategy.HASH;
         if (isLeft) {
-            if (!node.isLeftOrderMatch()) {
+            if (needOrder && !node.isLeftOrderMatch()) {
                 OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getLeftJoinOnOrders());
                 endHandler.setNextHandler(oh);
                 endHandler = oh;
             }
             endHandler.setLeft(true);
         } else {
-            if (!node.isRightOrderMatch()) {
+            if (needOrder && !node.isRightOrderMatch()) {
                 OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getRightJoinOnOrders());
                 endHandler.setNextHandler(oh);
                 endHandler = oh;
@@ -173,6 +185,10 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
             NotInHandler nh = new NotInHandler(getSequenceId(), session, node.getLeftJoinOnOrders(),
                     node.getRightJoinOnOrders());
             addHandler(nh);
+        } else if (node.getStrategy() == JoinNode.Strategy.HASH) {
+            HashJoinHandler hh = new HashJoinHandler(getSequenceId(), session, node.isLeftOuterJoin(),
+                    node.getLeftJoinOnOrders(), node.getRightJoinOnOrders(), node.getOtherJoinOnFilter());
+            addHandler(hh);
         } else {
             JoinHandler jh = new JoinHandler(getSequenceId(), session, node.isLeftOuterJoin(),
                     node.getLeftJoinOnOrders(), node.getRightJoinOnOrders(), node.getOtherJoinOnFilter());
@@ -192,41 +208,73 @@ class JoinNodeHandlerBuilder extends BaseHandlerBuilder {
 
     /**
      * generate filter for big table according to tmp(small) table's result
-     *
+     * if the key is the partition column of the big table, the values are grouped by the data nodes,
+     * so every data node only receives its own values
      */
-    private void buildNestFilters(PlanNode tnBig, Item keyToPass, Set<String> valueSet, int maxPartSize) {
+    private void buildNestFilters(PlanNode tnBig, Item keyToPass, Set<String> valueSet, TempTableHandler tempHandler,
+                                  TableConfig partitionTc) {
         List<Item> strategyFilters = tnBig.getNestLoopFilters();
-        List<Item> partList = null;
         Item keyInBig = PlanUtil.pushDownItem(node, keyToPass);
-        int partSize = 0;
-        for (String value : valueSet) {
-            if (partList == null)
-                partList = new ArrayList<>();
-            if (value != null) {
-                // is null will never join
-                partList.add(new ItemString(value));
-                if (++partSize >= maxPartSize) {
-                    List<Item> argList = new ArrayList<>();
-                    argList.add(keyInBig);
-                    argList.addAll(partList);
-                    ItemFuncIn inFilter = new ItemFuncIn(argList, false);
-                    strategyFilters.add(inFilter);
-                    partList = null;
-                    partSize = 0;
+        int maxPartSize = tempHandler.getMaxPartSize();
+        for (List<String> values : partitionNestValues(valueSet, partitionTc)) {
+            if (partitionTc != null && values.size() > tempHandler.getMaxPartitionRows()) {
+                throw new TempTableException("temptable too much rows for one data node of table " + partitionTc.getName() +
+                        ",[rows size is " + values.size() + "] !");
+            }
+            for (int start = 0; start < values.size(); start += maxPartSize) {
+                List<Item> argList = new ArrayList<>();
+                argList.add(keyInBig);
+                for (String value : values.subList(start, Math.min(start + maxPartSize, values.size()))) {
+                    argList.add(new ItemString(value));
                 }
+                ItemFuncIn inFilter = new ItemFuncIn(argList, false);
+                strategyFilters.add(inFilter);
             }
         }
-        if (partSize > 0) {
-            List<Item> argList = new ArrayList<>();
-            argList.add(keyInBig);
-            argList.addAll(partList);
-            ItemFuncIn inFilter = new ItemFuncIn(argList, false);
-            strategyFilters.add(inFilter);
-        }
         // if no data
         if (strategyFilters.isEmpty()) {
             strategyFilters.add(new ItemInt(0));
         }
     }
 
+    private Collection<List<String>> partitionNestValues(Set<String> valueSet, TableConfig partitionTc) {
+        // the values which can't be calculated are sent together, the route reports the error
+        Map<Integer, List<String>> nodeValues = new LinkedHashMap<>();
+        AbstractPartitionAlgorithm algorithm = partitionTc == null ? null : partitionTc.getRule().getRuleAlgorithm();
+        for (String value : valueSet) {
+            // is null will never join
+            if (value == null)
+                continue;
+            Integer nodeIndex = null;
+            if (algorithm != null) {
+                try {
+                    nodeIndex = algorithm.calculate(value);
+                } catch (Exception e) {
+                    nodeIndex = null;
+                }
+            }
+            nodeValues.computeIfAbsent(nodeIndex, k -> new ArrayList<>()).add(value);
+        }
+        return nodeValues.values();
+    }
+
+    /**
+     * @return the config of the big table if the key to pass is its partition column
+     */
+    private TableConfig getPartitionTableConfig(PlanNode tnBig, Item keyToPass) {
+        if (!(tnBig instanceof TableNode)) {
+            return null;
+        }
+        Item keyInBig = PlanUtil.pushDownItem(node, keyToPass);
+        if (!(keyInBig instanceof ItemField)) {
+            return null;
+        }
+        TableConfig tc = getTableConfig(((TableNode) tnBig).getSchema(), ((TableNode) tnBig).getTableName());
+        if (tc == null || tc.getTableType() != TableConfig.TableTypeEnum.TYPE_SHARDING_TABLE || tc.getRule() == null ||
+                !keyInBig.getItemName().equalsIgnoreCase(tc.getPartitionColumn())) {
+            return null;
+        }
+        return tc;
+    }
+
 }
@@ -9,6 +9,7 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.server.NonBlockingSession;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * OwnThreadDMLHandler
@@ -21,6 +22,8 @@ public abstract class OwnThreadDMLHandler extends BaseDMLHandler {
     private AtomicBoolean ownJobFlag;
     private Object ownThreadLock = new Object();
     private boolean preparedToRecycle;
+    /* the count of the resume signals of the own task, 0 if the task is not scheduled */
+    private final AtomicInteger taskSignals = new AtomicInteger(0);
 
     public OwnThreadDMLHandler(long id, NonBlockingSession session) {
         super(id, session);
@@ -74,7 +77,63 @@ public abstract class OwnThreadDMLHandler extends BaseDMLHandler {
         });
     }
 
-    protected abstract void ownThreadJob(Object... objects);
+    /**
+     * start the own task instead of the own thread, the task runs ownTaskJob on the complexQueryExecutor
+     * every time it is resumed, so no thread is blocked for the input of the handler.
+     * the executor is not bounded, since the task may still block on the full queue of the next handler,
+     * eg: join and group by, while the rows which unblock it come from another task
+     */
+    protected final void startOwnTask() {
+        if (!terminate.get() && ownJobFlag.compareAndSet(false, true)) {
+            resumeOwnTask();
+        }
+    }
+
+    /**
+     * resume the own task when the input of the handler is available or the handler is terminated,
+     * the signals received while the task is running make it run again
+     */
+    protected final void resumeOwnTask() {
+        if (!ownJobFlag.get()) {
+            return;
+        }
+        if (taskSignals.getAndIncrement() == 0) {
+            DbleServer.getInstance().getComplexQueryExecutor().execute(this::runOwnTask);
+        }
+    }
+
+    private void runOwnTask() {
+        int signals = taskSignals.get();
+        boolean finished = true;
+        try {
+            finished = terminate.get() || ownTaskJob();
+        } finally {
+            if (finished) {
+                // the signals are never cleared, so the finished task is not scheduled again
+                synchronized (ownThreadLock) {
+                    recycleConn();
+                    preparedToRecycle = true;
+                }
+                recycleResources();
+            } else if (taskSignals.addAndGet(-signals) != 0) {
+                // yield the thread to the other tasks
+                DbleServer.getInstance().getComplexQueryExecutor().execute(this::runOwnTask);
+            }
+        }
+    }
+
+    protected void ownThreadJob(Object... objects) {
+    }
+
+    /**
+     * the job of the own task, it must return instead of waiting for the input,
+     * and should call resumeOwnTask before returning if it stops to let the other tasks run
+     *
+     * @return true if the job is finished
+     */
+    protected boolean ownTaskJob() {
+        return true;
+    }
 
     /* ending the running thread */
     protected abstract void terminateThread() throws Exception;
@@ -56,7 +56,7 @@ public class BaseSelectHandler extends BaseDMLHandler {
         } else {
             PhysicalDataNode dn = DbleServer.getInstance().getConfig().getDataNodes().get(rrss.getName());
             //autocommit is session.getWriteSource().isAutocommit() && !session.getWriteSource().isTxStart()
-            final BackendConnection newConn = dn.getConnection(dn.getDatabase(), autocommit, rrss.getRunOnSlave(), rrss);
+            final BackendConnection newConn = dn.getConnection(dn.getDatabase(), autocommit, session.getSource(), rrss.getRunOnSlave(), rrss);
             session.bindConnection(rrss, newConn);
             newConn.setResponseHandler(this);
             ((MySQLConnection) newConn).setRowDataFlowing(true);
@@ -86,6 +86,10 @@ public class BaseSelectHandler extends BaseDMLHandler {
         return rrss;
     }
 
+    public boolean isAutocommit() {
+        return autocommit;
+    }
+
     @Override
     public void okResponse(byte[] ok, BackendConnection conn) {
         conn.syncAndExecute();
@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowPredicate;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
@@ -35,6 +36,7 @@ public class HavingHandler extends BaseDMLHandler {
 
     private Item having = null;
     private Item havingItem = null;
+    private RowPredicate havingPredicate = null;
     private List<Field> sourceFields;
     private ReentrantLock lock = new ReentrantLock();
 
@@ -54,6 +56,7 @@ public class HavingHandler extends BaseDMLHandler {
          * having will not be pushed down because of aggregate function
          */
         this.havingItem = HandlerTool.createItem(this.having, this.sourceFields, 0, false, this.type());
+        this.havingPredicate = RowPredicate.compile(this.havingItem, this.sourceFields);
         nextHandler.fieldEofResponse(null, null, this.fieldPackets, null, this.isLeft, conn);
     }
 
@@ -62,9 +65,15 @@ public class HavingHandler extends BaseDMLHandler {
             return true;
         lock.lock();
         try {
-            HandlerTool.initFields(this.sourceFields, rowPacket.fieldValues);
+            boolean isMatched;
+            if (havingPredicate != null) {
+                isMatched = havingPredicate.isTrue(rowPacket.fieldValues);
+            } else {
+                HandlerTool.initFields(this.sourceFields, rowPacket.fieldValues);
+                isMatched = havingItem.valBool();
+            }
             /* filter by having statement */
-            if (havingItem.valBool()) {
+            if (isMatched) {
                 nextHandler.rowResponse(null, rowPacket, this.isLeft, conn);
             } else {
                 // nothing
@@ -9,6 +9,7 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.util.ArrayMinHeap;
+import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HeapItem;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.net.mysql.FieldPacket;
@@ -27,18 +28,30 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * mergeHandler will merge data,if contains aggregate function,use group by handler
+ * <p>
+ * the merge runs as the own task, which is resumed by the arriving rows and returns when the next row of
+ * the top connection has not arrived. the connection whose queue is full stops reading until the queue is drained.
  *
  * @author ActionTech
  */
 public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(MultiNodeMergeAndOrderHandler.class);
+    // the max rows merged in one run of the task
+    private static final int TASK_BATCH_ROWS = 1024;
 
     private final int queueSize;
-    // map;conn->blocking queue.if receive row packet, add to the queue,if receive rowEof packet, add NullHeapItem into queue;
+    // map;conn->queue.if receive row packet, add to the queue,if receive rowEof packet, add NullHeapItem into queue;
     private Map<MySQLConnection, BlockingQueue<HeapItem>> queues;
     private List<Order> orderBys;
     private RowDataComparator rowComparator;
     private volatile boolean noNeedRows = false;
+    // the fields below are only used by the own task
+    private final ArrayMinHeap<HeapItem> heap;
+    private boolean heapInited = false;
+    // the connections whose rows are discarded until the eof after the limit is satisfied
+    private final List<MySQLConnection> discardingConns = new ArrayList<>();
+    // the connections which stop reading because their queues are full
+    private final Set<MySQLConnection> pausedConns = new HashSet<>();
 
     public MultiNodeMergeAndOrderHandler(long id, RouteResultsetNode[] route, boolean autocommit, NonBlockingSession session,
                                          List<Order> orderBys) {
@@ -47,7 +60,21 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
         this.queueSize = DbleServer.getInstance().getConfig().getSystem().getMergeQueueSize();
         this.queues = new ConcurrentHashMap<>();
         this.merges.add(this);
-
+        this.heap = new ArrayMinHeap<>(new Comparator<HeapItem>() {
+            @Override
+            public int compare(HeapItem o1, HeapItem o2) {
+                RowDataPacket row1 = o1.getRowPacket();
+                RowDataPacket row2 = o2.getRowPacket();
+                if (row1 == null || row2 == null) {
+                    if (row1 == row2)
+                        return 0;
+                    if (row1 == null)
+                        return -1;
+                    return 1;
+                }
+                return rowComparator.compare(row1, row2);
+            }
+        });
     }
 
     @Override
@@ -60,7 +87,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
                 MySQLConnection exeConn = exeHandler.initConnection();
                 if (exeConn != null) {
                     exeConn.setComplexQuery(true);
-                    queues.put(exeConn, new LinkedBlockingQueue<>(queueSize));
+                    queues.put(exeConn, new LinkedBlockingQueue<>());
                     exeHandler.execute(exeConn);
                 }
             }
@@ -87,7 +114,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
             }
             if (++reachedConCount == route.length) {
                 session.allBackendConnReceive();
-                startOwnThread();
+                startOwnTask();
             }
         } finally {
             lock.unlock();
@@ -104,11 +131,11 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
         if (queue == null)
             return true;
         HeapItem item = new HeapItem(row, rowPacket, mySQLConn);
-        try {
-            queue.put(item);
-        } catch (InterruptedException e) {
-            //ignore error
+        queue.offer(item);
+        if (queue.size() >= queueSize) {
+            pauseRead(mySQLConn, queue);
         }
+        resumeOwnTask();
         return false;
     }
 
@@ -124,87 +151,182 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
         BlockingQueue<HeapItem> queue = queues.get(mySQLConn);
         if (queue == null)
             return;
-        try {
-            queue.put(HeapItem.nullItem());
-        } catch (InterruptedException e) {
-            //ignore error
-        }
+        queue.offer(HeapItem.nullItem());
+        resumeOwnTask();
     }
 
     @Override
-    protected void ownThreadJob(Object... objects) {
+    protected boolean ownTaskJob() {
         try {
-            ArrayMinHeap<HeapItem> heap = new ArrayMinHeap<>(new Comparator<HeapItem>() {
-                @Override
-                public int compare(HeapItem o1, HeapItem o2) {
-                    RowDataPacket row1 = o1.getRowPacket();
-                    RowDataPacket row2 = o2.getRowPacket();
-                    if (row1 == null || row2 == null) {
-                        if (row1 == row2)
-                            return 0;
-                        if (row1 == null)
-                            return -1;
-                        return 1;
-                    }
-                    return rowComparator.compare(row1, row2);
-                }
-            });
-            // init heap
-            for (Entry<MySQLConnection, BlockingQueue<HeapItem>> entry : queues.entrySet()) {
-                HeapItem firstItem = entry.getValue().take();
-                heap.add(firstItem);
-            }
-            while (!heap.isEmpty()) {
-                if (terminate.get())
-                    return;
-                HeapItem top = heap.peak();
-                if (top.isNullItem()) {
-                    heap.poll();
-                } else {
-                    BlockingQueue<HeapItem> topItemQueue = queues.get(top.getIndex());
-                    HeapItem item = topItemQueue.take();
-                    heap.replaceTop(item);
-                    if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
-                        noNeedRows = true;
-                        while (!heap.isEmpty()) {
-                            HeapItem itemToDiscard = heap.poll();
-                            if (!itemToDiscard.isNullItem()) {
-                                BlockingQueue<HeapItem> discardQueue = queues.get(itemToDiscard.getIndex());
-                                while (true) {
-                                    if (discardQueue.take().isNullItem() || terminate.get()) {
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+            boolean finished = noNeedRows ? discardAfterLimit() : mergeRows();
+            if (!finished) {
+                resumeDrainedReads();
             }
-            if (LOGGER.isDebugEnabled()) {
-                String executeQueries = getRoutesSql(route);
-                LOGGER.debug(executeQueries + " heap send eof: ");
-            }
-            session.setHandlerEnd(this);
-            nextHandler.rowEofResponse(null, this.isLeft, queues.keySet().iterator().next());
+            return finished;
         } catch (Exception e) {
             String msg = "Merge thread error, " + e.getLocalizedMessage();
             LOGGER.info(msg, e);
             session.onQueryError(msg.getBytes());
+            return true;
+        }
+    }
+
+    /**
+     * @return true if all the rows are merged, false if the task should wait for the rows
+     */
+    private boolean mergeRows() {
+        if (!heapInited) {
+            for (BlockingQueue<HeapItem> queue : queues.values()) {
+                if (queue.isEmpty()) {
+                    return false;
+                }
+            }
+            for (BlockingQueue<HeapItem> queue : queues.values()) {
+                heap.add(queue.poll());
+            }
+            heapInited = true;
+        }
+        int mergedRows = 0;
+        while (!heap.isEmpty()) {
+            if (terminate.get())
+                return true;
+            HeapItem top = heap.peak();
+            if (top.isNullItem()) {
+                heap.poll();
+                continue;
+            }
+            HeapItem item = queues.get(top.getIndex()).poll();
+            if (item == null) {
+                // resumed when the next row of the connection arrives
+                return false;
+            }
+            heap.replaceTop(item);
+            if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
+                noNeedRows = true;
+                startDiscard();
+                return discardAfterLimit();
+            }
+            if (++mergedRows >= TASK_BATCH_ROWS) {
+                resumeOwnTask();
+                return false;
+            }
+        }
+        sendEof();
+        return true;
+    }
+
+    /**
+     * discard the rows in the heap, the connections which are still sending rows are stopped if they can be stopped,
+     * or their rows are discarded until the eof
+     */
+    private void startDiscard() {
+        while (!heap.isEmpty()) {
+            HeapItem itemToDiscard = heap.poll();
+            if (!itemToDiscard.isNullItem()) {
+                MySQLConnection conn = itemToDiscard.getIndex();
+                if (!HandlerTool.discardQueuedRows(queues.get(conn)) && !cancelAfterLimit(conn)) {
+                    discardingConns.add(conn);
+                }
+            }
         }
     }
 
+    private boolean discardAfterLimit() {
+        if (terminate.get())
+            return true;
+        Iterator<MySQLConnection> iterator = discardingConns.iterator();
+        while (iterator.hasNext()) {
+            if (HandlerTool.discardQueuedRows(queues.get(iterator.next()))) {
+                iterator.remove();
+            }
+        }
+        if (!discardingConns.isEmpty()) {
+            // resumed when the eof of the connection arrives
+            return false;
+        }
+        sendEof();
+        return true;
+    }
+
+    private void sendEof() {
+        if (LOGGER.isDebugEnabled()) {
+            String executeQueries = getRoutesSql(route);
+            LOGGER.debug(executeQueries + " heap send eof: ");
+        }
+        session.setHandlerEnd(this);
+        nextHandler.rowEofResponse(null, this.isLeft, queues.keySet().iterator().next());
+    }
+
+    private void pauseRead(MySQLConnection conn, BlockingQueue<HeapItem> queue) {
+        synchronized (pausedConns) {
+            if (queue.size() >= queueSize && pausedConns.add(conn)) {
+                conn.disableRead();
+            }
+        }
+    }
+
+    /**
+     * enable the reading of the paused connections whose queues are half drained,
+     * the task is always resumed after a connection is paused, so no paused connection is missed
+     */
+    private void resumeDrainedReads() {
+        synchronized (pausedConns) {
+            Iterator<MySQLConnection> iterator = pausedConns.iterator();
+            while (iterator.hasNext()) {
+                MySQLConnection conn = iterator.next();
+                BlockingQueue<HeapItem> queue = queues.get(conn);
+                if (queue == null || queue.size() <= queueSize / 2) {
+                    iterator.remove();
+                    enableRead(conn);
+                }
+            }
+        }
+    }
+
+    private void enableRead(MySQLConnection conn) {
+        if (!conn.isClosed()) {
+            conn.enableRead();
+        }
+    }
+
+    /**
+     * terminate the select handler of the connection, the connection is closed if it is still sending rows when released
+     */
+    private boolean cancelAfterLimit(MySQLConnection conn) {
+        int cancelRows = DbleServer.getInstance().getConfig().getSystem().getLimitCancelRows();
+        if (cancelRows < 0 || session.getSource().isLocked()) {
+            return false;
+        }
+        synchronized (exeHandlers) {
+            for (BaseSelectHandler exeHandler : exeHandlers) {
+                RouteResultsetNode rrss = exeHandler.getRrss();
+                if (session.getTarget(rrss) != conn) {
+                    continue;
+                }
+                if (!exeHandler.isAutocommit() ||
+                        (rrss.getLimitSize() >= 0 && (long) Math.max(rrss.getLimitStart(), 0) + rrss.getLimitSize() <= cancelRows)) {
+                    return false;
+                }
+                exeHandler.terminate();
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void terminateThread() throws Exception {
-        for (Entry<MySQLConnection, BlockingQueue<HeapItem>> entry : this.queues.entrySet()) {
-            // add EOF to signal atoMerge thread
-            entry.getValue().clear();
-            entry.getValue().put(new HeapItem(null, null, entry.getKey()));
-        }
-        recycleConn();
+        resumeOwnTask();
     }
 
     @Override
     protected void recycleResources() {
+        synchronized (pausedConns) {
+            for (MySQLConnection conn : pausedConns) {
+                enableRead(conn);
+            }
+            pausedConns.clear();
+        }
         Iterator<Entry<MySQLConnection, BlockingQueue<HeapItem>>> iterator = this.queues.entrySet().iterator();
         while (iterator.hasNext()) {
             Entry<MySQLConnection, BlockingQueue<HeapItem>> entry = iterator.next();
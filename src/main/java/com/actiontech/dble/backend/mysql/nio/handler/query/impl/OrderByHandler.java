@@ -24,23 +24,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * the rows are queued by the thread which pushes them and added to the local result by the own task,
+ * so the spill to the disk is done on the task executor instead of the backend thread,
+ * the sorted rows are sent by the own task after the eof, so no thread waits for the rows
+ */
 public class OrderByHandler extends OwnThreadDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderByHandler.class);
+    // the max rows sent in one run of the task
+    private static final int TASK_BATCH_ROWS = 1024;
 
     private List<Order> orders;
-    private BlockingQueue<RowDataPacket> queue;
     /* tmp object for ordering,support Memory-mapped file or file */
     private LocalResult localResult;
     private BufferPool pool;
+    private MySQLConnection sendConn;
+    // the max rows queued for the own task, the pushing thread adds the rows itself beyond it
+    private final int queueSize;
+    private final ConcurrentLinkedQueue<RowDataPacket> pendingRows = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private volatile boolean eofReceived = false;
+    // only used by the own task
+    private boolean sorted = false;
 
     public OrderByHandler(long id, NonBlockingSession session, List<Order> orders) {
         super(id, session);
         this.orders = orders;
-        int queueSize = DbleServer.getInstance().getConfig().getSystem().getOrderByQueueSize();
-        this.queue = new LinkedBlockingDeque<>(queueSize);
+        this.queueSize = DbleServer.getInstance().getConfig().getSystem().getOrderByQueueSize();
     }
 
     @Override
@@ -58,21 +71,27 @@ public class OrderByHandler extends OwnThreadDMLHandler {
             this.pool = BufferPoolManager.getBufferPool();
 
         this.fieldPackets = fieldPackets;
+        this.sendConn = (MySQLConnection) conn;
         RowDataComparator cmp = new RowDataComparator(this.fieldPackets, orders, isAllPushDown(), type());
         localResult = new SortedLocalResult(pool, fieldPackets.size(), cmp, CharsetUtil.getJavaCharset(conn.getCharset().getResults())).
                 setMemSizeController(session.getOrderBufferMC());
         nextHandler.fieldEofResponse(null, null, fieldPackets, null, this.isLeft, conn);
-        startOwnThread(conn);
+        recordElapsedTime("order write start :");
+        startOwnTask();
     }
 
     @Override
     public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
         if (terminate.get())
             return true;
-        try {
-            queue.put(rowPacket);
-        } catch (InterruptedException e) {
-            return true;
+        pendingRows.offer(rowPacket);
+        int pending = pendingCount.incrementAndGet();
+        if (pending >= queueSize) {
+            // the task falls behind, add the rows here to bound the memory of the queue,
+            // the local result may spill on this thread then
+            drainPendingRows();
+        } else if (pending == Math.max(1, queueSize / 2)) {
+            resumeOwnTask();
         }
         return false;
     }
@@ -82,54 +101,52 @@ public class OrderByHandler extends OwnThreadDMLHandler {
         LOGGER.debug("roweof");
         if (terminate.get())
             return;
-        try {
-            queue.put(new RowDataPacket(0));
-        } catch (InterruptedException e) {
-            //ignore error
-        }
+        recordElapsedTime("order write end :");
+        eofReceived = true;
+        resumeOwnTask();
     }
 
     @Override
-    protected void ownThreadJob(Object... objects) {
-        MySQLConnection conn = (MySQLConnection) objects[0];
-        recordElapsedTime("order write start :");
+    protected boolean ownTaskJob() {
         try {
-            while (true) {
-                if (terminate.get()) {
-                    return;
-                }
-                RowDataPacket row = null;
-                try {
-                    row = queue.take();
-                    if (row.getFieldCount() == 0) {
-                        break;
-                    }
-                    localResult.add(row);
-                } catch (InterruptedException e) {
-                    //ignore error
+            if (!sorted) {
+                // read the flag first, the rows queued before the eof are all drained then
+                boolean eof = eofReceived;
+                drainPendingRows();
+                if (!eof) {
+                    return false;
                 }
+                localResult.done();
+                sorted = true;
+                recordElapsedTime("order read start :");
             }
-            recordElapsedTime("order write end :");
-            localResult.done();
-            recordElapsedTime("order read start :");
-            while (true) {
+            for (int sentRows = 0; sentRows < TASK_BATCH_ROWS; sentRows++) {
                 if (terminate.get()) {
-                    return;
+                    return true;
                 }
                 RowDataPacket row = localResult.next();
-                if (row == null) {
-                    break;
+                if (row == null || nextHandler.rowResponse(null, row, this.isLeft, sendConn)) {
+                    recordElapsedTime("order read end:");
+                    session.setHandlerEnd(this);
+                    nextHandler.rowEofResponse(null, this.isLeft, sendConn);
+                    return true;
                 }
-                if (nextHandler.rowResponse(null, row, this.isLeft, conn))
-                    break;
             }
-            recordElapsedTime("order read end:");
-            session.setHandlerEnd(this);
-            nextHandler.rowEofResponse(null, this.isLeft, conn);
+            resumeOwnTask();
+            return false;
         } catch (Exception e) {
             String msg = "OrderBy thread error, " + e.getLocalizedMessage();
             LOGGER.info(msg, e);
             session.onQueryError(msg.getBytes());
+            return true;
+        }
+    }
+
+    private void drainPendingRows() {
+        RowDataPacket row;
+        while (!terminate.get() && (row = pendingRows.poll()) != null) {
+            pendingCount.decrementAndGet();
+            localResult.add(row);
         }
     }
 
@@ -141,13 +158,12 @@ public class OrderByHandler extends OwnThreadDMLHandler {
 
     @Override
     protected void terminateThread() throws Exception {
-        this.queue.clear();
-        this.queue.add(new RowDataPacket(0));
+        resumeOwnTask();
     }
 
     @Override
     protected void recycleResources() {
-        this.queue.clear();
+        pendingRows.clear();
         if (this.localResult != null)
             this.localResult.close();
     }
@@ -40,6 +40,8 @@ public class TempTableHandler extends BaseDMLHandler {
 
     private int maxPartSize = 2000;
     private int maxConnSize = 4;
+    // the count of the data nodes which the values are routed to, every data node receives its own values
+    private int partitionCount = 1;
     private int rowCount = 0;
     private CallBackHandler tempDoneCallBack;
     // Handler generated by tempHandler will release by itself
@@ -98,7 +100,7 @@ public class TempTableHandler extends BaseDMLHandler {
             if (terminate.get()) {
                 return true;
             }
-            if (++rowCount > maxPartSize * maxConnSize) {
+            if (++rowCount > (long) getMaxPartitionRows() * partitionCount) {
                 String errMessage = "temptable too much rows,[rows size is " + rowCount + "], conn info [" + conn.toString() + "] !";
                 LOGGER.info(errMessage);
                 throw new TempTableException(errMessage);
@@ -176,6 +178,14 @@ public class TempTableHandler extends BaseDMLHandler {
         return maxPartSize;
     }
 
+    public int getMaxPartitionRows() {
+        return maxPartSize * maxConnSize;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
 
     public DMLResponseHandler getCreatedHandler() {
         return createdHandler;
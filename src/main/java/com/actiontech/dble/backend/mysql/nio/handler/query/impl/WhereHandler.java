@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowPredicate;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
@@ -27,6 +28,9 @@ public class WhereHandler extends BaseDMLHandler {
 
     private Item where = null;
     private List<Field> sourceFields;
+    // created once if there is no sub query in where
+    private Item whereItem;
+    private RowPredicate wherePredicate;
     // if merge handler have no order by, the row response is not thread safe
     private ReentrantLock lock = new ReentrantLock();
 
@@ -42,6 +46,10 @@ public class WhereHandler extends BaseDMLHandler {
             return;
         this.fieldPackets = fieldPackets;
         this.sourceFields = HandlerTool.createFields(this.fieldPackets);
+        if (!this.where.isWithSubQuery()) {
+            this.whereItem = HandlerTool.createItem(this.where, this.sourceFields, 0, this.isAllPushDown(), this.type());
+            this.wherePredicate = RowPredicate.compile(this.whereItem, this.sourceFields);
+        }
         nextHandler.fieldEofResponse(null, null, this.fieldPackets, null, this.isLeft, conn);
     }
 
@@ -50,10 +58,16 @@ public class WhereHandler extends BaseDMLHandler {
             return true;
         lock.lock();
         try {
-            HandlerTool.initFields(this.sourceFields, rowPacket.fieldValues);
-            Item whereItem = HandlerTool.createItem(this.where, this.sourceFields, 0, this.isAllPushDown(), this.type());
+            boolean isMatched;
+            if (wherePredicate != null) {
+                isMatched = wherePredicate.isTrue(rowPacket.fieldValues);
+            } else {
+                HandlerTool.initFields(this.sourceFields, rowPacket.fieldValues);
+                Item item = whereItem != null ? whereItem : HandlerTool.createItem(this.where, this.sourceFields, 0, this.isAllPushDown(), this.type());
+                isMatched = item.valBool();
+            }
             /* use whereto filter */
-            if (whereItem.valBool()) {
+            if (isMatched) {
                 nextHandler.rowResponse(null, rowPacket, this.isLeft, conn);
             } else {
                 // nothing
@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby.DGRowPacket;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby.GroupByBucket;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby.GroupByHashTable;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
@@ -40,11 +41,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * groupBy is Behind OrderBy
  * use groupbylocalresult to calc groupby . try to merge before store to groupby LocalResult
  * these cases can't merge : 1.sum function contains distinct  2. groupconcat
+ * if all the sum functions can be accumulated, the rows are grouped by the hash table in the pushing thread instead
+ * of the buckets, and the groups are sent by the own task
  *
  * @author ActionTech
  */
 public class DirectGroupByHandler extends OwnThreadDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(DirectGroupByHandler.class);
+    // the max groups sent in one run of the task
+    private static final int TASK_BATCH_ROWS = 1024;
 
     private BlockingQueue<RowDataPacket> queue;
 
@@ -64,6 +69,10 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
     private BlockingQueue<RowDataPacket> outQueue;
     int bucketSize = 10;
     private List<GroupByBucket> buckets;
+    private GroupByHashTable hashTable;
+    private MySQLConnection sendConn;
+    // only used by the own task
+    private List<ItemSum> hashSendSums;
 
     /**
      * @param groupBys
@@ -113,6 +122,13 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         groupLocalResult = new GroupByLocalResult(pool, localResultFps.size(), comparator, localResultFps,
                 localResultReferredSums, this.isAllPushDown(), CharsetUtil.getJavaCharset(conn.getCharset().getResults())).
                 setMemSizeController(session.getOtherBufferMC());
+        if (GroupByHashTable.canAccumulate(sums)) {
+            RowDataComparator hashComparator = new RowDataComparator(this.localResultFps, this.groupBys,
+                    this.isAllPushDown(), this.type());
+            hashTable = new GroupByHashTable(sums, hashComparator, groupLocalResult, session.getOtherBufferMC());
+            sendConn = (MySQLConnection) conn;
+            return;
+        }
         for (int i = 0; i < bucketSize; i++) {
             RowDataComparator tmpComparator = new RowDataComparator(this.localResultFps, this.groupBys,
                     this.isAllPushDown(), this.type());
@@ -190,6 +206,10 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         if (terminate.get())
             return true;
         hasFirstRow.compareAndSet(false, true);
+        if (hashTable != null) {
+            hashTable.add(rowPacket);
+            return false;
+        }
         try {
             DGRowPacket row = new DGRowPacket(rowPacket, this.referredSumFunctions.size());
             queue.put(row);
@@ -204,6 +224,10 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         LOGGER.debug("roweof");
         if (terminate.get())
             return;
+        if (hashTable != null) {
+            startOwnTask();
+            return;
+        }
         try {
             // @bug1042
             for (int i = 0; i < bucketSize; i++)
@@ -213,16 +237,47 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         }
     }
 
+    @Override
+    protected boolean ownTaskJob() {
+        try {
+            if (hashSendSums == null) {
+                recordElapsedTime("hash group by is done for read:");
+                hashTable.done();
+                hashSendSums = createSendSums();
+                if (!hasFirstRow.get()) {
+                    if (HandlerTool.needSendNoRow(this.groupBys))
+                        sendNoRowGroupRowPacket(sendConn);
+                    return sendEof();
+                }
+            }
+            for (int sentRows = 0; sentRows < TASK_BATCH_ROWS; sentRows++) {
+                if (terminate.get())
+                    return true;
+                RowDataPacket row = hashTable.next();
+                if (row == null || sendGroupRowPacket(sendConn, row, hashSendSums)) {
+                    return sendEof();
+                }
+            }
+            resumeOwnTask();
+            return false;
+        } catch (Exception e) {
+            String msg = "group by thread is error," + e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+            return true;
+        }
+    }
+
+    private boolean sendEof() {
+        session.setHandlerEnd(this);
+        nextHandler.rowEofResponse(null, this.isLeft, sendConn);
+        return true;
+    }
+
     private void sendGroupRowPacket(MySQLConnection conn) {
         groupLocalResult.done();
         RowDataPacket row = null;
-        List<Field> localFields = HandlerTool.createFields(localResultFps);
-        List<ItemSum> sendSums = new ArrayList<>();
-        for (ItemSum selSum : referredSumFunctions) {
-            ItemSum sum = (ItemSum) HandlerTool.createItem(selSum, localFields, 0, false, HandlerType.GROUPBY);
-            sendSums.add(sum);
-        }
-        prepareSumAggregators(sendSums, true);
+        List<ItemSum> sendSums = createSendSums();
         while ((row = groupLocalResult.next()) != null) {
             if (sendGroupRowPacket(conn, row, sendSums))
                 break;
@@ -248,6 +303,17 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         return nextHandler.rowResponse(null, newRp, this.isLeft, conn);
     }
 
+    private List<ItemSum> createSendSums() {
+        List<Field> localFields = HandlerTool.createFields(localResultFps);
+        List<ItemSum> newSums = new ArrayList<>();
+        for (ItemSum selSum : referredSumFunctions) {
+            ItemSum sum = (ItemSum) HandlerTool.createItem(selSum, localFields, 0, false, HandlerType.GROUPBY);
+            newSums.add(sum);
+        }
+        prepareSumAggregators(newSums, true);
+        return newSums;
+    }
+
     /**
      * send data to next even no data here.eg:select count(*) from t2,if t2 is empty,send 0
      */
@@ -305,6 +371,10 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
 
     @Override
     protected void terminateThread() throws Exception {
+        if (hashTable != null) {
+            resumeOwnTask();
+            return;
+        }
         this.queue.clear();
         for (int i = 0; i < bucketSize; i++)
             queue.put(new RowDataPacket(0));
@@ -313,6 +383,8 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
     @Override
     protected void recycleResources() {
         this.queue.clear();
+        if (this.hashTable != null)
+            this.hashTable.close();
         if (this.groupLocalResult != null)
             this.groupLocalResult.close();
         for (LocalResult bucket : buckets) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.store.LocalResult;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.common.item.function.sumfunc.GroupAccumulator;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GroupByHashTable, group the rows by the normalized keys of the group by values and accumulate the aggregate
+ * functions in the accumulators of the groups, so a row is neither compared with the groups nor serialized.
+ * <p>
+ * if the memory is used up, the groups are spilled into the group by local result as DGRowPackets and the table is
+ * cleared, the later rows are not hashed any more but added to the local result directly, since the memory is taken
+ * by the local result then. the local result merges the groups and flushes them to the disk. the rows whose keys
+ * can't be encoded are added to the local result directly too. after done, the groups are sent in the order of
+ * the group by.
+ */
+public class GroupByHashTable {
+    // the estimated memory of the hash entry and the key of one group, except the row
+    private static final int GROUP_OVERHEAD = 64;
+    private static final int ACCUMULATOR_SIZE = 32;
+
+    private final List<ItemSum> sums;
+    private final RowDataComparator groupCmp;
+    private final LocalResult spillResult;
+    private final MemSizeController bufferMC;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    private long currentMemory = 0;
+    // some rows or groups are added to the spill result
+    private boolean spilled = false;
+    // the memory is used up, the rows are streamed into the spill result
+    private boolean streaming = false;
+    private boolean isClosed = false;
+    private Iterator<Group> sortedGroups;
+
+    /**
+     * @param sums        the aggregate functions which can be accumulated, see canAccumulate
+     * @param groupCmp    the comparator of the group by
+     * @param spillResult the group by local result with the same comparator and functions
+     */
+    public GroupByHashTable(List<ItemSum> sums, RowDataComparator groupCmp, LocalResult spillResult,
+                            MemSizeController bufferMC) {
+        this.sums = sums;
+        this.groupCmp = groupCmp;
+        this.spillResult = spillResult;
+        this.bufferMC = bufferMC;
+    }
+
+    public static boolean canAccumulate(List<ItemSum> sums) {
+        for (ItemSum sum : sums) {
+            if (sum.newAccumulator() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(RowDataPacket row) {
+        lock.lock();
+        try {
+            if (isClosed)
+                return;
+            if (streaming) {
+                spillResult.add(new DGRowPacket(row, sums.size()));
+                return;
+            }
+            byte[] key = groupCmp.getKey(row);
+            if (key == null) {
+                spilled = true;
+                spillResult.add(new DGRowPacket(row, sums.size()));
+                return;
+            }
+            GroupKey groupKey = new GroupKey(key);
+            Group group = groups.get(groupKey);
+            if (group == null) {
+                group = new Group(row, newAccumulators());
+                groups.put(groupKey, group);
+                group.add(row);
+                int incrementSize = row.calcPacketSize() + key.length + GROUP_OVERHEAD + ACCUMULATOR_SIZE * sums.size();
+                currentMemory += incrementSize;
+                if (bufferMC != null && !bufferMC.addSize(incrementSize)) {
+                    streaming = true;
+                    spillGroups();
+                }
+            } else {
+                group.add(row);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private GroupAccumulator[] newAccumulators() {
+        GroupAccumulator[] accumulators = new GroupAccumulator[sums.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = sums.get(i).newAccumulator();
+        }
+        return accumulators;
+    }
+
+    private void spillGroups() {
+        spilled = true;
+        for (Group group : groups.values()) {
+            spillResult.add(group.toRow());
+        }
+        clearGroups();
+    }
+
+    private void clearGroups() {
+        groups.clear();
+        if (bufferMC != null)
+            bufferMC.subSize(currentMemory);
+        currentMemory = 0;
+    }
+
+    /**
+     * This method is called after all rows have been added.
+     */
+    public void done() {
+        lock.lock();
+        try {
+            if (isClosed)
+                return;
+            if (spilled) {
+                spillGroups();
+                spillResult.done();
+            } else {
+                List<Group> sorted = new ArrayList<>(groups.values());
+                sorted.sort((o1, o2) -> groupCmp.compare(o1.row, o2.row));
+                sortedGroups = sorted.iterator();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the next group as DGRowPacket, null if no more group
+     */
+    public RowDataPacket next() {
+        lock.lock();
+        try {
+            if (isClosed)
+                return null;
+            if (spilled)
+                return spillResult.next();
+            return sortedGroups.hasNext() ? sortedGroups.next().toRow() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            if (isClosed)
+                return;
+            isClosed = true;
+            clearGroups();
+            sortedGroups = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class GroupKey {
+        private final byte[] key;
+        private final int hash;
+
+        private GroupKey(byte[] key) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof GroupKey && Arrays.equals(key, ((GroupKey) obj).key);
+        }
+    }
+
+    private final class Group {
+        private final RowDataPacket row;
+        private final GroupAccumulator[] accumulators;
+
+        private Group(RowDataPacket row, GroupAccumulator[] accumulators) {
+            this.row = row;
+            this.accumulators = accumulators;
+        }
+
+        private void add(RowDataPacket newRow) {
+            for (GroupAccumulator accumulator : accumulators) {
+                accumulator.add(newRow);
+            }
+        }
+
+        private DGRowPacket toRow() {
+            DGRowPacket dgRow = new DGRowPacket(row, accumulators.length);
+            for (int i = 0; i < accumulators.length; i++) {
+                dgRow.setSumTran(i, accumulators[i].getTransAggObj(), sums.get(i).getTransSize());
+            }
+            return dgRow;
+        }
+    }
+}
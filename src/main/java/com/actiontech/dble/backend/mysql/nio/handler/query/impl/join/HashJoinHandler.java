@@ -0,0 +1,674 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.CharsetUtil;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowPredicate;
+import com.actiontech.dble.backend.mysql.nio.handler.util.TwoTableComparator;
+import com.actiontech.dble.backend.mysql.store.LocalResult;
+import com.actiontech.dble.backend.mysql.store.UnSortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.MySQLcom;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.util.ArgComparator;
+import com.actiontech.dble.plan.common.ptr.BoolPtr;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * join strategy is hash join, the input needn't be ordered.
+ * the right node is the build side, the left node is the probe side.
+ * if the build side can not be held in joinMemSize, both sides are
+ * partitioned by the hash of the join key into LocalResults (which flush into
+ * disk buffers) and each partition is joined separately (grace hash join).
+ *
+ * @author ActionTech
+ */
+public class HashJoinHandler extends OwnThreadDMLHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinHandler.class);
+    private static final int GRACE_PARTITION_COUNT = 16;
+    private static final int GRACE_PARTITION_BITS = 4;
+    /* a partition still too big is re-partitioned by the next bits of the hash, until this level */
+    private static final int MAX_GRACE_LEVEL = 3;
+    private static final char KEY_SEPARATOR = 0;
+
+    /* how the join column is normalized into the hash key, it follows how the comparator compares the column */
+    private static final int KEY_DECIMAL = 0;
+    private static final int KEY_STRING = 1;
+    private static final int KEY_REAL = 2;
+    /* the real values equal within the precision of their decimals */
+    private static final int KEY_REAL_FIXED = 3;
+    /* the DATE/DATETIME/TIME/YEAR values, and the strings compared with them */
+    private static final int KEY_PACKED_TIME = 4;
+
+    private boolean isLeftJoin = false;
+    private List<Order> leftOrders;
+    private List<Order> rightOrders;
+    private List<FieldPacket> leftFieldPackets;
+    private List<FieldPacket> rightFieldPackets;
+    private AtomicBoolean fieldSent = new AtomicBoolean(false);
+    private BufferPool pool;
+    private String charset = "UTF-8";
+    private MemSizeController joinBufferMC;
+
+    private Item otherJoinOn;
+    private Item otherJoinOnItem;
+    private RowPredicate otherJoinOnPredicate;
+    private List<Field> joinRowFields;
+    private TwoTableComparator joinComparator;
+    private List<Field> leftKeyFields;
+    private List<Field> rightKeyFields;
+    private List<Item> leftKeyItems;
+    private List<Item> rightKeyItems;
+    private List<ArgComparator> keyComparators;
+    private int[] keyModes;
+    private int[] keyScales;
+    private boolean caseInsensitive;
+
+    /* build side */
+    private BlockingQueue<RowDataPacket> buildQueue;
+    private Map<String, List<RowDataPacket>> hashTable = new HashMap<>();
+    private long hashTableMemory = 0;
+    private boolean graceMode = false;
+    private LocalResult[] buildPartitions;
+    private LocalResult[] probePartitions;
+
+    /* probe side, rows are buffered until the build side is done */
+    private BlockingQueue<RowDataPacket> probeQueue;
+    private LocalResult pendingProbe;
+    private boolean buildDone = false;
+    private boolean probeEofPending = false;
+    private ReentrantLock probeLock = new ReentrantLock();
+
+    public HashJoinHandler(long id, NonBlockingSession session, boolean isLeftJoin, List<Order> leftOrder,
+                           List<Order> rightOrder, Item otherJoinOn) {
+        super(id, session);
+        this.isLeftJoin = isLeftJoin;
+        this.leftOrders = leftOrder;
+        this.rightOrders = rightOrder;
+        int queueSize = DbleServer.getInstance().getConfig().getSystem().getJoinQueueSize();
+        this.buildQueue = new LinkedBlockingDeque<>(queueSize);
+        this.probeQueue = new LinkedBlockingDeque<>(queueSize);
+        this.leftFieldPackets = new ArrayList<>();
+        this.rightFieldPackets = new ArrayList<>();
+        this.otherJoinOn = otherJoinOn;
+        this.joinBufferMC = session.getJoinBufferMC();
+    }
+
+    @Override
+    public HandlerType type() {
+        return HandlerType.JOIN;
+    }
+
+    @Override
+    public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, final List<FieldPacket> fieldPackets,
+                                 byte[] eofNull, boolean isLeft, final BackendConnection conn) {
+        session.setHandlerStart(this);
+        if (this.pool == null)
+            this.pool = BufferPoolManager.getBufferPool();
+        if (conn != null) {
+            this.charset = CharsetUtil.getJavaCharset(conn.getCharset().getResults());
+        }
+        if (isLeft) {
+            leftFieldPackets = fieldPackets;
+            probeLock.lock();
+            try {
+                pendingProbe = new UnSortedLocalResult(leftFieldPackets.size(), pool, this.charset).
+                        setMemSizeController(joinBufferMC);
+            } finally {
+                probeLock.unlock();
+            }
+        } else {
+            rightFieldPackets = fieldPackets;
+        }
+        if (!fieldSent.compareAndSet(false, true)) {
+            List<FieldPacket> newFieldPacket = new ArrayList<>();
+            newFieldPacket.addAll(leftFieldPackets);
+            newFieldPacket.addAll(rightFieldPackets);
+            nextHandler.fieldEofResponse(null, null, newFieldPacket, null, this.isLeft, conn);
+            otherJoinOnItem = makeOtherJoinOnItem(newFieldPacket);
+            otherJoinOnPredicate = otherJoinOnItem == null ? null : RowPredicate.compile(otherJoinOnItem, joinRowFields);
+            startOwnThread(conn);
+        }
+    }
+
+    private Item makeOtherJoinOnItem(List<FieldPacket> rowPackets) {
+        this.joinRowFields = HandlerTool.createFields(rowPackets);
+        if (otherJoinOn == null)
+            return null;
+        return HandlerTool.createItem(this.otherJoinOn, this.joinRowFields, 0, this.isAllPushDown(), this.type());
+    }
+
+    @Override
+    public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+        LOGGER.debug("rowresponse");
+        if (terminate.get()) {
+            return true;
+        }
+        try {
+            if (isLeft) {
+                addProbeRow(rowPacket);
+            } else {
+                buildQueue.put(rowPacket);
+            }
+        } catch (InterruptedException e) {
+            LOGGER.info("hash join row response exception", e);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void rowEofResponse(byte[] data, boolean isLeft, BackendConnection conn) {
+        LOGGER.debug("roweof");
+        if (terminate.get()) {
+            return;
+        }
+        try {
+            if (isLeft) {
+                LOGGER.debug("row eof probe side");
+                addProbeRow(new RowDataPacket(0));
+            } else {
+                LOGGER.debug("row eof build side");
+                buildQueue.put(new RowDataPacket(0));
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("HashJoinHandler rowEofResponse InterruptedException ", e);
+        }
+    }
+
+    /**
+     * the probe side must not block the backend while the build side is running,
+     * so the rows are buffered (and flushed into disk if necessary) until then.
+     */
+    private void addProbeRow(RowDataPacket row) throws InterruptedException {
+        probeLock.lock();
+        try {
+            if (buildDone) {
+                probeQueue.put(row);
+            } else if (row.getFieldCount() == 0) {
+                probeEofPending = true;
+            } else {
+                pendingProbe.add(row);
+            }
+        } finally {
+            probeLock.unlock();
+        }
+    }
+
+    @Override
+    protected void ownThreadJob(Object... objects) {
+        MySQLConnection conn = (MySQLConnection) objects[0];
+        try {
+            initJoinKeys();
+            // build
+            while (true) {
+                if (terminate.get())
+                    return;
+                RowDataPacket row = buildQueue.take();
+                if (row.getFieldCount() == 0) {
+                    break;
+                }
+                addBuildRow(row);
+            }
+            // probe
+            boolean probeEof;
+            probeLock.lock();
+            try {
+                buildDone = true;
+                probeEof = probeEofPending;
+                pendingProbe.done();
+            } finally {
+                probeLock.unlock();
+            }
+            boolean interrupted = false;
+            RowDataPacket row;
+            while ((row = pendingProbe.next()) != null) {
+                if (terminate.get())
+                    return;
+                if (probeRow(row, conn)) {
+                    interrupted = true;
+                    break;
+                }
+            }
+            pendingProbe.close();
+            while (!interrupted && !probeEof) {
+                if (terminate.get())
+                    return;
+                row = probeQueue.take();
+                if (row.getFieldCount() == 0) {
+                    break;
+                }
+                interrupted = probeRow(row, conn);
+            }
+            if (!interrupted && graceMode) {
+                joinPartitions(conn);
+            }
+
+            HandlerTool.terminateHandlerTree(this);
+            // for trace, when join end before all rows return ,the handler should mark as finished
+            for (DMLResponseHandler mergeHandler : this.getMerges()) {
+                DMLResponseHandler handler = mergeHandler;
+                while (handler != null && handler != this) {
+                    session.setHandlerEnd(handler);
+                    handler = handler.getNextHandler();
+                }
+            }
+            session.setHandlerEnd(this);
+            nextHandler.rowEofResponse(null, isLeft, conn);
+        } catch (Exception e) {
+            String msg = "hash join thread error, " + e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+        }
+    }
+
+    private void initJoinKeys() {
+        caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
+        joinComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets, leftOrders, rightOrders,
+                this.isAllPushDown(), this.type(), caseInsensitive);
+        leftKeyFields = HandlerTool.createFields(leftFieldPackets);
+        rightKeyFields = HandlerTool.createFields(rightFieldPackets);
+        leftKeyItems = new ArrayList<>(leftOrders.size());
+        rightKeyItems = new ArrayList<>(rightOrders.size());
+        keyComparators = new ArrayList<>(leftOrders.size());
+        keyModes = new int[leftOrders.size()];
+        keyScales = new int[leftOrders.size()];
+        for (int i = 0; i < leftOrders.size(); i++) {
+            Item leftItem = HandlerTool.createItem(leftOrders.get(i).getItem(), leftKeyFields, 0, this.isAllPushDown(), this.type());
+            Item rightItem = HandlerTool.createItem(rightOrders.get(i).getItem(), rightKeyFields, 0, this.isAllPushDown(), this.type());
+            leftKeyItems.add(leftItem);
+            rightKeyItems.add(rightItem);
+            // the same comparator as the join comparator, the key is the value it compares
+            ArgComparator comparator = new ArgComparator(leftItem, rightItem);
+            comparator.setCaseInsensitive(caseInsensitive);
+            comparator.setCmpFunc(null, leftItem, rightItem, false);
+            keyComparators.add(comparator);
+            keyModes[i] = getKeyMode(comparator, leftItem, rightItem);
+            keyScales[i] = Math.max(leftItem.getDecimals(), rightItem.getDecimals());
+        }
+    }
+
+    /**
+     * values which are equal for the comparator must have the same hash key,
+     * so the key of a column is made of the value which the comparator compares
+     */
+    private static int getKeyMode(ArgComparator comparator, Item leftItem, Item rightItem) {
+        if (comparator.isPackedTimeCompare()) {
+            return KEY_PACKED_TIME;
+        }
+        switch (MySQLcom.itemCmpType(leftItem.resultType(), rightItem.resultType())) {
+            case STRING_RESULT:
+                return KEY_STRING;
+            case REAL_RESULT:
+                // see ArgComparator.setCompareFunc
+                if (leftItem.getDecimals() < Item.NOT_FIXED_DEC && rightItem.getDecimals() < Item.NOT_FIXED_DEC) {
+                    return KEY_REAL_FIXED;
+                }
+                return KEY_REAL;
+            default:
+                return KEY_DECIMAL;
+        }
+    }
+
+    /**
+     * @return null if any join column is null, which will never be joined
+     */
+    private String buildKey(RowDataPacket row, boolean isLeftSide) {
+        List<Item> keyItems;
+        if (isLeftSide) {
+            HandlerTool.initFields(leftKeyFields, row.fieldValues);
+            keyItems = leftKeyItems;
+        } else {
+            HandlerTool.initFields(rightKeyFields, row.fieldValues);
+            keyItems = rightKeyItems;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyItems.size(); i++) {
+            Item item = keyItems.get(i);
+            switch (keyModes[i]) {
+                case KEY_PACKED_TIME: {
+                    BoolPtr isNull = new BoolPtr(false);
+                    long value = keyComparators.get(i).getPackedValue(isLeftSide, isNull);
+                    if (isNull.get())
+                        return null;
+                    sb.append(value);
+                    break;
+                }
+                case KEY_STRING: {
+                    String value = item.valStr();
+                    if (value == null || item.isNullValue())
+                        return null;
+                    sb.append(normalizeString(value));
+                    break;
+                }
+                case KEY_REAL:
+                case KEY_REAL_FIXED: {
+                    BigDecimal value = item.valReal();
+                    if (value == null || item.isNullValue())
+                        return null;
+                    if (keyModes[i] == KEY_REAL_FIXED) {
+                        // the values have at most these decimals, two different ones differ by more than the precision
+                        value = value.setScale(keyScales[i], RoundingMode.HALF_UP);
+                    }
+                    sb.append(value.stripTrailingZeros().toPlainString());
+                    break;
+                }
+                default: {
+                    BigDecimal value = item.valDecimal();
+                    if (value == null || item.isNullValue())
+                        return null;
+                    sb.append(value.stripTrailingZeros().toPlainString());
+                    break;
+                }
+            }
+            sb.append(KEY_SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * the strings equal for the comparator must have the same key, the trailing spaces are kept out of it,
+     * the case insensitive strings are upper-cased as the sort keys
+     */
+    private String normalizeString(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        String trimmed = value.substring(0, end);
+        return caseInsensitive ? trimmed.toUpperCase(Locale.ROOT) : trimmed;
+    }
+
+    private static int partitionOf(String key) {
+        return partitionOf(key, 0);
+    }
+
+    /**
+     * each level takes the next GRACE_PARTITION_BITS bits of the hash, so the rows of one partition
+     * are spread again when it is re-partitioned
+     */
+    private static int partitionOf(String key, int level) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x9E3779B1;
+        return (h >>> (level * GRACE_PARTITION_BITS)) & (GRACE_PARTITION_COUNT - 1);
+    }
+
+    private void addBuildRow(RowDataPacket row) {
+        String key = buildKey(row, false);
+        if (key == null) {
+            // the build side is never the outer side
+            return;
+        }
+        if (graceMode) {
+            buildPartitions[partitionOf(key)].add(row);
+            return;
+        }
+        putIntoHashTable(key, row);
+        if (!joinBufferMC.addSize(row.calcPacketSize())) {
+            spillHashTable();
+        }
+    }
+
+    private void putIntoHashTable(String key, RowDataPacket row) {
+        List<RowDataPacket> rows = hashTable.get(key);
+        if (rows == null) {
+            rows = new ArrayList<>(1);
+            hashTable.put(key, rows);
+        }
+        rows.add(row);
+        hashTableMemory += row.calcPacketSize();
+    }
+
+    /**
+     * the build side is bigger than joinMemSize, turn into grace hash join
+     */
+    private void spillHashTable() {
+        LOGGER.debug("hash join build side exceeds joinMemSize, use partitions");
+        buildPartitions = newPartitions(rightFieldPackets.size());
+        probePartitions = newPartitions(leftFieldPackets.size());
+        Map<String, List<RowDataPacket>> rowsToSpill = hashTable;
+        hashTable = new HashMap<>();
+        clearHashTable();
+        for (Map.Entry<String, List<RowDataPacket>> entry : rowsToSpill.entrySet()) {
+            LocalResult partition = buildPartitions[partitionOf(entry.getKey())];
+            for (RowDataPacket row : entry.getValue()) {
+                partition.add(row);
+            }
+        }
+        graceMode = true;
+    }
+
+    private LocalResult[] newPartitions(int fieldCount) {
+        LocalResult[] partitions = new LocalResult[GRACE_PARTITION_COUNT];
+        for (int i = 0; i < GRACE_PARTITION_COUNT; i++) {
+            partitions[i] = new UnSortedLocalResult(fieldCount, pool, this.charset).
+                    setMemSizeController(joinBufferMC);
+        }
+        return partitions;
+    }
+
+    private void clearHashTable() {
+        hashTable.clear();
+        if (hashTableMemory > 0) {
+            joinBufferMC.subSize(hashTableMemory);
+            hashTableMemory = 0;
+        }
+    }
+
+    /**
+     * @return if is interrupted by next handler ,return true,else false
+     */
+    private boolean probeRow(RowDataPacket leftRow, MySQLConnection conn) throws Exception {
+        String key = buildKey(leftRow, true);
+        if (graceMode) {
+            // null key never matches, any partition is ok for left join
+            probePartitions[key == null ? 0 : partitionOf(key)].add(leftRow);
+            return false;
+        }
+        return connectMatches(leftRow, key == null ? null : hashTable.get(key), conn);
+    }
+
+    private boolean connectMatches(RowDataPacket leftRow, List<RowDataPacket> rightRows, MySQLConnection conn)
+            throws Exception {
+        int matchCount = 0;
+        if (rightRows != null) {
+            for (RowDataPacket rightRow : rightRows) {
+                if (joinComparator.compare(leftRow, rightRow) != 0) {
+                    continue;
+                }
+                RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+                for (byte[] value : leftRow.fieldValues) {
+                    rowPacket.add(value);
+                }
+                for (byte[] value : rightRow.fieldValues) {
+                    rowPacket.add(value);
+                }
+                if (otherJoinOnPredicate != null) {
+                    if (!otherJoinOnPredicate.isTrue(rowPacket.fieldValues))
+                        continue;
+                } else if (otherJoinOnItem != null) {
+                    HandlerTool.initFields(joinRowFields, rowPacket.fieldValues);
+                    if (!otherJoinOnItem.valBool())
+                        continue;
+                }
+                matchCount++;
+                if (nextHandler.rowResponse(null, rowPacket, isLeft, conn))
+                    return true;
+            }
+        }
+        if (matchCount == 0 && isLeftJoin) {
+            RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+            for (byte[] value : leftRow.fieldValues) {
+                rowPacket.add(value);
+            }
+            for (int i = 0; i < rightFieldPackets.size(); i++) {
+                rowPacket.add(null);
+            }
+            return nextHandler.rowResponse(null, rowPacket, isLeft, conn);
+        }
+        return false;
+    }
+
+    /**
+     * join the partitions one by one, the rows of a partition can only match the same partition
+     */
+    private void joinPartitions(MySQLConnection conn) throws Exception {
+        joinPartitions(buildPartitions, probePartitions, 0, conn);
+    }
+
+    /**
+     * @return if is interrupted by next handler ,return true,else false
+     */
+    private boolean joinPartitions(LocalResult[] builds, LocalResult[] probes, int level, MySQLConnection conn)
+            throws Exception {
+        for (int i = 0; i < GRACE_PARTITION_COUNT; i++) {
+            try {
+                if (joinPartition(builds[i], probes[i], level, conn))
+                    return true;
+            } finally {
+                clearHashTable();
+                builds[i].close();
+                probes[i].close();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the build partition is loaded into the hash table, if it is still bigger than joinMemSize,
+     * it is re-partitioned by the next level of the hash and joined recursively
+     *
+     * @return if is interrupted by next handler ,return true,else false
+     */
+    private boolean joinPartition(LocalResult buildPartition, LocalResult probePartition, int level,
+                                  MySQLConnection conn) throws Exception {
+        buildPartition.done();
+        boolean overBudget = false;
+        RowDataPacket row;
+        while ((row = buildPartition.next()) != null) {
+            if (terminate.get())
+                return true;
+            String key = buildKey(row, false);
+            putIntoHashTable(key, row);
+            if (!joinBufferMC.addSize(row.calcPacketSize())) {
+                if (level < MAX_GRACE_LEVEL) {
+                    return repartition(buildPartition, probePartition, level + 1, conn);
+                }
+                if (!overBudget) {
+                    // the same keys can not be split any more
+                    LOGGER.warn("hash join partition exceeds joinMemSize after " + MAX_GRACE_LEVEL +
+                            " re-partitions, build it in memory");
+                    overBudget = true;
+                }
+            }
+        }
+        buildPartition.close();
+        probePartition.done();
+        while ((row = probePartition.next()) != null) {
+            if (terminate.get())
+                return true;
+            String key = buildKey(row, true);
+            if (connectMatches(row, key == null ? null : hashTable.get(key), conn))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean repartition(LocalResult buildPartition, LocalResult probePartition, int level,
+                                MySQLConnection conn) throws Exception {
+        LOGGER.debug("hash join partition exceeds joinMemSize, re-partition it at level " + level);
+        LocalResult[] subBuilds = newPartitions(rightFieldPackets.size());
+        LocalResult[] subProbes = newPartitions(leftFieldPackets.size());
+        try {
+            Map<String, List<RowDataPacket>> rowsToSpill = hashTable;
+            hashTable = new HashMap<>();
+            clearHashTable();
+            for (Map.Entry<String, List<RowDataPacket>> entry : rowsToSpill.entrySet()) {
+                LocalResult partition = subBuilds[partitionOf(entry.getKey(), level)];
+                for (RowDataPacket spilled : entry.getValue()) {
+                    partition.add(spilled);
+                }
+            }
+            RowDataPacket row;
+            while ((row = buildPartition.next()) != null) {
+                if (terminate.get())
+                    return true;
+                subBuilds[partitionOf(buildKey(row, false), level)].add(row);
+            }
+            buildPartition.close();
+            probePartition.done();
+            while ((row = probePartition.next()) != null) {
+                if (terminate.get())
+                    return true;
+                String key = buildKey(row, true);
+                // null key never matches, any partition is ok for left join
+                subProbes[key == null ? 0 : partitionOf(key, level)].add(row);
+            }
+            probePartition.close();
+            return joinPartitions(subBuilds, subProbes, level, conn);
+        } finally {
+            closePartitions(subBuilds);
+            closePartitions(subProbes);
+        }
+    }
+
+    @Override
+    protected void terminateThread() throws Exception {
+        this.buildQueue.clear();
+        this.buildQueue.add(new RowDataPacket(0));
+        this.probeQueue.clear();
+        this.probeQueue.add(new RowDataPacket(0));
+    }
+
+    @Override
+    protected void recycleResources() {
+        this.buildQueue.clear();
+        this.probeQueue.clear();
+        probeLock.lock();
+        try {
+            if (pendingProbe != null)
+                pendingProbe.close();
+        } finally {
+            probeLock.unlock();
+        }
+        clearHashTable();
+        closePartitions(buildPartitions);
+        closePartitions(probePartitions);
+    }
+
+    private void closePartitions(LocalResult[] partitions) {
+        if (partitions == null)
+            return;
+        for (LocalResult partition : partitions) {
+            if (partition != null)
+                partition.close();
+        }
+    }
+
+}
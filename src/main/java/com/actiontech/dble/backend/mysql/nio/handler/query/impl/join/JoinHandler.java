@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowPredicate;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.nio.handler.util.TwoTableComparator;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
@@ -36,11 +37,16 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * join strategy is sortMerge,the merge data has been ordered
+ * <p>
+ * the rows of the same join values are grouped into a local result, the join runs as the own task which is resumed
+ * when a group is complete, and returns when the next group of a side has not arrived
  *
  * @author ActionTech
  */
 public class JoinHandler extends OwnThreadDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(JoinHandler.class);
+    // the max groups joined in one run of the task
+    private static final int TASK_BATCH_GROUPS = 1024;
 
     protected boolean isLeftJoin = false;
     protected FairLinkedBlockingDeque<LocalResult> leftQueue;
@@ -58,11 +64,17 @@ public class JoinHandler extends OwnThreadDMLHandler {
     private List<Field> joinRowFields;
     private Item otherJoinOn;
     private Item otherJoinOnItem;
+    private RowPredicate otherJoinOnPredicate;
     // @bug 1208
     private String charset = "UTF-8";
     // prevent multi thread rowresponse
     protected ReentrantLock leftLock = new ReentrantLock();
     protected ReentrantLock rightLock = new ReentrantLock();
+    private MySQLConnection sendConn;
+    // the fields below are only used by the own task
+    private Comparator<RowDataPacket> joinComparator;
+    private LocalResult leftLocal;
+    private LocalResult rightLocal;
 
     public JoinHandler(long id, NonBlockingSession session, boolean isLeftJoin, List<Order> leftOrder,
                        List<Order> rightOrder, Item otherJoinOn) {
@@ -108,8 +120,10 @@ public class JoinHandler extends OwnThreadDMLHandler {
             newFieldPacket.addAll(rightFieldPackets);
             nextHandler.fieldEofResponse(null, null, newFieldPacket, null, this.isLeft, conn);
             otherJoinOnItem = makeOtherJoinOnItem(newFieldPacket, conn);
+            otherJoinOnPredicate = otherJoinOnItem == null ? null : RowPredicate.compile(otherJoinOnItem, joinRowFields);
             // logger.debug("all ready");
-            startOwnThread(conn);
+            sendConn = (MySQLConnection) conn;
+            startOwnTask();
         }
     }
 
@@ -171,30 +185,34 @@ public class JoinHandler extends OwnThreadDMLHandler {
     }
 
     @Override
-    protected void ownThreadJob(Object... objects) {
-        MySQLConnection conn = (MySQLConnection) objects[0];
-        LocalResult leftLocal = null, rightLocal = null;
+    protected boolean ownTaskJob() {
         try {
-            boolean caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
-            Comparator<RowDataPacket> joinComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets,
-                    leftOrders, rightOrders, this.isAllPushDown(), this.type(), caseInsensitive);
-
-            // logger.debug("merge Join start");
-            leftLocal = takeFirst(leftQueue);
-            rightLocal = takeFirst(rightQueue);
-            while (true) {
+            if (joinComparator == null) {
+                boolean caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
+                joinComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets,
+                        leftOrders, rightOrders, this.isAllPushDown(), this.type(), caseInsensitive);
+            }
+            for (int joinedGroups = 0; ; joinedGroups++) {
                 if (terminate.get())
-                    return;
+                    return true;
+                if (joinedGroups >= TASK_BATCH_GROUPS) {
+                    resumeOwnTask();
+                    return false;
+                }
+                // resumed when the next group of the side arrives
+                if (leftLocal == null && (leftLocal = pollFirst(leftQueue)) == null)
+                    return false;
                 RowDataPacket leftRow = leftLocal.getLastRow();
-                RowDataPacket rightRow = rightLocal.getLastRow();
                 if (leftRow.getFieldCount() == 0) {
                     break;
                 }
+                if (rightLocal == null && (rightLocal = pollFirst(rightQueue)) == null)
+                    return false;
+                RowDataPacket rightRow = rightLocal.getLastRow();
                 if (rightRow.getFieldCount() == 0) {
                     if (isLeftJoin) {
-                        if (connectLeftAndNull(leftLocal, conn))
+                        if (connectLeftAndNull(takeLeft(), sendConn))
                             break;
-                        leftLocal = takeFirst(leftQueue);
                         continue;
                     } else {
                         break;
@@ -203,22 +221,16 @@ public class JoinHandler extends OwnThreadDMLHandler {
                 int rs = joinComparator.compare(leftRow, rightRow);
                 if (rs < 0) {
                     if (isLeftJoin) {
-                        if (connectLeftAndNull(leftLocal, conn))
+                        if (connectLeftAndNull(takeLeft(), sendConn))
                             break;
-                        leftLocal = takeFirst(leftQueue);
-                        continue;
                     } else {
-                        leftLocal.close();
-                        leftLocal = takeFirst(leftQueue);
+                        takeLeft().close();
                     }
                 } else if (rs > 0) {
-                    rightLocal.close();
-                    rightLocal = takeFirst(rightQueue);
+                    takeRight().close();
                 } else {
-                    if (connectLeftAndRight(leftLocal, rightLocal, conn))
+                    if (connectLeftAndRight(takeLeft(), takeRight(), sendConn))
                         break;
-                    leftLocal = takeFirst(leftQueue);
-                    rightLocal = takeFirst(rightQueue);
                 }
             }
 
@@ -232,32 +244,38 @@ public class JoinHandler extends OwnThreadDMLHandler {
                 }
             }
             session.setHandlerEnd(this);
-            nextHandler.rowEofResponse(null, isLeft, conn);
+            nextHandler.rowEofResponse(null, isLeft, sendConn);
+            return true;
         } catch (Exception e) {
             String msg = "join thread error, " + e.getLocalizedMessage();
             LOGGER.info(msg, e);
             session.onQueryError(msg.getBytes());
-        } finally {
-            if (leftLocal != null)
-                leftLocal.close();
-            if (rightLocal != null)
-                rightLocal.close();
+            return true;
         }
     }
 
-    private LocalResult takeFirst(FairLinkedBlockingDeque<LocalResult> deque) throws InterruptedException {
-        /**
-         * it must be in single thread
-         */
-        deque.waitUtilCount(1);
+    private LocalResult takeLeft() {
+        LocalResult result = leftLocal;
+        leftLocal = null;
+        return result;
+    }
+
+    private LocalResult takeRight() {
+        LocalResult result = rightLocal;
+        rightLocal = null;
+        return result;
+    }
+
+    /**
+     * @return the first group of the deque, null if it is still being added to
+     */
+    private LocalResult pollFirst(FairLinkedBlockingDeque<LocalResult> deque) {
         LocalResult result = deque.peekFirst();
-        RowDataPacket lastRow = result.getLastRow();
-        if (lastRow.getFieldCount() == 0)
-            return deque.takeFirst();
-        else {
-            deque.waitUtilCount(2);
-            return deque.takeFirst();
-        }
+        if (result == null)
+            return null;
+        if (result.getLastRow().getFieldCount() == 0 || deque.size() >= 2)
+            return deque.pollFirst();
+        return null;
     }
 
     /**
@@ -283,7 +301,10 @@ public class JoinHandler extends OwnThreadDMLHandler {
                     for (byte[] value : rightRow.fieldValues) {
                         rowPacket.add(value);
                     }
-                    if (otherJoinOnItem != null) {
+                    if (otherJoinOnPredicate != null) {
+                        if (!otherJoinOnPredicate.isTrue(rowPacket.fieldValues))
+                            continue;
+                    } else if (otherJoinOnItem != null) {
                         HandlerTool.initFields(joinRowFields, rowPacket.fieldValues);
                         if (!otherJoinOnItem.valBool())
                             continue;
@@ -356,7 +377,8 @@ public class JoinHandler extends OwnThreadDMLHandler {
         if (row.getFieldCount() == 0)
             newLocalResult.done();
         deque.putLast(newLocalResult);
-
+        // the last group is complete now
+        resumeOwnTask();
     }
 
     /**
@@ -384,10 +406,15 @@ public class JoinHandler extends OwnThreadDMLHandler {
         addEndRowToDeque(eofRow, leftFieldPackets.size(), leftQueue);
         RowDataPacket eofRow2 = new RowDataPacket(0);
         addEndRowToDeque(eofRow2, rightFieldPackets.size(), rightQueue);
+        resumeOwnTask();
     }
 
     @Override
     protected void recycleResources() {
+        if (leftLocal != null)
+            leftLocal.close();
+        if (rightLocal != null)
+            rightLocal.close();
         clearDeque(this.leftQueue);
         clearDeque(this.rightQueue);
     }
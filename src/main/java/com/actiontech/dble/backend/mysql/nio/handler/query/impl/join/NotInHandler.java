@@ -30,8 +30,14 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * the rows of the same values are grouped into a local result, the not in runs as the own task which is resumed
+ * when a group is complete, and returns when the next group of a side has not arrived
+ */
 public class NotInHandler extends OwnThreadDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(NotInHandler.class);
+    // the max groups compared in one run of the task
+    private static final int TASK_BATCH_GROUPS = 1024;
 
     private FairLinkedBlockingDeque<LocalResult> leftQueue;
     private FairLinkedBlockingDeque<LocalResult> rightQueue;
@@ -44,6 +50,11 @@ public class NotInHandler extends OwnThreadDMLHandler {
     private RowDataComparator rightComparator;
     private AtomicBoolean fieldSent = new AtomicBoolean(false);
     private String charset = "UTF-8";
+    private MySQLConnection sendConn;
+    // the fields below are only used by the own task
+    private Comparator<RowDataPacket> notInComparator;
+    private LocalResult leftLocal;
+    private LocalResult rightLocal;
 
     public NotInHandler(long id, NonBlockingSession session, List<Order> leftOrder, List<Order> rightOrder) {
         super(id, session);
@@ -81,7 +92,8 @@ public class NotInHandler extends OwnThreadDMLHandler {
             this.charset = CharsetUtil.getJavaCharset(conn.getCharset().getResults());
             nextHandler.fieldEofResponse(null, null, leftFieldPackets, null, this.isLeft, conn);
             // logger.debug("all ready");
-            startOwnThread(conn);
+            sendConn = (MySQLConnection) conn;
+            startOwnTask();
         }
     }
 
@@ -125,70 +137,79 @@ public class NotInHandler extends OwnThreadDMLHandler {
     }
 
     @Override
-    protected void ownThreadJob(Object... objects) {
-        MySQLConnection conn = (MySQLConnection) objects[0];
-        LocalResult leftLocal = null, rightLocal = null;
+    protected boolean ownTaskJob() {
         try {
-            boolean caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
-            Comparator<RowDataPacket> notInComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets,
-                    leftOrders, rightOrders, this.isAllPushDown(), this.type(), caseInsensitive);
-
-            leftLocal = takeFirst(leftQueue);
-            rightLocal = takeFirst(rightQueue);
-            while (true) {
+            if (notInComparator == null) {
+                boolean caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
+                notInComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets,
+                        leftOrders, rightOrders, this.isAllPushDown(), this.type(), caseInsensitive);
+            }
+            for (int comparedGroups = 0; ; comparedGroups++) {
+                if (terminate.get())
+                    return true;
+                if (comparedGroups >= TASK_BATCH_GROUPS) {
+                    resumeOwnTask();
+                    return false;
+                }
+                // resumed when the next group of the side arrives
+                if (leftLocal == null && (leftLocal = pollFirst(leftQueue)) == null)
+                    return false;
                 RowDataPacket leftRow = leftLocal.getLastRow();
-                RowDataPacket rightRow = rightLocal.getLastRow();
                 if (leftRow.getFieldCount() == 0) {
                     break;
                 }
+                if (rightLocal == null && (rightLocal = pollFirst(rightQueue)) == null)
+                    return false;
+                RowDataPacket rightRow = rightLocal.getLastRow();
                 if (rightRow.getFieldCount() == 0) {
-                    sendLeft(leftLocal, conn);
-                    leftLocal.close();
-                    leftLocal = takeFirst(leftQueue);
+                    sendLeft(leftLocal, sendConn);
+                    closeLeft();
                     continue;
                 }
                 int rs = notInComparator.compare(leftRow, rightRow);
                 if (rs < 0) {
-                    sendLeft(leftLocal, conn);
-                    leftLocal.close();
-                    leftLocal = takeFirst(leftQueue);
-                    continue;
+                    sendLeft(leftLocal, sendConn);
+                    closeLeft();
                 } else if (rs > 0) {
-                    rightLocal.close();
-                    rightLocal = takeFirst(rightQueue);
+                    closeRight();
                 } else {
                     // because not in, if equal left should move to next value
-                    leftLocal.close();
-                    rightLocal.close();
-                    leftLocal = takeFirst(leftQueue);
-                    rightLocal = takeFirst(rightQueue);
+                    closeLeft();
+                    closeRight();
                 }
             }
             session.setHandlerEnd(this);
-            nextHandler.rowEofResponse(null, isLeft, conn);
+            nextHandler.rowEofResponse(null, isLeft, sendConn);
             HandlerTool.terminateHandlerTree(this);
+            return true;
         } catch (Exception e) {
             String msg = "notIn thread error, " + e.getLocalizedMessage();
             LOGGER.info(msg, e);
             session.onQueryError(msg.getBytes());
-        } finally {
-            if (leftLocal != null)
-                leftLocal.close();
-            if (rightLocal != null)
-                rightLocal.close();
+            return true;
         }
     }
 
-    private LocalResult takeFirst(FairLinkedBlockingDeque<LocalResult> deque) throws InterruptedException {
-        deque.waitUtilCount(1);
+    private void closeLeft() {
+        leftLocal.close();
+        leftLocal = null;
+    }
+
+    private void closeRight() {
+        rightLocal.close();
+        rightLocal = null;
+    }
+
+    /**
+     * @return the first group of the deque, null if it is still being added to
+     */
+    private LocalResult pollFirst(FairLinkedBlockingDeque<LocalResult> deque) {
         LocalResult result = deque.peekFirst();
-        RowDataPacket lastRow = result.getLastRow();
-        if (lastRow.getFieldCount() == 0)
-            return deque.takeFirst();
-        else {
-            deque.waitUtilCount(2);
-            return deque.takeFirst();
-        }
+        if (result == null)
+            return null;
+        if (result.getLastRow().getFieldCount() == 0 || deque.size() >= 2)
+            return deque.pollFirst();
+        return null;
     }
 
     private void sendLeft(LocalResult leftRows, MySQLConnection conn) throws Exception {
@@ -218,6 +239,8 @@ public class NotInHandler extends OwnThreadDMLHandler {
         if (row.getFieldCount() == 0)
             newLocalResult.done();
         deque.putLast(newLocalResult);
+        // the last group is complete now
+        resumeOwnTask();
     }
 
     /**
@@ -245,10 +268,15 @@ public class NotInHandler extends OwnThreadDMLHandler {
         addEndRowToDeque(eofRow, leftFieldPackets.size(), leftQueue);
         RowDataPacket eofRow2 = new RowDataPacket(0);
         addEndRowToDeque(eofRow2, rightFieldPackets.size(), rightQueue);
+        resumeOwnTask();
     }
 
     @Override
     protected void recycleResources() {
+        if (leftLocal != null)
+            leftLocal.close();
+        if (rightLocal != null)
+            rightLocal.close();
         clearDeque(this.leftQueue);
         clearDeque(this.rightQueue);
     }
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 
 public final class HandlerTool {
     private HandlerTool() {
@@ -40,6 +41,21 @@ public final class HandlerTool {
 
     // private static Pattern pat = Pattern.compile("^\'([^\']*?)\'$");
 
+    /**
+     * discard the rows received by the queue without waiting
+     *
+     * @return true if the eof of the connection is received
+     */
+    public static boolean discardQueuedRows(BlockingQueue<HeapItem> queue) {
+        HeapItem item;
+        while ((item = queue.poll()) != null) {
+            if (item.isNullItem()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param node DMLResponseHandler
      */
@@ -10,6 +10,7 @@ import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.Order;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.field.num.FieldLong;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.common.item.ItemField;
@@ -22,6 +23,7 @@ import java.util.Comparator;
 import java.util.List;
 
 public class RowDataComparator implements Comparator<RowDataPacket> {
+    private static final byte[] NULL_KEY = new byte[0];
 
     private List<Field> sourceFields;
     private List<Item> cmpItems;
@@ -117,18 +119,74 @@ public class RowDataComparator implements Comparator<RowDataPacket> {
         }
     }
 
+    /**
+     * the rows compare equal if and only if their keys are equal
+     *
+     * @return null if some value can't be encoded
+     */
+    public byte[] getKey(RowDataPacket o) {
+        if (this.ascList == null || this.ascList.isEmpty()) {
+            return NULL_KEY;
+        }
+        getCmpBytes(o);
+        return o.getCmpKey(this);
+    }
+
     private List<byte[]> getCmpBytes(RowDataPacket o) {
-        if (o.getCmpValue(this) == null) {
+        List<byte[]> bo = o.getCmpValue(this);
+        if (bo == null) {
             HandlerTool.initFields(sourceFields, o.fieldValues);
-            List<byte[]> bo = HandlerTool.getItemListBytes(cmpItems);
-            o.cacheCmpValue(this, bo);
+            bo = HandlerTool.getItemListBytes(cmpItems);
+            o.cacheCmpValue(this, bo, makeSortKey(bo));
+        }
+        return bo;
+    }
+
+    /**
+     * join the keys of the compare values, so the rows are compared without parsing the values again.
+     * the null is less than any value, the key of the descending value is inverted
+     *
+     * @return null if some value can't be encoded
+     */
+    private byte[] makeSortKey(List<byte[]> values) {
+        byte[][] keys = new byte[values.size()][];
+        int length = 0;
+        for (int i = 0; i < keys.length; i++) {
+            byte[] value = values.get(i);
+            keys[i] = value == null ? NULL_KEY : cmpFields.get(i).makeSortKey(value);
+            if (keys[i] == null) {
+                return null;
+            }
+            length += keys[i].length + 1;
+        }
+        byte[] sortKey = new byte[length];
+        int pos = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int start = pos;
+            if (values.get(i) != null) {
+                sortKey[pos++] = 1;
+                System.arraycopy(keys[i], 0, sortKey, pos, keys[i].length);
+                pos += keys[i].length;
+            } else {
+                sortKey[pos++] = 0;
+            }
+            if (!ascList.get(i)) {
+                SortKeyUtil.invert(sortKey, start, pos);
+            }
         }
-        return o.getCmpValue(this);
+        return sortKey;
     }
 
     private int cmp(RowDataPacket o1, RowDataPacket o2, int index) {
         List<byte[]> bo1 = getCmpBytes(o1);
         List<byte[]> bo2 = getCmpBytes(o2);
+        if (index == 0) {
+            byte[] key1 = o1.getCmpKey(this);
+            byte[] key2 = o2.getCmpKey(this);
+            if (key1 != null && key2 != null) {
+                return SortKeyUtil.compare(key1, key2);
+            }
+        }
         boolean isAsc = ascList.get(index);
         Field field = cmpFields.get(index);
         byte[] b1 = bo1.get(index);
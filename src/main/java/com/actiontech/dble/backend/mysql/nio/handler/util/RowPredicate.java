@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.num.FieldLong;
+import com.actiontech.dble.plan.common.field.num.FieldLonglong;
+import com.actiontech.dble.plan.common.field.num.FieldMedium;
+import com.actiontech.dble.plan.common.field.num.FieldShort;
+import com.actiontech.dble.plan.common.field.num.FieldTiny;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.plan.common.item.ItemInt;
+import com.actiontech.dble.plan.common.item.function.ItemFunc;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the condition compiled into a tree of the primitive comparisons over the values of the row,
+ * the row is neither set into the fields nor parsed into BigInteger unless the value doesn't fit in a long.
+ * <p>
+ * only the and, or, not, is null, is not null and the comparisons between the integer fields and the integer
+ * constants are compiled, the result is the same as the valBool of the item in the three-valued logic of mysql.
+ */
+public abstract class RowPredicate {
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+    private static final int UNKNOWN = -1;
+    // the integer with at most 18 digits always fits in a long
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * @param item   the item created by HandlerTool.createItem with the fields
+     * @param fields the fields of the row
+     * @return null if the item can't be compiled
+     */
+    public static RowPredicate compile(Item item, List<Field> fields) {
+        if (!(item instanceof ItemFunc)) {
+            return null;
+        }
+        ItemFunc func = (ItemFunc) item;
+        List<Item> args = func.arguments();
+        switch (func.functype()) {
+            case COND_AND_FUNC:
+            case COND_OR_FUNC:
+                List<RowPredicate> children = new ArrayList<>(args.size());
+                for (Item arg : args) {
+                    RowPredicate child = compile(arg, fields);
+                    if (child == null) {
+                        return null;
+                    }
+                    children.add(child);
+                }
+                return func.functype() == ItemFunc.Functype.COND_AND_FUNC ? new And(children) : new Or(children);
+            case NOT_FUNC:
+                RowPredicate child = compile(args.get(0), fields);
+                return child == null ? null : new Not(child);
+            case ISNULL_FUNC:
+            case ISNOTNULL_FUNC:
+                int index = getFieldIndex(args.get(0), fields);
+                return index < 0 ? null : new IsNull(index, func.functype() == ItemFunc.Functype.ISNULL_FUNC);
+            case EQ_FUNC:
+            case NE_FUNC:
+            case LT_FUNC:
+            case LE_FUNC:
+            case GT_FUNC:
+            case GE_FUNC:
+                return compileCompare(func.functype(), args.get(0), args.get(1), fields);
+            default:
+                return null;
+        }
+    }
+
+    private static RowPredicate compileCompare(ItemFunc.Functype op, Item left, Item right, List<Field> fields) {
+        Operand leftOperand = getOperand(left, fields);
+        Operand rightOperand = getOperand(right, fields);
+        if (leftOperand == null || rightOperand == null || (leftOperand.index < 0 && rightOperand.index < 0)) {
+            return null;
+        }
+        return new Compare(op, leftOperand, rightOperand);
+    }
+
+    private static Operand getOperand(Item item, List<Field> fields) {
+        if (item instanceof ItemInt) {
+            return new Operand(-1, item.valInt());
+        }
+        int index = getIntFieldIndex(item, fields);
+        return index < 0 ? null : new Operand(index, null);
+    }
+
+    private static int getIntFieldIndex(Item item, List<Field> fields) {
+        int index = getFieldIndex(item, fields);
+        if (index < 0) {
+            return -1;
+        }
+        Field field = fields.get(index);
+        boolean isInt = field instanceof FieldTiny || field instanceof FieldShort || field instanceof FieldMedium ||
+                field instanceof FieldLong || field instanceof FieldLonglong;
+        return isInt ? index : -1;
+    }
+
+    private static int getFieldIndex(Item item, List<Field> fields) {
+        if (!(item instanceof ItemField)) {
+            return -1;
+        }
+        Field field = ((ItemField) item).getField();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i) == field) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the condition is true for the values of the row, false if it's false or unknown
+     */
+    public boolean isTrue(List<byte[]> values) {
+        return test(values) == TRUE;
+    }
+
+    abstract int test(List<byte[]> values);
+
+    private static boolean fitsLong(byte[] value) {
+        int start = value.length > 0 && (value[0] == '-' || value[0] == '+') ? 1 : 0;
+        int digits = value.length - start;
+        if (digits == 0 || digits > MAX_LONG_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < value.length; i++) {
+            if (value[i] < '0' || value[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value the value checked by fitsLong
+     */
+    private static long parseLong(byte[] value) {
+        boolean negative = value[0] == '-';
+        int start = negative || value[0] == '+' ? 1 : 0;
+        long result = 0;
+        for (int i = start; i < value.length; i++) {
+            result = result * 10 + (value[i] - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * same as FieldNum, the value which is not an integer is 0
+     */
+    private static BigInteger parseBigInteger(byte[] value) {
+        try {
+            return new BigInteger(new String(value));
+        } catch (NumberFormatException e) {
+            return BigInteger.ZERO;
+        }
+    }
+
+    private static final class And extends RowPredicate {
+        private final List<RowPredicate> children;
+
+        private And(List<RowPredicate> children) {
+            this.children = children;
+        }
+
+        @Override
+        int test(List<byte[]> values) {
+            int result = TRUE;
+            for (RowPredicate child : children) {
+                int childResult = child.test(values);
+                if (childResult == FALSE) {
+                    return FALSE;
+                } else if (childResult == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Or extends RowPredicate {
+        private final List<RowPredicate> children;
+
+        private Or(List<RowPredicate> children) {
+            this.children = children;
+        }
+
+        @Override
+        int test(List<byte[]> values) {
+            int result = FALSE;
+            for (RowPredicate child : children) {
+                int childResult = child.test(values);
+                if (childResult == TRUE) {
+                    return TRUE;
+                } else if (childResult == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Not extends RowPredicate {
+        private final RowPredicate child;
+
+        private Not(RowPredicate child) {
+            this.child = child;
+        }
+
+        @Override
+        int test(List<byte[]> values) {
+            int result = child.test(values);
+            return result == UNKNOWN ? UNKNOWN : TRUE - result;
+        }
+    }
+
+    private static final class IsNull extends RowPredicate {
+        private final int index;
+        private final boolean isNull;
+
+        private IsNull(int index, boolean isNull) {
+            this.index = index;
+            this.isNull = isNull;
+        }
+
+        @Override
+        int test(List<byte[]> values) {
+            return (values.get(index) == null) == isNull ? TRUE : FALSE;
+        }
+    }
+
+    /**
+     * the integer field or the integer constant
+     */
+    private static final class Operand {
+        private final int index;
+        private final BigInteger bigValue;
+        private final boolean isLong;
+        private final long longValue;
+
+        private Operand(int index, BigInteger constant) {
+            this.index = index;
+            this.bigValue = constant;
+            this.isLong = constant != null && constant.bitLength() < Long.SIZE;
+            this.longValue = isLong ? constant.longValue() : 0;
+        }
+    }
+
+    private static final class Compare extends RowPredicate {
+        private final ItemFunc.Functype op;
+        private final Operand left;
+        private final Operand right;
+
+        private Compare(ItemFunc.Functype op, Operand left, Operand right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int test(List<byte[]> values) {
+            byte[] leftValue = left.index < 0 ? null : values.get(left.index);
+            byte[] rightValue = right.index < 0 ? null : values.get(right.index);
+            if ((left.index >= 0 && leftValue == null) || (right.index >= 0 && rightValue == null)) {
+                return UNKNOWN;
+            }
+            int cmp;
+            boolean leftIsLong = left.index < 0 ? left.isLong : fitsLong(leftValue);
+            boolean rightIsLong = right.index < 0 ? right.isLong : fitsLong(rightValue);
+            if (leftIsLong && rightIsLong) {
+                long l = left.index < 0 ? left.longValue : parseLong(leftValue);
+                long r = right.index < 0 ? right.longValue : parseLong(rightValue);
+                cmp = Long.compare(l, r);
+            } else {
+                BigInteger l = left.index < 0 ? left.bigValue : parseBigInteger(leftValue);
+                BigInteger r = right.index < 0 ? right.bigValue : parseBigInteger(rightValue);
+                cmp = l.compareTo(r);
+            }
+            return matches(cmp) ? TRUE : FALSE;
+        }
+
+        private boolean matches(int cmp) {
+            switch (op) {
+                case EQ_FUNC:
+                    return cmp == 0;
+                case NE_FUNC:
+                    return cmp != 0;
+                case LT_FUNC:
+                    return cmp < 0;
+                case LE_FUNC:
+                    return cmp <= 0;
+                case GT_FUNC:
+                    return cmp > 0;
+                default:
+                    return cmp >= 0;
+            }
+        }
+    }
+}
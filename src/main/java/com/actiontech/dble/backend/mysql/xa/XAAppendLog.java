@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.xa;
+
+import com.actiontech.dble.alarm.AlarmCode;
+import com.actiontech.dble.alarm.Alert;
+import com.actiontech.dble.alarm.AlertUtil;
+import com.actiontech.dble.backend.mysql.xa.recovery.impl.FileSystemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * the xa recovery log which only appends the changed entry instead of rewriting all the entries.
+ * the writers which need the entry on disk share one force: the first waiter forces everything written
+ * so far, the others wait for it. the log is compacted to the live entries by the periodic clean task.
+ */
+public class XAAppendLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAAppendLog.class);
+
+    private final FileSystemRepository repository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forceFinished = lock.newCondition();
+    // the sequence of the last written entry
+    private long writtenSeq = 0;
+    // the entries up to the sequence are on disk
+    private long forcedSeq = 0;
+    // the entries up to the sequence are lost by a failed force
+    private long failedSeq = 0;
+    private boolean forcing = false;
+    private boolean changed = false;
+
+    public XAAppendLog(FileSystemRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @param entries the live entries, used to open the log by a checkpoint if it is not opened
+     * @param force   wait until the entry is on disk
+     */
+    public boolean append(CoordinatorLogEntry entry, boolean force, Supplier<Collection<CoordinatorLogEntry>> entries) {
+        long seq;
+        lock.lock();
+        try {
+            if (!repository.isOpened()) {
+                // the live entries contain the entry already
+                return checkpoint(entries.get());
+            }
+            repository.append(entry);
+            seq = ++writtenSeq;
+            changed = true;
+        } catch (Exception e) {
+            LOGGER.warn("Failed to append xa log", e);
+            AlertUtil.alertSelf(AlarmCode.XA_WRITE_IO_FAIL, Alert.AlertLevel.WARN, "Failed to append xa log:" + e.getMessage(), null);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+        return !force || waitForced(seq);
+    }
+
+    private boolean waitForced(long seq) {
+        lock.lock();
+        try {
+            while (forcedSeq < seq) {
+                if (failedSeq >= seq) {
+                    return false;
+                }
+                if (forcing) {
+                    forceFinished.await();
+                    continue;
+                }
+                // group commit: force all the entries written by the waiters
+                forcing = true;
+                long target = writtenSeq;
+                boolean success = false;
+                lock.unlock();
+                try {
+                    repository.force();
+                    success = true;
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to force xa log", e);
+                    AlertUtil.alertSelf(AlarmCode.XA_WRITE_IO_FAIL, Alert.AlertLevel.WARN, "Failed to force xa log:" + e.getMessage(), null);
+                } finally {
+                    lock.lock();
+                    forcing = false;
+                    if (success) {
+                        forcedSeq = Math.max(forcedSeq, target);
+                    } else {
+                        failedSeq = Math.max(failedSeq, target);
+                    }
+                    forceFinished.signalAll();
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            LOGGER.warn("wait for xa log force error", e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * rewrite the log with the live entries if any entry is appended since the last checkpoint
+     */
+    public void compact(Supplier<Collection<CoordinatorLogEntry>> entries) {
+        lock.lock();
+        try {
+            if (!changed && repository.isOpened()) {
+                return;
+            }
+            checkpoint(entries.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * must be called with the lock
+     */
+    private boolean checkpoint(Collection<CoordinatorLogEntry> entries) {
+        try {
+            while (forcing) {
+                forceFinished.await();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("wait for xa log force error", e);
+            return false;
+        }
+        if (!repository.writeCheckpoint(entries)) {
+            return false;
+        }
+        changed = false;
+        // the checkpoint is forced, it contains all the entries written before
+        forcedSeq = writtenSeq;
+        forceFinished.signalAll();
+        return true;
+    }
+}
@@ -35,11 +35,19 @@ public final class XAStateLog {
     public static final Logger LOGGER = LoggerFactory.getLogger(XAStateLog.class);
     private static final Repository FILE_REPOSITORY;
 
+    private static final XAAppendLog APPEND_LOG;
+
     static {
         if (ClusterGeneralConfig.isUseZK()) {
             FILE_REPOSITORY = new KVStoreRepository();
+            APPEND_LOG = null;
         } else {
             FILE_REPOSITORY = new FileSystemRepository();
+            if (DbleServer.getInstance().getConfig().getSystem().getUseXaAppendLog() == 1) {
+                APPEND_LOG = new XAAppendLog((FileSystemRepository) FILE_REPOSITORY);
+            } else {
+                APPEND_LOG = null;
+            }
         }
     }
 
@@ -63,11 +71,16 @@ public final class XAStateLog {
             return true;
         }
         //will preparing, may success send but failed received,should be rollback
-        if (sessionState == TxState.TX_PREPARING_STATE ||
+        boolean needForce = sessionState == TxState.TX_PREPARING_STATE ||
                 //will committing, may success send but failed received,should be commit agagin
                 sessionState == TxState.TX_COMMITTING_STATE ||
                 //will rollbacking, may success send but failed received,should be rollback agagin
-                sessionState == TxState.TX_ROLLBACKING_STATE) {
+                sessionState == TxState.TX_ROLLBACKING_STATE;
+        if (APPEND_LOG != null) {
+            // the other states are appended without waiting, as they are written by the next checkpoint in full mode
+            return appendLog(xaTxId, coordinatorLogEntry, needForce);
+        }
+        if (needForce) {
             return writeCheckpoint(xaTxId);
         }
         return true;
@@ -97,6 +110,10 @@ public final class XAStateLog {
     }
 
     public static boolean writeCheckpoint(String xaTxId) {
+        if (APPEND_LOG != null) {
+            CoordinatorLogEntry coordinatorLogEntry = IN_MEMORY_REPOSITORY.get(xaTxId);
+            return coordinatorLogEntry != null && appendLog(xaTxId, coordinatorLogEntry, true);
+        }
         lock.lock();
         try {
             while (isWriting) {
@@ -126,23 +143,7 @@ public final class XAStateLog {
                 isWriting = true;
                 boolean writeResult = false;
                 // copy memoryRepository
-                List<CoordinatorLogEntry> logs = new ArrayList<>();
-                ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
-                lockMap.lock();
-                try {
-                    Collection<CoordinatorLogEntry> logCollection = IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false);
-                    for (CoordinatorLogEntry coordinatorLogEntry : logCollection) {
-                        CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
-                        if (log != null) {
-                            logs.add(log);
-                        }
-                    }
-                } catch (Exception e) {
-                    LOGGER.warn("logCollection deep copy error, leader Xid is:" + xaTxId, e);
-                    logs.clear();
-                } finally {
-                    lockMap.unlock();
-                }
+                List<CoordinatorLogEntry> logs = copyMemoryRepository(xaTxId);
                 if (!logs.isEmpty()) {
                     writeResult = FILE_REPOSITORY.writeCheckpoint(logs);
                 }
@@ -188,6 +189,43 @@ public final class XAStateLog {
         }
     }
 
+    private static boolean appendLog(String xaTxId, CoordinatorLogEntry coordinatorLogEntry, boolean force) {
+        CoordinatorLogEntry log;
+        ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
+        lockMap.lock();
+        try {
+            log = coordinatorLogEntry.getDeepCopy();
+        } finally {
+            lockMap.unlock();
+        }
+        if (log == null) {
+            LOGGER.warn("the xa log is not complete, Xid is:" + xaTxId);
+            return false;
+        }
+        return APPEND_LOG.append(log, force, () -> copyMemoryRepository(xaTxId));
+    }
+
+    private static List<CoordinatorLogEntry> copyMemoryRepository(String xaTxId) {
+        List<CoordinatorLogEntry> logs = new ArrayList<>();
+        ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
+        lockMap.lock();
+        try {
+            Collection<CoordinatorLogEntry> logCollection = IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false);
+            for (CoordinatorLogEntry coordinatorLogEntry : logCollection) {
+                CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
+                if (log != null) {
+                    logs.add(log);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("logCollection deep copy error, leader Xid is:" + xaTxId, e);
+            logs.clear();
+        } finally {
+            lockMap.unlock();
+        }
+        return logs;
+    }
+
     public static void flushMemoryRepository(String xaTxId, CoordinatorLogEntry coordinatorLogEntry) {
         IN_MEMORY_REPOSITORY.put(xaTxId, coordinatorLogEntry);
     }
@@ -206,6 +244,9 @@ public final class XAStateLog {
                 IN_MEMORY_REPOSITORY.remove(entry.getId());
             }
         }
+        if (APPEND_LOG != null) {
+            APPEND_LOG.compact(() -> copyMemoryRepository(null));
+        }
     }
 
     public static void setWriteAlert(boolean writeAlert) {
@@ -210,6 +210,8 @@ public class FileSystemRepository implements Repository {
             }
             return true;
         } catch (Exception e) {
+            // the next checkpoint opens a new version again
+            rwChannel = null;
             LOGGER.warn("Failed to write checkpoint", e);
             AlertUtil.alertSelf(AlarmCode.XA_WRITE_CHECK_POINT_FAIL, Alert.AlertLevel.WARN, "Failed to write checkpoint:" + e.getMessage(), null);
             ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL.add(XA_ALERT_FLAG);
@@ -217,6 +219,25 @@ public class FileSystemRepository implements Repository {
         }
     }
 
+    /**
+     * append the entry to the current version, it replaces the former lines of the same id when the log is read.
+     * the current version must be opened by writeCheckpoint first
+     */
+    public void append(CoordinatorLogEntry coordinatorLogEntry) throws IOException {
+        if (rwChannel == null) {
+            throw new IllegalStateException("the log is not opened by checkpoint");
+        }
+        write(coordinatorLogEntry, false);
+    }
+
+    public void force() throws IOException {
+        rwChannel.force(false);
+    }
+
+    public boolean isOpened() {
+        return rwChannel != null;
+    }
+
     /**
      * create the log base dir
      */
@@ -28,4 +28,9 @@ public interface BufferPool {
     int getSharedOptsCount();
 
     int getChunkSize();
+
+    /**
+     * the count of the allocations which fell back to the heap buffer
+     */
+    long getFallbackCount();
 }
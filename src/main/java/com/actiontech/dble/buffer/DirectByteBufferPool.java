@@ -11,6 +11,7 @@ import sun.nio.ch.DirectBuffer;
 
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * DirectByteBufferPool
@@ -28,6 +29,7 @@ public class DirectByteBufferPool implements BufferPool {
     private AtomicLong prevAllocatedPage;
     private final int pageSize;
     private final short pageCount;
+    private final LongAdder fallbackCount = new LongAdder();
 
     public DirectByteBufferPool(int pageSize, short chunkSize, short pageCount) {
         allPages = new ByteBufferPage[pageCount];
@@ -71,6 +73,7 @@ public class DirectByteBufferPool implements BufferPool {
         }
 
         if (byteBuf == null) {
+            fallbackCount.increment();
             LOGGER.warn("can't allocate DirectByteBuffer from DirectByteBufferPool. Please pay attention to whether it is a memory leak or there is no enough direct memory.");
             return ByteBuffer.allocate(size);
         }
@@ -140,5 +143,9 @@ public class DirectByteBufferPool implements BufferPool {
         return 0;
     }
 
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
 
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SizeClassBufferPool
+ * <p>
+ * the buffers are power-of-two multiples of the chunk size. a free page is bound to one size class
+ * when a buffer of the class is needed, and goes back to the free pages when all its buffers are recycled.
+ * the pages of each class which have free buffers are kept in a lock-free queue,
+ * and the reactor threads keep a small stack of free buffers for each class in front of the pages.
+ * every buffer has a state in its page, so a buffer recycled twice is rejected.
+ */
+@SuppressWarnings("restriction")
+public class SizeClassBufferPool implements BufferPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SizeClassBufferPool.class);
+    // the max count of the cached buffers of the first class in one thread, halved by each larger class
+    private static final int THREAD_CACHE_COUNT = 16;
+
+    /* the states of a buffer */
+    private static final int STATE_FREE = 0;
+    private static final int STATE_USED = 1;
+    private static final int STATE_CACHED = 2;
+
+    private final int chunkSize;
+    private final int pageSize;
+    private final short pageCount;
+    private final Map<ByteBuffer, SizeClassPage> pageMap;
+    private final ConcurrentLinkedQueue<SizeClassPage> freePages = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<SizeClassPage>[] partialPages;
+    private final int[] threadCacheLimit;
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCache;
+    private final LongAdder usedSize = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+    private final LongAdder invalidRecycleCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public SizeClassBufferPool(int pageSize, short chunkSize, short pageCount) {
+        this.chunkSize = chunkSize;
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        int classCount = 1;
+        while (((long) chunkSize << classCount) <= pageSize) {
+            classCount++;
+        }
+        partialPages = new ConcurrentLinkedQueue[classCount];
+        threadCacheLimit = new int[classCount];
+        for (int i = 0; i < classCount; i++) {
+            partialPages[i] = new ConcurrentLinkedQueue<>();
+            threadCacheLimit[i] = Math.max(1, THREAD_CACHE_COUNT >> i);
+        }
+        pageMap = new IdentityHashMap<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            SizeClassPage page = new SizeClassPage(ByteBuffer.allocateDirect(pageSize));
+            pageMap.put(page.buf, page);
+            freePages.offer(page);
+        }
+        threadCache = ThreadLocal.withInitial(() -> {
+            if (!Thread.currentThread().getName().startsWith(DirectByteBufferPool.LOCAL_BUF_THREAD_PREX)) {
+                return null;
+            }
+            ArrayDeque<ByteBuffer>[] cache = new ArrayDeque[partialPages.length];
+            for (int i = 0; i < cache.length; i++) {
+                cache[i] = new ArrayDeque<>(threadCacheLimit[i]);
+            }
+            return cache;
+        });
+    }
+
+    public ByteBuffer allocate() {
+        return allocate(chunkSize);
+    }
+
+    public ByteBuffer allocate(int size) {
+        int sizeClass = getSizeClass(size);
+        ByteBuffer byteBuf = null;
+        if (sizeClass >= 0) {
+            ArrayDeque<ByteBuffer>[] cache = threadCache.get();
+            if (cache != null) {
+                byteBuf = cache[sizeClass].pollFirst();
+                if (byteBuf != null) {
+                    pageOf(byteBuf).setState(byteBuf, STATE_USED);
+                }
+            }
+            if (byteBuf == null) {
+                byteBuf = allocateFromPartialPage(sizeClass);
+            }
+            if (byteBuf == null) {
+                byteBuf = allocateFromFreePage(sizeClass);
+            }
+        }
+        if (byteBuf == null) {
+            fallbackCount.increment();
+            LOGGER.warn("can't allocate DirectByteBuffer from SizeClassBufferPool. Please pay attention to whether it is a memory leak or there is no enough direct memory.");
+            return ByteBuffer.allocate(size);
+        }
+        usedSize.add(byteBuf.capacity());
+        return byteBuf;
+    }
+
+    public void recycle(ByteBuffer theBuf) {
+        if (!(theBuf instanceof DirectBuffer)) {
+            theBuf.clear();
+            return;
+        }
+        SizeClassPage page = pageOf(theBuf);
+        int sizeClass = getCapacityClass(theBuf.capacity());
+        if (sizeClass < 0 || page == null) {
+            LOGGER.info("warning ,not recycled buffer " + theBuf);
+            return;
+        }
+        ArrayDeque<ByteBuffer>[] cache = threadCache.get();
+        boolean toCache = cache != null && cache[sizeClass].size() < threadCacheLimit[sizeClass];
+        boolean recycled = toCache ? page.cache(theBuf, sizeClass) : page.free(theBuf, sizeClass);
+        if (!recycled) {
+            invalidRecycleCount.increment();
+            LOGGER.warn("warning ,buffer is recycled twice or not allocated by the pool " + theBuf);
+            return;
+        }
+        usedSize.add(-theBuf.capacity());
+        if (toCache) {
+            theBuf.clear();
+            cache[sizeClass].offerFirst(theBuf);
+        }
+    }
+
+    private ByteBuffer allocateFromPartialPage(int sizeClass) {
+        ConcurrentLinkedQueue<SizeClassPage> pages = partialPages[sizeClass];
+        SizeClassPage page;
+        while ((page = pages.peek()) != null) {
+            ByteBuffer buffer = page.allocate(sizeClass);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * bind a free page to the class and allocate the first buffer of it
+     */
+    private ByteBuffer allocateFromFreePage(int sizeClass) {
+        SizeClassPage page = freePages.poll();
+        if (page == null) {
+            return null;
+        }
+        return page.bind(sizeClass);
+    }
+
+    private SizeClassPage pageOf(ByteBuffer buffer) {
+        Object attachment = ((DirectBuffer) buffer).attachment();
+        return attachment instanceof ByteBuffer ? pageMap.get(attachment) : null;
+    }
+
+    /**
+     * @return the smallest class which can hold the size, -1 if the size is larger than the page
+     */
+    private int getSizeClass(int size) {
+        if (size <= chunkSize) {
+            return 0;
+        }
+        int chunks = size / chunkSize + (size % chunkSize == 0 ? 0 : 1);
+        int sizeClass = 32 - Integer.numberOfLeadingZeros(chunks - 1);
+        return sizeClass < partialPages.length ? sizeClass : -1;
+    }
+
+    /**
+     * @return the class of the buffer allocated by the pool, -1 if the capacity is not a class size
+     */
+    private int getCapacityClass(int capacity) {
+        if (capacity % chunkSize != 0 || Integer.bitCount(capacity / chunkSize) != 1) {
+            return -1;
+        }
+        int sizeClass = Integer.numberOfTrailingZeros(capacity / chunkSize);
+        return sizeClass < partialPages.length ? sizeClass : -1;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * return the total size of the buffer memory
+     *
+     * @return long
+     */
+    public long capacity() {
+        return (long) pageSize * pageCount;
+    }
+
+    /**
+     * return the remain free part of memory
+     *
+     * @return long
+     */
+    public long size() {
+        return this.capacity() - usedSize.sum();
+    }
+
+    public int getSharedOptsCount() {
+        return 0;
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    public long getInvalidRecycleCount() {
+        return invalidRecycleCount.sum();
+    }
+
+    /**
+     * a page bound to one size class, or free. the states are indexed by the chunk where the buffer starts
+     */
+    private final class SizeClassPage {
+        private final ByteBuffer buf;
+        private final long address;
+        private final AtomicIntegerArray states;
+        private final BitSet allocated;
+        /* -1 if the page is free, guarded by the page */
+        private int sizeClass = -1;
+        private int bufferCount;
+        private int usedCount;
+        private boolean inPartialQueue;
+
+        private SizeClassPage(ByteBuffer buf) {
+            this.buf = buf;
+            this.address = ((DirectBuffer) buf).address();
+            this.states = new AtomicIntegerArray(pageSize / chunkSize);
+            this.allocated = new BitSet(pageSize / chunkSize);
+        }
+
+        private synchronized ByteBuffer bind(int theSizeClass) {
+            sizeClass = theSizeClass;
+            bufferCount = pageSize / (chunkSize << theSizeClass);
+            usedCount = 0;
+            allocated.clear();
+            return allocate(theSizeClass);
+        }
+
+        /**
+         * @return null if the page is full or bound to another class, the page is removed from the queue of the class
+         */
+        private synchronized ByteBuffer allocate(int theSizeClass) {
+            if (sizeClass != theSizeClass || usedCount == bufferCount) {
+                // the page may have been freed and bound to another class since it was peeked
+                partialPages[theSizeClass].remove(this);
+                if (sizeClass == theSizeClass) {
+                    inPartialQueue = false;
+                }
+                return null;
+            }
+            int index = allocated.nextClearBit(0);
+            allocated.set(index);
+            usedCount++;
+            int bufferSize = chunkSize << theSizeClass;
+            int offset = index * bufferSize;
+            states.set(offset / chunkSize, STATE_USED);
+            if (usedCount == bufferCount) {
+                if (inPartialQueue) {
+                    partialPages[theSizeClass].remove(this);
+                    inPartialQueue = false;
+                }
+            } else if (!inPartialQueue) {
+                partialPages[theSizeClass].offer(this);
+                inPartialQueue = true;
+            }
+            buf.limit(offset + bufferSize);
+            buf.position(offset);
+            ByteBuffer buffer = buf.slice();
+            buf.clear();
+            return buffer;
+        }
+
+        /**
+         * give the buffer back to the page, the page becomes free if all its buffers are given back
+         */
+        private synchronized boolean free(ByteBuffer buffer, int theSizeClass) {
+            int slot = slotOf(buffer, theSizeClass);
+            if (slot < 0 || !states.compareAndSet(slot, STATE_USED, STATE_FREE)) {
+                return false;
+            }
+            allocated.clear(slot * chunkSize / (chunkSize << theSizeClass));
+            usedCount--;
+            if (usedCount == 0) {
+                sizeClass = -1;
+                if (inPartialQueue) {
+                    partialPages[theSizeClass].remove(this);
+                    inPartialQueue = false;
+                }
+                freePages.offer(this);
+            } else if (!inPartialQueue) {
+                partialPages[theSizeClass].offer(this);
+                inPartialQueue = true;
+            }
+            return true;
+        }
+
+        /**
+         * the buffer kept by the thread cache is still allocated in the page
+         */
+        private boolean cache(ByteBuffer buffer, int theSizeClass) {
+            int slot;
+            synchronized (this) {
+                slot = slotOf(buffer, theSizeClass);
+            }
+            return slot >= 0 && states.compareAndSet(slot, STATE_USED, STATE_CACHED);
+        }
+
+        private void setState(ByteBuffer buffer, int state) {
+            states.set((int) ((((DirectBuffer) buffer).address() - address) / chunkSize), state);
+        }
+
+        /**
+         * @return -1 if the buffer doesn't match a buffer of the class in the page
+         */
+        private int slotOf(ByteBuffer buffer, int theSizeClass) {
+            if (sizeClass != theSizeClass) {
+                return -1;
+            }
+            long offset = ((DirectBuffer) buffer).address() - address;
+            int bufferSize = chunkSize << theSizeClass;
+            if (offset < 0 || offset + bufferSize > pageSize || offset % bufferSize != 0) {
+                return -1;
+            }
+            return (int) (offset / chunkSize);
+        }
+    }
+}
@@ -404,6 +404,7 @@ public class ServerConfig {
             this.firewall = newFirewall;
             this.erRelations = newErRelations;
             CacheService.getInstance().clearCache();
+            PlanCacheManager.getInstance().clear();
             HaConfigManager.getInstance().init();
             this.changing = false;
             if (isFullyConfigured) {
@@ -49,6 +49,7 @@ public final class SystemConfig {
     private int writeToBackendExecutor = (DEFAULT_PROCESSORS != 1) ? DEFAULT_PROCESSORS : 2;
     private String fakeMySQLVersion = null;
     private int sequenceHandlerType = SEQUENCE_HANDLER_LOCAL_TIME;
+    private int sequencePrefetchPercent = 0;
     private int serverBacklog = 2048;
     private int serverNodeId = 1;
     private long showBinlogStatusTimeout = 60 * 1000;
@@ -56,8 +57,11 @@ public final class SystemConfig {
     //option
     private int useCompression = 0;
     private int usingAIO = 0;
+    private int writeCorkThreshold = 0;
     private int useThreadUsageStat = 0;
     private int usePerformanceMode = 0;
+    private boolean useLatencyReadBalance = false;
+    private int useRowPassthrough = 0;
     private int useSerializableMode = 0;
 
     //query time cost statistics
@@ -73,6 +77,8 @@ public final class SystemConfig {
     //consistency
     private int checkTableConsistency = 0;
     private long checkTableConsistencyPeriod = 30 * 60 * 1000;
+    private boolean useMetaSnapshot = false;
+    private long tableStatisticPeriod = 0;
 
     //heartbeat check period
     private long dataNodeIdleCheckPeriod = 5 * 60 * 1000L;
@@ -96,9 +102,11 @@ public final class SystemConfig {
     private String xaRecoveryLogBaseDir = SystemConfig.getHomePath() + File.separatorChar + "tmlogs" + File.separatorChar;
     private String xaRecoveryLogBaseName = "tmlog";
     private int xaRetryCount = 0;
+    private int useXaAppendLog = 0;
 
     //use JoinStrategy
     private boolean useJoinStrategy = false;
+    private boolean useHashJoin = false;
     private int nestLoopRowsSize = 2000;
     private int nestLoopConnSize = 4;
 
@@ -114,11 +122,15 @@ public final class SystemConfig {
     private short bufferPoolChunkSize = 4096;
     // buffer pool page number
     private short bufferPoolPageNumber = (short) (Platform.getMaxDirectMemory() * 0.8 / bufferPoolPageSize);
+    // 0:DirectByteBufferPool 1:SizeClassBufferPool
+    private int bufferPoolType = 0;
     private boolean useDefaultPageNumber = true;
     private int mappedFileSize = 1024 * 1024 * 64;
 
     // sql statistics
     private int useSqlStat = 1;
+    private int planCacheSize = 0;
+    private int inListRewriteThreshold = 16;
     private int sqlRecordCount = 10;
     //Threshold of big result ,default512kb
     private int maxResultSet = 512 * 1024;
@@ -143,6 +155,7 @@ public final class SystemConfig {
 
     // for join tmp results
     private int mergeQueueSize = 1024;
+    private int limitCancelRows = 10000;
     private int orderByQueueSize = 1024;
     private int joinQueueSize = 1024;
     //slow log
@@ -156,6 +169,7 @@ public final class SystemConfig {
     private int enableAlert = 1;
     //load data
     private int maxRowSizeToFile = 10000;
+    private boolean useStreamLoadData = false;
     private int maxCharsPerColumn = 65535; // 128k,65535 chars
     //errors
     private ProblemReporter problemReporter;
@@ -164,6 +178,7 @@ public final class SystemConfig {
     private boolean enableFlowControl = false;
     private int flowControlStartThreshold = 4096;
     private int flowControlStopThreshold = 256;
+    private int flowControlMemoryPercent = 80;
 
     //only for compatibility
     private boolean useNewSpellRotate = false;
@@ -224,6 +239,15 @@ public final class SystemConfig {
         this.useJoinStrategy = useJoinStrategy;
     }
 
+    public boolean isUseHashJoin() {
+        return useHashJoin;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseHashJoin(boolean useHashJoin) {
+        this.useHashJoin = useHashJoin;
+    }
+
     public String getXaRecoveryLogBaseDir() {
         return xaRecoveryLogBaseDir;
     }
@@ -266,6 +290,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getSequencePrefetchPercent() {
+        return sequencePrefetchPercent;
+    }
+
+    @SuppressWarnings("unused")
+    public void setSequencePrefetchPercent(int sequencePrefetchPercent) {
+        if (sequencePrefetchPercent >= 0 && sequencePrefetchPercent < 100) {
+            this.sequencePrefetchPercent = sequencePrefetchPercent;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "sequencePrefetchPercent", sequencePrefetchPercent, this.sequencePrefetchPercent));
+        }
+    }
+
     public int getMaxPacketSize() {
         return maxPacketSize;
     }
@@ -334,6 +371,28 @@ public final class SystemConfig {
         }
     }
 
+    public int getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    @SuppressWarnings("unused")
+    public void setPlanCacheSize(int planCacheSize) {
+        if (planCacheSize >= 0) {
+            this.planCacheSize = planCacheSize;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "planCacheSize", planCacheSize, this.planCacheSize));
+        }
+    }
+
+    public int getInListRewriteThreshold() {
+        return inListRewriteThreshold;
+    }
+
+    @SuppressWarnings("unused")
+    public void setInListRewriteThreshold(int inListRewriteThreshold) {
+        this.inListRewriteThreshold = inListRewriteThreshold;
+    }
+
     public int getUseCompression() {
         return useCompression;
     }
@@ -709,6 +768,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getBufferPoolType() {
+        return bufferPoolType;
+    }
+
+    @SuppressWarnings("unused")
+    public void setBufferPoolType(int bufferPoolType) {
+        if (bufferPoolType == 0 || bufferPoolType == 1) {
+            this.bufferPoolType = bufferPoolType;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "bufferPoolType", bufferPoolType, this.bufferPoolType));
+        }
+    }
+
 
 
     public boolean isUseDefaultPageNumber() {
@@ -807,6 +879,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getWriteCorkThreshold() {
+        return writeCorkThreshold;
+    }
+
+    @SuppressWarnings("unused")
+    public void setWriteCorkThreshold(int writeCorkThreshold) {
+        if (writeCorkThreshold >= 0) {
+            this.writeCorkThreshold = writeCorkThreshold;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "writeCorkThreshold", writeCorkThreshold, this.writeCorkThreshold));
+        }
+    }
+
     public int getServerNodeId() {
         return serverNodeId;
     }
@@ -846,6 +931,28 @@ public final class SystemConfig {
         }
     }
 
+    public boolean isUseMetaSnapshot() {
+        return useMetaSnapshot;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseMetaSnapshot(boolean useMetaSnapshot) {
+        this.useMetaSnapshot = useMetaSnapshot;
+    }
+
+    public long getTableStatisticPeriod() {
+        return tableStatisticPeriod;
+    }
+
+    @SuppressWarnings("unused")
+    public void setTableStatisticPeriod(long tableStatisticPeriod) {
+        if (tableStatisticPeriod >= 0) {
+            this.tableStatisticPeriod = tableStatisticPeriod;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "tableStatisticPeriod", tableStatisticPeriod, this.tableStatisticPeriod));
+        }
+    }
+
     public int getNestLoopRowsSize() {
         return nestLoopRowsSize;
     }
@@ -885,6 +992,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getLimitCancelRows() {
+        return limitCancelRows;
+    }
+
+    @SuppressWarnings("unused")
+    public void setLimitCancelRows(int limitCancelRows) {
+        if (limitCancelRows >= -1) {
+            this.limitCancelRows = limitCancelRows;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "limitCancelRows", limitCancelRows, this.limitCancelRows));
+        }
+    }
+
     public int getOtherMemSize() {
         return otherMemSize;
     }
@@ -1048,6 +1168,28 @@ public final class SystemConfig {
         }
     }
 
+    public boolean isUseLatencyReadBalance() {
+        return useLatencyReadBalance;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseLatencyReadBalance(boolean useLatencyReadBalance) {
+        this.useLatencyReadBalance = useLatencyReadBalance;
+    }
+
+    public int getUseRowPassthrough() {
+        return useRowPassthrough;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseRowPassthrough(int useRowPassthrough) {
+        if (useRowPassthrough >= 0 && useRowPassthrough <= 1) {
+            this.useRowPassthrough = useRowPassthrough;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useRowPassthrough", useRowPassthrough, this.useRowPassthrough));
+        }
+    }
+
     public int getUseSerializableMode() {
         return useSerializableMode;
     }
@@ -1192,6 +1334,15 @@ public final class SystemConfig {
         }
     }
 
+    public boolean isUseStreamLoadData() {
+        return useStreamLoadData;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseStreamLoadData(boolean useStreamLoadData) {
+        this.useStreamLoadData = useStreamLoadData;
+    }
+
 
     public boolean isUseOuterHa() {
         return useOuterHa;
@@ -1218,6 +1369,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getUseXaAppendLog() {
+        return useXaAppendLog;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseXaAppendLog(int useXaAppendLog) {
+        if (useXaAppendLog >= 0 && useXaAppendLog <= 1) {
+            this.useXaAppendLog = useXaAppendLog;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useXaAppendLog", useXaAppendLog, this.useXaAppendLog));
+        }
+    }
+
     public boolean isEnableFlowControl() {
         return enableFlowControl;
     }
@@ -1245,6 +1409,19 @@ public final class SystemConfig {
         this.flowControlStopThreshold = flowControlStopThreshold;
     }
 
+    public int getFlowControlMemoryPercent() {
+        return flowControlMemoryPercent;
+    }
+
+    @SuppressWarnings("unused")
+    public void setFlowControlMemoryPercent(int flowControlMemoryPercent) {
+        if (flowControlMemoryPercent > 0 && flowControlMemoryPercent <= 100) {
+            this.flowControlMemoryPercent = flowControlMemoryPercent;
+        } else if (this.problemReporter != null) {
+            problemReporter.warn(String.format(WARNING_FORMAT, "flowControlMemoryPercent", flowControlMemoryPercent, this.flowControlMemoryPercent));
+        }
+    }
+
     @Override
     public String toString() {
         return "SystemConfig [" +
@@ -1259,14 +1436,18 @@ public final class SystemConfig {
                 ", writeToBackendExecutor=" + writeToBackendExecutor +
                 ", fakeMySQLVersion=" + fakeMySQLVersion +
                 ", sequenceHandlerType=" + sequenceHandlerType +
+                ", sequencePrefetchPercent=" + sequencePrefetchPercent +
                 ", serverBacklog=" + serverBacklog +
                 ", serverNodeId=" + serverNodeId +
                 ", showBinlogStatusTimeout=" + showBinlogStatusTimeout +
                 ", maxCon=" + maxCon +
                 ", useCompression=" + useCompression +
                 ", usingAIO=" + usingAIO +
+                ", writeCorkThreshold=" + writeCorkThreshold +
                 ", useThreadUsageStat=" + useThreadUsageStat +
                 ", usePerformanceMode=" + usePerformanceMode +
+                ", useLatencyReadBalance=" + useLatencyReadBalance +
+                ", useRowPassthrough=" + useRowPassthrough +
                 ", useSerializableMode=" + useSerializableMode +
                 ", useCostTimeStat=" + useCostTimeStat +
                 ", maxCostStatSize=" + maxCostStatSize +
@@ -1277,6 +1458,8 @@ public final class SystemConfig {
                 ", txIsolation=" + txIsolation +
                 ", checkTableConsistency=" + checkTableConsistency +
                 ", checkTableConsistencyPeriod=" + checkTableConsistencyPeriod +
+                ", useMetaSnapshot=" + useMetaSnapshot +
+                ", tableStatisticPeriod=" + tableStatisticPeriod +
                 ", dataNodeIdleCheckPeriod=" + dataNodeIdleCheckPeriod +
                 ", dataNodeHeartbeatPeriod=" + dataNodeHeartbeatPeriod +
                 ", processorCheckPeriod=" + processorCheckPeriod +
@@ -1290,6 +1473,7 @@ public final class SystemConfig {
                 ", xaSessionCheckPeriod=" + xaSessionCheckPeriod +
                 ", xaLogCleanPeriod=" + xaLogCleanPeriod +
                 ", useJoinStrategy=" + useJoinStrategy +
+                ", useHashJoin=" + useHashJoin +
                 ", nestLoopConnSize=" + nestLoopConnSize +
                 ", nestLoopRowsSize=" + nestLoopRowsSize +
                 ", otherMemSize=" + otherMemSize +
@@ -1298,7 +1482,10 @@ public final class SystemConfig {
                 ", bufferPoolChunkSize=" + bufferPoolChunkSize +
                 ", bufferPoolPageSize=" + bufferPoolPageSize +
                 ", bufferPoolPageNumber=" + bufferPoolPageNumber +
+                ", bufferPoolType=" + bufferPoolType +
                 ", useSqlStat=" + useSqlStat +
+                ", planCacheSize=" + planCacheSize +
+                ", inListRewriteThreshold=" + inListRewriteThreshold +
                 ", sqlRecordCount=" + sqlRecordCount +
                 ", maxResultSet=" + maxResultSet +
                 ", bufferUsagePercent=" + bufferUsagePercent +
@@ -1313,6 +1500,7 @@ public final class SystemConfig {
                 ", viewPersistenceConfBaseName=" + viewPersistenceConfBaseName +
                 ", joinQueueSize=" + joinQueueSize +
                 ", mergeQueueSize=" + mergeQueueSize +
+                ", limitCancelRows=" + limitCancelRows +
                 ", orderByQueueSize=" + orderByQueueSize +
                 ", enableSlowLog=" + enableSlowLog +
                 ", slowLogBaseDir=" + slowLogBaseDir +
@@ -1323,10 +1511,13 @@ public final class SystemConfig {
                 ", enableAlert=" + enableAlert +
                 ", maxCharsPerColumn=" + maxCharsPerColumn +
                 ", maxRowSizeToFile=" + maxRowSizeToFile +
+                ", useStreamLoadData=" + useStreamLoadData +
                 ", xaRetryCount=" + xaRetryCount +
+                ", useXaAppendLog=" + useXaAppendLog +
                 ", enableFlowControl=" + enableFlowControl +
                 ", flowControlStartThreshold=" + flowControlStartThreshold +
                 ", flowControlStopThreshold=" + flowControlStopThreshold +
+                ", flowControlMemoryPercent=" + flowControlMemoryPercent +
                 "]";
     }
 
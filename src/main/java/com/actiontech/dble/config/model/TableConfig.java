@@ -40,6 +40,7 @@ public class TableConfig {
     private final String joinKey;
     private final String parentKey;
     private final String locateRTableKeySql;
+    private final String locateRTableKeysSql;
     private final TableConfig directRouteTC;
 
     public TableConfig(String name, String cacheKey, boolean needAddLimit,
@@ -92,7 +93,7 @@ public class TableConfig {
                     locateRTableKeySql = null;
                 } else {
                     directRouteTC = null;
-                    locateRTableKeySql = genLocateRootParentSQL();
+                    locateRTableKeySql = genLocateRootParentSQL(false);
                 }
             } else if (parentTC.getDirectRouteTC() != null) {
                 /*
@@ -105,11 +106,11 @@ public class TableConfig {
                     locateRTableKeySql = null;
                 } else {
                     directRouteTC = null;
-                    locateRTableKeySql = genLocateRootParentSQL();
+                    locateRTableKeySql = genLocateRootParentSQL(false);
                 }
             } else {
                 directRouteTC = null;
-                locateRTableKeySql = genLocateRootParentSQL();
+                locateRTableKeySql = genLocateRootParentSQL(false);
             }
         } else {
             this.joinKey = null;
@@ -117,6 +118,7 @@ public class TableConfig {
             locateRTableKeySql = null;
             directRouteTC = this;
         }
+        locateRTableKeysSql = locateRTableKeySql == null ? null : genLocateRootParentSQL(true);
     }
 
 
@@ -147,7 +149,7 @@ public class TableConfig {
                     locateRTableKeySql = null;
                 } else {
                     directRouteTC = null;
-                    locateRTableKeySql = genLocateRootParentSQL();
+                    locateRTableKeySql = genLocateRootParentSQL(false);
                 }
             } else if (parentTC.getDirectRouteTC() != null) {
                 if (parentKey.equals(parentTC.joinKey)) {
@@ -155,16 +157,17 @@ public class TableConfig {
                     locateRTableKeySql = null;
                 } else {
                     directRouteTC = null;
-                    locateRTableKeySql = genLocateRootParentSQL();
+                    locateRTableKeySql = genLocateRootParentSQL(false);
                 }
             } else {
                 directRouteTC = null;
-                locateRTableKeySql = genLocateRootParentSQL();
+                locateRTableKeySql = genLocateRootParentSQL(false);
             }
         } else {
             locateRTableKeySql = null;
             directRouteTC = this;
         }
+        locateRTableKeysSql = locateRTableKeySql == null ? null : genLocateRootParentSQL(true);
     }
 
 
@@ -199,11 +202,21 @@ public class TableConfig {
         return locateRTableKeySql;
     }
 
+    /**
+     * @return the sql to locate the parent keys end with "in (", the parent key is the first column of the result
+     */
+    public String getLocateRTableKeysSql() {
+        return locateRTableKeysSql;
+    }
+
     public boolean isGlobalTable() {
         return this.tableType == TableTypeEnum.TYPE_GLOBAL_TABLE;
     }
 
-    private String genLocateRootParentSQL() {
+    /**
+     * @param isBatch select the parent key of this table by "in (", otherwise the key of the root parent by "="
+     */
+    private String genLocateRootParentSQL(boolean isBatch) {
         TableConfig tb = this;
         StringBuilder tableSb = new StringBuilder();
         StringBuilder condition = new StringBuilder();
@@ -213,7 +226,7 @@ public class TableConfig {
         while (tb.parentTC != null) {
             tableSb.append(tb.parentTC.name).append(',');
             if (level == 0) {
-                latestCond = " " + tb.parentTC.getName() + '.' + tb.parentKey + "=";
+                latestCond = " " + tb.parentTC.getName() + '.' + tb.parentKey + (isBatch ? " IN (" : "=");
             } else {
                 String relation = tb.parentTC.getName() + '.' + tb.parentKey + '=' + tb.name + '.' + tb.joinKey;
                 condition.append(relation).append(" AND ");
@@ -223,9 +236,7 @@ public class TableConfig {
             tb = tb.parentTC;
         }
         return "SELECT " +
-                prevTC.parentTC.name +
-                '.' +
-                prevTC.parentKey +
+                (isBatch ? parentTC.name + '.' + parentKey : prevTC.parentTC.name + '.' + prevTC.parentKey) +
                 " FROM " +
                 tableSb.substring(0, tableSb.length() - 1) +
                 " WHERE " +
@@ -79,10 +79,24 @@ class InsertHandler extends DefaultHandler {
         SQLInsertStatement.ValuesClause valueClause;
 
         valuesHandler.preProcess(context);
+        long[] ids = null;
+        if (context.getIncrementColumnIndex() != -1) {
+            // take the ids of all the rows at once
+            String tableKey = StringUtil.getFullName(context.getSchema(), context.getTable());
+            try {
+                ids = SequenceManager.getHandler().nextIds(tableKey, insert.getValuesList().size());
+            } catch (SQLNonTransientException e) {
+                context.addError(e.getMessage());
+                valuesHandler.postProcess(context);
+                return;
+            }
+        }
         for (int i = 0; i < insert.getValuesList().size(); i++) {
             valueClause = insert.getValuesList().get(i);
             try {
-                processIncrementColumn(context, valueClause.getValues());
+                if (ids != null) {
+                    processIncrementColumn(context, valueClause.getValues(), ids[i]);
+                }
                 valuesHandler.process(context, valueClause.getValues(), i == 0);
             } catch (SQLNonTransientException e) {
                 context.addError(e.getMessage());
@@ -91,14 +105,8 @@ class InsertHandler extends DefaultHandler {
         valuesHandler.postProcess(context);
     }
 
-    private void processIncrementColumn(DumpFileContext context, List<SQLExpr> values) throws SQLNonTransientException {
+    private void processIncrementColumn(DumpFileContext context, List<SQLExpr> values, long val) {
         int incrementIndex = context.getIncrementColumnIndex();
-        if (incrementIndex == -1) {
-            return;
-        }
-
-        String tableKey = StringUtil.getFullName(context.getSchema(), context.getTable());
-        long val = SequenceManager.getHandler().nextId(tableKey);
         SQLExpr value = values.get(incrementIndex);
         if (!StringUtil.isEmpty(SQLUtils.toMySqlString(value)) && !context.isNeedSkipError()) {
             context.addError("For table using global sequence, dble has set increment column values for you.");
@@ -232,6 +232,12 @@ public final class ShowHandler {
             case ManagerParseShow.SHOW_QUESTIONS:
                 ShowQuestions.execute(c);
                 break;
+            case ManagerParseShow.PLAN_CACHE:
+                ShowPlanCache.execute(c);
+                break;
+            case ManagerParseShow.SQL_DISPATCH:
+                ShowSQLDispatch.execute(c);
+                break;
             case ManagerParseShow.DATADISTRIBUTION_WHERE:
                 String name = stmt.substring(rs >>> 8).trim();
                 if (StringUtil.isEmpty(name)) {
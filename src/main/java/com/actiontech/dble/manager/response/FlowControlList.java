@@ -23,7 +23,7 @@ import java.nio.ByteBuffer;
  */
 public final class FlowControlList {
 
-    private static final int FIELD_COUNT = 4;
+    private static final int FIELD_COUNT = 6;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -45,6 +45,12 @@ public final class FlowControlList {
         FIELDS[i] = PacketUtil.getField("WRITE_QUEUE_SIZE", Fields.FIELD_TYPE_LONGLONG);
         FIELDS[i++].setPacketId(++packetId);
 
+        FIELDS[i] = PacketUtil.getField("WRITE_QUEUE_BYTES", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("FLOW_CONTROLLED_TIME(ms)", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
         EOF.setPacketId(++packetId);
     }
 
@@ -95,6 +101,8 @@ public final class FlowControlList {
                     row.add(LongUtil.toBytes(fc.getId()));
                     row.add(StringUtil.encode(fc.getHost() + ":" + fc.getLocalPort() + "/" + fc.getSchema() + " user = " + fc.getUser(), c.getCharset().getResults()));
                     row.add(LongUtil.toBytes(fc.getWriteQueue().size()));
+                    row.add(LongUtil.toBytes(fc.getWriteQueueBytes()));
+                    row.add(LongUtil.toBytes(fc.getFlowControlledTime()));
                     row.setPacketId(++packetId);
                     buffer = row.write(buffer, c, true);
                 }
@@ -114,6 +122,8 @@ public final class FlowControlList {
                     row.add(LongUtil.toBytes(mc.getThreadId()));
                     row.add(StringUtil.encode(mc.getPool().getConfig().getUrl() + "/" + mc.getSchema() + " id = " + mc.getThreadId(), c.getCharset().getResults()));
                     row.add(LongUtil.toBytes(mc.getWriteQueue().size()));
+                    row.add(LongUtil.toBytes(mc.getWriteQueueBytes()));
+                    row.add(LongUtil.toBytes(mc.getFlowControlledTime()));
                     row.setPacketId(++packetId);
                     buffer = row.write(buffer, c, true);
                 }
@@ -19,7 +19,7 @@ import java.nio.ByteBuffer;
  */
 public final class FlowControlShow {
 
-    private static final int FIELD_COUNT = 3;
+    private static final int FIELD_COUNT = 6;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -37,6 +37,15 @@ public final class FlowControlShow {
         FIELDS[i] = PacketUtil.getField("FLOW_CONTROL_END", Fields.FIELD_TYPE_LONGLONG);
         FIELDS[i++].setPacketId(++packetId);
 
+        FIELDS[i] = PacketUtil.getField("BUFFER_USAGE_PERCENT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("FLOW_CONTROL_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("FLOW_CONTROLLED_TIME(ms)", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
         EOF.setPacketId(++packetId);
     }
 
@@ -66,6 +75,9 @@ public final class FlowControlShow {
         row.add(StringUtil.encode(config.isEnableFlowControl() ? "true" : "false", c.getCharset().getResults()));
         row.add(LongUtil.toBytes(config.getStart()));
         row.add(LongUtil.toBytes(config.getEnd()));
+        row.add(LongUtil.toBytes(WriteQueueFlowController.getMemoryUsagePercent()));
+        row.add(LongUtil.toBytes(WriteQueueFlowController.getFlowControlCount()));
+        row.add(LongUtil.toBytes(WriteQueueFlowController.getFlowControlledTime()));
         row.setPacketId(++packetId);
         buffer = row.write(buffer, c, true);
 
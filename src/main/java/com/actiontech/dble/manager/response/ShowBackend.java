@@ -36,7 +36,7 @@ import java.util.Map;
  * @author mycat
  */
 public final class ShowBackend {
-    private static final int FIELD_COUNT = 23;
+    private static final int FIELD_COUNT = 25;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -92,6 +92,10 @@ public final class ShowBackend {
         FIELDS[i] = PacketUtil.getField("DEAD_TIME", Fields.FIELD_TYPE_VAR_STRING);
         FIELDS[i++].setPacketId(++packetId);
         FIELDS[i] = PacketUtil.getField("USED_FOR_HEARTBEAT", Fields.FIELD_TYPE_VAR_STRING);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("EXECUTE_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("SYN_EXECUTE_COUNT", Fields.FIELD_TYPE_LONGLONG);
         FIELDS[i].setPacketId(++packetId);
 
         EOF.setPacketId(++packetId);
@@ -227,6 +231,8 @@ public final class ShowBackend {
         } else {
             row.add("false".getBytes());
         }
+        row.add(LongUtil.toBytes(conn.getExecuteCount()));
+        row.add(LongUtil.toBytes(conn.getSynExecuteCount()));
         return row;
     }
 }
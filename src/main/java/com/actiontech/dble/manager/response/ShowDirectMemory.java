@@ -15,6 +15,7 @@ import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.ResultSetHeaderPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.singleton.BufferPoolManager;
+import com.actiontech.dble.util.LongUtil;
 import com.actiontech.dble.util.StringUtil;
 
 import java.nio.ByteBuffer;
@@ -27,7 +28,7 @@ public final class ShowDirectMemory {
     private ShowDirectMemory() {
     }
 
-    private static final int TOTAL_FIELD_COUNT = 3;
+    private static final int TOTAL_FIELD_COUNT = 4;
     private static final ResultSetHeaderPacket TOTAL_HEADER = PacketUtil.getHeader(TOTAL_FIELD_COUNT);
     private static final FieldPacket[] TOTAL_FIELDS = new FieldPacket[TOTAL_FIELD_COUNT];
     private static final EOFPacket TOTAL_EOF = new EOFPacket();
@@ -44,6 +45,9 @@ public final class ShowDirectMemory {
         TOTAL_FIELDS[i++].setPacketId(++packetId);
 
         TOTAL_FIELDS[i] = PacketUtil.getField("DIRECT_MEMORY_POOL_USED", Fields.FIELD_TYPE_VAR_STRING);
+        TOTAL_FIELDS[i++].setPacketId(++packetId);
+
+        TOTAL_FIELDS[i] = PacketUtil.getField("DIRECT_MEMORY_POOL_FALLBACK", Fields.FIELD_TYPE_LONGLONG);
         TOTAL_FIELDS[i].setPacketId(++packetId);
         TOTAL_EOF.setPacketId(++packetId);
 
@@ -71,6 +75,7 @@ public final class ShowDirectMemory {
         row.add(StringUtil.encode(JavaUtils.bytesToString2(totalAvailable), c.getCharset().getResults()));
         row.add(StringUtil.encode(JavaUtils.bytesToString2(poolSize), c.getCharset().getResults()));
         row.add(StringUtil.encode(JavaUtils.bytesToString2(used), c.getCharset().getResults()));
+        row.add(LongUtil.toBytes(BufferPoolManager.getBufferPool().getFallbackCount()));
         // write rows
         byte packetId = TOTAL_EOF.getPacketId();
         row.setPacketId(++packetId);
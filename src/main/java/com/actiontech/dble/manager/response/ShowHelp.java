@@ -109,6 +109,7 @@ public final class ShowHelp {
         HELPS.put("show @@command", "Report commands status");
         HELPS.put("show @@connection where processor=? and front_id=? and host=? and user=?", "Report connection status");
         HELPS.put("show @@cache", "Report system cache usage");
+        HELPS.put("show @@plan_cache", "Report the size and hit rate of the route plan cache");
         HELPS.put("show @@backend where processor=? and backend_id=? and mysql_id=? and host=? and port=?", "Report backend connection status");
         HELPS.put("show @@session", "Report front session details");
         HELPS.put("show @@session.xa", "Report front session and associated xa transaction details");
@@ -121,6 +122,7 @@ public final class ShowHelp {
         HELPS.put("show @@sql.large", "Report the sql witch resultset larger than 10000 rows");
         HELPS.put("show @@sql.condition", "Report the query of a specific table.column set by reload query_cf");
         HELPS.put("show @@sql.resultset", "Report BIG RESULTSET SQL");
+        HELPS.put("show @@sql.dispatch", "Report the query results waiting for the sql statistic and the dropped ones");
         HELPS.put("show @@sql.sum", "Report  User RW Stat ");
         HELPS.put("show @@sql.sum.user", "Report  User RW Stat ");
         HELPS.put("show @@sql.sum.table", "Report  Table RW Stat ");
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.manager.response;
+
+import com.actiontech.dble.backend.mysql.PacketUtil;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.manager.ManagerConnection;
+import com.actiontech.dble.net.mysql.EOFPacket;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.ResultSetHeaderPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.singleton.PlanCacheManager;
+import com.actiontech.dble.util.IntegerUtil;
+import com.actiontech.dble.util.LongUtil;
+import com.actiontech.dble.util.StringUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * show @@plan_cache
+ */
+public final class ShowPlanCache {
+
+    private ShowPlanCache() {
+    }
+
+    private static final int FIELD_COUNT = 5;
+    private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
+    private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
+    private static final EOFPacket EOF = new EOFPacket();
+
+    static {
+        int i = 0;
+        byte packetId = 0;
+        HEADER.setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("MAX", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("CUR", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("HIT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("MISS", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("HIT_RATE", Fields.FIELD_TYPE_VAR_STRING);
+        FIELDS[i++].setPacketId(++packetId);
+
+        EOF.setPacketId(++packetId);
+    }
+
+    public static void execute(ManagerConnection c) {
+        ByteBuffer buffer = c.allocate();
+
+        // write header
+        buffer = HEADER.write(buffer, c, true);
+
+        // write fields
+        for (FieldPacket field : FIELDS) {
+            buffer = field.write(buffer, c, true);
+        }
+
+        // write eof
+        buffer = EOF.write(buffer, c, true);
+
+        // write rows
+        byte packetId = EOF.getPacketId();
+
+        PlanCacheManager cache = PlanCacheManager.getInstance();
+        long hit = cache.getHitCount();
+        long miss = cache.getMissCount();
+        RowDataPacket row = new RowDataPacket(FIELD_COUNT);
+        row.add(IntegerUtil.toBytes(cache.getMaxSize()));
+        row.add(IntegerUtil.toBytes(cache.size()));
+        row.add(LongUtil.toBytes(hit));
+        row.add(LongUtil.toBytes(miss));
+        String hitRate = hit + miss == 0 ? "0.00%" : String.format("%.2f%%", hit * 100.0 / (hit + miss));
+        row.add(StringUtil.encode(hitRate, c.getCharset().getResults()));
+        row.setPacketId(++packetId);
+        buffer = row.write(buffer, c, true);
+
+        EOFPacket lastEof = new EOFPacket();
+        lastEof.setPacketId(++packetId);
+        buffer = lastEof.write(buffer, c, true);
+
+        // write buffer
+        c.write(buffer);
+    }
+
+}
@@ -30,7 +30,7 @@ public final class ShowProcessor {
     private ShowProcessor() {
     }
 
-    private static final int FIELD_COUNT = 12;
+    private static final int FIELD_COUNT = 14;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -49,6 +49,12 @@ public final class ShowProcessor {
         FIELDS[i] = PacketUtil.getField("NET_OUT", Fields.FIELD_TYPE_LONGLONG);
         FIELDS[i++].setPacketId(++packetId);
 
+        FIELDS[i] = PacketUtil.getField("WRITE_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("AVG_WRITE_BYTES", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
         FIELDS[i] = PacketUtil.getField("REACT_COUNT", Fields.FIELD_TYPE_LONGLONG);
         FIELDS[i++].setPacketId(++packetId);
 
@@ -124,6 +130,9 @@ public final class ShowProcessor {
         row.add(processor.getName().getBytes());
         row.add(LongUtil.toBytes(processor.getNetInBytes()));
         row.add(LongUtil.toBytes(processor.getNetOutBytes()));
+        long writeCount = processor.getWriteCount();
+        row.add(LongUtil.toBytes(writeCount));
+        row.add(LongUtil.toBytes(writeCount == 0 ? 0 : processor.getNetOutBytes() / writeCount));
         row.add(LongUtil.toBytes(0));
         row.add(IntegerUtil.toBytes(0));
         row.add(IntegerUtil.toBytes(processor.getWriteQueueSize()));
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.manager.response;
+
+import com.actiontech.dble.backend.mysql.PacketUtil;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.manager.ManagerConnection;
+import com.actiontech.dble.net.mysql.EOFPacket;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.ResultSetHeaderPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.statistic.stat.QueryResultDispatcher;
+import com.actiontech.dble.util.IntegerUtil;
+import com.actiontech.dble.util.LongUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * show @@sql.dispatch
+ */
+public final class ShowSQLDispatch {
+
+    private ShowSQLDispatch() {
+    }
+
+    private static final int FIELD_COUNT = 3;
+    private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
+    private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
+    private static final EOFPacket EOF = new EOFPacket();
+
+    static {
+        int i = 0;
+        byte packetId = 0;
+        HEADER.setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("DISPATCHER_COUNT", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("PENDING", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("DROPPED", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        EOF.setPacketId(++packetId);
+    }
+
+    public static void execute(ManagerConnection c) {
+        ByteBuffer buffer = c.allocate();
+
+        // write header
+        buffer = HEADER.write(buffer, c, true);
+
+        // write fields
+        for (FieldPacket field : FIELDS) {
+            buffer = field.write(buffer, c, true);
+        }
+
+        // write eof
+        buffer = EOF.write(buffer, c, true);
+
+        // write rows
+        byte packetId = EOF.getPacketId();
+
+        RowDataPacket row = new RowDataPacket(FIELD_COUNT);
+        row.add(IntegerUtil.toBytes(QueryResultDispatcher.getDispatcherCount()));
+        row.add(IntegerUtil.toBytes(QueryResultDispatcher.getPendingSize()));
+        row.add(LongUtil.toBytes(QueryResultDispatcher.getDroppedCount()));
+        row.setPacketId(++packetId);
+        buffer = row.write(buffer, c, true);
+
+        EOFPacket lastEof = new EOFPacket();
+        lastEof.setPacketId(++packetId);
+        buffer = lastEof.write(buffer, c, true);
+
+        // write buffer
+        c.write(buffer);
+    }
+
+}
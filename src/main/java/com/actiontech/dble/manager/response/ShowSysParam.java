@@ -83,14 +83,18 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getWriteToBackendExecutor() + "");
         paramValues.add(sysConfig.getFakeMySQLVersion());
         paramValues.add(sysConfig.getSequenceHandlerType() > 4 || sysConfig.getSequenceHandlerType() < 1 ? "Incorrect Sequence Type" : SEQUENCES[sysConfig.getSequenceHandlerType()]);
+        paramValues.add(sysConfig.getSequencePrefetchPercent() + "%");
         paramValues.add(sysConfig.getServerBacklog() + "");
         paramValues.add(sysConfig.getServerNodeId() + "");
         paramValues.add(sysConfig.getShowBinlogStatusTimeout() + "ms");
         paramValues.add(sysConfig.getMaxCon() + "");
         paramValues.add(sysConfig.getUseCompression() + "");
         paramValues.add(sysConfig.getUsingAIO() + "");
+        paramValues.add(sysConfig.getWriteCorkThreshold() + "");
         paramValues.add(sysConfig.getUseThreadUsageStat() + "");
         paramValues.add(sysConfig.getUsePerformanceMode() + "");
+        paramValues.add(sysConfig.isUseLatencyReadBalance() + "");
+        paramValues.add(sysConfig.getUseRowPassthrough() + "");
         paramValues.add(sysConfig.getUseCostTimeStat() + "");
         paramValues.add(sysConfig.getMaxCostStatSize() + "");
         paramValues.add(sysConfig.getCostSamplePercent() + "");
@@ -100,6 +104,8 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getAutocommit() + "");
         paramValues.add(sysConfig.getCheckTableConsistency() + "");
         paramValues.add(sysConfig.getCheckTableConsistencyPeriod() + "ms");
+        paramValues.add(sysConfig.isUseMetaSnapshot() + "");
+        paramValues.add(sysConfig.getTableStatisticPeriod() + "ms");
         paramValues.add(sysConfig.getDataNodeIdleCheckPeriod() / 1000 + " Seconds");
         paramValues.add(sysConfig.getDataNodeHeartbeatPeriod() / 1000 + " Seconds");
         paramValues.add(sysConfig.getProcessorCheckPeriod() / 1000 + " Seconds");
@@ -114,7 +120,9 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getXaSessionCheckPeriod() + "ms");
         paramValues.add(sysConfig.getXaLogCleanPeriod() + "ms");
         paramValues.add(sysConfig.getXaRetryCount() + "");
+        paramValues.add(sysConfig.getUseXaAppendLog() + "");
         paramValues.add(sysConfig.isUseJoinStrategy() + "");
+        paramValues.add(sysConfig.isUseHashJoin() + "");
         paramValues.add(sysConfig.getNestLoopConnSize() + "");
         paramValues.add(sysConfig.getNestLoopRowsSize() + "");
         paramValues.add(sysConfig.getOtherMemSize() + "M");
@@ -123,8 +131,11 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getBufferPoolChunkSize() + "B");
         paramValues.add(sysConfig.getBufferPoolPageSize() + "B");
         paramValues.add(sysConfig.getBufferPoolPageNumber() + "");
+        paramValues.add(sysConfig.getBufferPoolType() + "");
         paramValues.add(sysConfig.getMappedFileSize() + "");
         paramValues.add(sysConfig.getUseSqlStat() + "");
+        paramValues.add(sysConfig.getPlanCacheSize() + "");
+        paramValues.add(sysConfig.getInListRewriteThreshold() + "");
         paramValues.add(sysConfig.getSqlRecordCount() + "");
         paramValues.add(sysConfig.getMaxResultSet() + "B");
         paramValues.add(sysConfig.getBufferUsagePercent() + "%");
@@ -139,6 +150,7 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getViewPersistenceConfBaseName());
         paramValues.add(sysConfig.getJoinQueueSize() + "");
         paramValues.add(sysConfig.getMergeQueueSize() + "");
+        paramValues.add(sysConfig.getLimitCancelRows() + "");
         paramValues.add(sysConfig.getOrderByQueueSize() + "");
         paramValues.add(sysConfig.getEnableSlowLog() + "");
         paramValues.add(sysConfig.getSlowLogBaseDir() + "");
@@ -148,10 +160,12 @@ public final class ShowSysParam {
         paramValues.add(sysConfig.getSqlSlowTime() + "ms");
         paramValues.add(sysConfig.getMaxCharsPerColumn() + "");
         paramValues.add(sysConfig.getMaxRowSizeToFile() + "");
+        paramValues.add(sysConfig.isUseStreamLoadData() + "");
         paramValues.add(sysConfig.isUseOuterHa() + "");
         paramValues.add(sysConfig.isEnableFlowControl() + "");
         paramValues.add(sysConfig.getFlowControlStartThreshold() + "");
         paramValues.add(sysConfig.getFlowControlStopThreshold() + "");
+        paramValues.add(sysConfig.getFlowControlMemoryPercent() + "%");
 
 
         for (int i = 0; i < PARAM_NAMES.length; i++) {
@@ -184,14 +198,18 @@ public final class ShowSysParam {
             "writeToBackendExecutor",
             "fakeMySQLVersion",
             "sequenceHandlerType",
+            "sequencePrefetchPercent",
             "serverBacklog",
             "serverNodeId",
             "showBinlogStatusTimeout",
             "maxCon",
             "useCompression",
             "usingAIO",
+            "writeCorkThreshold",
             "useThreadUsageStat",
             "usePerformanceMode",
+            "useLatencyReadBalance",
+            "useRowPassthrough",
             "useCostTimeStat",
             "maxCostStatSize",
             "costSamplePercent",
@@ -201,6 +219,8 @@ public final class ShowSysParam {
             "autocommit",
             "checkTableConsistency",
             "checkTableConsistencyPeriod",
+            "useMetaSnapshot",
+            "tableStatisticPeriod",
             "dataNodeIdleCheckPeriod",
             "dataNodeHeartbeatPeriod",
             "processorCheckPeriod",
@@ -215,7 +235,9 @@ public final class ShowSysParam {
             "xaSessionCheckPeriod",
             "xaLogCleanPeriod",
             "xaRetryCount",
+            "useXaAppendLog",
             "useJoinStrategy",
+            "useHashJoin",
             "nestLoopConnSize",
             "nestLoopRowsSize",
             "otherMemSize",
@@ -224,8 +246,11 @@ public final class ShowSysParam {
             "bufferPoolChunkSize",
             "bufferPoolPageSize",
             "bufferPoolPageNumber",
+            "bufferPoolType",
             "mappedFileSize",
             "useSqlStat",
+            "planCacheSize",
+            "inListRewriteThreshold",
             "sqlRecordCount",
             "maxResultSet",
             "bufferUsagePercent",
@@ -240,6 +265,7 @@ public final class ShowSysParam {
             "viewPersistenceConfBaseName",
             "joinQueueSize",
             "mergeQueueSize",
+            "limitCancelRows",
             "orderByQueueSize",
             "enableSlowLog",
             "slowLogBaseDir",
@@ -249,10 +275,12 @@ public final class ShowSysParam {
             "sqlSlowTime",
             "maxCharsPerColumn",
             "maxRowSizeToFile",
+            "useStreamLoadData",
             "useOuterHa",
             "enableFlowControl",
             "flowControlStartThreshold",
             "flowControlStopThreshold",
+            "flowControlMemoryPercent",
     };
 
     private static final String[] PARAM_DESCRIPTION = {
@@ -267,14 +295,18 @@ public final class ShowSysParam {
             "The executor for complex query.The default value is min(8,processorExecutor)",
             "MySQL Version showed in Client",
             "Global Sequence Type. The default is Local TimeStamp(like Snowflake)",
+            "The percent of the current segment used before the next segment of the Offset-Step stored in MySQL sequence is fetched in background. The default value is 0 means never prefetch",
             "The NIO/AIO reactor backlog,the max of create connection request at one time.The default value is 2048",
             "ServerNodeId used to create xa transaction",
             "The time out from show @@binlog.status.The default value is 60000ms",
             "The number of max connections the server allowed ",
             "Whether the Compression is enable,The default number is 0 ",
             "Whether the AIO is enable, The default number is 0(use NIO instead)",
+            "The writes are left to the end of the reactor loop and sent together while the write queue of the connection is smaller than this bytes, only for NIO. The default is 0, write at once",
             "Whether the thread usage statistics function is enabled.The default value is 0",
             "Whether use the performance mode is enabled.The default value is 0",
+            "Whether the read sources are chosen by the response time and the running requests instead of the weight. The default value is false",
+            "Whether the rows of single node select are forwarded to the client as copied blocks without parsing.The default value is 0",
             "Whether the cost time of query can be track by Btrace.The default value is 0",
             "The max cost total percentage.The default value is 100",
             "The percentage of cost sample.The default value is 1",
@@ -284,6 +316,8 @@ public final class ShowSysParam {
             "The initially autocommit value.The default value is 1",
             "Whether the consistency tableStructure check is enabled.The default value is 0",
             "The period of consistency tableStructure check .The default value is 30*60*1000",
+            "Whether load the table metas from the local snapshot when the server starts without cluster, the metas are refreshed from the data nodes in background. The default value is false",
+            "The period of collecting table statistics for the optimizer, 0 means disabled.The default value is 0",
             "The period between the heartbeat jobs for checking the health of all idle connections. The default is 300 seconds",
             "The period between the heartbeat jobs for checking the health of all write/read data sources. The default is 10 seconds",
             "The period between the jobs for cleaning the closed or overtime connections. The default is 1 second",
@@ -298,7 +332,9 @@ public final class ShowSysParam {
             "The xa transaction status check period.The default value is 1000ms",
             "The xa log clear period.The default value is 1000ms",
             "Indicates the number of background retries if the xa failed to commit/rollback.The default value is 0, retry infinitely",
+            "Whether the xa recovery log is appended by the changed transactions instead of rewritten as a whole, the log is compacted every xaLogCleanPeriod. Only for the local file log.The default value is 0",
             "Whether nest loop join is enabled.The default value is false",
+            "Whether hash join is used when the join's children are not ordered by the join columns.The default value is false",
             "The nest loop temporary tables block number.The default value is 4",
             "The nest loop temporary tables rows for every block.The default value is 2000",
             "The additional size of memory can be used in a complex query.The default size is 4M",
@@ -307,8 +343,11 @@ public final class ShowSysParam {
             "The chunk size of memory bufferPool. The min direct memory used for allocating",
             "The page size of memory bufferPool. The max direct memory used for allocating",
             "The page number of memory bufferPool. The All bufferPool size is PageNumber * PageSize",
+            "The type of memory bufferPool. 0 is the paged pool, 1 is the pool with size classes and thread local caches",
             "The Memory linked file size,when complex query resultSet is too large the Memory will be turned to file temporary",
             "Whether the SQL statistics function is enable or not.The default value is 1",
+            "The max count of statement shapes in the route plan cache, 0 means disabled.The default value is 0",
+            "The in list of the sharding column with at least inListRewriteThreshold values is split by the data nodes, every data node only receives its own values. 0 means never split, the default value is 16",
             "The slow SQL statistics limit,if the slow SQL record is large than the size,the record will be clear.The default value is 10",
             "The large resultSet SQL standard.The default value is 512*1024B",
             "Large result set cleanup trigger percentage.The default value is 80",
@@ -323,6 +362,7 @@ public final class ShowSysParam {
             "The name of the view record file.The default value is viewJson",
             "Size of join queue,Avoid using too much memory",
             "Size of merge queue,Avoid using too much memory",
+            "When the limit of a multi-node select is satisfied, the backend connections which may still return more rows than the value are closed. The default value is 10000, -1 means never",
             "Size of order by queue,Avoid using too much memory",
             "Enable Slow Query Log",
             "The directory of slow query log,The default value is ./slowlogs",
@@ -332,10 +372,12 @@ public final class ShowSysParam {
             "The threshold of Slow Query, the default is 100ms",
             "The maximum number of characters allowed for per column when load data.The default value is 65535",
             "The maximum row size,if over this value,row data will be saved to file when load data.The default value is 10000",
+            "Whether parse and route the data of load data local infile while the client is sending it and forward the rows to the data nodes at once, without the temp files. The default value is false",
             "Whether use outer ha component ",
             "Whether use flow control feature",
-            "The start threshold of write queue to start the flow control",
-            "The recover threshold of write queue to stop the flow control",
+            "The write queue size of a connection to start the flow control, counted in buffer chunks, each is bufferPoolChunkSize bytes. The default value is 4096, 16MB of a session with the default chunk size",
+            "The write queue size of a connection to stop the flow control, counted in buffer chunks, each is bufferPoolChunkSize bytes. The default value is 256, 1MB of a session with the default chunk size",
+            "The buffer pool usage percent above which a session is throttled once its write queue exceeds the stop threshold, 100 means never",
     };
 
     private static final String[] ISOLATION_LEVELS = {"", "READ_UNCOMMITTED", "READ_COMMITTED", "REPEATABLE_READ", "SERIALIZABLE"};
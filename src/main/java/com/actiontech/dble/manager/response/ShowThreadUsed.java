@@ -23,7 +23,7 @@ import java.util.TreeMap;
 public final class ShowThreadUsed {
     private ShowThreadUsed() {
     }
-    private static final int FIELD_COUNT = 4;
+    private static final int FIELD_COUNT = 6;
     private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
     private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
     private static final EOFPacket EOF = new EOFPacket();
@@ -40,6 +40,10 @@ public final class ShowThreadUsed {
         FIELDS[i] = PacketUtil.getField("LAST_MINUTE", Fields.FIELD_TYPE_VAR_STRING);
         FIELDS[i++].setPacketId(++packetId);
         FIELDS[i] = PacketUtil.getField("LAST_FIVE_MINUTE", Fields.FIELD_TYPE_VAR_STRING);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("QUEUE_SIZE", Fields.FIELD_TYPE_VAR_STRING);
+        FIELDS[i++].setPacketId(++packetId);
+        FIELDS[i] = PacketUtil.getField("LAST_SECOND_AVG_WAIT_US", Fields.FIELD_TYPE_VAR_STRING);
         FIELDS[i].setPacketId(++packetId);
         EOF.setPacketId(++packetId);
     }
@@ -77,6 +81,14 @@ public final class ShowThreadUsed {
         row.add(StringUtil.encode(workUsages[0], charset));
         row.add(StringUtil.encode(workUsages[1], charset));
         row.add(StringUtil.encode(workUsages[2], charset));
+        int queueSize = workUsage.getQueueSize();
+        if (queueSize < 0) {
+            row.add(StringUtil.encode("-", charset));
+            row.add(StringUtil.encode("-", charset));
+        } else {
+            row.add(StringUtil.encode(Integer.toString(queueSize), charset));
+            row.add(StringUtil.encode(Long.toString(workUsage.getLastSecondAvgWait() / 1000), charset));
+        }
         return row;
     }
 }
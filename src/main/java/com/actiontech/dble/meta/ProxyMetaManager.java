@@ -32,7 +32,9 @@ import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.TableConfig;
 import com.actiontech.dble.meta.table.AbstractSchemaMetaHandler;
 import com.actiontech.dble.meta.table.DDLNotifyTableMetaHandler;
+import com.actiontech.dble.meta.table.MetaSnapshot;
 import com.actiontech.dble.meta.table.SchemaCheckMetaHandler;
+import com.actiontech.dble.meta.table.SchemaRefreshMetaHandler;
 import com.actiontech.dble.meta.table.ServerMetaHandler;
 import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.server.util.SchemaUtil;
@@ -40,6 +42,8 @@ import com.actiontech.dble.server.util.SchemaUtil.SchemaInfo;
 import com.actiontech.dble.singleton.ClusterGeneralConfig;
 import com.actiontech.dble.singleton.DistrbtLockManager;
 import com.actiontech.dble.singleton.OnlineStatus;
+import com.actiontech.dble.singleton.ProxyMeta;
+import com.actiontech.dble.singleton.TableStatisticManager;
 import com.actiontech.dble.util.KVPathUtil;
 import com.actiontech.dble.util.StringUtil;
 import com.actiontech.dble.util.ZKUtils;
@@ -59,6 +63,8 @@ import java.util.concurrent.locks.ReentrantLock;
 
 public class ProxyMetaManager {
     protected static final Logger LOGGER = LoggerFactory.getLogger(ProxyMetaManager.class);
+    // minutes to wait for the data nodes when refreshing the metas loaded from the snapshot
+    private static final long SNAPSHOT_REFRESH_TIMEOUT = 10;
     // catalog,table,table meta
     private final Map<String, SchemaMeta> catalogs;
     private final Map<String, String> lockTables;
@@ -198,6 +204,48 @@ public class ProxyMetaManager {
         }
     }
 
+    /**
+     * replace the table meta unless the table is being changed or changed by a ddl after the meta is fetched
+     */
+    public void refreshTable(String schema, TableMeta tm) {
+        metaLock.lock();
+        try {
+            if (lockTables.containsKey(genLockKey(schema, tm.getTableName()))) {
+                return;
+            }
+            TableMeta oldTm = getTableMeta(schema, tm.getTableName());
+            if (oldTm == null || oldTm.getVersion() < tm.getVersion()) {
+                addTable(schema, tm);
+            }
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
+    /**
+     * drop the tables loaded from the snapshot which are not reported by the data nodes any more,
+     * the tables being changed or created by a ddl after the refresh started are kept
+     */
+    public void removeStaleTables(String schema, Set<String> refreshedTables, long refreshStart) {
+        metaLock.lock();
+        try {
+            SchemaMeta schemaMeta = catalogs.get(schema);
+            if (schemaMeta == null) {
+                return;
+            }
+            for (TableMeta tm : schemaMeta.getTableMetas().values()) {
+                String tableName = tm.getTableName();
+                if (!refreshedTables.contains(tableName) && tm.getVersion() <= refreshStart &&
+                        !lockTables.containsKey(genLockKey(schema, tableName))) {
+                    LOGGER.info("table " + schema + "." + tableName + " in the meta snapshot doesn't exist any more, drop it");
+                    schemaMeta.dropTable(tableName);
+                }
+            }
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
     public void addView(String schema, ViewMeta vm) {
         String viewName = vm.getViewName();
         SchemaMeta schemaMeta = catalogs.get(schema);
@@ -485,15 +533,23 @@ public class ProxyMetaManager {
      */
     public void initMeta(ServerConfig config) {
         Set<String> selfNode = getSelfNodes(config);
-        ServerMetaHandler handler = new ServerMetaHandler(this, config, selfNode);
-        handler.setFilter(null);
-        handler.execute();
-        initViewMeta();
         SystemConfig system = config.getSystem();
+        if (isUseMetaSnapshot(system) && MetaSnapshot.load(this, config)) {
+            refreshSnapshotMeta(config, selfNode);
+        } else {
+            ServerMetaHandler handler = new ServerMetaHandler(this, config, selfNode);
+            handler.setFilter(null);
+            handler.execute();
+            if (isUseMetaSnapshot(system)) {
+                MetaSnapshot.save(catalogs);
+            }
+        }
+        initViewMeta();
         if (system.getCheckTableConsistency() == 1) {
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MetaDataChecker-%d").build());
             checkTaskHandler = scheduler.scheduleWithFixedDelay(tableStructureCheckTask(selfNode), system.getCheckTableConsistencyPeriod(), system.getCheckTableConsistencyPeriod(), TimeUnit.MILLISECONDS);
         }
+        TableStatisticManager.getInstance().init(system);
     }
 
     /**
@@ -511,17 +567,62 @@ public class ProxyMetaManager {
         // if the meta reload interrupted by reload release
         // do not reload the view meta or start a new scheduler
         if (handler.execute()) {
-            initViewMeta();
             SystemConfig system = config.getSystem();
+            if (isUseMetaSnapshot(system)) {
+                MetaSnapshot.save(catalogs);
+            }
+            initViewMeta();
             if (system.getCheckTableConsistency() == 1) {
                 scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MetaDataChecker-%d").build());
                 checkTaskHandler = scheduler.scheduleWithFixedDelay(tableStructureCheckTask(selfNode), system.getCheckTableConsistencyPeriod(), system.getCheckTableConsistencyPeriod(), TimeUnit.MILLISECONDS);
             }
+            TableStatisticManager.getInstance().init(system);
             return true;
         }
         return false;
     }
 
+    /**
+     * the snapshot is not used in cluster, the metas may be changed by the ddl of other servers
+     */
+    private boolean isUseMetaSnapshot(SystemConfig system) {
+        return system.isUseMetaSnapshot() && !ClusterGeneralConfig.isUseZK() && !ClusterGeneralConfig.isUseGeneralCluster();
+    }
+
+    /**
+     * the metas are loaded from the snapshot, refresh them from the data nodes in background
+     * and save the snapshot again after all the schemas are refreshed
+     */
+    private void refreshSnapshotMeta(final ServerConfig config, final Set<String> selfNode) {
+        Thread refresher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                LOGGER.info("refresh the metas loaded from snapshot start");
+                CountDownLatch schemaLatch = new CountDownLatch(config.getSchemas().size());
+                for (SchemaConfig schema : config.getSchemas().values()) {
+                    new SchemaRefreshMetaHandler(ProxyMetaManager.this, schema, selfNode, schemaLatch).execute();
+                }
+                try {
+                    if (!schemaLatch.await(SNAPSHOT_REFRESH_TIMEOUT, TimeUnit.MINUTES)) {
+                        // some data nodes never answer, keep the old snapshot
+                        LOGGER.warn("refresh the metas loaded from snapshot is not finished in " + SNAPSHOT_REFRESH_TIMEOUT +
+                                " minutes, the snapshot is not saved");
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    LOGGER.info("refresh the metas loaded from snapshot is interrupted");
+                    return;
+                }
+                if (ProxyMeta.getInstance().getTmManager() == ProxyMetaManager.this) {
+                    MetaSnapshot.save(catalogs);
+                }
+                LOGGER.info("refresh the metas loaded from snapshot end");
+            }
+        }, "MetaSnapshotRefresher");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
     public void terminate() {
         if (checkTaskHandler != null) {
             checkTaskHandler.cancel(false);
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the statistics of one logic table, sampled from information_schema of every dataNode.
+ * the values are estimates of MySQL, they are only used by the optimizer.
+ */
+public final class TableStatistic {
+    private final String schema;
+    private final String tableName;
+    /* dataNode -> TABLE_ROWS */
+    private final Map<String, Long> nodeRows = new HashMap<>();
+    /* column(lower case) -> distinct values, from the CARDINALITY of the index whose first column is it */
+    private final Map<String, Long> columnNdv = new HashMap<>();
+    private final boolean isGlobal;
+    private final String partitionColumn;
+    private final long updateTime;
+
+    public TableStatistic(String schema, String tableName, boolean isGlobal, String partitionColumn, long updateTime) {
+        this.schema = schema;
+        this.tableName = tableName;
+        this.isGlobal = isGlobal;
+        this.partitionColumn = partitionColumn == null ? null : partitionColumn.toLowerCase();
+        this.updateTime = updateTime;
+    }
+
+    public void addNodeRows(String dataNode, long rows) {
+        nodeRows.put(dataNode, rows);
+    }
+
+    /**
+     * rows of the same column in different shards are disjoint only if it is the partition column,
+     * otherwise the biggest one is the best guess
+     */
+    public void addColumnNdv(String column, long ndv) {
+        String key = column.toLowerCase();
+        Long old = columnNdv.get(key);
+        if (old == null) {
+            columnNdv.put(key, ndv);
+        } else if (!isGlobal && key.equals(partitionColumn)) {
+            columnNdv.put(key, old + ndv);
+        } else {
+            columnNdv.put(key, Math.max(old, ndv));
+        }
+    }
+
+    /**
+     * @return the estimated rows of the whole table, global table's data is the same in every dataNode
+     */
+    public long getRowCount() {
+        long rows = 0;
+        for (Long nodeRow : nodeRows.values()) {
+            if (isGlobal) {
+                rows = Math.max(rows, nodeRow);
+            } else {
+                rows += nodeRow;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the distinct values of the column, -1 if unknown
+     */
+    public long getNdv(String column) {
+        Long ndv = columnNdv.get(column.toLowerCase());
+        if (ndv == null) {
+            return -1;
+        }
+        return Math.min(ndv, Math.max(getRowCount(), 1));
+    }
+
+    public Map<String, Long> getNodeRows() {
+        return nodeRows;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public boolean isGlobal() {
+        return isGlobal;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TableStatistic [schema=" + schema + ", tableName=" + tableName + ", rows=" + getRowCount() +
+                ", columnNdv=" + columnNdv + "]";
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta.table;
+
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.meta.SchemaMeta;
+import com.actiontech.dble.meta.TableMeta;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * the local snapshot of the table metas, so the server can serve the metas at once when it starts.
+ * the file contains the format version, the crc32 checksum of the metas and the create sqls of the tables.
+ */
+public final class MetaSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetaSnapshot.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_CHECKSUM = "checksum";
+    private static final String KEY_METAS = "metas";
+
+    private MetaSnapshot() {
+    }
+
+    private static Path getPath() {
+        return Paths.get(SystemConfig.getHomePath(), "metaSnapshot", "meta.json");
+    }
+
+    /**
+     * write the snapshot to a temp file and replace the old one by it
+     */
+    public static void save(Map<String, SchemaMeta> catalogs) {
+        Map<String, Map<String, String>> metas = new TreeMap<>();
+        for (Map.Entry<String, SchemaMeta> schema : catalogs.entrySet()) {
+            Map<String, String> tables = new TreeMap<>();
+            for (TableMeta tableMeta : schema.getValue().getTableMetas().values()) {
+                tables.put(tableMeta.getTableName(), tableMeta.getCreateSql());
+            }
+            metas.put(schema.getKey(), tables);
+        }
+        String metasText = JSON.toJSONString(metas);
+        JSONObject snapshot = new JSONObject();
+        snapshot.put(KEY_VERSION, FORMAT_VERSION);
+        snapshot.put(KEY_CHECKSUM, checksum(metasText));
+        snapshot.put(KEY_METAS, metasText);
+        Path path = getPath();
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(tempPath, snapshot.toJSONString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("save meta snapshot error", e);
+        }
+    }
+
+    /**
+     * load the metas into the manager if the snapshot is valid and contains all the schemas and tables in config
+     *
+     * @return false if the snapshot can't be used, the manager is not changed
+     */
+    public static boolean load(ProxyMetaManager tmManager, ServerConfig config) {
+        Path path = getPath();
+        if (!path.toFile().exists()) {
+            return false;
+        }
+        Map<String, Map<String, String>> metas;
+        try {
+            JSONObject snapshot = JSON.parseObject(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            String metasText = snapshot.getString(KEY_METAS);
+            if (snapshot.getIntValue(KEY_VERSION) != FORMAT_VERSION || metasText == null ||
+                    snapshot.getLongValue(KEY_CHECKSUM) != checksum(metasText)) {
+                LOGGER.info("meta snapshot " + path + " is broken or its version is not supported, ignore it");
+                return false;
+            }
+            metas = JSON.parseObject(metasText, new TypeReference<Map<String, Map<String, String>>>() {
+            });
+        } catch (Exception e) {
+            LOGGER.info("read meta snapshot " + path + " error, ignore it", e);
+            return false;
+        }
+        for (SchemaConfig schema : config.getSchemas().values()) {
+            Map<String, String> tables = metas.get(schema.getName());
+            if (tables == null || !tables.keySet().containsAll(schema.getTables().keySet())) {
+                LOGGER.info("meta snapshot doesn't match the schema " + schema.getName() + " in config, ignore it");
+                return false;
+            }
+        }
+        long version = System.currentTimeMillis();
+        for (SchemaConfig schema : config.getSchemas().values()) {
+            tmManager.createDatabase(schema.getName());
+            for (Map.Entry<String, String> table : metas.get(schema.getName()).entrySet()) {
+                TableMeta tableMeta = MetaHelper.initTableMeta(table.getKey(), table.getValue(), version);
+                if (tableMeta != null) {
+                    tmManager.addTable(schema.getName(), tableMeta);
+                }
+            }
+        }
+        LOGGER.info("load metas from snapshot " + path);
+        return true;
+    }
+
+    private static long checksum(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta.table;
+
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.meta.ViewMeta;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * refresh the metas loaded from the snapshot with the latest metas of the data nodes,
+ * the tables changed by the ddl during the refresh are kept, the tables not reported by the data nodes are dropped
+ */
+public class SchemaRefreshMetaHandler extends AbstractSchemaMetaHandler {
+    private final String schema;
+    private final CountDownLatch schemaLatch;
+    private final Set<String> refreshedTables = ConcurrentHashMap.newKeySet();
+    private final long refreshStart = System.currentTimeMillis();
+
+    public SchemaRefreshMetaHandler(ProxyMetaManager tmManager, SchemaConfig schemaConfig, Set<String> selfNode,
+                                    CountDownLatch schemaLatch) {
+        super(tmManager, schemaConfig, selfNode, false);
+        this.schema = schemaConfig.getName();
+        this.schemaLatch = schemaLatch;
+    }
+
+    @Override
+    void handleSingleMetaData(TableMeta tableMeta) {
+        if (tableMeta != null) {
+            refreshedTables.add(tableMeta.getTableName());
+            getTmManager().refreshTable(schema, tableMeta);
+        }
+    }
+
+    @Override
+    void handleViewMeta(ViewMeta viewMeta) {
+        if (viewMeta != null) {
+            getTmManager().addView(schema, viewMeta);
+        }
+    }
+
+    @Override
+    void handleMultiMetaData(Set<TableMeta> tableMetas) {
+        for (TableMeta tableMeta : tableMetas) {
+            if (tableMeta != null) {
+                handleSingleMetaData(tableMeta);
+                break;
+            }
+        }
+    }
+
+    @Override
+    void schemaMetaFinish() {
+        getTmManager().removeStaleTables(schema, refreshedTables, refreshStart);
+        schemaLatch.countDown();
+    }
+}
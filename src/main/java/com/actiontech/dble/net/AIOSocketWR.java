@@ -65,7 +65,7 @@ public class AIOSocketWR extends SocketWR {
 
             }
             // poll again
-            ByteBuffer buffer = con.writeQueue.poll();
+            ByteBuffer buffer = con.pollWriteQueue();
             // more data
             if (buffer != null) {
                 if (buffer.limit() == 0) {
@@ -96,6 +96,7 @@ public class AIOSocketWR extends SocketWR {
 
         con.netOutBytes += result;
         con.processor.addNetOutBytes(result);
+        con.processor.addWriteCount();
         con.lastWriteTime = TimeUtil.currentTimeMillis();
         boolean noMoreData = this.write0();
         if (noMoreData) {
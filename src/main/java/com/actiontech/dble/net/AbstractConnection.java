@@ -15,6 +15,7 @@ import com.actiontech.dble.net.mysql.CharsetNames;
 import com.actiontech.dble.net.mysql.MySQLPacket;
 import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.singleton.WriteQueueFlowController;
 import com.actiontech.dble.util.CompressUtil;
 import com.actiontech.dble.util.TimeUtil;
 import com.google.common.base.Strings;
@@ -29,6 +30,8 @@ import java.nio.channels.NetworkChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author mycat
@@ -52,6 +55,8 @@ public abstract class AbstractConnection implements NIOConnection {
     protected volatile ByteBuffer writeBuffer;
 
     protected final ConcurrentLinkedQueue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    // the bytes of the buffers in the write queue
+    private final AtomicLong writeQueueBytes = new AtomicLong();
 
     protected volatile int readBufferOffset;
     protected long lastLargeMessageTime;
@@ -75,6 +80,9 @@ public abstract class AbstractConnection implements NIOConnection {
     private byte[] rowData;
 
     private volatile boolean flowControlled;
+    private volatile long flowControlStartTime;
+    private volatile long flowControlCount;
+    private volatile long flowControlledNanos;
 
     public AbstractConnection(NetworkChannel channel) {
         this.channel = channel;
@@ -327,14 +335,10 @@ public abstract class AbstractConnection implements NIOConnection {
             }
             if (position >= offset + length && readBuffer != null) {
                 // handle this package
-                readBuffer.position(offset);
-                byte[] data = new byte[length];
-                readBuffer.get(data, 0, length);
-                data = checkData(data, length);
-                if (data == null) {
+                length = handlePackets(offset, length, position);
+                if (length < 0) {
                     return;
                 }
-                handle(data);
                 // maybe handle stmt_close
                 if (isClosed()) {
                     return;
@@ -363,6 +367,37 @@ public abstract class AbstractConnection implements NIOConnection {
         }
     }
 
+    /**
+     * @return the length of the handled packets, -1 if the big packet is not finished
+     */
+    private int handlePackets(int offset, int length, int position) {
+        if (rowData == null) {
+            int rowsEnd = passthroughRows(readBuffer, offset, position);
+            if (rowsEnd > offset) {
+                // the continuous row packets are handled as one block
+                return rowsEnd - offset;
+            }
+        }
+        readBuffer.position(offset);
+        byte[] data = new byte[length];
+        readBuffer.get(data, 0, length);
+        data = checkData(data, length);
+        if (data == null) {
+            return -1;
+        }
+        handle(data);
+        return length;
+    }
+
+    /**
+     * hand the complete packets from offset to the handler without copying them one by one
+     *
+     * @return the end of the handled packets, offset if none is handled
+     */
+    protected int passthroughRows(ByteBuffer buffer, int offset, int position) {
+        return offset;
+    }
+
     private void readReachEnd() {
         // if cur buffer is temper none direct byte buffer and not
         // received large message in recent 30 seconds
@@ -439,11 +474,16 @@ public abstract class AbstractConnection implements NIOConnection {
         }
         if (isSupportCompress()) {
             ByteBuffer newBuffer = CompressUtil.compressMysqlPacket(buffer, this, compressUnfinishedDataQueue);
+            writeQueueBytes.addAndGet(newBuffer.position());
             writeQueue.offer(newBuffer);
         } else {
+            writeQueueBytes.addAndGet(buffer.position());
             writeQueue.offer(buffer);
         }
 
+        if (socketWR instanceof NIOSocketWR && ((NIOSocketWR) socketWR).cork(writeQueueBytes.get())) {
+            return;
+        }
         // if ansyn write finished event got lock before me ,then writing
         // flag is set false but not start a write request
         // so we check again
@@ -545,9 +585,13 @@ public abstract class AbstractConnection implements NIOConnection {
     @Override
     public void close(String reason) {
         if (!isClosed) {
+            // set before the flush, a failed flush closes the connection again
+            isClosed = true;
             this.connectionCount();
+            if (socketWR instanceof NIOSocketWR) {
+                ((NIOSocketWR) socketWR).flushCorked();
+            }
             closeSocket();
-            isClosed = true;
             if (processor != null) {
                 processor.removeConnection(this);
             }
@@ -593,6 +637,9 @@ public abstract class AbstractConnection implements NIOConnection {
             recycle(writeBuffer);
             this.writeBuffer = null;
         }
+        if (socketWR instanceof NIOSocketWR) {
+            ((NIOSocketWR) socketWR).cleanup();
+        }
 
         if (!decompressUnfinishedDataQueue.isEmpty()) {
             decompressUnfinishedDataQueue.clear();
@@ -602,7 +649,7 @@ public abstract class AbstractConnection implements NIOConnection {
             compressUnfinishedDataQueue.clear();
         }
         ByteBuffer buffer;
-        while ((buffer = writeQueue.poll()) != null) {
+        while ((buffer = pollWriteQueue()) != null) {
             recycle(buffer);
         }
     }
@@ -627,6 +674,28 @@ public abstract class AbstractConnection implements NIOConnection {
         return writeQueue;
     }
 
+    /**
+     * poll the buffer from the write queue, the buffer is not flipped yet
+     */
+    ByteBuffer pollWriteQueue() {
+        ByteBuffer buffer = writeQueue.poll();
+        if (buffer != null) {
+            writeQueueBytes.addAndGet(-buffer.position());
+        }
+        return buffer;
+    }
+
+    /**
+     * the bytes of the buffers gathered by NIOSocketWR are counted until they are written or recycled
+     */
+    void removeWriteQueueBytes(long bytes) {
+        writeQueueBytes.addAndGet(-bytes);
+    }
+
+    public long getWriteQueueBytes() {
+        return writeQueueBytes.get();
+    }
+
     private void closeSocket() {
         if (channel != null) {
             try {
@@ -748,9 +817,36 @@ public abstract class AbstractConnection implements NIOConnection {
     }
 
     public void setFlowControlled(boolean flowControlled) {
+        if (flowControlled == this.flowControlled) {
+            return;
+        }
+        if (flowControlled) {
+            flowControlStartTime = System.nanoTime();
+            flowControlCount++;
+            WriteQueueFlowController.onStart();
+        } else {
+            long throttledNanos = System.nanoTime() - flowControlStartTime;
+            flowControlledNanos += throttledNanos;
+            WriteQueueFlowController.onStop(throttledNanos);
+        }
         this.flowControlled = flowControlled;
     }
 
+    public long getFlowControlCount() {
+        return flowControlCount;
+    }
+
+    /**
+     * @return the total throttled time in milliseconds, including the current one
+     */
+    public long getFlowControlledTime() {
+        long nanos = flowControlledNanos;
+        if (flowControlled) {
+            nanos += System.nanoTime() - flowControlStartTime;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
     /*
     start flow control because of the write queue in this connection to long
 
@@ -40,6 +40,7 @@ public final class NIOProcessor {
     private final CommandCount commands;
     private long netInBytes;
     private long netOutBytes;
+    private long writeCount;
 
     // after reload @@config_all ,old back ends connections stored in backends_old
     public static final ConcurrentLinkedQueue<BackendConnection> BACKENDS_OLD = new ConcurrentLinkedQueue<>();
@@ -96,6 +97,17 @@ public final class NIOProcessor {
         this.netOutBytes += bytes;
     }
 
+    public long getWriteCount() {
+        return this.writeCount;
+    }
+
+    /**
+     * count the write calls of the socket
+     */
+    public void addWriteCount() {
+        this.writeCount++;
+    }
+
     public void addFrontend(FrontendConnection c) {
         this.frontends.put(c.getId(), c);
         this.frontEndsLength.incrementAndGet();
@@ -57,13 +57,20 @@ public final class NIOReactor {
         reactorR.selector.wakeup();
     }
 
+    void postFlush(NIOSocketWR socketWR) {
+        reactorR.flushQueue.offer(socketWR);
+        reactorR.selector.wakeup();
+    }
+
     private final class RW implements Runnable {
         private final Selector selector;
         private final ConcurrentLinkedQueue<AbstractConnection> registerQueue;
+        private final ConcurrentLinkedQueue<NIOSocketWR> flushQueue;
 
         private RW() throws IOException {
             this.selector = Selector.open();
             this.registerQueue = new ConcurrentLinkedQueue<>();
+            this.flushQueue = new ConcurrentLinkedQueue<>();
         }
 
         @Override
@@ -86,9 +93,11 @@ public final class NIOReactor {
                     register(finalSelector);
                     keys = finalSelector.selectedKeys();
                     if (keys.size() == 0) {
+                        flush();
                         continue;
                     }
                     executeKeys(keys);
+                    flush();
                     if (useThreadUsageStat) {
                         workUsage.setCurrentSecondUsed(workUsage.getCurrentSecondUsed() + System.nanoTime() - workStart);
                     }
@@ -157,6 +166,16 @@ public final class NIOReactor {
             }
         }
 
+        /**
+         * write the corked connections once at the end of the loop
+         */
+        private void flush() {
+            NIOSocketWR socketWR;
+            while ((socketWR = flushQueue.poll()) != null) {
+                socketWR.flush();
+            }
+        }
+
         private void register(Selector finalSelector) {
             AbstractConnection c;
             if (registerQueue.isEmpty()) {
@@ -164,7 +183,7 @@ public final class NIOReactor {
             }
             while ((c = registerQueue.poll()) != null) {
                 try {
-                    ((NIOSocketWR) c.getSocketWR()).register(finalSelector);
+                    ((NIOSocketWR) c.getSocketWR()).register(finalSelector, NIOReactor.this);
                     c.register();
                 } catch (Exception e) {
                     if (c instanceof FrontendConnection) {
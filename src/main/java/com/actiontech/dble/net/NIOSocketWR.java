@@ -5,8 +5,8 @@
 
 package com.actiontech.dble.net;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
-import com.actiontech.dble.config.FlowCotrollerConfig;
 import com.actiontech.dble.singleton.WriteQueueFlowController;
 import com.actiontech.dble.util.TimeUtil;
 import org.slf4j.Logger;
@@ -27,14 +27,27 @@ public class NIOSocketWR extends SocketWR {
     private static final int OP_NOT_WRITE = ~SelectionKey.OP_WRITE;
     private final AbstractConnection con;
     private final SocketChannel channel;
+    // far below IOV_MAX (1024 on linux), the array is kept by every connection, and a loop of the reactor
+    // seldom corks more buffers, so a larger one would cost memory and save few system calls
+    private static final int MAX_GATHER_BUFFERS = 16;
+    private static final long MAX_GATHER_BYTES = 1024 * 1024;
     private final AtomicBoolean writing = new AtomicBoolean(false);
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    // the flipped buffers polled from the write queue and not written yet
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHER_BUFFERS];
+    private int gatheredOffset;
+    private int gatheredCount;
+    private volatile NIOReactor reactor;
+    private int corkThreshold;
 
     public NIOSocketWR(AbstractConnection con) {
         this.con = con;
         this.channel = (SocketChannel) con.channel;
     }
 
-    public void register(Selector selector) throws IOException {
+    public void register(Selector selector, NIOReactor nioReactor) throws IOException {
+        this.reactor = nioReactor;
+        this.corkThreshold = DbleServer.getInstance().getConfig().getSystem().getWriteCorkThreshold();
         try {
             processKey = channel.register(selector, SelectionKey.OP_READ, con);
         } finally {
@@ -87,6 +100,39 @@ public class NIOSocketWR extends SocketWR {
 
     }
 
+    /**
+     * leave the write to the end of the current loop of the reactor if the write queue is smaller than
+     * writeCorkThreshold, so the small writes in the loop are sent by one gathering write
+     *
+     * @return false if the caller should write at once
+     */
+    boolean cork(long queueBytes) {
+        if (reactor == null || queueBytes >= corkThreshold) {
+            return false;
+        }
+        if (flushPending.compareAndSet(false, true)) {
+            reactor.postFlush(this);
+        }
+        return true;
+    }
+
+    /**
+     * called by the reactor at the end of its loop
+     */
+    void flush() {
+        flushPending.set(false);
+        doNextWriteCheck();
+    }
+
+    /**
+     * write the corked buffers before the connection is closed
+     */
+    void flushCorked() {
+        if (flushPending.get()) {
+            flush();
+        }
+    }
+
     public boolean registerWrite(ByteBuffer buffer) {
 
         writing.set(true);
@@ -121,7 +167,6 @@ public class NIOSocketWR extends SocketWR {
 
     private boolean write0() throws IOException {
 
-        int flowControlCount = -1;
         boolean quitFlag = false;
         int written = 0;
         ByteBuffer buffer = con.writeBuffer;
@@ -132,6 +177,7 @@ public class NIOSocketWR extends SocketWR {
                 }
                 try {
                     written = channel.write(buffer);
+                    con.processor.addWriteCount();
                     if (written > 0) {
                         con.netOutBytes += written;
                         con.processor.addNetOutBytes(written);
@@ -153,7 +199,7 @@ public class NIOSocketWR extends SocketWR {
                 }
             }
 
-            flowControlCount = checkFlowControl(flowControlCount);
+            checkFlowControl();
 
             if (quitFlag) {
                 con.recycle(buffer);
@@ -167,89 +213,144 @@ public class NIOSocketWR extends SocketWR {
                 con.recycle(buffer);
             }
         }
-        while ((buffer = con.writeQueue.poll()) != null) {
-            if (buffer.position() == 5 && bufferIsQuit(buffer)) {
-                quitFlag = true;
+        while (true) {
+            if (gatheredCount == 0) {
+                buffer = con.writeQueue.peek();
+                if (buffer == null) {
+                    return true;
+                } else if (buffer.limit() == 0 || (buffer.position() == 5 && bufferIsQuit(buffer))) {
+                    return writeQuit();
+                }
+                gather();
             }
-            if (buffer.limit() == 0) {
-                con.recycle(buffer);
-                con.close("quit send");
-                return true;
+            if (!writeGathered()) {
+                return false;
             }
+        }
+    }
 
+    /**
+     * move the buffers from the write queue to the gathered array until it's full,
+     * the quit buffer is left in the queue and written alone.
+     * their bytes are still counted in the write queue bytes of the connection until written
+     */
+    private void gather() {
+        long bytes = 0;
+        ByteBuffer buffer;
+        while (gatheredCount < MAX_GATHER_BUFFERS && bytes < MAX_GATHER_BYTES &&
+                (buffer = con.writeQueue.peek()) != null) {
+            if (buffer.limit() == 0 || (buffer.position() == 5 && bufferIsQuit(buffer))) {
+                break;
+            }
+            buffer = con.writeQueue.poll();
             buffer.flip();
-            try {
-                while (buffer.hasRemaining()) {
-                    written = channel.write(buffer);
-                    if (written > 0) {
-                        con.netOutBytes += written;
-                        con.processor.addNetOutBytes(written);
-                        con.lastWriteTime = TimeUtil.currentTimeMillis();
-                    } else {
-                        break;
-                    }
+            bytes += buffer.remaining();
+            gathered[gatheredCount++] = buffer;
+        }
+    }
+
+    /**
+     * write the gathered buffers by one gathering write every time
+     *
+     * @return false if the socket is full
+     */
+    private boolean writeGathered() throws IOException {
+        try {
+            while (gatheredOffset < gatheredCount) {
+                long written = channel.write(gathered, gatheredOffset, gatheredCount - gatheredOffset);
+                con.processor.addWriteCount();
+                if (written > 0) {
+                    con.removeWriteQueueBytes(written);
+                    con.netOutBytes += written;
+                    con.processor.addNetOutBytes(written);
+                    con.lastWriteTime = TimeUtil.currentTimeMillis();
                 }
-            } catch (Throwable e) {
-                con.recycle(buffer);
-                if (!quitFlag) {
-                    throw e;
-                } else {
-                    startClearCon();
-                    con.isClosed = true;
-                    AbstractConnection.LOGGER.info("write quit error and ignore ");
-                    return true;
+                while (gatheredOffset < gatheredCount && !gathered[gatheredOffset].hasRemaining()) {
+                    con.recycle(gathered[gatheredOffset]);
+                    gathered[gatheredOffset++] = null;
+                }
+                if (written <= 0) {
+                    break;
                 }
             }
+        } catch (Throwable e) {
+            recycleGathered();
+            throw e;
+        }
 
-            flowControlCount = checkFlowControl(flowControlCount);
-
-            if (quitFlag) {
-                con.recycle(buffer);
-                startClearCon();
-                return true;
-            }
+        checkFlowControl();
 
-            if (buffer.hasRemaining()) {
-                con.writeBuffer = buffer;
-                return false;
-            } else {
-                con.recycle(buffer);
-            }
+        if (gatheredOffset < gatheredCount) {
+            return false;
         }
+        gatheredOffset = 0;
+        gatheredCount = 0;
         return true;
     }
 
-    private int checkFlowControl(int flowControlCount) {
-        FlowCotrollerConfig config = WriteQueueFlowController.getFlowCotrollerConfig();
-        if (con.isFlowControlled()) {
-            if (!config.isEnableFlowControl()) {
-                con.stopFlowControl();
-                return -1;
-            } else if ((flowControlCount != -1) &&
-                    (flowControlCount <= config.getEnd())) {
-                int currentSize = this.con.writeQueue.size();
-                if (currentSize <= config.getEnd()) {
-                    con.stopFlowControl();
-                    return -1;
-                } else {
-                    return currentSize;
-                }
-            } else if (flowControlCount == -1) {
-                int currentSize = this.con.writeQueue.size();
-                if (currentSize <= config.getEnd()) {
-                    con.stopFlowControl();
-                    return -1;
+    private boolean writeQuit() throws IOException {
+        ByteBuffer buffer = con.pollWriteQueue();
+        if (buffer.limit() == 0) {
+            con.recycle(buffer);
+            con.close("quit send");
+            return true;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                int written = channel.write(buffer);
+                con.processor.addWriteCount();
+                if (written > 0) {
+                    con.netOutBytes += written;
+                    con.processor.addNetOutBytes(written);
+                    con.lastWriteTime = TimeUtil.currentTimeMillis();
                 } else {
-                    return currentSize;
+                    break;
                 }
-            } else {
-                return --flowControlCount;
             }
-        } else {
-            return -1;
+        } catch (Throwable e) {
+            con.recycle(buffer);
+            startClearCon();
+            con.isClosed = true;
+            AbstractConnection.LOGGER.info("write quit error and ignore ");
+            return true;
+        }
+        checkFlowControl();
+        con.recycle(buffer);
+        startClearCon();
+        return true;
+    }
+
+    private void recycleGathered() {
+        for (int i = gatheredOffset; i < gatheredCount; i++) {
+            con.removeWriteQueueBytes(gathered[i].remaining());
+            con.recycle(gathered[i]);
+            gathered[i] = null;
+        }
+        gatheredOffset = 0;
+        gatheredCount = 0;
+    }
+
+    /**
+     * recycle the gathered buffers when the connection is cleaned up, skipped if another thread is writing,
+     * it recycles them itself when the write fails on the closed channel
+     */
+    void cleanup() {
+        if (writing.compareAndSet(false, true)) {
+            try {
+                recycleGathered();
+            } finally {
+                writing.set(false);
+            }
         }
     }
 
+    private void checkFlowControl() {
+        if (con.isFlowControlled() && (!WriteQueueFlowController.isEnableFlowControl() ||
+                WriteQueueFlowController.isUnderBudget(con))) {
+            con.stopFlowControl();
+        }
+    }
 
     private void startClearCon() {
         if (con instanceof MySQLConnection) {
@@ -9,6 +9,7 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.net.NIOHandler;
 import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -17,10 +18,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @author mycat
  */
 public abstract class BackendAsyncHandler implements NIOHandler {
-    protected final ConcurrentLinkedQueue<byte[]> dataQueue = new ConcurrentLinkedQueue<>();
+    // a byte[] packet, or a ByteBuffer of the row packets in passthrough mode
+    protected final ConcurrentLinkedQueue<Object> dataQueue = new ConcurrentLinkedQueue<>();
     protected final AtomicBoolean isHandling = new AtomicBoolean(false);
 
-    protected void offerData(byte[] data, Executor executor) {
+    protected void offerData(Object data, Executor executor) {
         if (dataQueue.offer(data)) {
             handleQueue(executor);
         } else {
@@ -28,7 +30,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
         }
     }
 
-    protected void offerData(byte[] data) {
+    protected void offerData(Object data) {
         if (dataQueue.offer(data)) {
             pushTask();
         } else {
@@ -38,7 +40,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
 
     private void pushTask() {
         if (isHandling.compareAndSet(false, true)) {
-            DbleServer.getInstance().getBackHandlerQueue().offer(this);
+            DbleServer.getInstance().getBackHandlerPool().submit(System.identityHashCode(this), this);
         }
     }
 
@@ -63,7 +65,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
     }
 
 
-    void executeQueue() {
+    public void executeQueue() {
         try {
             handleInnerData();
         } catch (Exception e) {
@@ -77,7 +79,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
     }
 
     private void handleInnerData() {
-        byte[] data;
+        Object data;
 
         //threadUsageStat start
         String threadName = null;
@@ -97,7 +99,11 @@ public abstract class BackendAsyncHandler implements NIOHandler {
         }
         //handleData
         while ((data = dataQueue.poll()) != null) {
-            handleData(data);
+            if (data instanceof ByteBuffer) {
+                handleRowData((ByteBuffer) data);
+            } else {
+                handleData((byte[]) data);
+            }
         }
         //threadUsageStat end
         if (workUsage != null && threadName.startsWith("backend")) {
@@ -109,5 +115,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
 
     protected abstract void handleData(byte[] data);
 
+    protected abstract void handleRowData(ByteBuffer rows);
+
     protected abstract void handleDataError(Exception e);
 }
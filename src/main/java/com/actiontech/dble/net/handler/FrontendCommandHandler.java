@@ -92,7 +92,7 @@ public class FrontendCommandHandler implements NIOHandler {
         if (source instanceof ServerConnection) {
             ((ServerConnection) source).getSession2().resetMultiStatementStatus();
         }
-        DbleServer.getInstance().getFrontHandlerQueue().offer(this);
+        DbleServer.getInstance().getFrontHandlerPool().submit(source.getId(), this);
     }
 
     public void handle() {
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.handler;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * the workers of the front or backend handlers, every worker has its own queue.
+ * a handler is put into the queue of the worker chosen by its connection, so the commands of a connection
+ * usually run on the same thread. a worker steals from the other workers if its own queue is empty,
+ * and spins, yields and then parks if there is nothing to do.
+ * <p>
+ * a handler is never in the queues twice at the same time, so the stealing doesn't change the order of a connection.
+ */
+public class HandlerWorkerPool<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandlerWorkerPool.class);
+    private static final int BUSY_SPIN_TIMES = 1000;
+    private static final int BUSY_YIELD_TIMES = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final List<Worker> workers;
+    private final Consumer<T> taskHandler;
+    private final int spinTimes;
+    private final int yieldTimes;
+    private final boolean recordUsage;
+    private final boolean useThreadUsageStat;
+
+    /**
+     * @param busyWait    spin and yield before parking when idle, used by the performance mode
+     * @param recordUsage record the used time of the tasks in the thread usage,
+     *                    false if the task records it itself
+     */
+    public HandlerWorkerPool(int size, boolean busyWait, boolean recordUsage, Consumer<T> taskHandler) {
+        this.workers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            workers.add(new Worker(i));
+        }
+        this.taskHandler = taskHandler;
+        this.spinTimes = busyWait ? BUSY_SPIN_TIMES : 0;
+        this.yieldTimes = busyWait ? BUSY_YIELD_TIMES : 0;
+        this.recordUsage = recordUsage;
+        this.useThreadUsageStat = DbleServer.getInstance().getConfig().getSystem().getUseThreadUsageStat() == 1;
+    }
+
+    public void start(Executor executor) {
+        for (Worker worker : workers) {
+            executor.execute(worker);
+        }
+    }
+
+    /**
+     * @param affinity the id of the connection of the task
+     */
+    public void submit(long affinity, T task) {
+        Worker target = workers.get((int) ((affinity & Long.MAX_VALUE) % workers.size()));
+        target.offer(task);
+        if (!target.wakeUp()) {
+            // the worker is running a task or spinning, let an idle one steal the task
+            for (Worker worker : workers) {
+                if (worker.wakeUp()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final class QueuedTask<T> {
+        private final T task;
+        private final long enqueueTime;
+
+        private QueuedTask(T task, long enqueueTime) {
+            this.task = task;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final Queue<QueuedTask<T>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile Thread thread;
+        private volatile boolean parked = false;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        private void offer(T task) {
+            queue.offer(new QueuedTask<>(task, useThreadUsageStat ? System.nanoTime() : 0));
+            size.incrementAndGet();
+        }
+
+        private QueuedTask<T> poll() {
+            QueuedTask<T> task = queue.poll();
+            if (task != null) {
+                size.decrementAndGet();
+            }
+            return task;
+        }
+
+        private boolean wakeUp() {
+            if (parked) {
+                LockSupport.unpark(thread);
+                return true;
+            }
+            return false;
+        }
+
+        private QueuedTask<T> steal() {
+            for (int i = 1; i < workers.size(); i++) {
+                Worker other = workers.get((index + i) % workers.size());
+                if (other.size.get() > 0) {
+                    QueuedTask<T> task = other.poll();
+                    if (task != null) {
+                        return task;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean hasTask() {
+            for (Worker worker : workers) {
+                if (worker.size.get() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            ThreadWorkUsage workUsage = null;
+            if (useThreadUsageStat) {
+                workUsage = DbleServer.getInstance().getThreadUsedMap().computeIfAbsent(thread.getName(), k -> new ThreadWorkUsage());
+                workUsage.setQueueSize(size::get);
+            }
+            int idleTimes = 0;
+            while (true) {
+                QueuedTask<T> task = poll();
+                if (task == null) {
+                    task = steal();
+                }
+                if (task != null) {
+                    idleTimes = 0;
+                    execute(task, workUsage);
+                } else if (idleTimes < spinTimes) {
+                    idleTimes++;
+                } else if (idleTimes < spinTimes + yieldTimes) {
+                    idleTimes++;
+                    Thread.yield();
+                } else {
+                    parked = true;
+                    // check again after parked is visible, the submitter checks parked after offering
+                    if (!hasTask()) {
+                        LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        private void execute(QueuedTask<T> task, ThreadWorkUsage workUsage) {
+            long workStart = 0;
+            if (workUsage != null) {
+                workStart = System.nanoTime();
+                workUsage.addWaitTime(workStart - task.enqueueTime);
+            }
+            try {
+                taskHandler.accept(task.task);
+            } catch (Throwable e) {
+                LOGGER.warn("handler worker error", e);
+            }
+            if (workUsage != null && recordUsage) {
+                workUsage.setCurrentSecondUsed(workUsage.getCurrentSecondUsed() + System.nanoTime() - workStart);
+            }
+        }
+    }
+}
@@ -16,9 +16,7 @@ import com.actiontech.dble.singleton.BufferPoolManager;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * From server to client. One packet for each row in the result set.
@@ -50,12 +48,14 @@ public class RowDataPacket extends MySQLPacket {
 
 
     public final List<byte[]> fieldValues;
-    private Map<RowDataComparator, List<byte[]>> cmpValues;
+    // the compare values and the sort key cached for the last comparator
+    private RowDataComparator cmpComparator;
+    private List<byte[]> cmpValue;
+    private byte[] cmpKey;
 
     public RowDataPacket(int fieldCount) {
         this.fieldCount = fieldCount;
         this.fieldValues = new ArrayList<>(fieldCount);
-        cmpValues = new HashMap<>(1);
     }
 
     public void add(byte[] value) {
@@ -196,11 +196,20 @@ public class RowDataPacket extends MySQLPacket {
 
 
     public List<byte[]> getCmpValue(RowDataComparator comparator) {
-        return cmpValues.get(comparator);
+        return comparator == cmpComparator ? cmpValue : null;
     }
 
-    public void cacheCmpValue(RowDataComparator comparator, List<byte[]> cmpValue) {
-        this.cmpValues.put(comparator, cmpValue);
+    /**
+     * @return null if the sort key is not cached or some compare value can't be encoded
+     */
+    public byte[] getCmpKey(RowDataComparator comparator) {
+        return comparator == cmpComparator ? cmpKey : null;
+    }
+
+    public void cacheCmpValue(RowDataComparator comparator, List<byte[]> value, byte[] key) {
+        this.cmpComparator = comparator;
+        this.cmpValue = value;
+        this.cmpKey = key;
     }
 
     public int getFieldCount() {
@@ -187,6 +187,15 @@ public abstract class Field {
 
     public abstract int compare(byte[] v1, byte[] v2);
 
+    /**
+     * the key of the not null value, the keys compared by SortKeyUtil.compare keep the order of compare(byte[], byte[])
+     *
+     * @return null if the value can't be encoded
+     */
+    public byte[] makeSortKey(byte[] v) {
+        return null;
+    }
+
     public boolean getDate(MySQLTime ltime, long fuzzydate) {
         String res = valStr();
         return res == null || MyTime.strToDatetimeWithWarn(res, ltime, fuzzydate);
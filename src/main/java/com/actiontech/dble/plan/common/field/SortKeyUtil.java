@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.common.field;
+
+import java.math.BigDecimal;
+
+/**
+ * the encoders of the sort keys, the order of the keys compared byte by byte unsigned is the order of the values,
+ * and the key of a value is never a prefix of the key of another value, so the keys of the columns can be joined
+ */
+public final class SortKeyUtil {
+    private static final byte NEGATIVE = 1;
+    private static final byte ZERO = 2;
+    private static final byte POSITIVE = 3;
+
+    private SortKeyUtil() {
+    }
+
+    /**
+     * the key of an int in text, same order as FieldUtil.compareIntUsingStringBytes
+     *
+     * @return null if the text can't be encoded
+     */
+    public static byte[] intKey(byte[] v) {
+        boolean negative = v.length > 0 && v[0] == '-';
+        int start = negative ? 1 : 0;
+        int length = v.length - start;
+        if (length > 0xff) {
+            return null;
+        }
+        byte[] key = new byte[length + 2];
+        key[0] = negative ? NEGATIVE : POSITIVE;
+        // the longer one is larger if both are positive
+        key[1] = (byte) (negative ? 0xff - length : length);
+        for (int i = 0; i < length; i++) {
+            byte b = v[start + i];
+            if (b < 0) {
+                return null;
+            }
+            key[i + 2] = negative ? (byte) (0xff - b) : b;
+        }
+        return key;
+    }
+
+    /**
+     * the key of a decimal: the sign, the position of the decimal point and the digits without the trailing zeros
+     */
+    public static byte[] decimalKey(BigDecimal value) {
+        int signum = value.signum();
+        if (signum == 0) {
+            return new byte[]{ZERO};
+        }
+        BigDecimal stripped = value.stripTrailingZeros();
+        String digits = stripped.unscaledValue().abs().toString();
+        int exponent = stripped.precision() - stripped.scale();
+        byte[] key = new byte[digits.length() + 6];
+        key[0] = signum < 0 ? NEGATIVE : POSITIVE;
+        putLong(key, 1, exponent, 4);
+        for (int i = 0; i < digits.length(); i++) {
+            key[i + 5] = (byte) digits.charAt(i);
+        }
+        // the terminator is less than the digits, so 1.5 is less than 1.55
+        key[key.length - 1] = 0;
+        if (signum < 0) {
+            invert(key, 1, key.length);
+        }
+        return key;
+    }
+
+    /**
+     * the key of a long
+     */
+    public static byte[] longKey(long value) {
+        byte[] key = new byte[8];
+        putLong(key, 0, value, 8);
+        return key;
+    }
+
+    /**
+     * the key of the utf-16 chars of a string, same order as String.compareTo.
+     * the zero bytes are escaped to 0x00 0xff and the key ends with 0x00 0x01
+     */
+    public static byte[] stringKey(String value) {
+        int zeros = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            zeros += ((c >>> 8) == 0 ? 1 : 0) + ((c & 0xff) == 0 ? 1 : 0);
+        }
+        byte[] key = new byte[value.length() * 2 + zeros + 2];
+        int pos = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            pos = putEscaped(key, pos, (byte) (c >>> 8));
+            pos = putEscaped(key, pos, (byte) c);
+        }
+        key[pos++] = 0;
+        key[pos] = 1;
+        return key;
+    }
+
+    /**
+     * invert the bytes, for the descending order
+     */
+    public static void invert(byte[] key, int from, int to) {
+        for (int i = from; i < to; i++) {
+            key[i] = (byte) ~key[i];
+        }
+    }
+
+    /**
+     * compare the keys byte by byte unsigned
+     */
+    public static int compare(byte[] k1, byte[] k2) {
+        int length = Math.min(k1.length, k2.length);
+        for (int i = 0; i < length; i++) {
+            int rs = (k1[i] & 0xff) - (k2[i] & 0xff);
+            if (rs != 0) {
+                return rs;
+            }
+        }
+        return k1.length - k2.length;
+    }
+
+    private static int putEscaped(byte[] key, int pos, byte b) {
+        key[pos++] = b;
+        if (b == 0) {
+            key[pos++] = (byte) 0xff;
+        }
+        return pos;
+    }
+
+    /**
+     * big endian with the sign bit flipped, so the negative values are less than the positive ones
+     */
+    private static void putLong(byte[] key, int pos, long value, int bytes) {
+        long flipped = value ^ (1L << (bytes * 8 - 1));
+        for (int i = 0; i < bytes; i++) {
+            key[pos + i] = (byte) (flipped >>> ((bytes - 1 - i) * 8));
+        }
+    }
+}
@@ -8,6 +8,7 @@ package com.actiontech.dble.plan.common.field.num;
 import com.actiontech.dble.plan.common.MySQLcom;
 import com.actiontech.dble.plan.common.field.Field;
 import com.actiontech.dble.plan.common.field.FieldUtil;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.common.time.MySQLTime;
 import com.actiontech.dble.plan.common.time.MyTime;
@@ -26,6 +27,8 @@ public abstract class FieldNum extends Field {
     protected BigInteger intValue = null;
     protected String zeroptrStr = null;
     private boolean zerofill = false;
+    // the value is parsed once after the ptr is set
+    private boolean parsed = false;
     //public boolean unsigned_flag = false;
 
     public FieldNum(String name, String dbName, String table, String orgTable, int charsetIndex, int fieldLength, int decimals, long flags) {
@@ -34,6 +37,19 @@ public abstract class FieldNum extends Field {
         //unsigned_flag = (FieldUtil.UNSIGNED_FLAG & flags) != 0;
     }
 
+    @Override
+    public void setPtr(byte[] ptr) {
+        super.setPtr(ptr);
+        parsed = false;
+    }
+
+    protected final void parseIfNeeded() {
+        if (!parsed) {
+            internalJob();
+            parsed = true;
+        }
+    }
+
     @Override
     public Item.ItemResult resultType() {
         return Item.ItemResult.REAL_RESULT;
@@ -41,37 +57,37 @@ public abstract class FieldNum extends Field {
 
     @Override
     public String valStr() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? null : zeroptrStr;
     }
 
     @Override
     public BigInteger valInt() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? BigInteger.ZERO : intValue;
     }
 
     @Override
     public BigDecimal valReal() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? BigDecimal.ZERO : new BigDecimal(intValue);
     }
 
     @Override
     public BigDecimal valDecimal() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? null : new BigDecimal(intValue);
     }
 
     @Override
     public boolean getDate(MySQLTime ltime, long fuzzydate) {
-        internalJob();
+        parseIfNeeded();
         return isNull() || MyTime.myLonglongToDatetimeWithWarn(intValue.longValue(), ltime, fuzzydate);
     }
 
     @Override
     public boolean getTime(MySQLTime ltime) {
-        internalJob();
+        parseIfNeeded();
         return isNull() || MyTime.myLonglongToTimeWithWarn(intValue.longValue(), ltime);
     }
 
@@ -135,4 +151,9 @@ public abstract class FieldNum extends Field {
             return FieldUtil.compareIntUsingStringBytes(v1, v2);
     }
 
+    @Override
+    public byte[] makeSortKey(byte[] v) {
+        return SortKeyUtil.intKey(v);
+    }
+
 }
@@ -7,6 +7,7 @@ package com.actiontech.dble.plan.common.field.num;
 
 import com.actiontech.dble.plan.common.MySQLcom;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.time.MySQLTime;
 import com.actiontech.dble.plan.common.time.MyTime;
 
@@ -23,7 +24,7 @@ public abstract class FieldReal extends FieldNum {
 
     @Override
     public String valStr() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? null : decValue.toString();
     }
 
@@ -34,7 +35,7 @@ public abstract class FieldReal extends FieldNum {
 
     @Override
     public BigDecimal valReal() {
-        internalJob();
+        parseIfNeeded();
         return isNull() ? BigDecimal.ZERO : decValue;
     }
 
@@ -48,13 +49,13 @@ public abstract class FieldReal extends FieldNum {
 
     @Override
     public boolean getDate(MySQLTime ltime, long fuzzydate) {
-        internalJob();
+        parseIfNeeded();
         return isNull() || MyTime.myDoubleToDatetimeWithWarn(decValue.doubleValue(), ltime, fuzzydate);
     }
 
     @Override
     public boolean getTime(MySQLTime ltime) {
-        internalJob();
+        parseIfNeeded();
         return isNull() || MyTime.myDoubleToTimeWithWarn(decValue.doubleValue(), ltime);
     }
 
@@ -115,4 +116,13 @@ public abstract class FieldReal extends FieldNum {
                 return -1;
             }
     }
+
+    @Override
+    public byte[] makeSortKey(byte[] v) {
+        try {
+            return SortKeyUtil.decimalKey(new BigDecimal(MySQLcom.getFullString(javaCharsetName, v)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
 }
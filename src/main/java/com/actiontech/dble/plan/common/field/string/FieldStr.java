@@ -7,6 +7,7 @@ package com.actiontech.dble.plan.common.field.string;
 
 import com.actiontech.dble.plan.common.MySQLcom;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.item.Item.ItemResult;
 
 import java.io.UnsupportedEncodingException;
@@ -121,4 +122,13 @@ public abstract class FieldStr extends Field {
         }
     }
 
+    @Override
+    public byte[] makeSortKey(byte[] v) {
+        try {
+            return SortKeyUtil.stringKey(MySQLcom.getFullString(javaCharsetName, v).toUpperCase());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
 }
@@ -6,6 +6,7 @@
 package com.actiontech.dble.plan.common.field.temporal;
 
 import com.actiontech.dble.plan.common.MySQLcom;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.time.MySQLTime;
 import com.actiontech.dble.plan.common.time.MyTime;
 
@@ -62,4 +63,15 @@ public abstract class FieldTemporaWithDate extends FieldTemporal {
                 return -1;
             }
     }
+
+    @Override
+    public byte[] makeSortKey(byte[] v) {
+        try {
+            MySQLTime ltime = new MySQLTime();
+            MyTime.strToDatetimeWithWarn(MySQLcom.getFullString(javaCharsetName, v), ltime, MyTime.TIME_FUZZY_DATE);
+            return SortKeyUtil.longKey(MyTime.timeToLonglongDatetimePacked(ltime));
+        } catch (Exception e) {
+            return null;
+        }
+    }
 }
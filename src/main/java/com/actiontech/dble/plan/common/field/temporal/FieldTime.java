@@ -7,6 +7,7 @@ package com.actiontech.dble.plan.common.field.temporal;
 
 import com.actiontech.dble.plan.common.MySQLcom;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.SortKeyUtil;
 import com.actiontech.dble.plan.common.item.FieldTypes;
 import com.actiontech.dble.plan.common.time.MySQLTime;
 import com.actiontech.dble.plan.common.time.MyTime;
@@ -74,4 +75,15 @@ public class FieldTime extends FieldTemporal {
         }
     }
 
+    @Override
+    public byte[] makeSortKey(byte[] v) {
+        try {
+            MySQLTime ltime = new MySQLTime();
+            MyTime.strToTimeWithWarn(MySQLcom.getFullString(javaCharsetName, v), ltime);
+            return SortKeyUtil.longKey(MyTime.timeToLonglongDatetimePacked(ltime));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
 }
@@ -256,6 +256,28 @@ public class ArgComparator {
         this.caseInsensitive = caseInsensitive;
     }
 
+    /**
+     * @return true if the items are compared by the packed DATE/DATETIME/TIME/YEAR values
+     */
+    public boolean isPackedTimeCompare() {
+        return func instanceof CompareDatetime || func instanceof CompareTimePacked || func instanceof CompareETimePacked;
+    }
+
+    /**
+     * the packed value of the item a or b as it is compared, only the fields of that item are read
+     *
+     * @param isNull set to true if the value is null
+     */
+    public long getPackedValue(boolean isA, BoolPtr isNull) {
+        if (func instanceof CompareDatetime) {
+            return isA ? getValueAFunc.get(a, b, isNull) : getValueBFunc.get(b, a, isNull);
+        }
+        Item item = isA ? a : b;
+        long value = item.valDateTemporal();
+        isNull.set(item.isNull());
+        return value;
+    }
+
     /**
      * compare function
      *
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.common.item.function.sumfunc;
+
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+/**
+ * the state of an aggregate function for one group, kept in primitive fields by the hash group by.
+ * the state is only made into the trans object of the function when the group is sent or spilled
+ */
+public interface GroupAccumulator {
+
+    /**
+     * add the row of the group, same as aggregatorAdd(row, null) of the function
+     */
+    void add(RowDataPacket row);
+
+    /**
+     * @return the trans object of the rows added
+     */
+    Object getTransAggObj();
+}
@@ -123,6 +123,15 @@ public abstract class ItemSum extends ItemResultField {
      */
     public abstract Object getTransAggObj();
 
+    /**
+     * the accumulator of one group for the hash group by
+     *
+     * @return null if the function can't be accumulated without its own state, eg: distinct
+     */
+    public GroupAccumulator newAccumulator() {
+        return null;
+    }
+
     /**
      * tmp result size(just expected, not real)
      *
@@ -7,6 +7,7 @@ package com.actiontech.dble.plan.common.item.function.sumfunc;
 
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.plan.common.item.Item;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLAggregateExpr;
@@ -49,6 +50,11 @@ public class ItemSumAvg extends ItemSumSum {
         return aggData;
     }
 
+    @Override
+    public GroupAccumulator newAccumulator() {
+        return hasWithDistinct() ? null : new AvgAccumulator();
+    }
+
     @Override
     public int getTransSize() {
         return 20;
@@ -152,6 +158,29 @@ public class ItemSumAvg extends ItemSumSum {
         }
     }
 
+    private class AvgAccumulator extends SumAccumulator {
+        private long groupCount = 0;
+
+        @Override
+        public void add(RowDataPacket row) {
+            FieldUtil.initFields(sourceFields, row.fieldValues);
+            if (isPushDown) {
+                // avg(n) will be push down as sum(n) and count(n);
+                groupCount += args.get(1).valInt().longValue();
+                addArg();
+            } else {
+                addArg();
+                if (!args.get(0).isNullValue())
+                    groupCount++;
+            }
+        }
+
+        @Override
+        public Object getTransAggObj() {
+            return new AvgAggData(getSum(), groupCount, isNull);
+        }
+    }
+
     private static class AvgAggData extends AggData {
 
         private static final long serialVersionUID = -1831762635995954526L;
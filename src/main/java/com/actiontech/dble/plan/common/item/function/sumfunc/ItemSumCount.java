@@ -7,6 +7,7 @@ package com.actiontech.dble.plan.common.item.function.sumfunc;
 
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.plan.common.item.Item;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLAggregateExpr;
@@ -35,6 +36,11 @@ public class ItemSumCount extends ItemSumInt {
         return count;
     }
 
+    @Override
+    public GroupAccumulator newAccumulator() {
+        return hasWithDistinct() ? null : new CountAccumulator();
+    }
+
     @Override
     public int getTransSize() {
         return 10;
@@ -109,4 +115,29 @@ public class ItemSumCount extends ItemSumInt {
         }
     }
 
+    private class CountAccumulator implements GroupAccumulator {
+        private long groupCount = 0;
+
+        @Override
+        public void add(RowDataPacket row) {
+            FieldUtil.initFields(sourceFields, row.fieldValues);
+            if (isPushDown) {
+                if (!args.get(0).isNull()) {
+                    groupCount += args.get(0).valInt().longValue();
+                }
+                return;
+            }
+            for (Item arg : args) {
+                if (arg.isNull()) {
+                    return;
+                }
+            }
+            groupCount++;
+        }
+
+        @Override
+        public Object getTransAggObj() {
+            return groupCount;
+        }
+    }
 }
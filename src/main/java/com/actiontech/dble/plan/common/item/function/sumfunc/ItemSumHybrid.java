@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.plan.common.item.function.sumfunc;
 
+import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
 import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.plan.common.item.FieldTypes;
@@ -129,6 +130,16 @@ public abstract class ItemSumHybrid extends ItemSum {
         return value.getFieldLength();
     }
 
+    /**
+     * @return the trans object of the value, the state of the function is not touched
+     */
+    protected abstract Object newTransAggObj(byte[] ptr, boolean isNull);
+
+    @Override
+    public GroupAccumulator newAccumulator() {
+        return new HybridAccumulator();
+    }
+
     @Override
     public boolean getDate(MySQLTime ltime, long fuzzydate) {
         if (nullValue)
@@ -186,4 +197,31 @@ public abstract class ItemSumHybrid extends ItemSum {
         clear();
     }
 
+    /**
+     * keep the bytes of the min or max value, the value is only compared by the field
+     */
+    private class HybridAccumulator implements GroupAccumulator {
+        private byte[] ptr;
+        private boolean isNull = true;
+
+        @Override
+        public void add(RowDataPacket row) {
+            FieldUtil.initFields(sourceFields, row.fieldValues);
+            byte[] b1 = args.get(0).getRowPacketByte();
+            if (!args.get(0).isNull() && (isNull || isReplaced(value.compare(ptr, b1)))) {
+                ptr = b1;
+                isNull = false;
+            }
+        }
+
+        private boolean isReplaced(int cmp) {
+            return cmpSign > 0 ? cmp > 0 : cmp < 0;
+        }
+
+        @Override
+        public Object getTransAggObj() {
+            return newTransAggObj(ptr, isNull);
+        }
+    }
+
 }
@@ -27,8 +27,12 @@ public class ItemSumMax extends ItemSumHybrid {
 
     @Override
     public Object getTransAggObj() {
-        AggData data = new AggData(value.getPtr(), nullValue);
-        return data;
+        return newTransAggObj(value.getPtr(), nullValue);
+    }
+
+    @Override
+    protected Object newTransAggObj(byte[] ptr, boolean isNull) {
+        return new AggData(ptr, isNull);
     }
 
     @Override
@@ -28,8 +28,12 @@ public class ItemSumMin extends ItemSumHybrid {
 
     @Override
     public Object getTransAggObj() {
-        AggData data = new AggData(value.getPtr(), nullValue);
-        return data;
+        return newTransAggObj(value.getPtr(), nullValue);
+    }
+
+    @Override
+    protected Object newTransAggObj(byte[] ptr, boolean isNull) {
+        return new AggData(ptr, isNull);
     }
 
     @Override
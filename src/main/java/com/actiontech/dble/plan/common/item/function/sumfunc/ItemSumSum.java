@@ -8,6 +8,7 @@ package com.actiontech.dble.plan.common.item.function.sumfunc;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.MySQLcom;
 import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.FieldUtil;
 import com.actiontech.dble.plan.common.item.Item;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLAggregateExpr;
@@ -15,6 +16,7 @@ import com.alibaba.druid.sql.ast.expr.SQLAggregateOption;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
 
 
@@ -63,6 +65,11 @@ public class ItemSumSum extends ItemSumNum {
         return data;
     }
 
+    @Override
+    public GroupAccumulator newAccumulator() {
+        return hasWithDistinct() ? null : new SumAccumulator();
+    }
+
     @Override
     public int getTransSize() {
         return 10;
@@ -157,6 +164,68 @@ public class ItemSumSum extends ItemSumNum {
         }
     }
 
+    /**
+     * the int values are summed in a long until it overflows
+     */
+    protected class SumAccumulator implements GroupAccumulator {
+        private final boolean intArg = hybridType == ItemResult.DECIMAL_RESULT &&
+                args.get(0).resultType() == ItemResult.INT_RESULT;
+        private long longSum = 0;
+        private BigDecimal decimalSum = BigDecimal.ZERO;
+        protected boolean isNull = true;
+
+        @Override
+        public void add(RowDataPacket row) {
+            FieldUtil.initFields(sourceFields, row.fieldValues);
+            addArg();
+        }
+
+        /**
+         * same as add(row, null), which is also the push down add
+         */
+        protected void addArg() {
+            if (intArg) {
+                BigInteger val = args.get(0).valInt();
+                if (!args.get(0).isNullValue()) {
+                    addInt(val);
+                    isNull = false;
+                }
+            } else if (hybridType == ItemResult.DECIMAL_RESULT) {
+                BigDecimal val = args.get(0).valDecimal();
+                if (!args.get(0).isNullValue()) {
+                    decimalSum = decimalSum.add(val);
+                    isNull = false;
+                }
+            } else {
+                decimalSum = decimalSum.add(args.get(0).valReal());
+                if (!args.get(0).isNullValue())
+                    isNull = false;
+            }
+        }
+
+        private void addInt(BigInteger val) {
+            if (val.bitLength() < Long.SIZE) {
+                long v = val.longValue();
+                long result = longSum + v;
+                // no overflow if the signs of the operands are different or same as the result
+                if (((longSum ^ result) & (v ^ result)) >= 0) {
+                    longSum = result;
+                    return;
+                }
+            }
+            decimalSum = decimalSum.add(new BigDecimal(val));
+        }
+
+        protected BigDecimal getSum() {
+            return longSum == 0 ? decimalSum : decimalSum.add(BigDecimal.valueOf(longSum));
+        }
+
+        @Override
+        public Object getTransAggObj() {
+            return new AggData(getSum(), isNull);
+        }
+    }
+
     protected static class AggData implements Serializable {
 
         private static final long serialVersionUID = 6951860386146676307L;
@@ -30,7 +30,7 @@ public class JoinNode extends PlanNode {
 
 
     public enum Strategy {
-        SORTMERGE, NESTLOOP
+        SORTMERGE, NESTLOOP, HASH
     }
 
     private boolean isNotIn = false;
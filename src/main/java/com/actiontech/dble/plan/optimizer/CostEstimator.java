@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.optimizer;
+
+import com.actiontech.dble.meta.TableStatistic;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.plan.common.item.function.ItemFunc;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncIn;
+import com.actiontech.dble.plan.node.PlanNode;
+import com.actiontech.dble.plan.node.TableNode;
+import com.actiontech.dble.singleton.TableStatisticManager;
+
+/**
+ * estimate the rows of a plan node by the statistics collected by TableStatisticManager.
+ * the selectivity of the conditions without statistics follows the usual guesses of MySQL.
+ */
+public final class CostEstimator {
+    public static final long UNKNOWN = -1;
+
+    private static final double DEFAULT_EQ_SELECTIVITY = 0.1;
+    private static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3;
+    private static final double DEFAULT_BETWEEN_SELECTIVITY = 0.25;
+    private static final double DEFAULT_LIKE_SELECTIVITY = 0.25;
+    private static final double DEFAULT_SELECTIVITY = 0.5;
+
+    private CostEstimator() {
+    }
+
+    /**
+     * @return the estimated rows the node returns, UNKNOWN if no statistics
+     */
+    public static long estimateRows(PlanNode node) {
+        if (node.type() != PlanNode.PlanNodeType.TABLE) {
+            return UNKNOWN;
+        }
+        TableNode tn = (TableNode) node;
+        TableStatistic statistic = TableStatisticManager.getInstance().getStatistic(tn.getSchema(), tn.getTableName());
+        if (statistic == null) {
+            return UNKNOWN;
+        }
+        long rows = statistic.getRowCount();
+        double selectivity = selectivity(tn.getWhereFilter(), statistic);
+        long estimated = (long) Math.ceil(rows * selectivity);
+        if (node.getLimitTo() >= 0) {
+            estimated = Math.min(estimated, node.getLimitTo());
+        }
+        return estimated;
+    }
+
+    static double selectivity(Item filter, TableStatistic statistic) {
+        if (filter == null) {
+            return 1;
+        }
+        if (!(filter instanceof ItemFunc)) {
+            return DEFAULT_SELECTIVITY;
+        }
+        ItemFunc func = (ItemFunc) filter;
+        if (func instanceof ItemFuncIn) {
+            int valueCount = func.getArgCount() - 1;
+            return Math.min(1, valueCount * eqSelectivity(func.arguments().get(0), statistic));
+        }
+        switch (func.functype()) {
+            case COND_AND_FUNC: {
+                double selectivity = 1;
+                for (Item arg : func.arguments()) {
+                    selectivity *= selectivity(arg, statistic);
+                }
+                return selectivity;
+            }
+            case COND_OR_FUNC: {
+                double selectivity = 0;
+                for (Item arg : func.arguments()) {
+                    selectivity += selectivity(arg, statistic);
+                }
+                return Math.min(1, selectivity);
+            }
+            case EQ_FUNC:
+            case EQUAL_FUNC:
+                if (func.arguments().get(0) instanceof ItemField) {
+                    return eqSelectivity(func.arguments().get(0), statistic);
+                }
+                return eqSelectivity(func.arguments().get(1), statistic);
+            case NE_FUNC:
+                return 1 - DEFAULT_EQ_SELECTIVITY;
+            case LT_FUNC:
+            case LE_FUNC:
+            case GT_FUNC:
+            case GE_FUNC:
+                return DEFAULT_RANGE_SELECTIVITY;
+            case BETWEEN:
+                return DEFAULT_BETWEEN_SELECTIVITY;
+            case LIKE_FUNC:
+                return DEFAULT_LIKE_SELECTIVITY;
+            case ISNULL_FUNC:
+                return DEFAULT_EQ_SELECTIVITY;
+            default:
+                return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    private static double eqSelectivity(Item column, TableStatistic statistic) {
+        if (column instanceof ItemField) {
+            long ndv = statistic.getNdv(column.getItemName());
+            if (ndv > 0) {
+                return 1.0 / ndv;
+            }
+        }
+        return DEFAULT_EQ_SELECTIVITY;
+    }
+}
@@ -5,14 +5,20 @@
 
 package com.actiontech.dble.plan.optimizer;
 
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.plan.Order;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.node.JoinNode;
 import com.actiontech.dble.plan.node.JoinNode.Strategy;
+import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.plan.node.TableNode;
 
 import java.util.ArrayList;
 
 public class JoinStrategyChooser {
+    /* the big table should be much bigger than the small one, or the IN filters are useless */
+    private static final long NEST_LOOP_MIN_RATIO = 10;
     private JoinNode jn;
 
     public JoinStrategyChooser(JoinNode jn) {
@@ -46,6 +52,11 @@ public class JoinStrategyChooser {
     private boolean tryInnerJoinNestLoop() {
         TableNode tnLeft = (TableNode) jn.getLeftNode();
         TableNode tnRight = (TableNode) jn.getRightNode();
+        long leftRows = CostEstimator.estimateRows(tnLeft);
+        long rightRows = CostEstimator.estimateRows(tnRight);
+        if (leftRows != CostEstimator.UNKNOWN && rightRows != CostEstimator.UNKNOWN) {
+            return tryNestLoopByCost(leftRows, rightRows, true);
+        }
         boolean isLeftSmall = isSmallTable(tnLeft);
         boolean isRightSmall = isSmallTable(tnRight);
         if (isLeftSmall && isRightSmall)
@@ -64,6 +75,11 @@ public class JoinStrategyChooser {
     private boolean tryLeftJoinNestLoop() {
         TableNode tnLeft = (TableNode) jn.getLeftNode();
         TableNode tnRight = (TableNode) jn.getRightNode();
+        long leftRows = CostEstimator.estimateRows(tnLeft);
+        long rightRows = CostEstimator.estimateRows(tnRight);
+        if (leftRows != CostEstimator.UNKNOWN && rightRows != CostEstimator.UNKNOWN) {
+            return tryNestLoopByCost(leftRows, rightRows, false);
+        }
         // left join and only left node has where filter
         if (isSmallTable(tnLeft) && !isSmallTable(tnRight)) {
             handleNestLoopStrategy(true);
@@ -73,6 +89,66 @@ public class JoinStrategyChooser {
         }
     }
 
+    /**
+     * the small table drives the nest loop only if its rows can be held by the temp table
+     * and the values of it filter the big table much
+     *
+     * @param canRightDrive false if the left node must be the small table, eg:left join
+     * @return boolean true:join use the nest loop
+     */
+    private boolean tryNestLoopByCost(long leftRows, long rightRows, boolean canRightDrive) {
+        boolean isLeftSmall = leftRows <= rightRows;
+        if (!isLeftSmall && !canRightDrive) {
+            return false;
+        }
+        long smallRows = Math.min(leftRows, rightRows);
+        long bigRows = Math.max(leftRows, rightRows);
+        SystemConfig system = DbleServer.getInstance().getConfig().getSystem();
+        long maxSmallRows = (long) system.getNestLoopRowsSize() * system.getNestLoopConnSize();
+        if (smallRows > maxSmallRows || bigRows < smallRows * NEST_LOOP_MIN_RATIO) {
+            return false;
+        }
+        handleNestLoopStrategy(isLeftSmall);
+        return true;
+    }
+
+    /**
+     * tryHashJoin
+     *
+     * @return boolean true:join use hash join, the order of the join's children which is only
+     * for sort merge join is removed if possible
+     */
+    public boolean tryHashJoin() {
+        if (jn.isNotIn() || jn.getStrategy() == Strategy.NESTLOOP) {
+            return false;
+        }
+        if (jn.getJoinFilter().isEmpty())
+            return false;
+        if (!jn.isInnerJoin() && !jn.isLeftOuterJoin()) {
+            return false;
+        }
+        boolean isOrderNeeded = !jn.getOrderBys().isEmpty();
+        // the order of join columns is useful only if the parent needs it and the children can provide it
+        if (isOrderNeeded && (jn.isLeftOrderMatch() || jn.isRightOrderMatch())) {
+            return false;
+        }
+        jn.setStrategy(Strategy.HASH);
+        if (!isOrderNeeded) {
+            removeJoinOnOrders(jn.getLeftNode());
+            removeJoinOnOrders(jn.getRightNode());
+        }
+        return true;
+    }
+
+    /**
+     * the table's order by is pushed by OrderByPusher only for sort merge join
+     */
+    private void removeJoinOnOrders(PlanNode child) {
+        if (child.type() == PlanNode.PlanNodeType.TABLE && child.getGroupBys().isEmpty() && child.getLimitTo() == -1) {
+            child.setOrderBys(new ArrayList<Order>());
+        }
+    }
+
     private void handleNestLoopStrategy(boolean isLeftSmall) {
         jn.setStrategy(Strategy.NESTLOOP);
         TableNode tnLeft = (TableNode) jn.getLeftNode();
@@ -82,7 +158,7 @@ public class JoinStrategyChooser {
     }
 
     /**
-     * the table contains where is small table now
+     * the table contains where is small table, used when there are no statistics
      *
      * @param tn
      * @return
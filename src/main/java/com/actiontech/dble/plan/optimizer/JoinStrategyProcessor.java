@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.plan.optimizer;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.plan.node.JoinNode;
 import com.actiontech.dble.plan.util.PlanUtil;
@@ -15,18 +16,28 @@ public final class JoinStrategyProcessor {
     }
 
     public static PlanNode optimize(PlanNode qtn) {
+        boolean useHashJoin = DbleServer.getInstance().getConfig().getSystem().isUseHashJoin();
+        return optimize(qtn, useHashJoin);
+    }
+
+    private static PlanNode optimize(PlanNode qtn, boolean useHashJoin) {
         if (PlanUtil.isGlobalOrER(qtn))
             return qtn;
         if (qtn.type() == PlanNode.PlanNodeType.JOIN) {
             JoinNode jn = (JoinNode) qtn;
+            JoinStrategyChooser chooser = new JoinStrategyChooser(jn);
             if (jn.getLeftNode().type() == PlanNode.PlanNodeType.TABLE && jn.getRightNode().type() == PlanNode.PlanNodeType.TABLE) {
-                JoinStrategyChooser chooser = new JoinStrategyChooser((JoinNode) qtn);
-                chooser.tryNestLoop();
+                if (!chooser.tryNestLoop() && useHashJoin) {
+                    chooser.tryHashJoin();
+                }
                 return qtn;
             }
+            if (useHashJoin) {
+                chooser.tryHashJoin();
+            }
         }
         for (PlanNode child : qtn.getChildren())
-            optimize(child);
+            optimize(child, useHashJoin);
         return qtn;
     }
 }
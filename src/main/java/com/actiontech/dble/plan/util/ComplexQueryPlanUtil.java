@@ -10,6 +10,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.*;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.AggregateHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.DirectGroupByHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.HashJoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.JoinHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.JoinInnerHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.join.NotInHandler;
@@ -204,6 +205,8 @@ public final class ComplexQueryPlanUtil {
             return "INNER_FUNC_ADD";
         } else if (handler instanceof JoinHandler) {
             return "JOIN";
+        } else if (handler instanceof HashJoinHandler) {
+            return "HASH_JOIN";
         } else if (handler instanceof DirectGroupByHandler) {
             return "DIRECT_GROUP";
         } else if (handler instanceof TempTableHandler) {
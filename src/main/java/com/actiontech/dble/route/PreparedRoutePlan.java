@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.BindValue;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.TableConfig;
+import com.actiontech.dble.route.util.RoutePlanUtil;
+import com.actiontech.dble.route.util.RouterUtil;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.util.StringUtil;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import com.alibaba.druid.sql.visitor.SQLASTVisitorAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the route plan of a server side prepared statement, built from the sql with '?' once.
+ * the dataNode is calculated from the bound value of the partition column directly, the parser is skipped.
+ * the plan is verified by the route of the first execution, the plan which doesn't match is never used.
+ */
+public final class PreparedRoutePlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PreparedRoutePlan.class);
+
+    private final String schema;
+    private final long reloadTime;
+    private final int sqlType;
+    private final String table;
+    /* null if the statement is always routed to the dataNode */
+    private final TableConfig tableConfig;
+    private final String dataNode;
+    private final int paramIndex;
+    private volatile boolean verified = false;
+    private volatile boolean invalid = false;
+
+    private PreparedRoutePlan(String schema, int sqlType, String table, TableConfig tableConfig, String dataNode, int paramIndex) {
+        this.schema = schema;
+        this.reloadTime = DbleServer.getInstance().getConfig().getReloadTime();
+        this.sqlType = sqlType;
+        this.table = table;
+        this.tableConfig = tableConfig;
+        this.dataNode = dataNode;
+        this.paramIndex = paramIndex;
+    }
+
+    /**
+     * @return null if the route of the statement can't be decided by the bound values
+     */
+    public static PreparedRoutePlan build(String sql, int paramCount, SchemaConfig schema) {
+        int sqlType = ServerParse.parse(sql) & 0xff;
+        if (schema == null || (sqlType != ServerParse.SELECT && sqlType != ServerParse.UPDATE && sqlType != ServerParse.DELETE) ||
+                sql.contains("/*")) {
+            return null;
+        }
+        SQLStatement statement;
+        try {
+            statement = new MySqlStatementParser(sql).parseStatement();
+        } catch (Exception e) {
+            LOGGER.debug("parse prepared statement failed, route it as text", e);
+            return null;
+        }
+        List<SQLVariantRefExpr> params = new ArrayList<>();
+        statement.accept(new SQLASTVisitorAdapter() {
+            @Override
+            public boolean visit(SQLVariantRefExpr x) {
+                params.add(x);
+                return true;
+            }
+        });
+        SQLExprTableSource tableSource = RoutePlanUtil.getSingleTableSource(statement);
+        // '?' in strings or sub queries, or the table with schema which will be removed from the sql
+        if (params.size() != paramCount || tableSource == null || !(tableSource.getExpr() instanceof SQLIdentifierExpr)) {
+            return null;
+        }
+        String table = StringUtil.removeBackQuote(((SQLIdentifierExpr) tableSource.getExpr()).getName());
+        if (DbleServer.getInstance().getSystemVariables().isLowerCaseTableNames()) {
+            table = table.toLowerCase();
+        }
+        try {
+            String noShardingNode = RouterUtil.isNoSharding(schema, table);
+            if (noShardingNode != null) {
+                return new PreparedRoutePlan(schema.getName(), sqlType, table, null, noShardingNode, -1);
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        TableConfig tc = schema.getTables().get(table);
+        if (tc == null || tc.isGlobalTable() || tc.getPartitionColumn() == null ||
+                RoutePlanUtil.isUpdateColumn(statement, tc.getPartitionColumn())) {
+            return null;
+        }
+        SQLExpr where = RoutePlanUtil.getWhere(statement);
+        List<SQLExpr> values = new ArrayList<>();
+        if (where == null || !RoutePlanUtil.collectEqualValues(where, tc.getPartitionColumn(), values) ||
+                values.size() != 1 || !(values.get(0) instanceof SQLVariantRefExpr)) {
+            return null;
+        }
+        int index = ((SQLVariantRefExpr) values.get(0)).getIndex();
+        if (index < 0 || index >= paramCount) {
+            return null;
+        }
+        return new PreparedRoutePlan(schema.getName(), sqlType, table, tc, null, index);
+    }
+
+    /**
+     * @return false if the current schema or the config is changed since the plan is built
+     */
+    public boolean isAvailable(String currentSchema) {
+        return !invalid && schema.equals(currentSchema) && reloadTime == DbleServer.getInstance().getConfig().getReloadTime();
+    }
+
+    /**
+     * @return null if the dataNode can't be calculated from the values
+     */
+    public BoundRoute bind(BindValue[] bindValues, int[] paramTypes) {
+        if (tableConfig == null) {
+            return new BoundRoute(this, dataNode);
+        }
+        BindValue bindValue = bindValues[paramIndex];
+        if (bindValue.isNull() || bindValue.isLongData()) {
+            return null;
+        }
+        String value;
+        switch (paramTypes[paramIndex] & 0xff) {
+            case Fields.FIELD_TYPE_TINY:
+                value = String.valueOf(bindValue.getByteBinding());
+                break;
+            case Fields.FIELD_TYPE_SHORT:
+                value = String.valueOf(bindValue.getShortBinding());
+                break;
+            case Fields.FIELD_TYPE_LONG:
+                value = String.valueOf(bindValue.getIntBinding());
+                break;
+            case Fields.FIELD_TYPE_LONGLONG:
+                value = String.valueOf(bindValue.getLongBinding());
+                break;
+            case Fields.FIELD_TYPE_VAR_STRING:
+            case Fields.FIELD_TYPE_STRING:
+            case Fields.FIELD_TYPE_VARCHAR:
+                value = String.valueOf(bindValue.getValue());
+                break;
+            default:
+                // the text of float/double/time differs from the value the parser sees
+                return null;
+        }
+        Integer nodeIndex;
+        try {
+            nodeIndex = tableConfig.getRule().getRuleAlgorithm().calculate(value);
+        } catch (Exception e) {
+            // let the parser report the error
+            return null;
+        }
+        if (nodeIndex == null || nodeIndex < 0 || nodeIndex >= tableConfig.getDataNodes().size()) {
+            return null;
+        }
+        return new BoundRoute(this, tableConfig.getDataNodes().get(nodeIndex));
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    /**
+     * the route of one execution
+     */
+    public static final class BoundRoute {
+        private final PreparedRoutePlan plan;
+        private final String dataNode;
+
+        private BoundRoute(PreparedRoutePlan plan, String dataNode) {
+            this.plan = plan;
+            this.dataNode = dataNode;
+        }
+
+        public PreparedRoutePlan getPlan() {
+            return plan;
+        }
+
+        public RouteResultset route(String stmt) {
+            RouteResultset rrs = new RouteResultset(stmt, plan.sqlType);
+            rrs.setSchema(plan.schema);
+            rrs.setTable(plan.table);
+            return RouterUtil.routeToSingleNode(rrs, dataNode);
+        }
+
+        /**
+         * compare the plan with the route of the parser
+         */
+        public void verify(RouteResultset rrs, String stmt) {
+            if (plan.verified || plan.invalid) {
+                return;
+            }
+            if (RoutePlanUtil.isPlainSingleNodeRoute(rrs, stmt) && dataNode.equals(rrs.getNodes()[0].getName())) {
+                plan.verified = true;
+            } else {
+                plan.invalid = true;
+            }
+        }
+    }
+}
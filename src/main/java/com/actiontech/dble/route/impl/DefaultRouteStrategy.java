@@ -13,6 +13,7 @@ import com.actiontech.dble.route.parser.druid.DruidParserFactory;
 import com.actiontech.dble.route.parser.druid.ServerSchemaStatVisitor;
 import com.actiontech.dble.route.util.RouterUtil;
 import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.singleton.PlanCacheManager;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
 import com.alibaba.druid.sql.parser.SQLStatementParser;
@@ -84,7 +85,11 @@ public class DefaultRouteStrategy extends AbstractRouteStrategy {
         }
         sc.getSession2().endParse();
         DruidParser druidParser = DruidParserFactory.create(statement, rrs.getSqlType());
-        return RouterUtil.routeFromParser(druidParser, schema, rrs, statement, new ServerSchemaStatVisitor(), sc, isExplain);
+        RouteResultset result = RouterUtil.routeFromParser(druidParser, schema, rrs, statement, new ServerSchemaStatVisitor(), sc, isExplain);
+        if (result != null && !isExplain) {
+            PlanCacheManager.getInstance().learn(schema, originSql, sc, statement, druidParser.getCtx(), result);
+        }
+        return result;
 
     }
 
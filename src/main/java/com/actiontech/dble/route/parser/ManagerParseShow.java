@@ -74,6 +74,8 @@ public final class ManagerParseShow {
     public static final int SHOW_USER_PRIVILEGE = 66;
     public static final int SHOW_QUESTIONS = 67;
     public static final int DATADISTRIBUTION_WHERE = 68;
+    public static final int PLAN_CACHE = 69;
+    public static final int SQL_DISPATCH = 70;
     public static final Pattern PATTERN_FOR_TABLE_INFO = Pattern.compile("^\\s*schema\\s*=\\s*" +
             "(('|\")((?!`)((?!\\2).))+\\2|[a-zA-Z_0-9\\-]+)" +
             "\\s+and\\s+table\\s*=\\s*" +
@@ -734,6 +736,9 @@ public final class ManagerParseShow {
                 case 'R':
                 case 'r':
                     return show2ProcessCheck(stmt, offset);
+                case 'L':
+                case 'l':
+                    return show2PlanCacheCheck(stmt, offset);
                 default:
                     return OTHER;
             }
@@ -741,6 +746,34 @@ public final class ManagerParseShow {
         return OTHER;
     }
 
+    // SHOW @@PLAN_CACHE
+    private static int show2PlanCacheCheck(String stmt, int offset) {
+        if (stmt.length() > offset + "AN_CACHE".length()) {
+            char c1 = stmt.charAt(++offset);
+            char c2 = stmt.charAt(++offset);
+            char c3 = stmt.charAt(++offset);
+            char c4 = stmt.charAt(++offset);
+            char c5 = stmt.charAt(++offset);
+            char c6 = stmt.charAt(++offset);
+            char c7 = stmt.charAt(++offset);
+            char c8 = stmt.charAt(++offset);
+            if ((c1 == 'A' || c1 == 'a') &&
+                    (c2 == 'N' || c2 == 'n') &&
+                    (c3 == '_') &&
+                    (c4 == 'C' || c4 == 'c') &&
+                    (c5 == 'A' || c5 == 'a') &&
+                    (c6 == 'C' || c6 == 'c') &&
+                    (c7 == 'H' || c7 == 'h') &&
+                    (c8 == 'E' || c8 == 'e')) {
+                if (ParseUtil.isErrorTail(++offset, stmt)) {
+                    return OTHER;
+                }
+                return PLAN_CACHE;
+            }
+        }
+        return OTHER;
+    }
+
     private static int show2RCheck(String stmt, int offset) {
         if (stmt.length() > offset + "ELOAD_STATUS".length()) {
             char c1 = stmt.charAt(++offset);
@@ -1998,6 +2031,9 @@ public final class ManagerParseShow {
                 case 'R':
                 case 'r':
                     return show2SqlRCheck(stmt, offset);
+                case 'D':
+                case 'd':
+                    return show2SqlDCheck(stmt, offset);
                 default:
                     return OTHER;
             }
@@ -2128,6 +2164,28 @@ public final class ManagerParseShow {
         return OTHER;
     }
 
+    // SHOW @@SQL.DISPATCH
+    private static int show2SqlDCheck(String stmt, int offset) {
+        if (stmt.length() > offset + "ISPATCH".length()) {
+            char c1 = stmt.charAt(++offset);
+            char c2 = stmt.charAt(++offset);
+            char c3 = stmt.charAt(++offset);
+            char c4 = stmt.charAt(++offset);
+            char c5 = stmt.charAt(++offset);
+            char c6 = stmt.charAt(++offset);
+            char c7 = stmt.charAt(++offset);
+            if ((c1 == 'I' || c1 == 'i') && (c2 == 'S' || c2 == 's') && (c3 == 'P' || c3 == 'p') &&
+                    (c4 == 'A' || c4 == 'a') && (c5 == 'T' || c5 == 't') && (c6 == 'C' || c6 == 'c') &&
+                    (c7 == 'H' || c7 == 'h')) {
+                if (ParseUtil.isErrorTail(++offset, stmt)) {
+                    return OTHER;
+                }
+                return SQL_DISPATCH;
+            }
+        }
+        return OTHER;
+    }
+
     // SHOW @@SQL.SUM
     private static int show2SqlSUCheck(String stmt, int offset) {
         if (stmt.length() > offset + "M".length()) {
@@ -150,13 +150,12 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         final SchemaConfig schema = schemaInfo.getSchemaConfig();
         String tableName = schemaInfo.getTable();
         final TableConfig tc = schema.getTables().get(tableName);
-        if (isMultiInsert(insertStmt)) {
-            String msg = "ChildTable multi insert not provided";
-            LOGGER.info(msg);
-            throw new SQLNonTransientException(msg);
-        }
         String joinKey = tc.getJoinKey();
         int joinKeyIndex = getJoinKeyIndex(schemaInfo, insertStmt, joinKey);
+        if (isMultiInsert(insertStmt)) {
+            parserBatchChildTable(schemaInfo, rrs, insertStmt, joinKeyIndex, sc, isExplain);
+            return;
+        }
         final String joinKeyVal = insertStmt.getValues().getValues().get(joinKeyIndex).toString();
         String realVal = StringUtil.removeApostrophe(joinKeyVal);
         final String sql = RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema());
@@ -172,6 +171,38 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
     }
 
 
+    /**
+     * insert into childTable() values (),(),....
+     * the rows are grouped by the data nodes of their parents, the parents which can't be located by the parent rule
+     * are located by one query for all the join keys on every data node of the root parent
+     */
+    private void parserBatchChildTable(SchemaInfo schemaInfo, RouteResultset rrs, MySqlInsertStatement insertStmt,
+                                       int joinKeyIndex, ServerConnection sc, boolean isExplain) throws SQLNonTransientException {
+        SchemaConfig schema = schemaInfo.getSchemaConfig();
+        TableConfig tc = schema.getTables().get(schemaInfo.getTable());
+        int columnNum = getTableColumns(schemaInfo, insertStmt.getColumns());
+        for (ValuesClause valueClause : insertStmt.getValuesList()) {
+            if (valueClause.getValues().size() != columnNum) {
+                String msg = "bad insert sql columnSize != valueSize:" + columnNum + " != " + valueClause.getValues().size() + "values:" + valueClause;
+                LOGGER.info(msg);
+                throw new SQLNonTransientException(msg);
+            }
+        }
+        if (tc.getDirectRouteTC() != null) {
+            Map<String, List<ValuesClause>> nodeValuesMap = new LinkedHashMap<>();
+            for (ValuesClause valueClause : insertStmt.getValuesList()) {
+                String joinKeyVal = StringUtil.removeApostrophe(valueClause.getValues().get(joinKeyIndex).toString());
+                nodeValuesMap.computeIfAbsent(getERParentNode(rrs, tc, joinKeyVal, schemaInfo), k -> new ArrayList<>()).add(valueClause);
+            }
+            routeToValuesNodes(schemaInfo, rrs, insertStmt, nodeValuesMap);
+            rrs.setFinishedRoute(true);
+        } else {
+            rrs.setStatement(RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema()));
+            rrs.setFinishedExecute(true);
+            fetchBatchChildTableToRoute(tc, joinKeyIndex, sc, schemaInfo, insertStmt, rrs, isExplain);
+        }
+    }
+
     /**
      * @param schemaInfo      SchemaInfo
      * @param rrs             RouteResultset
@@ -349,15 +380,23 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         String tableKey = StringUtil.getFullName(schemaInfo.getSchema(), schemaInfo.getTable());
         List<ValuesClause> vcl = insert.getValuesList();
         if (vcl != null && vcl.size() > 1) { // batch insert
+            for (ValuesClause valuesClause : vcl) {
+                checkValueSize(valuesClause.getValues(), autoIncrement, colSize);
+            }
+            // take the ids of all the rows at once
+            long[] ids = autoIncrement < 0 ? null : SequenceManager.getHandler().nextIds(tableKey, vcl.size());
             for (int j = 0; j < vcl.size(); j++) {
+                long id = ids == null ? 0 : ids[j];
                 if (j != vcl.size() - 1)
-                    appendValues(tableKey, vcl.get(j).getValues(), sb, autoIncrement, colSize).append(",");
+                    appendValues(vcl.get(j).getValues(), sb, autoIncrement, colSize, id).append(",");
                 else
-                    appendValues(tableKey, vcl.get(j).getValues(), sb, autoIncrement, colSize);
+                    appendValues(vcl.get(j).getValues(), sb, autoIncrement, colSize, id);
             }
         } else {
             List<SQLExpr> values = insert.getValues().getValues();
-            appendValues(tableKey, values, sb, autoIncrement, colSize);
+            checkValueSize(values, autoIncrement, colSize);
+            long id = autoIncrement < 0 ? 0 : SequenceManager.getHandler().nextId(tableKey);
+            appendValues(values, sb, autoIncrement, colSize, id);
         }
 
         List<SQLExpr> dku = insert.getDuplicateKeyUpdate();
@@ -404,9 +443,25 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
     }
 
 
-    private static StringBuilder appendValues(String tableKey, List<SQLExpr> values, StringBuilder sb, int autoIncrement,
-                                              int colSize) throws SQLNonTransientException {
+    private static StringBuilder appendValues(List<SQLExpr> values, StringBuilder sb, int autoIncrement,
+                                              int colSize, long id) {
+        sb.append("(");
+        int iValue = 0;
+        for (int i = 0; i < colSize; i++) {
+            if (i == autoIncrement) {
+                sb.append(id);
+            } else {
+                String value = SQLUtils.toMySqlString(values.get(iValue++));
+                sb.append(value);
+            }
+            if (i < colSize - 1) {
+                sb.append(",");
+            }
+        }
+        return sb.append(")");
+    }
 
+    private static void checkValueSize(List<SQLExpr> values, int autoIncrement, int colSize) throws SQLNonTransientException {
         int size = values.size();
         int checkSize = colSize - (autoIncrement < 0 ? 0 : 1);
         if (checkSize < size) {
@@ -421,20 +476,5 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
             LOGGER.info(msg);
             throw new SQLNonTransientException(msg);
         }
-        sb.append("(");
-        int iValue = 0;
-        for (int i = 0; i < colSize; i++) {
-            if (i == autoIncrement) {
-                long id = SequenceManager.getHandler().nextId(tableKey);
-                sb.append(id);
-            } else {
-                String value = SQLUtils.toMySqlString(values.get(iValue++));
-                sb.append(value);
-            }
-            if (i < colSize - 1) {
-                sb.append(",");
-            }
-        }
-        return sb.append(")");
     }
 }
@@ -7,15 +7,18 @@ package com.actiontech.dble.route.parser.druid.impl;
 
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.nio.handler.FetchStoreNodeOfChildTableHandler;
+import com.actiontech.dble.cache.CachePool;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.SchemaConfig;
 import com.actiontech.dble.config.model.TableConfig;
 import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.net.ConnectionException;
 import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.route.util.RouterUtil;
 import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.server.handler.ExplainHandler;
+import com.actiontech.dble.singleton.CacheService;
 import com.actiontech.dble.singleton.ProxyMeta;
 import com.actiontech.dble.sqlengine.SQLJob;
 import com.actiontech.dble.sqlengine.mpp.ColumnRoute;
@@ -24,10 +27,11 @@ import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
 import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement.ValuesClause;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
 
 import java.sql.SQLNonTransientException;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static com.actiontech.dble.server.util.SchemaUtil.SchemaInfo;
 
@@ -35,21 +39,29 @@ abstract class DruidInsertReplaceParser extends DefaultDruidParser {
     static RouteResultset routeByERParentKey(RouteResultset rrs, TableConfig tc, String joinKeyVal, SchemaInfo schemaInfo)
             throws SQLNonTransientException {
         if (tc.getDirectRouteTC() != null) {
-            ColumnRoute columnRoute = new ColumnRoute(joinKeyVal);
-            checkDefaultValues(joinKeyVal, tc, schemaInfo.getSchema(), tc.getJoinKey());
-            Set<String> dataNodeSet = RouterUtil.ruleCalculate(rrs, tc.getDirectRouteTC(), columnRoute, false);
-            if (dataNodeSet.size() != 1) {
-                throw new SQLNonTransientException("parent key can't find  valid data node ,expect 1 but found: " + dataNodeSet.size());
-            }
-            String dn = dataNodeSet.iterator().next();
-            if (SQLJob.LOGGER.isDebugEnabled()) {
-                SQLJob.LOGGER.debug("found partion node (using parent partition rule directly) for child table to insert  " + dn + " sql :" + rrs.getStatement());
-            }
-            return RouterUtil.routeToSingleNode(rrs, dn);
+            return RouterUtil.routeToSingleNode(rrs, getERParentNode(rrs, tc, joinKeyVal, schemaInfo));
         }
         return null;
     }
 
+    /**
+     * the table must have the direct route table
+     */
+    static String getERParentNode(RouteResultset rrs, TableConfig tc, String joinKeyVal, SchemaInfo schemaInfo)
+            throws SQLNonTransientException {
+        ColumnRoute columnRoute = new ColumnRoute(joinKeyVal);
+        checkDefaultValues(joinKeyVal, tc, schemaInfo.getSchema(), tc.getJoinKey());
+        Set<String> dataNodeSet = RouterUtil.ruleCalculate(rrs, tc.getDirectRouteTC(), columnRoute, false);
+        if (dataNodeSet.size() != 1) {
+            throw new SQLNonTransientException("parent key can't find  valid data node ,expect 1 but found: " + dataNodeSet.size());
+        }
+        String dn = dataNodeSet.iterator().next();
+        if (SQLJob.LOGGER.isDebugEnabled()) {
+            SQLJob.LOGGER.debug("found partion node (using parent partition rule directly) for child table to insert  " + dn + " sql :" + rrs.getStatement());
+        }
+        return dn;
+    }
+
 
     /**
      * check if the column is not null and the
@@ -175,4 +187,104 @@ abstract class DruidInsertReplaceParser extends DefaultDruidParser {
             }
         });
     }
+
+    /**
+     * route every group of the rows to its data node, the values of the insert statement are changed
+     */
+    void routeToValuesNodes(SchemaInfo schemaInfo, RouteResultset rrs, MySqlInsertStatement insertStmt,
+                            Map<String, List<ValuesClause>> nodeValuesMap) {
+        RouteResultsetNode[] nodes = new RouteResultsetNode[nodeValuesMap.size()];
+        int count = 0;
+        for (Map.Entry<String, List<ValuesClause>> node : nodeValuesMap.entrySet()) {
+            insertStmt.getValuesList().clear();
+            insertStmt.getValuesList().addAll(node.getValue());
+            nodes[count++] = new RouteResultsetNode(node.getKey(), rrs.getSqlType(),
+                    RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema()));
+        }
+        rrs.setNodes(nodes);
+    }
+
+    /**
+     * locate the parents of all the rows which are not in ER_SQL2PARENTID by one "in" query on every data node
+     * of the root parent, the parents not found by it are located one by one as the single row insert does
+     */
+    void fetchBatchChildTableToRoute(TableConfig tc, int joinKeyIndex, ServerConnection sc, SchemaInfo schemaInfo,
+                                     MySqlInsertStatement insertStmt, RouteResultset rrs, boolean isExplain) {
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+            //get child result will be blocked, so use ComplexQueryExecutor
+            @Override
+            public void run() {
+                String schema = schemaInfo.getSchema();
+                CachePool cache = CacheService.getCachePoolByName("ER_SQL2PARENTID");
+                Map<String, String> keyNodes = new HashMap<>();
+                List<String> unknownKeys = new ArrayList<>();
+                for (ValuesClause valueClause : insertStmt.getValuesList()) {
+                    String joinKeyVal = valueClause.getValues().get(joinKeyIndex).toString();
+                    if (keyNodes.containsKey(joinKeyVal)) {
+                        continue;
+                    }
+                    String dn = cache == null ? null : (String) cache.get(schema + ":" + tc.getLocateRTableKeySql() + joinKeyVal);
+                    keyNodes.put(joinKeyVal, dn);
+                    if (dn == null) {
+                        unknownKeys.add(joinKeyVal);
+                    }
+                }
+                try {
+                    if (!unknownKeys.isEmpty() && !fetchParentNodes(tc, sc, schema, unknownKeys, keyNodes, cache)) {
+                        return;
+                    }
+                    Map<String, List<ValuesClause>> nodeValuesMap = new LinkedHashMap<>();
+                    for (ValuesClause valueClause : insertStmt.getValuesList()) {
+                        String dn = keyNodes.get(valueClause.getValues().get(joinKeyIndex).toString());
+                        nodeValuesMap.computeIfAbsent(dn, k -> new ArrayList<>()).add(valueClause);
+                    }
+                    routeToValuesNodes(schemaInfo, rrs, insertStmt, nodeValuesMap);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("found partition nodes for child table to insert " + nodeValuesMap.keySet() + " sql :" + rrs.getStatement());
+                    }
+                    if (isExplain) {
+                        ExplainHandler.writeOutHeadAndEof(sc, rrs);
+                    } else {
+                        sc.getSession2().execute(rrs);
+                    }
+                } catch (ConnectionException e) {
+                    sc.setTxInterrupt(e.toString());
+                    sc.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, e.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return false if the error has been written to the client
+     */
+    private boolean fetchParentNodes(TableConfig tc, ServerConnection sc, String schema, List<String> unknownKeys,
+                                     Map<String, String> keyNodes, CachePool cache) throws ConnectionException {
+        String findRootTBSql = tc.getLocateRTableKeysSql() + StringUtil.join(unknownKeys, ",") + ")";
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("to find root parent's nodes sql :" + findRootTBSql);
+        }
+        FetchStoreNodeOfChildTableHandler fetchHandler = new FetchStoreNodeOfChildTableHandler(findRootTBSql, sc.getSession2());
+        Map<String, String> parentNodes = fetchHandler.executeBatch(tc.getRootParent().getDataNodes());
+        if (parentNodes == null) {
+            return false;
+        }
+        for (String joinKeyVal : unknownKeys) {
+            String sql = tc.getLocateRTableKeySql() + joinKeyVal;
+            String dn = parentNodes.get(StringUtil.removeApostrophe(joinKeyVal));
+            if (dn == null) {
+                // the parent key may be returned in another form, such as in another case
+                dn = new FetchStoreNodeOfChildTableHandler(sql, sc.getSession2()).execute(schema, tc.getRootParent().getDataNodes());
+            } else if (cache != null && !LOGGER.isDebugEnabled()) {
+                //no cached when debug
+                cache.putIfAbsent(schema + ":" + sql, dn);
+            }
+            if (dn == null) {
+                sc.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, "can't find (root) parent sharding node for sql:" + sql);
+                return false;
+            }
+            keyNodes.put(joinKeyVal, dn);
+        }
+        return true;
+    }
 }
@@ -181,15 +181,28 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
         String tableKey = StringUtil.getFullName(schemaInfo.getSchema(), schemaInfo.getTable());
         List<SQLInsertStatement.ValuesClause> vcl = replace.getValuesList();
         if (vcl != null && vcl.size() > 1) { // batch insert
+            int idCount = 0;
+            for (SQLInsertStatement.ValuesClause valuesClause : vcl) {
+                if (checkValueSize(valuesClause.getValues(), autoIncrement, idxGlobal, colSize)) {
+                    idCount++;
+                }
+            }
+            // take the ids of all the rows at once
+            long[] ids = idCount == 0 ? null : SequenceManager.getHandler().nextIds(tableKey, idCount);
+            int idIndex = 0;
             for (int j = 0; j < vcl.size(); j++) {
+                List<SQLExpr> values = vcl.get(j).getValues();
+                long id = isIdGenerated(values, autoIncrement, idxGlobal, colSize) ? ids[idIndex++] : 0;
                 if (j != vcl.size() - 1)
-                    appendValues(tableKey, vcl.get(j).getValues(), sb, autoIncrement, idxGlobal, colSize).append(",");
+                    appendValues(values, sb, autoIncrement, idxGlobal, colSize, id).append(",");
                 else
-                    appendValues(tableKey, vcl.get(j).getValues(), sb, autoIncrement, idxGlobal, colSize);
+                    appendValues(values, sb, autoIncrement, idxGlobal, colSize, id);
             }
         } else { // single line insert
             List<SQLExpr> values = replace.getValuesList().get(0).getValues();
-            appendValues(tableKey, values, sb, autoIncrement, idxGlobal, colSize);
+            boolean idGenerated = checkValueSize(values, autoIncrement, idxGlobal, colSize);
+            long id = idGenerated ? SequenceManager.getHandler().nextId(tableKey) : 0;
+            appendValues(values, sb, autoIncrement, idxGlobal, colSize, id);
         }
 
         return RouterUtil.removeSchema(sb.toString(), schemaInfo.getSchema());
@@ -211,9 +224,12 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
     }
 
 
-    private static StringBuilder appendValues(String tableKey, List<SQLExpr> values, StringBuilder sb,
-                                              int autoIncrement, int idxGlobal, int colSize) throws SQLNonTransientException {
-        // check the value number & the column number is all right
+    /**
+     * check the value number & the column number is all right
+     *
+     * @return true if the value of the auto increment column is generated by the sequence
+     */
+    private static boolean checkValueSize(List<SQLExpr> values, int autoIncrement, int idxGlobal, int colSize) throws SQLNonTransientException {
         int size = values.size();
         int checkSize = colSize - (idxGlobal < 0 ? 0 : 1);
         int lowerlimit = colSize - (autoIncrement < 0 ? 0 : 1) - (idxGlobal < 0 ? 0 : 1);
@@ -226,21 +242,24 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
             LOGGER.info(msg);
             throw new SQLNonTransientException(msg);
         }
+        return isIdGenerated(values, autoIncrement, idxGlobal, colSize);
+    }
+
+    private static boolean isIdGenerated(List<SQLExpr> values, int autoIncrement, int idxGlobal, int colSize) {
+        return autoIncrement >= 0 && colSize - (idxGlobal < 0 ? 0 : 1) > values.size();
+    }
 
+    private static StringBuilder appendValues(List<SQLExpr> values, StringBuilder sb, int autoIncrement, int idxGlobal,
+                                              int colSize, long id) {
+        boolean idGenerated = isIdGenerated(values, autoIncrement, idxGlobal, colSize);
         sb.append("(");
         int iValue = 0;
         //put the value number into string buffer
         for (int i = 0; i < colSize; i++) {
             if (i == idxGlobal) {
                 sb.append(String.valueOf(new Date().getTime()));
-            } else if (i == autoIncrement) {
-                if (checkSize > size) {
-                    long id = SequenceManager.getHandler().nextId(tableKey);
-                    sb.append(id);
-                } else {
-                    String value = SQLUtils.toMySqlString(values.get(iValue++));
-                    sb.append(value);
-                }
+            } else if (i == autoIncrement && idGenerated) {
+                sb.append(id);
             } else {
                 String value = SQLUtils.toMySqlString(values.get(iValue++));
                 sb.append(value);
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the shape of a sql: every number or string literal is replaced by '?' and the blanks are merged.
+ * it is a plain char scanner instead of a parser, the sql which can't be scanned safely
+ * (comments, escaped strings, charset introducers, placeholders or sub queries) has no fingerprint.
+ */
+public final class SqlFingerprint {
+    private final String fingerprint;
+    private final List<String> literals;
+
+    private SqlFingerprint(String fingerprint, List<String> literals) {
+        this.fingerprint = fingerprint;
+        this.literals = literals;
+    }
+
+    /**
+     * @return null if the sql is not supported
+     */
+    public static SqlFingerprint parse(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        List<String> literals = new ArrayList<>();
+        int selectCount = 0;
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            int end;
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                    sb.append(' ');
+                }
+                end = i + 1;
+            } else if (c == '\'' || c == '"') {
+                end = skipQuoted(sql, i, c);
+                if (end < 0) {
+                    return null;
+                }
+                literals.add(sql.substring(i + 1, end));
+                sb.append('?');
+                end++;
+            } else if (c == '`') {
+                end = skipQuoted(sql, i, c);
+                if (end < 0) {
+                    return null;
+                }
+                sb.append(sql, i, ++end);
+            } else if (CharTypes.isDigit(c)) {
+                end = skipNumber(sql, i);
+                if (end < 0) {
+                    return null;
+                }
+                literals.add(sql.substring(i, end));
+                sb.append('?');
+            } else if (CharTypes.isIdentifierChar(c)) {
+                end = skipWord(sql, i);
+                if (end < 0) {
+                    return null;
+                }
+                String word = sql.substring(i, end);
+                if (word.equalsIgnoreCase("SELECT")) {
+                    selectCount++;
+                } else if (word.equalsIgnoreCase("UNION")) {
+                    return null;
+                }
+                sb.append(word);
+            } else if (isUnsupported(sql, i)) {
+                return null;
+            } else {
+                sb.append(c);
+                end = i + 1;
+            }
+            i = end;
+        }
+        if (selectCount > 1) {
+            return null;
+        }
+        return new SqlFingerprint(sb.toString().trim(), literals);
+    }
+
+    /**
+     * placeholders, comments and decimals like .5
+     */
+    private static boolean isUnsupported(String sql, int i) {
+        char c = sql.charAt(i);
+        if (c == '?' || c == '#') {
+            return true;
+        }
+        if (i + 1 >= sql.length()) {
+            return false;
+        }
+        char next = sql.charAt(i + 1);
+        return (c == '.' && CharTypes.isDigit(next)) || (c == '/' && next == '*') || (c == '-' && next == '-');
+    }
+
+    /**
+     * @return the index of the closing quote, -1 if the content is escaped or not closed
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        for (int i = start + 1; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                return -1;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    return -1;
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the end of the number, -1 if it is not a plain decimal, such as 0x1F, 1e3, 1abc
+     */
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        int len = sql.length();
+        while (i < len && CharTypes.isDigit(sql.charAt(i))) {
+            i++;
+        }
+        if (i + 1 < len && sql.charAt(i) == '.' && CharTypes.isDigit(sql.charAt(i + 1))) {
+            i++;
+            while (i < len && CharTypes.isDigit(sql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < len && (CharTypes.isIdentifierChar(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            return -1;
+        }
+        return i;
+    }
+
+    /**
+     * @return the end of the word, -1 if it is a charset introducer or a hex/bit string, such as _utf8'a', x'1F', N'a'
+     */
+    private static int skipWord(String sql, int start) {
+        int i = start;
+        int len = sql.length();
+        while (i < len && CharTypes.isIdentifierChar(sql.charAt(i))) {
+            i++;
+        }
+        if (i < len && (sql.charAt(i) == '\'' || sql.charAt(i) == '"')) {
+            return -1;
+        }
+        return i;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public List<String> getLiterals() {
+        return literals;
+    }
+}
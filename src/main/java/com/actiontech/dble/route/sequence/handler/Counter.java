@@ -20,10 +20,13 @@ public class Counter {
     AtomicLong curVal = new AtomicLong(0);
     //max seg value of this time,if the curVal equals this value than need to find a new segment
     long maxSegValue;
+    //the value before the first value of the segment
+    private final long start;
 
     public Counter(long start, long maxSegValue) {
         LOGGER.info("new counter " + start + "  " + maxSegValue);
         this.maxSegValue = maxSegValue;
+        this.start = start;
         curVal = new AtomicLong(start);
     }
 
@@ -33,4 +36,30 @@ public class Counter {
         return maxSegValue > value ? value : -1;
     }
 
+    /**
+     * take count continuous values at once
+     *
+     * @return the first value, -1 if the rest of the segment is not enough
+     */
+    public long getNext(int count) {
+        while (true) {
+            long current = curVal.get();
+            long last = current + count;
+            if (maxSegValue <= last) {
+                // the rest is left to the callers taking the values one by one
+                return -1;
+            }
+            if (curVal.compareAndSet(current, last)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * @return true if the value is beyond the percent of the segment
+     */
+    public boolean isUsed(long value, int percent) {
+        return (value - start) * 100 >= (maxSegValue - start) * percent;
+    }
+
 }
@@ -41,6 +41,9 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
                             seqVal.sql), this, seqVal);
         } catch (Exception e) {
             LOGGER.warn("get connection err: " + e);
+            IncrSequenceMySQLHandler.LATEST_ERRORS.put(seqVal.seqName, "get connection err: " + e);
+            seqVal.dbretVal = null;
+            seqVal.fetchFinished();
         }
 
     }
@@ -90,7 +93,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
     public void okResponse(byte[] ok, BackendConnection conn) {
         boolean executeResponse = conn.syncAndExecute();
         if (executeResponse) {
-            ((SequenceVal) conn.getAttachment()).dbfinished = true;
+            ((SequenceVal) conn.getAttachment()).fetchFinished();
             conn.release();
         }
 
@@ -117,7 +120,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
 
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
-        ((SequenceVal) conn.getAttachment()).dbfinished = true;
+        ((SequenceVal) conn.getAttachment()).fetchFinished();
         conn.release();
     }
 
@@ -125,7 +128,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
         SequenceVal seqVal = ((SequenceVal) c.getAttachment());
         IncrSequenceMySQLHandler.LATEST_ERRORS.put(seqVal.seqName, errMsg);
         seqVal.dbretVal = null;
-        seqVal.dbfinished = true;
+        seqVal.fetchFinished();
     }
 
     @Override
@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.route.sequence.handler;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.config.util.ConfigException;
 import com.actiontech.dble.route.util.PropertiesUtil;
 import org.slf4j.Logger;
@@ -68,10 +69,7 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
 
     @Override
     public long nextId(String seqName) throws SQLNonTransientException {
-        SequenceVal seqVal = seqValueMap.get(seqName);
-        if (seqVal == null) {
-            throw new ConfigException("can't find definition for sequence :" + seqName);
-        }
+        SequenceVal seqVal = getSequenceVal(seqName);
         if (!seqVal.isSuccessFetched()) {
             return getSeqValueFromDB(seqVal);
         } else {
@@ -80,15 +78,69 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
 
     }
 
+    @Override
+    public long[] nextIds(String seqName, int count) throws SQLNonTransientException {
+        SequenceVal seqVal = getSequenceVal(seqName);
+        long[] ids = new long[count];
+        long first = -1;
+        if (seqVal.isSuccessFetched()) {
+            Counter counter = seqVal.counter;
+            first = counter.getNext(count);
+            if (first != -1) {
+                prefetchIfNecessary(seqVal, counter, first + count - 1);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            // the values which cross the segments are taken one by one
+            ids[i] = first == -1 ? nextId(seqName) : first + i;
+        }
+        return ids;
+    }
+
+    private SequenceVal getSequenceVal(String seqName) {
+        SequenceVal seqVal = seqValueMap.get(seqName);
+        if (seqVal == null) {
+            throw new ConfigException("can't find definition for sequence :" + seqName);
+        }
+        return seqVal;
+    }
+
     private Long getNextValidSeqVal(SequenceVal seqVal) throws SQLNonTransientException {
-        long nexVal = seqVal.counter.getNext();
+        Counter counter = seqVal.counter;
+        long nexVal = counter.getNext();
         if (nexVal != -1) {
+            prefetchIfNecessary(seqVal, counter, nexVal);
             return nexVal;
         } else {
             return getSeqValueFromDB(seqVal);
         }
     }
 
+    /**
+     * fetch the next segment in background when enough values of the current segment are used,
+     * so the callers don't wait for the db when the current segment is exhausted
+     */
+    private void prefetchIfNecessary(SequenceVal seqVal, Counter counter, long value) {
+        int percent = getPrefetchPercent(seqVal);
+        if (percent < 0 || seqVal.nextCounter != null || !counter.isUsed(value, percent) ||
+                !seqVal.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        mysqlSeqFetcher.execute(seqVal.newPrefetch());
+    }
+
+    /**
+     * @return -1 if prefetch is disabled
+     */
+    private static int getPrefetchPercent(SequenceVal seqVal) {
+        int configured = DbleServer.getInstance().getConfig().getSystem().getSequencePrefetchPercent();
+        if (configured <= 0) {
+            return -1;
+        }
+        int adjusted = seqVal.prefetchPercent;
+        return adjusted < 0 ? configured : adjusted;
+    }
+
     private long getSeqValueFromDB(SequenceVal seqVal) throws SQLNonTransientException {
         if (seqVal.fetching.compareAndSet(false, true)) {
             //if get the lock ,connect to mysql and get next
@@ -108,6 +160,17 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
      */
     private long execSeqFetcher(SequenceVal seqVal) throws SQLNonTransientException {
         try {
+            Counter next = seqVal.takeNextCounter();
+            if (next != null) {
+                long value = next.getNext();
+                if (value != -1) {
+                    seqVal.counter = next;
+                    prefetchedInTime(seqVal);
+                    return value;
+                }
+            } else if (seqVal.isSuccessFetched()) {
+                stalled(seqVal);
+            }
             seqVal.dbretVal = null;
             seqVal.dbfinished = false;
             mysqlSeqFetcher.execute(seqVal);
@@ -133,6 +196,33 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
         }
     }
 
+    /**
+     * the segment is exhausted before the background fetch finishes, halve the percent to prefetch earlier
+     * for the next segments, it recovers by prefetchedInTime
+     */
+    private static void stalled(SequenceVal seqVal) {
+        int percent = getPrefetchPercent(seqVal);
+        if (percent > 0) {
+            seqVal.prefetchPercent = percent / 2;
+            LOGGER.info("sequence " + seqVal.seqName + " is exhausted before the next segment is prefetched, prefetch it when " +
+                    seqVal.prefetchPercent + "% is used");
+        }
+    }
+
+    /**
+     * the segment prefetched arrives before the current one is exhausted, move the prefetch point halfway back
+     * to the configured percent, so one slow fetch doesn't keep the sequence prefetching early for ever
+     */
+    private static void prefetchedInTime(SequenceVal seqVal) {
+        int adjusted = seqVal.prefetchPercent;
+        if (adjusted < 0) {
+            return;
+        }
+        int configured = DbleServer.getInstance().getConfig().getSystem().getSequencePrefetchPercent();
+        int percent = adjusted + (configured - adjusted + 1) / 2;
+        seqVal.prefetchPercent = percent >= configured ? -1 : percent;
+    }
+
     /**
      * waiting for the packet exec to finish and get the next value
      *
@@ -16,6 +16,17 @@ public interface SequenceHandler {
 
     long nextId(String prefixName) throws SQLNonTransientException;
 
+    /**
+     * take the ids of the rows of a multi-row insert at once
+     */
+    default long[] nextIds(String prefixName, int count) throws SQLNonTransientException {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId(prefixName);
+        }
+        return ids;
+    }
+
     void load(boolean isLowerCaseTableNames);
 
 }
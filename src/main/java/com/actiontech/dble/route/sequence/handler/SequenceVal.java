@@ -15,7 +15,7 @@ import java.util.concurrent.locks.ReentrantLock;
 public class SequenceVal {
 
 
-    Counter counter = null;
+    volatile Counter counter = null;
     //exec fetch sql result
     volatile String dbretVal = null;
     //exec fetch sql flag
@@ -23,6 +23,15 @@ public class SequenceVal {
     //exec get next segment lock
     AtomicBoolean fetching = new AtomicBoolean(false);
 
+    //the segment fetched in background, used when the current counter is exhausted
+    volatile Counter nextCounter = null;
+    //background fetch flag
+    AtomicBoolean prefetching = new AtomicBoolean(false);
+    //the percent of the current segment used before prefetching, -1 means the configured one
+    volatile int prefetchPercent = -1;
+    //the sequence which the segment fetched by this one is prepared for, null if this one is fetched synchronously
+    private final SequenceVal prefetchOwner;
+
     //flag if the init of the Sequence is done
     volatile boolean successFetched;
     //the dataNode of sequence creater
@@ -33,29 +42,76 @@ public class SequenceVal {
     private Condition condRelease = executeLock.newCondition();
 
     public SequenceVal(String seqName, String dataNode) {
+        this(seqName, dataNode, null);
+    }
+
+    private SequenceVal(String seqName, String dataNode, SequenceVal prefetchOwner) {
         this.seqName = seqName;
         this.dataNode = dataNode;
+        this.prefetchOwner = prefetchOwner;
         sql = "SELECT dble_seq_nextval('" + seqName + "')";
     }
 
+    /**
+     * @return the fetch of the next segment of this sequence, which is not waited by anyone
+     */
+    SequenceVal newPrefetch() {
+        return new SequenceVal(seqName, dataNode, this);
+    }
+
 
     public void setNewCounter(long start, long end) {
         counter = new Counter(start, end);
         successFetched = true;
     }
 
+    /**
+     * called by the fetcher when the result of the fetch sql is received or the fetch is failed
+     */
+    void fetchFinished() {
+        if (prefetchOwner == null) {
+            dbfinished = true;
+            return;
+        } else if (dbfinished) {
+            // the error after the result of the background fetch
+            return;
+        }
+        dbfinished = true;
+        Long[] values = parseResult();
+        if (values != null && values[0] != 0) {
+            // the fetched value is not returned to anyone, so the counter starts before it
+            prefetchOwner.nextCounter = new Counter(values[0] - 1, values[1]);
+        }
+        prefetchOwner.prefetching.set(false);
+    }
+
+    /**
+     * take the segment fetched in background
+     */
+    Counter takeNextCounter() {
+        Counter next = nextCounter;
+        if (next != null) {
+            nextCounter = null;
+        }
+        return next;
+    }
+
+    private Long[] parseResult() {
+        if (dbretVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(dbretVal)) {
+            return null;
+        }
+        String[] items = dbretVal.split(",");
+        long curValue = Long.parseLong(items[0]);
+        int span = Integer.parseInt(items[1]);
+        return new Long[]{curValue, curValue + span};
+    }
+
     public Long[] waitFinish() {
         long start = System.currentTimeMillis();
         long end = start + 10 * 1000;
         while (System.currentTimeMillis() < end) {
             if (dbfinished) {
-                if (dbretVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(dbretVal)) {
-                    break;
-                }
-                String[] items = dbretVal.split(",");
-                long curValue = Long.parseLong(items[0]);
-                int span = Integer.parseInt(items[1]);
-                return new Long[]{curValue, curValue + span};
+                return parseResult();
             } else {
                 try {
                     Thread.sleep(100);
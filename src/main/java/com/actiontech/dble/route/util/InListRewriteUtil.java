@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.util;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.TableConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.parser.druid.DruidShardingParseInfo;
+import com.actiontech.dble.route.parser.druid.RouteCalculateUnit;
+import com.actiontech.dble.route.parser.util.Pair;
+import com.actiontech.dble.sqlengine.mpp.ColumnRoute;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
+import com.alibaba.druid.sql.ast.expr.SQLInListExpr;
+import com.alibaba.druid.sql.ast.expr.SQLValuableExpr;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * split the in list of the partition column by the data nodes, so every data node only receives
+ * the values it owns instead of the whole list.
+ * only the single table select/update/delete whose nodes are decided by one "partition column in (...)"
+ * in the AND conditions is rewritten, the other statements are sent as they are.
+ */
+public final class InListRewriteUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InListRewriteUtil.class);
+
+    private InListRewriteUtil() {
+    }
+
+    public static void rewrite(SQLStatement statement, DruidShardingParseInfo ctx, RouteResultset rrs) {
+        int threshold = DbleServer.getInstance().getConfig().getSystem().getInListRewriteThreshold();
+        if (threshold <= 0 || rrs.getNodes() == null || rrs.getNodes().length <= 1 || rrs.isNeedOptimizer() ||
+                rrs.isAlwaysFalse() || rrs.isGlobalTable()) {
+            return;
+        }
+        if (RoutePlanUtil.getSingleTableSource(statement) == null || ctx.getTables().size() != 1 ||
+                ctx.getRouteCalculateUnits().size() != 1) {
+            return;
+        }
+        Pair<String, String> table = ctx.getTables().get(0);
+        SchemaConfig schema = DbleServer.getInstance().getConfig().getSchemas().get(table.getKey());
+        TableConfig tc = schema == null ? null : schema.getTables().get(table.getValue());
+        if (tc == null || tc.isGlobalTable() || tc.getPartitionColumn() == null) {
+            return;
+        }
+        ColumnRoute columnRoute = getColumnRoute(ctx.getRouteCalculateUnits().get(0), table, tc.getPartitionColumn());
+        if (columnRoute == null || columnRoute.getInValues() == null || columnRoute.getColValue() != null ||
+                columnRoute.getRangeValues() != null) {
+            return;
+        }
+        List<SQLInListExpr> inLists = new ArrayList<>(1);
+        SQLExpr where = RoutePlanUtil.getWhere(statement);
+        if (where == null || !collectInLists(where, tc.getPartitionColumn(), inLists) || inLists.size() != 1 ||
+                inLists.get(0).getTargetList().size() < threshold) {
+            return;
+        }
+        Map<String, List<SQLExpr>> nodeValues = splitByNode(inLists.get(0).getTargetList(), columnRoute, tc);
+        if (nodeValues == null) {
+            return;
+        }
+        for (RouteResultsetNode node : rrs.getNodes()) {
+            if (!nodeValues.containsKey(node.getName())) {
+                return;
+            }
+        }
+        SQLInListExpr inList = inLists.get(0);
+        List<SQLExpr> targetList = inList.getTargetList();
+        try {
+            for (RouteResultsetNode node : rrs.getNodes()) {
+                inList.setTargetList(nodeValues.get(node.getName()));
+                node.setStatement(RouterUtil.removeSchema(statementToString(statement), table.getKey()));
+            }
+        } finally {
+            inList.setTargetList(targetList);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("split the in list of " + targetList.size() + " values into " + rrs.getNodes().length + " data nodes");
+        }
+    }
+
+    private static ColumnRoute getColumnRoute(RouteCalculateUnit unit, Pair<String, String> table, String partitionColumn) {
+        if (unit.isAlwaysFalse() || unit.getTablesAndConditions().size() != 1) {
+            return null;
+        }
+        Map<String, ColumnRoute> conditions = unit.getTablesAndConditions().get(table);
+        return conditions == null ? null : conditions.get(partitionColumn);
+    }
+
+    /**
+     * collect the in lists of the column in the AND conditions
+     *
+     * @return false if the column is also in OR/XOR/NOT or in a not in list
+     */
+    private static boolean collectInLists(SQLExpr expr, String column, List<SQLInListExpr> inLists) {
+        if (expr instanceof SQLInListExpr) {
+            SQLInListExpr inList = (SQLInListExpr) expr;
+            if (RoutePlanUtil.isColumn(inList.getExpr(), column)) {
+                if (inList.isNot()) {
+                    return false;
+                }
+                inLists.add(inList);
+            }
+            return true;
+        }
+        if (expr instanceof SQLBinaryOpExpr && ((SQLBinaryOpExpr) expr).getOperator() == SQLBinaryOperator.BooleanAnd) {
+            SQLBinaryOpExpr opExpr = (SQLBinaryOpExpr) expr;
+            return collectInLists(opExpr.getLeft(), column, inLists) && collectInLists(opExpr.getRight(), column, inLists);
+        }
+        return true;
+    }
+
+    /**
+     * @return the values of every data node, null if any value is not a literal or is not the one used by route
+     */
+    private static Map<String, List<SQLExpr>> splitByNode(List<SQLExpr> values, ColumnRoute columnRoute, TableConfig tc) {
+        Map<String, List<SQLExpr>> nodeValues = new HashMap<>();
+        for (SQLExpr expr : values) {
+            if (!(expr instanceof SQLValuableExpr) || ((SQLValuableExpr) expr).getValue() == null) {
+                return null;
+            }
+            String value = ((SQLValuableExpr) expr).getValue().toString();
+            if (!columnRoute.getInValues().contains(value)) {
+                return null;
+            }
+            Integer nodeIndex = tc.getRule().getRuleAlgorithm().calculate(value);
+            if (nodeIndex == null || nodeIndex < 0 || nodeIndex >= tc.getDataNodes().size()) {
+                return null;
+            }
+            nodeValues.computeIfAbsent(tc.getDataNodes().get(nodeIndex), k -> new ArrayList<>()).add(expr);
+        }
+        return nodeValues;
+    }
+
+    // same as DefaultDruidParser.statementToString, keep the table name like testTb_1
+    private static String statementToString(SQLStatement statement) {
+        StringBuilder buf = new StringBuilder();
+        MySqlOutputVisitor visitor = new MySqlOutputVisitor(buf);
+        visitor.setShardingSupport(false);
+        statement.accept(visitor);
+        return buf.toString();
+    }
+}
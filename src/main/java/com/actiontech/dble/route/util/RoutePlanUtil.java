@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.util;
+
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.util.StringUtil;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNotExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelectQuery;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.ast.statement.SQLUpdateSetItem;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlDeleteStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
+
+import java.util.List;
+
+/**
+ * the checks shared by the route plans which skip the parser: a plan is only reused by the
+ * single table statements whose dataNode is decided by one "partition column = value" condition
+ */
+public final class RoutePlanUtil {
+    private RoutePlanUtil() {
+    }
+
+    /**
+     * @return the table of select/update/delete on one table without join, null for other statements
+     */
+    public static SQLExprTableSource getSingleTableSource(SQLStatement statement) {
+        if (statement instanceof SQLSelectStatement) {
+            SQLSelectQuery query = ((SQLSelectStatement) statement).getSelect().getQuery();
+            if (!(query instanceof MySqlSelectQueryBlock)) {
+                return null;
+            }
+            MySqlSelectQueryBlock block = (MySqlSelectQueryBlock) query;
+            if (block.isForUpdate() || block.isLockInShareMode() || block.getInto() != null ||
+                    !(block.getFrom() instanceof SQLExprTableSource)) {
+                return null;
+            }
+            return (SQLExprTableSource) block.getFrom();
+        } else if (statement instanceof MySqlUpdateStatement) {
+            MySqlUpdateStatement update = (MySqlUpdateStatement) statement;
+            if (update.getFrom() != null || !(update.getTableSource() instanceof SQLExprTableSource)) {
+                return null;
+            }
+            return (SQLExprTableSource) update.getTableSource();
+        } else if (statement instanceof MySqlDeleteStatement) {
+            MySqlDeleteStatement delete = (MySqlDeleteStatement) statement;
+            if (delete.getFrom() != null || delete.getUsing() != null || !(delete.getTableSource() instanceof SQLExprTableSource)) {
+                return null;
+            }
+            return (SQLExprTableSource) delete.getTableSource();
+        }
+        return null;
+    }
+
+    /**
+     * the statement must be checked by getSingleTableSource first
+     */
+    public static SQLExpr getWhere(SQLStatement statement) {
+        if (statement instanceof SQLSelectStatement) {
+            return ((MySqlSelectQueryBlock) ((SQLSelectStatement) statement).getSelect().getQuery()).getWhere();
+        } else if (statement instanceof MySqlUpdateStatement) {
+            return ((MySqlUpdateStatement) statement).getWhere();
+        } else {
+            return ((MySqlDeleteStatement) statement).getWhere();
+        }
+    }
+
+    public static boolean isUpdateColumn(SQLStatement statement, String column) {
+        if (!(statement instanceof MySqlUpdateStatement)) {
+            return false;
+        }
+        for (SQLUpdateSetItem item : ((MySqlUpdateStatement) statement).getItems()) {
+            if (isColumn(item.getColumn(), column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * collect the values compared with the column by "=" in the AND conditions
+     *
+     * @return false if the where contains OR/XOR/NOT which may change the route with different values
+     */
+    public static boolean collectEqualValues(SQLExpr expr, String column, List<SQLExpr> values) {
+        if (expr instanceof SQLNotExpr) {
+            return false;
+        }
+        if (!(expr instanceof SQLBinaryOpExpr)) {
+            return true;
+        }
+        SQLBinaryOpExpr opExpr = (SQLBinaryOpExpr) expr;
+        switch (opExpr.getOperator()) {
+            case BooleanAnd:
+                return collectEqualValues(opExpr.getLeft(), column, values) &&
+                        collectEqualValues(opExpr.getRight(), column, values);
+            case BooleanOr:
+            case BooleanXor:
+                return false;
+            case Equality:
+                if (isColumn(opExpr.getLeft(), column)) {
+                    values.add(opExpr.getRight());
+                } else if (isColumn(opExpr.getRight(), column)) {
+                    values.add(opExpr.getLeft());
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    public static boolean isColumn(SQLExpr expr, String column) {
+        String name;
+        if (expr instanceof SQLIdentifierExpr) {
+            name = ((SQLIdentifierExpr) expr).getName();
+        } else if (expr instanceof SQLPropertyExpr) {
+            name = ((SQLPropertyExpr) expr).getName();
+        } else {
+            return false;
+        }
+        return StringUtil.removeBackQuote(name).equalsIgnoreCase(column);
+    }
+
+    /**
+     * @return true if the statement is sent to one dataNode as it is, so the route is still right when values change
+     */
+    public static boolean isPlainSingleNodeRoute(RouteResultset rrs, String stmt) {
+        if (rrs.isNeedOptimizer() || rrs.isAlwaysFalse() || rrs.isGlobalTable() || rrs.isLoadData() ||
+                rrs.isCallStatement() || rrs.hasCacheKeyToCache()) {
+            return false;
+        }
+        if (rrs.getCanRunInReadDB() != null || rrs.getRunOnSlave() != null) {
+            return false;
+        }
+        return rrs.getNodes() != null && rrs.getNodes().length == 1 && stmt.equals(rrs.getNodes()[0].getStatement());
+    }
+}
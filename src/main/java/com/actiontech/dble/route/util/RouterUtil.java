@@ -172,6 +172,7 @@ public final class RouterUtil {
             return null;
         }
         if (rrs.isFinishedRoute()) {
+            InListRewriteUtil.rewrite(statement, druidParser.getCtx(), rrs);
             return rrs;
         }
 
@@ -215,7 +216,7 @@ public final class RouterUtil {
             i++;
         }
         rrs.setNodes(nodes);
-
+        InListRewriteUtil.rewrite(statement, ctx, rrs);
 
         return rrs;
     }
@@ -34,6 +34,7 @@ import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.plan.optimizer.MyOptimizer;
 import com.actiontech.dble.plan.util.PlanUtil;
 import com.actiontech.dble.plan.visitor.MySQLPlanNodeVisitor;
+import com.actiontech.dble.route.PreparedRoutePlan;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.route.parser.util.ParseUtil;
@@ -84,6 +85,7 @@ public class NonBlockingSession implements Session {
     private TransactionHandlerManager transactionManager;
 
     private boolean prepared;
+    private PreparedRoutePlan.BoundRoute preparedRoute;
     private volatile boolean needWaitFinished = false;
 
     // kill query
@@ -907,6 +909,19 @@ public class NonBlockingSession implements Session {
         this.prepared = prepared;
     }
 
+    public void setPreparedRoute(PreparedRoutePlan.BoundRoute preparedRoute) {
+        this.preparedRoute = preparedRoute;
+    }
+
+    /**
+     * the route calculated from the bound values is only used by the current execution
+     */
+    public PreparedRoutePlan.BoundRoute takePreparedRoute() {
+        PreparedRoutePlan.BoundRoute route = preparedRoute;
+        preparedRoute = null;
+        return prepared ? route : null;
+    }
+
     public MySQLConnection freshConn(MySQLConnection errConn, ResponseHandler queryHandler) {
         for (final RouteResultsetNode node : this.getTargetKeys()) {
             final MySQLConnection mysqlCon = (MySQLConnection) this.getTarget(node);
@@ -991,7 +1006,7 @@ public class NonBlockingSession implements Session {
         if (flag) {
             this.setRequestTime();
             this.setQueryStartTime(System.currentTimeMillis());
-            DbleServer.getInstance().getFrontHandlerQueue().offer((FrontendCommandHandler) source.getHandler());
+            DbleServer.getInstance().getFrontHandlerPool().submit(source.getId(), (FrontendCommandHandler) source.getHandler());
         }
     }
 
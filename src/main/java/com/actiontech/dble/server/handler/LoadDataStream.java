@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.FrontendConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the data of load data local infile which is received from the client but not parsed yet.
+ * the reactor thread writes the packets without blocking and stops reading the client if too many bytes are waiting,
+ * the parser thread reads them as an input stream and resumes reading the client when they are consumed.
+ */
+class LoadDataStream extends InputStream {
+    private static final byte[] END = new byte[0];
+    private static final long PAUSE_BYTES = 4 * 1024 * 1024;
+    private static final long RESUME_BYTES = 1024 * 1024;
+
+    private final FrontendConnection source;
+    private final BlockingQueue<byte[]> packets = new LinkedBlockingQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Object readLock = new Object();
+    private boolean paused = false;
+    private volatile boolean aborted = false;
+    // only used by the parser thread
+    private byte[] current;
+    private int position;
+    private boolean finished = false;
+
+    LoadDataStream(FrontendConnection source) {
+        this.source = source;
+    }
+
+    /**
+     * called by the reactor thread with the data of a packet
+     */
+    void write(byte[] data) {
+        if (data == null || data.length == 0 || aborted) {
+            return;
+        }
+        packets.offer(data);
+        if (pendingBytes.addAndGet(data.length) >= PAUSE_BYTES) {
+            synchronized (readLock) {
+                if (!paused && pendingBytes.get() >= PAUSE_BYTES) {
+                    paused = true;
+                    source.getSocketWR().disableRead();
+                }
+            }
+        }
+    }
+
+    /**
+     * all the data is received
+     */
+    void finish() {
+        packets.offer(END);
+    }
+
+    /**
+     * the load data is cleared, the parser thread stops at the end of the received data
+     */
+    void abort() {
+        aborted = true;
+        packets.offer(END);
+        resumeRead();
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * skip the data until all the data is received, used after the parser stops by an error
+     */
+    void skipToEnd() throws IOException {
+        while (nextPacket()) {
+            position = current.length;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextPacket()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextPacket()) {
+            return -1;
+        }
+        int size = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, size);
+        position += size;
+        return size;
+    }
+
+    private boolean nextPacket() throws IOException {
+        while (!finished && (current == null || position == current.length)) {
+            if (current != null) {
+                pendingBytes.addAndGet(-current.length);
+                current = null;
+                resumeRead();
+            }
+            byte[] packet;
+            try {
+                packet = packets.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("load data is interrupted");
+            }
+            if (packet == END) {
+                finished = true;
+            } else {
+                current = packet;
+                position = 0;
+            }
+        }
+        return !finished;
+    }
+
+    private void resumeRead() {
+        synchronized (readLock) {
+            if (paused && (aborted || pendingBytes.get() <= RESUME_BYTES)) {
+                paused = false;
+                source.getSocketWR().enableRead();
+            }
+        }
+    }
+}
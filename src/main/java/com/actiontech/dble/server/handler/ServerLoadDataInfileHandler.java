@@ -7,6 +7,7 @@ package com.actiontech.dble.server.handler;
 
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.CharsetUtil;
+import com.actiontech.dble.backend.mysql.LoadDataForwarder;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.SchemaConfig;
 import com.actiontech.dble.config.model.SystemConfig;
@@ -39,12 +40,15 @@ import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,8 +60,10 @@ import java.util.regex.Pattern;
  * CHARACTER SET 'gbk' in load data sql  the charset need ', otherwise the druid will error
  */
 public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerLoadDataInfileHandler.class);
     //innodb limit of columns per table, https://dev.mysql.com/doc/refman/8.0/en/column-count-limit.html
     private static final int DEFAULT_MAX_COLUMNS = 1017;
+    private static final int MAX_SEQUENCE_BATCH = 1024;
     private ServerConnection serverConnection;
     private String sql;
     private String fileName;
@@ -72,6 +78,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     private String tempPath;
     private String tempFile;
     private boolean isHasStoreToFile = false;
+    private volatile LoadDataStream dataStream;
 
     private SchemaConfig schema;
     private final SystemConfig systemConfig = DbleServer.getInstance().getConfig().getSystem();
@@ -80,7 +87,10 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     private int partitionColumnIndex = -1;
     private int autoIncrementIndex = -1;
     private boolean appendAutoIncrementColumn = false;
-    private boolean isStartLoadData = false;
+    private volatile boolean isStartLoadData = false;
+    // the ids taken from the sequence at once and not used yet
+    private long[] sequenceIds = null;
+    private int sequenceIdIndex = 0;
 
 
     public ServerLoadDataInfileHandler(ServerConnection serverConnection) {
@@ -194,13 +204,12 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
 
         parseLoadDataPram();
         if (statement.isLocal()) {
+            if (systemConfig.isUseStreamLoadData()) {
+                startStream();
+                return;
+            }
             isStartLoadData = true;
-            //request file from client
-            ByteBuffer buffer = serverConnection.allocate();
-            RequestFilePacket filePacket = new RequestFilePacket();
-            filePacket.setFileName(fileName.getBytes());
-            filePacket.setPacketId(1);
-            filePacket.write(buffer, serverConnection, true);
+            requestFile();
         } else {
             if (!new File(fileName).exists()) {
                 String msg = fileName + " is not found!";
@@ -219,6 +228,64 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         }
     }
 
+    private void requestFile() {
+        ByteBuffer buffer = serverConnection.allocate();
+        RequestFilePacket filePacket = new RequestFilePacket();
+        filePacket.setFileName(fileName.getBytes());
+        filePacket.setPacketId(1);
+        filePacket.write(buffer, serverConnection, true);
+    }
+
+    /**
+     * the statement is sent to all the data nodes of the table at first, the file is requested from the client
+     * when all the backends are waiting for it, then the rows are forwarded to the backends while they are received
+     */
+    private void startStream() {
+        RouteResultset rrs;
+        try {
+            rrs = buildStreamResultSet();
+        } catch (SQLException e) {
+            clear();
+            serverConnection.writeErrMessage(e.getSQLState(), e.getMessage(), e.getErrorCode());
+            return;
+        }
+        if (rrs == null) {
+            clear();
+            serverConnection.writeErrMessage(ErrorCode.ER_NO_DB_ERROR, "No dataNode found ,please check the table " + tableName);
+            return;
+        }
+        final LoadDataStream stream = new LoadDataStream(serverConnection);
+        dataStream = stream;
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                parseStream(stream);
+            }
+        });
+        serverConnection.getSession2().execute(rrs);
+    }
+
+    private RouteResultset buildStreamResultSet() throws SQLException {
+        List<String> dataNodes = new ArrayList<>();
+        if (tableConfig != null && !tableConfig.isGlobalTable()) {
+            dataNodes.addAll(tableConfig.getDataNodes());
+        } else {
+            RouteResultset rrs = tryDirectRoute(sql, new String[0]);
+            if (rrs != null && rrs.getNodes() != null) {
+                for (RouteResultsetNode node : rrs.getNodes()) {
+                    dataNodes.add(node.getName());
+                }
+            }
+        }
+        Charset charset = Charset.forName(loadData.getCharset());
+        for (String dataNode : dataNodes) {
+            LoadData data = newNodeLoadData();
+            data.setForwarder(new LoadDataForwarder(charset));
+            routeResultMap.put(dataNode, data);
+        }
+        return buildResultSet(routeResultMap);
+    }
+
     @Override
     public void handle(byte[] data) {
         try {
@@ -231,7 +298,12 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             ByteArrayInputStream inputStream = new ByteArrayInputStream(data, 0, data.length);
             packet.read(inputStream);
 
-            saveByteOrToFile(packet.getData(), false);
+            LoadDataStream stream = dataStream;
+            if (stream != null) {
+                stream.write(packet.getData());
+            } else {
+                saveByteOrToFile(packet.getData(), false);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -373,16 +445,19 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
                 String name = routeResultsetNode.getName();
                 LoadData data = routeResultMap.get(name);
                 if (data == null) {
-                    data = new LoadData();
-                    data.setCharset(loadData.getCharset());
-                    data.setEnclose(loadData.getEnclose());
-                    data.setFieldTerminatedBy(loadData.getFieldTerminatedBy());
-                    data.setLineTerminatedBy(loadData.getLineTerminatedBy());
-                    data.setEscape(loadData.getEscape());
+                    if (dataStream != null) {
+                        // the backends of the stream are chosen before the file is requested
+                        throw new Exception("record " + StringUtil.join(line, loadData.getFieldTerminatedBy()) + " is routed to " + name + " out of the data nodes of the table");
+                    }
+                    data = newNodeLoadData();
                     routeResultMap.put(name, data);
                 }
 
                 String jLine = joinField(line, data);
+                if (data.getForwarder() != null) {
+                    data.getForwarder().write(jLine + data.getLineTerminatedBy());
+                    continue;
+                }
                 if (data.getData() == null) {
                     data.setData(Lists.newArrayList(jLine));
                 } else {
@@ -397,18 +472,26 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         }
     }
 
+    private LoadData newNodeLoadData() {
+        LoadData data = new LoadData();
+        data.setCharset(loadData.getCharset());
+        data.setEnclose(loadData.getEnclose());
+        data.setFieldTerminatedBy(loadData.getFieldTerminatedBy());
+        data.setLineTerminatedBy(loadData.getLineTerminatedBy());
+        data.setEscape(loadData.getEscape());
+        return data;
+    }
+
     private String[] rebuildRow(String[] line) throws Exception {
         if (autoIncrementIndex >= line.length) {
             autoIncrementIndex = line.length;
             String[] newLine = new String[line.length + 1];
             System.arraycopy(line, 0, newLine, 0, line.length);
-            String tableKey = StringUtil.getFullName(schema.getName(), tableName);
-            newLine[line.length] = String.valueOf(SequenceManager.getHandler().nextId(tableKey));
+            newLine[line.length] = String.valueOf(nextSequenceId());
             line = newLine;
         } else {
             if (StringUtil.isEmpty(line[autoIncrementIndex])) {
-                String tableKey = StringUtil.getFullName(schema.getName(), tableName);
-                line[autoIncrementIndex] = String.valueOf(SequenceManager.getHandler().nextId(tableKey));
+                line[autoIncrementIndex] = String.valueOf(nextSequenceId());
             } else if (!appendAutoIncrementColumn) {
                 throw new Exception("you can't set value for Autoincrement column!");
             }
@@ -416,6 +499,20 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         return line;
     }
 
+    /**
+     * the ids are taken from the sequence in blocks, the block doubles each time up to MAX_SEQUENCE_BATCH,
+     * so the ids left unused at the end of the load are fewer than the rows loaded
+     */
+    private long nextSequenceId() throws SQLException {
+        if (sequenceIds == null || sequenceIdIndex == sequenceIds.length) {
+            int count = sequenceIds == null ? 1 : Math.min(sequenceIds.length * 2, MAX_SEQUENCE_BATCH);
+            String tableKey = StringUtil.getFullName(schema.getName(), tableName);
+            sequenceIds = SequenceManager.getHandler().nextIds(tableKey, count);
+            sequenceIdIndex = 0;
+        }
+        return sequenceIds[sequenceIdIndex++];
+    }
+
     private void flushDataToFile() {
         for (Map.Entry<String, LoadData> stringLoadDataEntry : routeResultMap.entrySet()) {
             LoadData value = stringLoadDataEntry.getValue();
@@ -501,6 +598,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             } else {
                 newLoadData.setData(loadData1.getData());
             }
+            newLoadData.setForwarder(loadData1.getForwarder());
             rrNode.setLoadData(newLoadData);
 
             routeResultsetNodes[index] = rrNode;
@@ -572,6 +670,12 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     public void end(byte packId) {
         isStartLoadData = false;
         this.packID = packId;
+        LoadDataStream stream = dataStream;
+        if (stream != null) {
+            // the parser thread sends the response after all the data is parsed
+            stream.finish();
+            return;
+        }
         //empty packet for end
         saveByteOrToFile(null, true);
 
@@ -581,66 +685,214 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             String content = new String(tempByteBuffer.toByteArray(), Charset.forName(loadData.getCharset()));
             if ("".equals(content)) {
                 clear();
-                OkPacket ok = new OkPacket();
-                ok.setPacketId(++packId);
-                ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
-                ok.write(serverConnection);
+                writeEmptyOk(packId);
                 return;
             }
-            // List<String> lines = Splitter.on(loadData.getLineTerminatedBy()).omitEmptyStrings().splitToList(content);
-            CsvParserSettings settings = new CsvParserSettings();
-            settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
-            settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
-            settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
-            settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
-            settings.getFormat().setComment('\0');
-            if (loadData.getEnclose() != null) {
-                settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
-            } else {
-                settings.getFormat().setQuote('\0');
-            }
-            if (loadData.getEscape() != null) {
-                settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
+            String rowError = parseClientData(new StringReader(content), null, Collections.<LoadDataForwarder>emptyList());
+            if (rowError != null) {
+                clear();
+                serverConnection.writeErrMessage(++packId, ErrorCode.ER_WRONG_VALUE_COUNT_ON_ROW, "row data can't not calculate a sharding value," + rowError);
+                return;
             }
-            settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
-            settings.setSkipEmptyLines(false);
-            settings.trimValues(false);
+        }
 
-            CsvParser parser = new CsvParser(settings);
-            try {
-                parser.beginParsing(new StringReader(content));
-                String[] row;
+        RouteResultset rrs = buildResultSet(routeResultMap);
+        if (rrs != null) {
+            flushDataToFile();
+            serverConnection.getSession2().execute(rrs);
+        }
+    }
 
-                int ignoreNumber = 0;
-                if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
-                    ignoreNumber = Integer.parseInt(statement.getIgnoreLinesNumber().toString());
+    /**
+     * parse and route the data while the client is sending it, the routed rows are forwarded to the backends at once.
+     * the response is sent after the empty packet because the client doesn't read anything before it finishes
+     * sending the file, a row error closes the backend connections so the rows forwarded are not committed
+     */
+    private void parseStream(LoadDataStream stream) {
+        List<LoadDataForwarder> forwarders = new ArrayList<>();
+        // the response handlers take the same packet id before the file is requested
+        byte startPackId;
+        Charset charset;
+        synchronized (this) {
+            if (dataStream != stream) {
+                return;
+            }
+            for (LoadData data : routeResultMap.values()) {
+                forwarders.add(data.getForwarder());
+            }
+            startPackId = packID;
+            charset = Charset.forName(loadData.getCharset());
+        }
+        try {
+            for (LoadDataForwarder forwarder : forwarders) {
+                if (!forwarder.awaitConnected()) {
+                    // the error of the backend is sent by the response handler
+                    abortStream(stream, forwarders, startPackId, "load data is aborted");
+                    return;
                 }
-                while ((row = parser.parseNext()) != null) {
-                    if (ignoreNumber == 0) {
-                        if ((row.length == 1 && row[0] == null) || row.length == 0) {
-                            continue;
-                        }
-                        try {
-                            parseOneLine(row);
-                        } catch (Exception e) {
-                            clear();
-                            serverConnection.writeErrMessage(++packId, ErrorCode.ER_WRONG_VALUE_COUNT_ON_ROW, "row data can't not calculate a sharding value," + e.getMessage());
-                            return;
+            }
+        } catch (InterruptedException e) {
+            abortStream(stream, forwarders, startPackId, "load data is interrupted");
+            return;
+        }
+        synchronized (this) {
+            if (dataStream != stream) {
+                closeForwarders(forwarders, startPackId, "load data is aborted");
+                return;
+            }
+            isStartLoadData = true;
+            requestFile();
+        }
+
+        String rowError = null;
+        Exception parseError = null;
+        try {
+            rowError = parseClientData(new InputStreamReader(stream, charset), stream, forwarders);
+        } catch (Exception e) {
+            parseError = e;
+        }
+        try {
+            stream.skipToEnd();
+        } catch (IOException e) {
+            parseError = e;
+        }
+        byte packId = packID;
+        if (parseError != null) {
+            LOGGER.info("load data error", parseError);
+            abortStream(stream, forwarders, packId, String.valueOf(parseError.getMessage()));
+        } else if (rowError != null) {
+            abortStream(stream, forwarders, packId, "row data can't not calculate a sharding value," + rowError);
+        } else if (isAborted(stream, forwarders)) {
+            abortStream(stream, forwarders, packId, "load data is aborted");
+        } else {
+            for (LoadDataForwarder forwarder : forwarders) {
+                forwarder.finish(packId);
+            }
+            // the backends which are aborted while the others are finished can't finish without the empty packet
+            closeForwarders(forwarders, packId, "load data is aborted");
+        }
+    }
+
+    private boolean isAborted(LoadDataStream stream, List<LoadDataForwarder> forwarders) {
+        if (dataStream != stream) {
+            return true;
+        }
+        for (LoadDataForwarder forwarder : forwarders) {
+            if (forwarder.isAborted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the state is cleared before the backends are closed, because the client can send the next statement
+     * as soon as the error is sent by the response handler
+     */
+    private void abortStream(LoadDataStream stream, List<LoadDataForwarder> forwarders, byte packId, String reason) {
+        synchronized (this) {
+            if (dataStream == stream) {
+                clear();
+            }
+        }
+        closeForwarders(forwarders, packId, reason);
+    }
+
+    private static void closeForwarders(List<LoadDataForwarder> forwarders, byte packId, String reason) {
+        for (LoadDataForwarder forwarder : forwarders) {
+            forwarder.close(packId, reason);
+        }
+    }
+
+    /**
+     * parse the data sent by the client
+     *
+     * @param stream     the stream of the data, null if the data is buffered
+     * @param forwarders the forwarders of the stream, the routed rows are sent by them
+     * @return the error message of the row which can't be routed, null if all the rows are routed or the stream is aborted
+     */
+    private String parseClientData(Reader reader, LoadDataStream stream, List<LoadDataForwarder> forwarders) {
+        // List<String> lines = Splitter.on(loadData.getLineTerminatedBy()).omitEmptyStrings().splitToList(content);
+        CsvParserSettings settings = new CsvParserSettings();
+        settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
+        settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
+        settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
+        settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
+        settings.getFormat().setComment('\0');
+        if (loadData.getEnclose() != null) {
+            settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
+        } else {
+            settings.getFormat().setQuote('\0');
+        }
+        if (loadData.getEscape() != null) {
+            settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
+        }
+        settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
+        settings.setSkipEmptyLines(false);
+        settings.trimValues(false);
+
+        CsvParser parser = new CsvParser(settings);
+        try {
+            parser.beginParsing(reader);
+            String[] row;
+
+            int ignoreNumber = 0;
+            if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
+                ignoreNumber = Integer.parseInt(statement.getIgnoreLinesNumber().toString());
+            }
+            while ((row = parser.parseNext()) != null) {
+                if (ignoreNumber == 0) {
+                    if ((row.length == 1 && row[0] == null) || row.length == 0) {
+                        continue;
+                    }
+                    try {
+                        if (!routeRow(row, stream, forwarders)) {
+                            return null;
                         }
-                    } else {
-                        ignoreNumber--;
+                    } catch (Exception e) {
+                        return e.getMessage();
                     }
+                } else {
+                    ignoreNumber--;
                 }
-            } finally {
-                parser.stopParsing();
             }
+        } finally {
+            parser.stopParsing();
         }
+        return null;
+    }
 
-        RouteResultset rrs = buildResultSet(routeResultMap);
-        if (rrs != null) {
-            flushDataToFile();
-            serverConnection.getSession2().execute(rrs);
+    /**
+     * the row of the stream is routed while holding the lock, because clear() may be called by the other threads.
+     * the packets are sent out of the lock, they may wait for the flow control of the backends
+     *
+     * @return false if the stream is aborted
+     */
+    private boolean routeRow(String[] row, LoadDataStream stream, List<LoadDataForwarder> forwarders) throws Exception {
+        if (stream == null) {
+            parseOneLine(row);
+            return true;
+        }
+        synchronized (this) {
+            if (dataStream != stream) {
+                return false;
+            }
+            parseOneLine(row);
         }
+        for (LoadDataForwarder forwarder : forwarders) {
+            if (forwarder.isAborted()) {
+                return false;
+            }
+            forwarder.send();
+        }
+        return true;
+    }
+
+    private void writeEmptyOk(byte packId) {
+        OkPacket ok = new OkPacket();
+        ok.setPacketId(++packId);
+        ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
+        ok.write(serverConnection);
     }
 
 
@@ -695,10 +947,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             if (empty) {
                 byte packId = packID;
                 clear();
-                OkPacket ok = new OkPacket();
-                ok.setPacketId(++packId);
-                ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
-                ok.write(serverConnection);
+                writeEmptyOk(packId);
                 return false;
             }
             return true;
@@ -751,8 +1000,19 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     }
 
 
-    public void clear() {
+    public synchronized void clear() {
         isStartLoadData = false;
+        LoadDataStream stream = dataStream;
+        if (stream != null) {
+            // the parser thread stops at the next row, it closes the backends which are receiving the file
+            stream.abort();
+            dataStream = null;
+            for (LoadData data : routeResultMap.values()) {
+                if (data.getForwarder() != null) {
+                    data.getForwarder().abort();
+                }
+            }
+        }
         schema = null;
         tableConfig = null;
         isHasStoreToFile = false;
@@ -762,6 +1022,8 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         partitionColumnIndex = -1;
         autoIncrementIndex = -1;
         appendAutoIncrementColumn = false;
+        sequenceIds = null;
+        sequenceIdIndex = 0;
         if (tempFile != null) {
             File temp = new File(tempFile);
             if (temp.exists()) {
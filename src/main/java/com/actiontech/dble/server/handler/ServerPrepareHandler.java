@@ -5,17 +5,20 @@
 */
 package com.actiontech.dble.server.handler;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.BindValue;
 import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.CharsetUtil;
 import com.actiontech.dble.backend.mysql.PreparedStatement;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SchemaConfig;
 import com.actiontech.dble.net.handler.FrontendPrepareHandler;
 import com.actiontech.dble.net.mysql.ExecutePacket;
 import com.actiontech.dble.net.mysql.LongDataPacket;
 import com.actiontech.dble.net.mysql.OkPacket;
 import com.actiontech.dble.net.mysql.ResetPacket;
+import com.actiontech.dble.route.PreparedRoutePlan;
 import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.server.response.PreparedStmtResponse;
 import com.actiontech.dble.util.HexFormatUtil;
@@ -119,9 +122,12 @@ public class ServerPrepareHandler implements FrontendPrepareHandler {
                 return;
             }
             BindValue[] bindValues = packet.getValues();
+            // route before the string values are escaped
+            PreparedRoutePlan.BoundRoute route = bindRoute(pStmt, bindValues);
             // reset the Parameter
             String sql = prepareStmtBindValue(pStmt, bindValues);
             source.getSession2().setPrepared(true);
+            source.getSession2().setPreparedRoute(route);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("execute prepare sql: " + sql);
             }
@@ -144,6 +150,23 @@ public class ServerPrepareHandler implements FrontendPrepareHandler {
         this.pStmtForId.clear();
     }
 
+    private PreparedRoutePlan.BoundRoute bindRoute(PreparedStatement pStmt, BindValue[] bindValues) {
+        String schema = source.getSchema();
+        if (schema == null) {
+            return null;
+        }
+        PreparedRoutePlan plan = pStmt.getRoutePlan();
+        if (!pStmt.isRoutePlanBuilt() || (plan != null && !plan.isAvailable(schema))) {
+            SchemaConfig schemaConfig = DbleServer.getInstance().getConfig().getSchemas().get(schema);
+            plan = PreparedRoutePlan.build(pStmt.getStatement(), pStmt.getParametersNumber(), schemaConfig);
+            pStmt.setRoutePlan(plan);
+        }
+        if (plan == null || !plan.isAvailable(schema)) {
+            return null;
+        }
+        return plan.bind(bindValues, pStmt.getParametersType());
+    }
+
     // TODO:the size of columns of prepared statement
     private int getColumnCount(String sql) {
         return 0;
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.singleton;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.TableConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.parser.druid.DruidShardingParseInfo;
+import com.actiontech.dble.route.parser.druid.RouteCalculateUnit;
+import com.actiontech.dble.route.parser.util.Pair;
+import com.actiontech.dble.route.parser.util.SqlFingerprint;
+import com.actiontech.dble.route.util.RoutePlanUtil;
+import com.actiontech.dble.route.util.RouterUtil;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.sqlengine.mpp.ColumnRoute;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * route plan cache keyed by the fingerprint of the sql, so the statements differ only in literals share one plan.
+ * only the single table statements which are routed to one dataNode without rewriting are cached:
+ * the plan of a no-sharding table is the dataNode itself, the plan of a sharding table is the index of
+ * the literal compared with the partition column, the partition function is calculated again when hit.
+ */
+public final class PlanCacheManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlanCacheManager.class);
+    private static final PlanCacheManager INSTANCE = new PlanCacheManager();
+
+    /* access order, the least recently used plan is evicted when the cache is full */
+    private final Map<String, RoutePlan> plans = new LinkedHashMap<String, RoutePlan>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RoutePlan> eldest) {
+            return size() > getMaxSize();
+        }
+    };
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private PlanCacheManager() {
+    }
+
+    public static PlanCacheManager getInstance() {
+        return INSTANCE;
+    }
+
+    public int getMaxSize() {
+        return DbleServer.getInstance().getConfig().getSystem().getPlanCacheSize();
+    }
+
+    public boolean isCacheAble(SchemaConfig schema, int sqlType, ServerConnection sc) {
+        if (schema == null || getMaxSize() <= 0) {
+            return false;
+        }
+        if (sqlType != ServerParse.SELECT && sqlType != ServerParse.UPDATE && sqlType != ServerParse.DELETE) {
+            return false;
+        }
+        return !sc.getSession2().getIsMultiStatement().get() && sc.getSession2().getRemingSql() == null;
+    }
+
+    /**
+     * @return null if no plan of the same shape
+     */
+    public RouteResultset route(SchemaConfig schema, int sqlType, String stmt, ServerConnection sc) {
+        SqlFingerprint fingerprint = SqlFingerprint.parse(stmt);
+        if (fingerprint == null) {
+            return null;
+        }
+        RoutePlan plan;
+        synchronized (plans) {
+            plan = plans.get(cacheKey(schema, sc, fingerprint));
+        }
+        if (plan == null) {
+            missCount.increment();
+            return null;
+        }
+        String dataNode;
+        if (plan.tableConfig == null) {
+            dataNode = plan.dataNode;
+        } else {
+            String value = fingerprint.getLiterals().get(plan.literalIndex);
+            Integer nodeIndex = plan.tableConfig.getRule().getRuleAlgorithm().calculate(value);
+            if (nodeIndex == null || nodeIndex < 0 || nodeIndex >= plan.tableConfig.getDataNodes().size()) {
+                // let the normal route report the error
+                missCount.increment();
+                return null;
+            }
+            dataNode = plan.tableConfig.getDataNodes().get(nodeIndex);
+        }
+        hitCount.increment();
+        RouteResultset rrs = new RouteResultset(stmt, sqlType);
+        rrs.setSchema(plan.schema);
+        rrs.setTable(plan.table);
+        rrs.setTableAlias(plan.tableAlias);
+        return RouterUtil.routeToSingleNode(rrs, dataNode);
+    }
+
+    /**
+     * remember the plan of a statement which has been routed by parser
+     */
+    public void learn(SchemaConfig schema, String stmt, ServerConnection sc, SQLStatement statement,
+                      DruidShardingParseInfo ctx, RouteResultset rrs) {
+        if (!isCacheAble(schema, rrs.getSqlType(), sc) || !RoutePlanUtil.isPlainSingleNodeRoute(rrs, stmt)) {
+            return;
+        }
+        if (ctx.getTables().size() != 1) {
+            return;
+        }
+        if (RoutePlanUtil.getSingleTableSource(statement) == null) {
+            return;
+        }
+        SqlFingerprint fingerprint = SqlFingerprint.parse(stmt);
+        if (fingerprint == null) {
+            return;
+        }
+        Pair<String, String> table = ctx.getTables().get(0);
+        SchemaConfig tableSchema = DbleServer.getInstance().getConfig().getSchemas().get(table.getKey());
+        if (tableSchema == null) {
+            return;
+        }
+        TableConfig tc = tableSchema.getTables().get(table.getValue());
+        RoutePlan plan;
+        if (tc == null || (!tc.isGlobalTable() && tc.getDataNodes().size() == 1)) {
+            plan = new RoutePlan(rrs, null, -1, rrs.getNodes()[0].getName());
+        } else if (tc.isGlobalTable() || tc.getPartitionColumn() == null || RoutePlanUtil.isUpdateColumn(statement, tc.getPartitionColumn())) {
+            return;
+        } else {
+            int literalIndex = findPartitionLiteral(RoutePlanUtil.getWhere(statement), tc.getPartitionColumn(), ctx, fingerprint);
+            if (literalIndex < 0) {
+                return;
+            }
+            plan = new RoutePlan(rrs, tc, literalIndex, null);
+        }
+        RoutePlan old;
+        synchronized (plans) {
+            old = plans.put(cacheKey(schema, sc, fingerprint), plan);
+        }
+        if (old == null && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("add route plan for " + fingerprint.getFingerprint());
+        }
+    }
+
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static String cacheKey(SchemaConfig schema, ServerConnection sc, SqlFingerprint fingerprint) {
+        return schema.getName() + "_" + sc.getUser() + "_" + fingerprint.getFingerprint();
+    }
+
+    /**
+     * @return the index of the literal which decides the dataNode, -1 if it can't be found exactly
+     */
+    private static int findPartitionLiteral(SQLExpr where, String partitionColumn, DruidShardingParseInfo ctx,
+                                            SqlFingerprint fingerprint) {
+        List<SQLExpr> values = new ArrayList<>();
+        if (where == null || !RoutePlanUtil.collectEqualValues(where, partitionColumn, values) || values.size() != 1 ||
+                !isLiteral(values.get(0))) {
+            return -1;
+        }
+        String value = ((SQLValuableExpr) values.get(0)).getValue().toString();
+        if (ctx.getRouteCalculateUnits().size() != 1) {
+            return -1;
+        }
+        RouteCalculateUnit unit = ctx.getRouteCalculateUnits().get(0);
+        if (unit.isAlwaysFalse() || unit.getTablesAndConditions().size() != 1) {
+            return -1;
+        }
+        ColumnRoute columnRoute = unit.getTablesAndConditions().values().iterator().next().get(partitionColumn);
+        if (columnRoute == null || columnRoute.getInValues() != null || columnRoute.getRangeValues() != null ||
+                !value.equals(columnRoute.getColValue())) {
+            return -1;
+        }
+        int index = -1;
+        List<String> literals = fingerprint.getLiterals();
+        for (int i = 0; i < literals.size(); i++) {
+            if (literals.get(i).equals(value)) {
+                if (index >= 0) {
+                    // the same value appears twice, can't tell which one is the partition value
+                    return -1;
+                }
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static boolean isLiteral(SQLExpr expr) {
+        return expr instanceof SQLIntegerExpr || expr instanceof SQLNumberExpr || expr instanceof SQLCharExpr;
+    }
+
+    private static final class RoutePlan {
+        private final String schema;
+        private final String table;
+        private final String tableAlias;
+        /* null if the statement is always routed to the dataNode */
+        private final TableConfig tableConfig;
+        private final int literalIndex;
+        private final String dataNode;
+
+        private RoutePlan(RouteResultset rrs, TableConfig tableConfig, int literalIndex, String dataNode) {
+            this.schema = rrs.getSchema();
+            this.table = rrs.getTable();
+            this.tableAlias = rrs.getTableAlias();
+            this.tableConfig = tableConfig;
+            this.literalIndex = literalIndex;
+            this.dataNode = dataNode;
+        }
+    }
+}
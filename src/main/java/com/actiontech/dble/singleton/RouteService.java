@@ -5,6 +5,7 @@
 */
 package com.actiontech.dble.singleton;
 
+import com.actiontech.dble.route.PreparedRoutePlan;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.config.Versions;
 import com.actiontech.dble.config.model.SchemaConfig;
@@ -40,6 +41,7 @@ public final class RouteService {
             throws SQLException {
         RouteResultset rrs;
         String cacheKey = null;
+        PreparedRoutePlan.BoundRoute preparedRoute = sc.getSession2().takePreparedRoute();
 
         /*
          *  SELECT  SQL,  not cached in debug mode
@@ -53,6 +55,13 @@ public final class RouteService {
             }
         }
 
+        if (!isExplain) {
+            rrs = routeWithoutParser(preparedRoute, schema, sqlType, stmt, sc);
+            if (rrs != null) {
+                return rrs;
+            }
+        }
+
         /*!dble: sql = select name from aa */
         /*!dble: schema = test */
         int hintLength = RouteService.isHintSql(stmt);
@@ -104,6 +113,7 @@ public final class RouteService {
             rrs = RouteStrategyFactory.getRouteStrategy().route(schema, sqlType, stmt, sc, CacheService.getTableId2DataNodeCache(), isExplain);
         }
 
+        verifyPreparedRoute(preparedRoute, rrs, stmt);
         if (rrs != null && sqlType == ServerParse.SELECT && rrs.isSqlRouteCacheAble() && !LOGGER.isDebugEnabled() && CacheService.getSqlRouteCache() != null &&
                 sc.getSession2().getRemingSql() == null) {
             CacheService.getSqlRouteCache().putIfAbsent(cacheKey, rrs);
@@ -111,6 +121,28 @@ public final class RouteService {
         return rrs;
     }
 
+    private RouteResultset routeWithoutParser(PreparedRoutePlan.BoundRoute preparedRoute, SchemaConfig schema, int sqlType,
+                                              String stmt, ServerConnection sc) {
+        if (preparedRoute != null && preparedRoute.getPlan().isVerified() && sc.getSession2().getRemingSql() == null) {
+            sc.getSession2().endParse();
+            return preparedRoute.route(stmt.trim());
+        }
+        if (!PlanCacheManager.getInstance().isCacheAble(schema, sqlType, sc)) {
+            return null;
+        }
+        RouteResultset rrs = PlanCacheManager.getInstance().route(schema, sqlType, stmt.trim(), sc);
+        if (rrs != null) {
+            sc.getSession2().endParse();
+        }
+        return rrs;
+    }
+
+    private static void verifyPreparedRoute(PreparedRoutePlan.BoundRoute preparedRoute, RouteResultset rrs, String stmt) {
+        if (preparedRoute != null && rrs != null) {
+            preparedRoute.verify(rrs, stmt);
+        }
+    }
+
     private static int isHintSql(String sql) {
         char[] annotation = Versions.ANNOTATION_NAME.toCharArray();
         int j = 0;
@@ -54,9 +54,27 @@ public final class Scheduler {
             scheduler.scheduleWithFixedDelay(recycleSqlStat(), 0L, DEFAULT_SQL_STAT_RECYCLE_PERIOD, TimeUnit.MILLISECONDS);
         }
         scheduler.scheduleAtFixedRate(threadStatRenew(), 0L, 1, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(flowControlMemoryCheck(), 0L, 1, TimeUnit.SECONDS);
         scheduler.scheduleAtFixedRate(printLongTimeDDL(), 0L, DDL_EXECUTE_CHECK_PERIOD, TimeUnit.SECONDS);
     }
 
+    /**
+     * check the usage of the buffer pool for the flow control
+     */
+    private Runnable flowControlMemoryCheck() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WriteQueueFlowController.checkMemory(BufferPoolManager.getBufferPool(),
+                            DbleServer.getInstance().getConfig().getSystem().getFlowControlMemoryPercent());
+                } catch (Exception e) {
+                    LOGGER.info("flowControlMemoryCheck err " + e);
+                }
+            }
+        };
+    }
+
     private Runnable printLongTimeDDL() {
         return new Runnable() {
             @Override
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.singleton;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.datasource.PhysicalDataNode;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.TableConfig;
+import com.actiontech.dble.meta.TableStatistic;
+import com.actiontech.dble.sqlengine.MultiRowSQLQueryResultHandler;
+import com.actiontech.dble.sqlengine.SQLJob;
+import com.actiontech.dble.sqlengine.SQLQueryResult;
+import com.actiontech.dble.sqlengine.SQLQueryResultListener;
+import com.actiontech.dble.util.StringUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * collect the row counts and index cardinality of every table from information_schema of every dataNode,
+ * used by the optimizer to estimate the cost of a plan
+ */
+public final class TableStatisticManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableStatisticManager.class);
+    private static final TableStatisticManager INSTANCE = new TableStatisticManager();
+    private static final long COLLECT_TIMEOUT_SECONDS = 60L;
+    private static final String[] TABLE_ROWS_COLS = new String[]{"TABLE_NAME", "TABLE_ROWS"};
+    private static final String[] CARDINALITY_COLS = new String[]{"TABLE_NAME", "COLUMN_NAME", "CARDINALITY"};
+    private static final String TABLE_ROWS_SQL = "SELECT TABLE_NAME, TABLE_ROWS FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = '%s' AND TABLE_TYPE = 'BASE TABLE'";
+    private static final String CARDINALITY_SQL = "SELECT TABLE_NAME, COLUMN_NAME, MAX(CARDINALITY) AS CARDINALITY " +
+            "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = '%s' AND SEQ_IN_INDEX = 1 GROUP BY TABLE_NAME, COLUMN_NAME";
+
+    private volatile Map<String, TableStatistic> statistics = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> collectTask;
+    private long currentPeriod = 0L;
+
+    private TableStatisticManager() {
+    }
+
+    public static TableStatisticManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * called at startup and after every reload, the collect task is rescheduled if the period is changed
+     */
+    public synchronized void init(SystemConfig system) {
+        long period = Math.max(system.getTableStatisticPeriod(), 0L);
+        if (period == currentPeriod) {
+            return;
+        }
+        if (collectTask != null) {
+            collectTask.cancel(false);
+            collectTask = null;
+        }
+        currentPeriod = period;
+        if (period == 0L) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("TableStatisticCollector-%d").build());
+        }
+        collectTask = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    LOGGER.warn("collect table statistics error", e);
+                }
+            }
+        }, 0L, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return null if the table has not been collected
+     */
+    public TableStatistic getStatistic(String schema, String table) {
+        return statistics.get(StringUtil.getUFullName(schema, table));
+    }
+
+    public void refresh() {
+        ServerConfig config = DbleServer.getInstance().getConfig();
+        if (!config.isFullyConfigured()) {
+            return;
+        }
+        Map<String, PhysicalDataNode> dataNodes = config.getDataNodes();
+        NodeStatisticCollector[] collectors = new NodeStatisticCollector[dataNodes.size()];
+        CountDownLatch latch = new CountDownLatch(dataNodes.size() * 2);
+        int i = 0;
+        for (PhysicalDataNode dn : dataNodes.values()) {
+            collectors[i] = new NodeStatisticCollector(dn, latch);
+            collectors[i].collect();
+            i++;
+        }
+        try {
+            if (!latch.await(COLLECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.info("collect table statistics timeout, the unfinished dataNodes are ignored");
+            }
+        } catch (InterruptedException e) {
+            LOGGER.info("collect table statistics interrupted", e);
+            return;
+        }
+        Map<String, NodeStatisticCollector> collected = new HashMap<>();
+        for (NodeStatisticCollector collector : collectors) {
+            collected.put(collector.dataNode, collector);
+        }
+        boolean lowerCase = DbleServer.getInstance().getSystemVariables().isLowerCaseTableNames();
+        long now = System.currentTimeMillis();
+        Map<String, TableStatistic> newStatistics = new HashMap<>();
+        for (SchemaConfig schema : config.getSchemas().values()) {
+            for (TableConfig tc : schema.getTables().values()) {
+                TableStatistic statistic = new TableStatistic(schema.getName(), tc.getName(), tc.isGlobalTable(), tc.getPartitionColumn(), now);
+                if (fillStatistic(statistic, tc.getName(), tc.getDataNodes(), collected, lowerCase)) {
+                    newStatistics.put(StringUtil.getUFullName(schema.getName(), tc.getName()), statistic);
+                }
+            }
+            // tables of the default dataNode
+            NodeStatisticCollector defaultNode = schema.getDataNode() == null ? null : collected.get(schema.getDataNode());
+            if (defaultNode != null) {
+                for (String table : defaultNode.tableRows.keySet()) {
+                    String tableName = lowerCase ? table.toLowerCase() : table;
+                    if (schema.getTables().containsKey(tableName)) {
+                        continue;
+                    }
+                    TableStatistic statistic = new TableStatistic(schema.getName(), tableName, false, null, now);
+                    if (fillStatistic(statistic, table, Collections.singletonList(schema.getDataNode()), collected, false)) {
+                        newStatistics.put(StringUtil.getUFullName(schema.getName(), tableName), statistic);
+                    }
+                }
+            }
+        }
+        statistics = newStatistics;
+        LOGGER.debug("collect table statistics finished, " + newStatistics.size() + " tables collected");
+    }
+
+    private boolean fillStatistic(TableStatistic statistic, String table, List<String> nodes,
+                                  Map<String, NodeStatisticCollector> collected, boolean lowerCase) {
+        boolean found = false;
+        for (String node : nodes) {
+            NodeStatisticCollector collector = collected.get(node);
+            if (collector == null) {
+                continue;
+            }
+            String physicalTable = lowerCase ? collector.physicalName(table) : table;
+            Long rows = collector.tableRows.get(physicalTable);
+            if (rows == null) {
+                continue;
+            }
+            found = true;
+            statistic.addNodeRows(node, rows);
+            Map<String, Long> ndv = collector.columnNdv.get(physicalTable);
+            if (ndv != null) {
+                for (Map.Entry<String, Long> entry : ndv.entrySet()) {
+                    statistic.addColumnNdv(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return found;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * the statistics of all tables in one dataNode
+     */
+    private static class NodeStatisticCollector {
+        private final String dataNode;
+        private final String database;
+        private final CountDownLatch latch;
+        private final Map<String, Long> tableRows = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, Long>> columnNdv = new ConcurrentHashMap<>();
+
+        NodeStatisticCollector(PhysicalDataNode dn, CountDownLatch latch) {
+            this.dataNode = dn.getName();
+            this.database = dn.getDatabase();
+            this.latch = latch;
+        }
+
+        void collect() {
+            MultiRowSQLQueryResultHandler rowsHandler = new MultiRowSQLQueryResultHandler(TABLE_ROWS_COLS, new TableRowsListener());
+            new SQLJob(String.format(TABLE_ROWS_SQL, database), dataNode, rowsHandler, false).run();
+            MultiRowSQLQueryResultHandler cardinalityHandler = new MultiRowSQLQueryResultHandler(CARDINALITY_COLS, new CardinalityListener());
+            new SQLJob(String.format(CARDINALITY_SQL, database), dataNode, cardinalityHandler, false).run();
+        }
+
+        String physicalName(String table) {
+            for (String name : tableRows.keySet()) {
+                if (name.equalsIgnoreCase(table)) {
+                    return name;
+                }
+            }
+            return table;
+        }
+
+        private class TableRowsListener implements SQLQueryResultListener<SQLQueryResult<List<Map<String, String>>>> {
+            @Override
+            public void onResult(SQLQueryResult<List<Map<String, String>>> result) {
+                try {
+                    if (!result.isSuccess()) {
+                        LOGGER.info("collect table rows of dataNode " + dataNode + " failed");
+                        return;
+                    }
+                    for (Map<String, String> row : result.getResult()) {
+                        long rows = parseLong(row.get("TABLE_ROWS"));
+                        if (rows >= 0) {
+                            tableRows.put(row.get("TABLE_NAME"), rows);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }
+        }
+
+        private class CardinalityListener implements SQLQueryResultListener<SQLQueryResult<List<Map<String, String>>>> {
+            @Override
+            public void onResult(SQLQueryResult<List<Map<String, String>>> result) {
+                try {
+                    if (!result.isSuccess()) {
+                        LOGGER.info("collect index cardinality of dataNode " + dataNode + " failed");
+                        return;
+                    }
+                    for (Map<String, String> row : result.getResult()) {
+                        long cardinality = parseLong(row.get("CARDINALITY"));
+                        if (cardinality >= 0) {
+                            Map<String, Long> columns = columnNdv.computeIfAbsent(row.get("TABLE_NAME"), k -> new ConcurrentHashMap<>());
+                            columns.put(row.get("COLUMN_NAME"), cardinality);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.actiontech.dble.singleton;
 
 import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.FlowCotrollerConfig;
+import com.actiontech.dble.net.AbstractConnection;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by szf on 2020/4/9.
+ * <p>
+ * the write queue of a connection is counted in bytes, the start and stop thresholds are counted in buffer chunks,
+ * so a session writing the small rows is not throttled as early as the one writing the full chunks.
+ * when the usage of the buffer pool is above flowControlMemoryPercent, a session is throttled as soon as
+ * its write queue is above the stop threshold.
  */
 public final class WriteQueueFlowController {
     private static final WriteQueueFlowController INSTANCE = new WriteQueueFlowController();
     private volatile FlowCotrollerConfig config = null;
+    private long chunkSize;
+    private volatile boolean memoryShort = false;
+    private volatile int memoryUsagePercent = 0;
+    private final AtomicLong flowControlCount = new AtomicLong();
+    private final AtomicLong flowControlledNanos = new AtomicLong();
 
     private WriteQueueFlowController() {
     }
@@ -18,6 +33,7 @@ public final class WriteQueueFlowController {
                 DbleServer.getInstance().getConfig().getSystem().isEnableFlowControl(),
                 DbleServer.getInstance().getConfig().getSystem().getFlowControlStartThreshold(),
                 DbleServer.getInstance().getConfig().getSystem().getFlowControlStopThreshold());
+        INSTANCE.chunkSize = DbleServer.getInstance().getConfig().getSystem().getBufferPoolChunkSize();
         if (INSTANCE.config.getEnd() < 0 || INSTANCE.config.getStart() <= 0) {
             throw new Exception("The flowControlStartThreshold & flowControlStopThreshold must be positive integer");
         } else if (INSTANCE.config.getEnd() >= INSTANCE.config.getStart()) {
@@ -37,9 +53,54 @@ public final class WriteQueueFlowController {
         return INSTANCE.config.isEnableFlowControl();
     }
 
-    public static int getFlowStart() {
-        return INSTANCE.config.getStart();
+    /**
+     * @return true if the write queue of the connection is above the start threshold,
+     * or above the stop threshold when the buffer pool is short
+     */
+    public static boolean isOverBudget(AbstractConnection con) {
+        FlowCotrollerConfig fconfig = INSTANCE.config;
+        if (!fconfig.isEnableFlowControl()) {
+            return false;
+        }
+        long bytes = con.getWriteQueueBytes();
+        return bytes > fconfig.getStart() * INSTANCE.chunkSize ||
+                (INSTANCE.memoryShort && bytes > fconfig.getEnd() * INSTANCE.chunkSize);
+    }
+
+    public static boolean isUnderBudget(AbstractConnection con) {
+        return con.getWriteQueueBytes() <= INSTANCE.config.getEnd() * INSTANCE.chunkSize;
+    }
+
+    /**
+     * called by the scheduler, BufferPool.size() walks all the pages so it's not checked by every row
+     */
+    public static void checkMemory(BufferPool pool, int memoryPercent) {
+        long capacity = pool.capacity();
+        int usagePercent = capacity <= 0 ? 0 : (int) ((capacity - pool.size()) * 100 / capacity);
+        INSTANCE.memoryUsagePercent = usagePercent;
+        INSTANCE.memoryShort = memoryPercent < 100 && usagePercent >= memoryPercent;
+    }
+
+    public static int getMemoryUsagePercent() {
+        return INSTANCE.memoryUsagePercent;
+    }
+
+    public static void onStart() {
+        INSTANCE.flowControlCount.incrementAndGet();
+    }
+
+    public static void onStop(long throttledNanos) {
+        INSTANCE.flowControlledNanos.addAndGet(throttledNanos);
     }
-}
 
+    public static long getFlowControlCount() {
+        return INSTANCE.flowControlCount.get();
+    }
 
+    /**
+     * @return the total time of the finished throttles in milliseconds
+     */
+    public static long getFlowControlledTime() {
+        return TimeUnit.NANOSECONDS.toMillis(INSTANCE.flowControlledNanos.get());
+    }
+}
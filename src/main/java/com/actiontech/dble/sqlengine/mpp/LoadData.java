@@ -5,6 +5,8 @@
 
 package com.actiontech.dble.sqlengine.mpp;
 
+import com.actiontech.dble.backend.mysql.LoadDataForwarder;
+
 import java.io.Serializable;
 import java.util.List;
 
@@ -21,6 +23,7 @@ public class LoadData implements Serializable {
     private String fieldTerminatedBy;
     private String enclose;
     private String escape;
+    private transient LoadDataForwarder forwarder;
 
     public String getEscape() {
         return escape;
@@ -85,4 +88,12 @@ public class LoadData implements Serializable {
     public void setEnclose(String enclose) {
         this.enclose = enclose;
     }
+
+    public LoadDataForwarder getForwarder() {
+        return forwarder;
+    }
+
+    public void setForwarder(LoadDataForwarder forwarder) {
+        this.forwarder = forwarder;
+    }
 }
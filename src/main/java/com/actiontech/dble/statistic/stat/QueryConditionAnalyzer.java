@@ -8,7 +8,6 @@ package com.actiontech.dble.statistic.stat;
 import com.actiontech.dble.route.parser.druid.ServerSchemaStatVisitor;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.alibaba.druid.sql.ast.SQLStatement;
-import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
 import com.alibaba.druid.stat.TableStat.Condition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,19 +64,12 @@ public final class QueryConditionAnalyzer implements QueryResultListener {
     @Override
     public void onQueryResult(QueryResult queryResult) {
         int sqlType = queryResult.getSqlType();
-        String sql = queryResult.getSql();
         if (sqlType == ServerParse.SELECT) {
-            List<Object> values = sqlParser.parseConditionValues(sql, this.tableName, this.columnName);
+            List<Object> values = sqlParser.parseConditionValues(queryResult.getParseContext(), this.tableName, this.columnName);
             if (values != null) {
                 if (this.map.size() < MAX_QUERY_MAP_SIZE) {
                     for (Object value : values) {
-                        AtomicLong count = this.map.get(value);
-                        if (count == null) {
-                            count = new AtomicLong(1L);
-                        } else {
-                            count.getAndIncrement();
-                        }
-                        this.map.put(value, count);
+                        this.map.computeIfAbsent(value, k -> new AtomicLong()).incrementAndGet();
                     }
                 } else {
                     LOGGER.debug(" this map is too large size ");
@@ -152,21 +144,23 @@ public final class QueryConditionAnalyzer implements QueryResultListener {
         /**
          * parseConditionValues
          *
-         * @param sql
+         * @param parseContext
          * @param table
          * @param column
          * @return
          */
-        public List<Object> parseConditionValues(String sql, String table, String column) {
+        public List<Object> parseConditionValues(SqlParseContext parseContext, String table, String column) {
 
             List<Object> values = null;
 
-            if (sql != null && table != null && QueryConditionAnalyzer.this.columnName != null) {
+            if (parseContext.getSql() != null && table != null && QueryConditionAnalyzer.this.columnName != null) {
 
                 values = new ArrayList<>();
 
-                MySqlStatementParser parser = new MySqlStatementParser(sql);
-                SQLStatement stmt = parser.parseStatement();
+                SQLStatement stmt = parseContext.getStatement();
+                if (stmt == null) {
+                    return values;
+                }
 
                 ServerSchemaStatVisitor visitor = new ServerSchemaStatVisitor();
                 stmt.accept(visitor);
@@ -23,6 +23,7 @@ public class QueryResult {
     private long startTime;
     private long endTime;
     private long resultSize;
+    private SqlParseContext parseContext;
 
     public QueryResult(String user, int sqlType, String sql, long sqlRows,
                        long netInBytes, long netOutBytes, long startTime, long endTime, long resultSize) {
@@ -30,6 +31,7 @@ public class QueryResult {
         this.user = user;
         this.sqlType = sqlType;
         this.sql = RouterUtil.getFixedSql(sql);
+        this.parseContext = new SqlParseContext(this.sql);
         this.sqlRows = sqlRows;
         this.netInBytes = netInBytes;
         this.netOutBytes = netOutBytes;
@@ -50,6 +52,10 @@ public class QueryResult {
         return sql;
     }
 
+    public SqlParseContext getParseContext() {
+        return parseContext;
+    }
+
     public long getSqlRows() {
         return sqlRows;
     }
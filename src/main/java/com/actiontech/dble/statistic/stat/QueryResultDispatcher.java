@@ -5,15 +5,25 @@
 
 package com.actiontech.dble.statistic.stat;
 
-import com.actiontech.dble.DbleServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * QueryResultDispatcher
+ * <p>
+ * the query results are put into a lock free queue by the session threads and dispatched to the listeners
+ * in batches by a few dispatcher threads, the listeners are thread safe.
+ * the session thread never waits, if the queue is full the query result is dropped at once and counted,
+ * the count is shown by show @@sql.dispatch.
  *
  * @author zhuam
  */
@@ -22,14 +32,24 @@ public final class QueryResultDispatcher {
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultDispatcher.class);
+    private static final int MAX_PENDING_SIZE = 1 << 16;
+    private static final int BATCH_SIZE = 1024;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
     private static List<QueryResultListener> listeners = new CopyOnWriteArrayList<>();
+    private static final Queue<QueryResult> PENDING_RESULTS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger PENDING_SIZE = new AtomicInteger();
+    private static final AtomicLong DROPPED_COUNT = new AtomicLong();
+    private static final Dispatcher[] DISPATCHERS = new Dispatcher[Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 4))];
 
     // load in int
     static {
         listeners.add(UserStatAnalyzer.getInstance());
         listeners.add(TableStatAnalyzer.getInstance());
         listeners.add(QueryConditionAnalyzer.getInstance());
+        for (int i = 0; i < DISPATCHERS.length; i++) {
+            DISPATCHERS[i] = new Dispatcher("QueryResultDispatcher-" + i);
+        }
     }
 
     public static void addListener(QueryResultListener listener) {
@@ -48,19 +68,70 @@ public final class QueryResultDispatcher {
     }
 
     public static void dispatchQuery(final QueryResult queryResult) {
-        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+        if (PENDING_SIZE.incrementAndGet() > MAX_PENDING_SIZE) {
+            PENDING_SIZE.decrementAndGet();
+            if (DROPPED_COUNT.getAndIncrement() % MAX_PENDING_SIZE == 0) {
+                LOGGER.info("too many query results are waiting for the statistic, the query result is dropped");
+            }
+            return;
+        }
+        PENDING_RESULTS.offer(queryResult);
+        for (Dispatcher dispatcher : DISPATCHERS) {
+            if (dispatcher.idle) {
+                LockSupport.unpark(dispatcher.thread);
+                break;
+            }
+        }
+    }
+
+    public static long getDroppedCount() {
+        return DROPPED_COUNT.get();
+    }
 
-            public void run() {
+    public static int getPendingSize() {
+        return PENDING_SIZE.get();
+    }
 
-                for (QueryResultListener listener : listeners) {
-                    try {
-                        listener.onQueryResult(queryResult);
-                    } catch (Exception e) {
-                        LOGGER.info("error:", e);
+    public static int getDispatcherCount() {
+        return DISPATCHERS.length;
+    }
+
+    private static final class Dispatcher implements Runnable {
+        private final Thread thread;
+        private volatile boolean idle = false;
+
+        private Dispatcher(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int count = 0;
+                QueryResult queryResult;
+                while (count < BATCH_SIZE && (queryResult = PENDING_RESULTS.poll()) != null) {
+                    count++;
+                    for (QueryResultListener listener : listeners) {
+                        try {
+                            listener.onQueryResult(queryResult);
+                        } catch (Exception e) {
+                            LOGGER.info("error:", e);
+                        }
                     }
                 }
+                if (count > 0) {
+                    PENDING_SIZE.addAndGet(-count);
+                    continue;
+                }
+                idle = true;
+                if (PENDING_RESULTS.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+                idle = false;
             }
-        });
+        }
     }
 
 }
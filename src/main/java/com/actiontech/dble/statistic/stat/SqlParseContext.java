@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.statistic.stat;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the parse context of the sql of a query result, the sql is parsed once and the statement and the
+ * parameterized sql are shared by all the listeners instead of parsing the sql in every listener.
+ * the statement must be read only for the listeners.
+ */
+public final class SqlParseContext {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlParseContext.class);
+
+    private final String sql;
+    private boolean parsed = false;
+    private SQLStatement statement;
+    private String mergedSql;
+
+    public SqlParseContext(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return null if the sql can't be parsed
+     */
+    public synchronized SQLStatement getStatement() {
+        if (!parsed) {
+            parsed = true;
+            try {
+                statement = new MySqlStatementParser(sql).parseStatement();
+            } catch (Exception e) {
+                LOGGER.info("parse sql for statistic err:" + e.toString());
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * @return the parameterized sql, the fixed sql if the sql can't be parsed
+     */
+    public synchronized String getMergedSql() {
+        if (mergedSql == null) {
+            SQLStatement stmt = getStatement();
+            mergedSql = stmt == null ? StatSqlParser.fixSql(sql) : StatSqlParser.mergeSql(stmt);
+        }
+        return mergedSql;
+    }
+}
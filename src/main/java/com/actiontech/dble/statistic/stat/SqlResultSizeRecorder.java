@@ -15,10 +15,11 @@ public class SqlResultSizeRecorder {
 
     private ConcurrentMap<String, SqlResultSet> sqlResultSetMap = new ConcurrentHashMap<>();
 
+    /**
+     * @param sql the parameterized sql
+     */
     public void addSql(String sql, long resultSetSize) {
         SqlResultSet sqlResultSet;
-        StatSqlParser sqlParserHigh = new StatSqlParser();
-        sql = sqlParserHigh.mergeSql(sql);
         sqlResultSet = this.sqlResultSetMap.putIfAbsent(sql, new SqlResultSet(sql, resultSetSize));
         if (sqlResultSet != null) {
             sqlResultSet.count();
@@ -5,11 +5,16 @@
 
 package com.actiontech.dble.statistic.stat;
 
+import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
 
-class StatSqlParser {
+import java.util.Collections;
 
-    public String fixSql(String sql) {
+final class StatSqlParser {
+    private StatSqlParser() {
+    }
+
+    public static String fixSql(String sql) {
         if (sql != null) {
             if (sql.length() > 1024) {
                 sql = sql.substring(0, 1024) + "...";
@@ -20,10 +25,15 @@ class StatSqlParser {
         return sql;
     }
 
-    public String mergeSql(String sql) {
+    public static String mergeSql(String sql) {
 
         String newSql = ParameterizedOutputVisitorUtils.parameterize(sql, "mysql");
         return fixSql(newSql);
     }
 
+    public static String mergeSql(SQLStatement stmt) {
+        String newSql = ParameterizedOutputVisitorUtils.parameterize(Collections.singletonList(stmt), "mysql");
+        return fixSql(newSql);
+    }
+
 }
@@ -64,13 +64,7 @@ public class TableStat implements Comparable<TableStat> {
         }
 
         for (String tableName : relationTables) {
-            RelationTable relationTable = this.relationTableMap.get(tableName);
-            if (relationTable == null) {
-                relationTable = new RelationTable(tableName, 1);
-            } else {
-                relationTable.incCount();
-            }
-            this.relationTableMap.put(tableName, relationTable);
+            this.relationTableMap.computeIfAbsent(tableName, k -> new RelationTable(k, 0)).incCount();
         }
 
         this.lastExecuteTime = endTime;
@@ -10,8 +10,6 @@ import com.actiontech.dble.util.StringUtil;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.statement.*;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
-import com.alibaba.druid.sql.parser.SQLParserUtils;
-import com.alibaba.druid.sql.parser.SQLStatementParser;
 import com.alibaba.druid.sql.visitor.SQLASTVisitorAdapter;
 import com.alibaba.druid.util.JdbcConstants;
 import org.slf4j.Logger;
@@ -19,7 +17,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * TableStatAnalyzer
@@ -31,7 +28,6 @@ public final class TableStatAnalyzer implements QueryResultListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(TableStatAnalyzer.class);
 
     private Map<String, TableStat> tableStatMap = new ConcurrentHashMap<>();
-    private ReentrantLock lock = new ReentrantLock();
 
     //PARSER SQL TO GET NAME
     private SQLParser sqlParser = new SQLParser();
@@ -60,7 +56,7 @@ public final class TableStatAnalyzer implements QueryResultListener {
                 String masterTable = null;
                 List<String> relationTables = new ArrayList<>();
 
-                List<String> tables = sqlParser.parseTableNames(sql);
+                List<String> tables = sqlParser.parseTableNames(queryResult.getParseContext().getStatement());
                 for (int i = 0; i < tables.size(); i++) {
                     String table = tables.get(i);
                     if (i == 0) {
@@ -82,22 +78,7 @@ public final class TableStatAnalyzer implements QueryResultListener {
     }
 
     private TableStat getTableStat(String tableName) {
-        TableStat userStat = tableStatMap.get(tableName);
-        if (userStat == null) {
-            if (lock.tryLock()) {
-                try {
-                    userStat = new TableStat(tableName);
-                    tableStatMap.put(tableName, userStat);
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                while (userStat == null) {
-                    userStat = tableStatMap.get(tableName);
-                }
-            }
-        }
-        return userStat;
+        return tableStatMap.computeIfAbsent(tableName, TableStat::new);
     }
 
     public Map<String, TableStat> getTableStatMap() {
@@ -125,12 +106,6 @@ public final class TableStatAnalyzer implements QueryResultListener {
      */
     private static class SQLParser {
 
-        private SQLStatement parseStmt(String sql) {
-            SQLStatementParser statParser = SQLParserUtils.createSQLStatementParser(sql, "mysql");
-            SQLStatement stmt = statParser.parseStatement();
-            return stmt;
-        }
-
         /**
          * fix SCHEMA,`
          *
@@ -151,11 +126,10 @@ public final class TableStatAnalyzer implements QueryResultListener {
         /**
          * PARSER SQL table name
          */
-        public List<String> parseTableNames(String sql) {
+        public List<String> parseTableNames(SQLStatement stmt) {
             final List<String> tables = new ArrayList<>();
             try {
 
-                SQLStatement stmt = parseStmt(sql);
                 if (stmt instanceof SQLReplaceStatement) {
                     String table = ((SQLReplaceStatement) stmt).getTableName().getSimpleName();
                     tables.add(fixName(table));
@@ -6,12 +6,17 @@
 package com.actiontech.dble.statistic.stat;
 
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
 
 public class ThreadWorkUsage {
     private static final int STAT_PERIOD_1 = 15;
     private static final int STAT_PERIOD_2 = 60;
     private static final int STAT_PERIOD_3 = 300;
     private long currentSecondUsed;
+    private long currentSecondWaitTime;
+    private long currentSecondWaitCount;
+    private long lastSecondAvgWait;
+    private volatile IntSupplier queueSize;
     private LoopQueue lastStat1 = new LoopQueue(STAT_PERIOD_1);
     private LoopQueue lastStat2 = new LoopQueue(STAT_PERIOD_2);
     private LoopQueue lastStat3 = new LoopQueue(STAT_PERIOD_3);
@@ -35,6 +40,43 @@ public class ThreadWorkUsage {
         }
     }
 
+    /**
+     * @param waitTime the nanoseconds from the task is queued to it starts
+     */
+    public void addWaitTime(long waitTime) {
+        currentLock.writeLock().lock();
+        try {
+            currentSecondWaitTime += waitTime;
+            currentSecondWaitCount++;
+        } finally {
+            currentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the average nanoseconds the tasks waited in the queue in the last second
+     */
+    public long getLastSecondAvgWait() {
+        currentLock.readLock().lock();
+        try {
+            return lastSecondAvgWait;
+        } finally {
+            currentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the size of the queue of the thread, -1 if the thread has no queue of its own
+     */
+    public int getQueueSize() {
+        IntSupplier supplier = queueSize;
+        return supplier == null ? -1 : supplier.getAsInt();
+    }
+
+    public void setQueueSize(IntSupplier queueSize) {
+        this.queueSize = queueSize;
+    }
+
     public String[] getUsedPercent() {
         currentLock.readLock().lock();
         try {
@@ -52,6 +94,9 @@ public class ThreadWorkUsage {
             lastStat1.add(lastSecondUsed);
             lastStat2.add(lastSecondUsed);
             lastStat3.add(lastSecondUsed);
+            lastSecondAvgWait = currentSecondWaitCount == 0 ? 0 : currentSecondWaitTime / currentSecondWaitCount;
+            currentSecondWaitTime = 0;
+            currentSecondWaitCount = 0;
         } finally {
             currentLock.writeLock().unlock();
         }
@@ -7,7 +7,6 @@ package com.actiontech.dble.statistic.stat;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class UserSqlHighStat {
 
@@ -15,33 +14,23 @@ public class UserSqlHighStat {
 
     private Map<String, SqlFrequency> sqlFrequencyMap = new ConcurrentHashMap<>();
 
-    private ReentrantLock lock = new ReentrantLock();
-
-
-    private StatSqlParser sqlParser = new StatSqlParser();
-
     public void addSql(String sql, long executeTime, long startTime, long endTime) {
-        String newSql = this.sqlParser.mergeSql(sql);
-        SqlFrequency frequency = this.sqlFrequencyMap.get(newSql);
-        if (frequency == null) {
-            if (lock.tryLock()) {
-                try {
-                    frequency = new SqlFrequency();
-                    frequency.setSql(newSql);
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                while (frequency == null) {
-                    frequency = this.sqlFrequencyMap.get(newSql);
-                }
-            }
-        }
+        addMergedSql(StatSqlParser.mergeSql(sql), executeTime, startTime, endTime);
+    }
+
+    /**
+     * @param newSql the parameterized sql
+     */
+    public void addMergedSql(String newSql, long executeTime, long startTime, long endTime) {
+        SqlFrequency frequency = this.sqlFrequencyMap.computeIfAbsent(newSql, k -> {
+            SqlFrequency newFrequency = new SqlFrequency();
+            newFrequency.setSql(k);
+            return newFrequency;
+        });
         frequency.setLastTime(endTime);
         frequency.incCount();
         //TODO setExecuteTime has thread safe problem
         frequency.setExecuteTime(executeTime);
-        this.sqlFrequencyMap.put(newSql, frequency);
     }
 
 
@@ -132,12 +132,13 @@ public class UserStat {
 
     /**
      * @param sqlType
-     * @param sql
+     * @param parseContext the parse context of the sql
      * @param startTime
      */
-    public void update(int sqlType, String sql, long sqlRows,
+    public void update(int sqlType, SqlParseContext parseContext, long sqlRows,
                        long netInBytes, long netOutBytes, long startTime, long endTime, long resultSetSize) {
 
+        String sql = parseContext.getSql();
         //-----------------------------------------------------
         int invoking = runningCount.incrementAndGet();
         for (; ; ) {
@@ -171,7 +172,7 @@ public class UserStat {
         this.sqlLastStat.add(sql, executeTime, startTime, endTime);
 
         //sqlHighStat
-        this.sqlHighStat.addSql(sql, executeTime, startTime, endTime);
+        this.sqlHighStat.addMergedSql(parseContext.getMergedSql(), executeTime, startTime, endTime);
 
         //sqlLargeStat large than 10000 rows
         if (sqlType == ServerParse.SELECT && sqlRows > 10000) {
@@ -180,7 +181,7 @@ public class UserStat {
 
         //big size sql
         if (resultSetSize >= DbleServer.getInstance().getConfig().getSystem().getMaxResultSet()) {
-            this.sqlResultSizeRecorder.addSql(sql, resultSetSize);
+            this.sqlResultSizeRecorder.addSql(parseContext.getMergedSql(), resultSetSize);
         }
 
         //after
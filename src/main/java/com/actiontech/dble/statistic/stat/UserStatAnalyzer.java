@@ -38,7 +38,6 @@ public final class UserStatAnalyzer implements QueryResultListener {
             case ServerParse.REPLACE:
                 String user = query.getUser();
                 int sqlType = query.getSqlType();
-                String sql = query.getSql();
                 long sqlRows = query.getSqlRows();
                 long netInBytes = query.getNetInBytes();
                 long netOutBytes = query.getNetOutBytes();
@@ -50,7 +49,7 @@ public final class UserStatAnalyzer implements QueryResultListener {
                 if (userStat == null) {
                     userStat = newUserStat;
                 }
-                userStat.update(sqlType, sql, sqlRows, netInBytes, netOutBytes, startTime, endTime, resultSetSize);
+                userStat.update(sqlType, query.getParseContext(), sqlRows, netInBytes, netOutBytes, startTime, endTime, resultSetSize);
                 break;
             default:
                 break;
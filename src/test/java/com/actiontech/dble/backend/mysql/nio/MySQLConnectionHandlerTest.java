@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.RowPassthroughHandler;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.AbstractConnection;
+import com.actiontech.dble.net.NIOProcessor;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.actiontech.dble.server.CapturedServerConnection.eofPacket;
+import static com.actiontech.dble.server.CapturedServerConnection.rowPacket;
+import static org.mockito.Mockito.*;
+
+public class MySQLConnectionHandlerTest {
+    private MySQLConnection source;
+    private BufferPool pool;
+    private MySQLConnectionHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        source = mock(MySQLConnection.class);
+        when(source.getLogResponse()).thenReturn(new AtomicBoolean(false));
+        pool = mock(BufferPool.class);
+        Field processor = AbstractConnection.class.getDeclaredField("processor");
+        processor.setAccessible(true);
+        processor.set(source, new NIOProcessor("test", pool));
+        handler = new MySQLConnectionHandler(source);
+    }
+
+    @Test
+    public void testRowsToPassthroughHandler() {
+        ResponseHandler respHandler = mock(ResponseHandler.class, withSettings().extraInterfaces(RowPassthroughHandler.class));
+        handler.setResponseHandler(respHandler);
+        readFields();
+
+        ByteBuffer rows = rows();
+        handler.handleRowData(rows);
+        verify((RowPassthroughHandler) respHandler).rowsResponse(rows, source);
+        verify(respHandler, never()).rowResponse(any(byte[].class), any(RowDataPacket.class), anyBoolean(), any(BackendConnection.class));
+        // the handler owns the buffer now
+        verify(pool, never()).recycle(rows);
+    }
+
+    /**
+     * the response handler is changed after the rows were copied, they are split back to packets
+     */
+    @Test
+    public void testRowsToNormalHandler() {
+        ResponseHandler respHandler = mock(ResponseHandler.class);
+        handler.setResponseHandler(respHandler);
+        readFields();
+
+        ByteBuffer rows = rows();
+        handler.handleRowData(rows);
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(respHandler, times(2)).rowResponse(captor.capture(), any(RowDataPacket.class), anyBoolean(), any(BackendConnection.class));
+        List<byte[]> rowPackets = captor.getAllValues();
+        Assert.assertArrayEquals(rowPacket(4, "1", "a"), rowPackets.get(0));
+        Assert.assertArrayEquals(rowPacket(5, "2", "bb"), rowPackets.get(1));
+        verify(pool).recycle(rows);
+
+        handler.handleData(eofPacket(6));
+        verify(respHandler).rowEofResponse(any(byte[].class), anyBoolean(), any(BackendConnection.class));
+    }
+
+    private void readFields() {
+        handler.handleData(new byte[]{1, 0, 0, 1, 1});
+        handler.handleData(rowPacket(2, "id"));
+        handler.handleData(eofPacket(3));
+    }
+
+    private static ByteBuffer rows() {
+        ByteBuffer rows = ByteBuffer.allocate(64);
+        rows.put(rowPacket(4, "1", "a"));
+        rows.put(rowPacket(5, "2", "bb"));
+        return rows;
+    }
+}
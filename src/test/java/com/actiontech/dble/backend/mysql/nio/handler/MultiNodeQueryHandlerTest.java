@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.CapturedServerConnection;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.parser.ServerParse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.actiontech.dble.server.CapturedServerConnection.eofPacket;
+import static com.actiontech.dble.server.CapturedServerConnection.rowPacket;
+import static com.actiontech.dble.server.MockedDbleServer.mockConnection;
+import static org.mockito.Mockito.*;
+
+public class MultiNodeQueryHandlerTest {
+    private static final String SQL = "select id from travelrecord limit 2";
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private SystemConfig system;
+    private NonBlockingSession session;
+    private CapturedServerConnection source;
+    private Map<RouteResultsetNode, BackendConnection> targetMap;
+    private RouteResultsetNode dn1;
+    private RouteResultsetNode dn2;
+    private MySQLConnection conn1;
+    private MySQLConnection conn2;
+    private RouteResultset rrs;
+
+    @Before
+    public void setUp() throws Exception {
+        system = new SystemConfig(null);
+        system.setUseSqlStat(0);
+        system.setLimitCancelRows(0);
+        server.mockConfig(system);
+        server.disableFlowControl();
+
+        session = mock(NonBlockingSession.class);
+        when(session.getIsMultiStatement()).thenReturn(new AtomicBoolean(false));
+        when(session.getPacketId()).thenReturn(new AtomicInteger(0));
+        source = new CapturedServerConnection(session);
+        when(session.getSource()).thenReturn(source);
+
+        dn1 = new RouteResultsetNode("dn1", ServerParse.SELECT, SQL);
+        dn2 = new RouteResultsetNode("dn2", ServerParse.SELECT, SQL);
+        conn1 = mockConnection(dn1);
+        conn2 = mockConnection(dn2);
+        targetMap = new HashMap<>();
+        targetMap.put(dn1, conn1);
+        targetMap.put(dn2, conn2);
+        when(session.getTargetMap()).thenReturn(targetMap);
+        when(session.getTarget(dn1)).thenReturn(conn1);
+        when(session.getTarget(dn2)).thenReturn(conn2);
+
+        rrs = new RouteResultset(SQL, ServerParse.SELECT);
+        rrs.setNodes(new RouteResultsetNode[]{dn1, dn2});
+        rrs.setLimitSize(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.restore();
+    }
+
+    /**
+     * the first row after the limit closes the other connection, its late responses are ignored
+     */
+    @Test
+    public void testCancelAfterLimit() {
+        MultiNodeQueryHandler handler = newHandler();
+        handler.rowResponse(rowPacket(1, "1"), null, false, conn1);
+        handler.rowResponse(rowPacket(1, "2"), null, false, conn2);
+        verify(conn2, never()).close(anyString());
+
+        handler.rowResponse(rowPacket(1, "3"), null, false, conn1);
+        verify(conn2).close(anyString());
+        verify(conn1, never()).close(anyString());
+        Assert.assertFalse(targetMap.containsKey(dn2));
+        Assert.assertTrue(targetMap.containsKey(dn1));
+
+        handler.rowResponse(rowPacket(1, "4"), null, false, conn2);
+        handler.rowEofResponse(eofPacket(1), false, conn2);
+        handler.connectionClose(conn2, "closed by test");
+        verify(session, never()).releaseConnectionIfSafe(conn2, false);
+        Assert.assertFalse(handler.isFail());
+        verify(conn2, times(1)).close(anyString());
+
+        handler.rowEofResponse(eofPacket(1), false, conn1);
+        verify(session).releaseConnectionIfSafe(conn1, false);
+        verify(session).releaseConnections(false);
+        assertLimitRows();
+    }
+
+    /**
+     * the connections in a transaction must be kept, they are drained to their eof
+     */
+    @Test
+    public void testNoCancelInTransaction() {
+        source.setAutocommit(false);
+        MultiNodeQueryHandler handler = newHandler();
+        sendRowsAndEof(handler);
+        verify(conn1, never()).close(anyString());
+        verify(conn2, never()).close(anyString());
+        verify(session).releaseConnectionIfSafe(conn2, false);
+        verify(session, never()).releaseConnections(false);
+        assertLimitRows();
+    }
+
+    /**
+     * a small limit is drained rather than reconnecting
+     */
+    @Test
+    public void testNoCancelUnderLimitCancelRows() {
+        system.setLimitCancelRows(10);
+        MultiNodeQueryHandler handler = newHandler();
+        sendRowsAndEof(handler);
+        verify(conn2, never()).close(anyString());
+        verify(session).releaseConnectionIfSafe(conn1, false);
+        verify(session).releaseConnectionIfSafe(conn2, false);
+        assertLimitRows();
+    }
+
+    private MultiNodeQueryHandler newHandler() {
+        MultiNodeQueryHandler handler = new MultiNodeQueryHandler(rrs, session);
+        handler.unResponseRrns.add(dn1);
+        handler.unResponseRrns.add(dn2);
+        return handler;
+    }
+
+    private void sendRowsAndEof(MultiNodeQueryHandler handler) {
+        handler.rowResponse(rowPacket(1, "1"), null, false, conn1);
+        handler.rowResponse(rowPacket(1, "2"), null, false, conn2);
+        handler.rowResponse(rowPacket(1, "3"), null, false, conn1);
+        handler.rowResponse(rowPacket(1, "4"), null, false, conn2);
+        handler.rowEofResponse(eofPacket(1), false, conn2);
+        handler.rowEofResponse(eofPacket(1), false, conn1);
+    }
+
+    private void assertLimitRows() {
+        List<byte[]> packets = source.getPackets();
+        Assert.assertEquals(3, packets.size());
+        Assert.assertArrayEquals(rowPacket(1, "1"), packets.get(0));
+        Assert.assertArrayEquals(rowPacket(2, "2"), packets.get(1));
+        Assert.assertArrayEquals(eofPacket(3), packets.get(2));
+    }
+}
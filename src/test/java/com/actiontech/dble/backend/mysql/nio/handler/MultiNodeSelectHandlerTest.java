@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.CapturedServerConnection;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.parser.ServerParse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.actiontech.dble.server.CapturedServerConnection.eofPacket;
+import static com.actiontech.dble.server.CapturedServerConnection.rowPacket;
+import static com.actiontech.dble.server.MockedDbleServer.mockConnection;
+import static org.mockito.Mockito.*;
+
+public class MultiNodeSelectHandlerTest {
+    private static final String SQL = "select count(*) from travelrecord group by id limit 2";
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private ExecutorService executor;
+    private NonBlockingSession session;
+    private CapturedServerConnection source;
+    private Map<RouteResultsetNode, BackendConnection> targetMap;
+    private RouteResultsetNode dn1;
+    private RouteResultsetNode dn2;
+    private MySQLConnection conn1;
+    private MySQLConnection conn2;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setUseSqlStat(0);
+        system.setLimitCancelRows(0);
+        server.mockConfig(system);
+        executor = Executors.newSingleThreadExecutor();
+        server.replace("complexQueryExecutor", executor);
+        server.disableFlowControl();
+
+        session = mock(NonBlockingSession.class);
+        when(session.getIsMultiStatement()).thenReturn(new AtomicBoolean(false));
+        when(session.getPacketId()).thenReturn(new AtomicInteger(0));
+        source = new CapturedServerConnection(session);
+        when(session.getSource()).thenReturn(source);
+
+        dn1 = new RouteResultsetNode("dn1", ServerParse.SELECT, SQL);
+        dn2 = new RouteResultsetNode("dn2", ServerParse.SELECT, SQL);
+        conn1 = mockConnection(dn1);
+        conn2 = mockConnection(dn2);
+        targetMap = new HashMap<>();
+        targetMap.put(dn1, conn1);
+        targetMap.put(dn2, conn2);
+        when(session.getTargetMap()).thenReturn(targetMap);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.restore();
+    }
+
+    /**
+     * the merge thread discards the queued rows after the limit and closes the connection which has not sent its eof,
+     * the connection which has finished is released
+     */
+    @Test
+    public void testDiscardAfterLimit() throws Exception {
+        RouteResultset rrs = new RouteResultset(SQL, ServerParse.SELECT);
+        rrs.setNodes(new RouteResultsetNode[]{dn1, dn2});
+        rrs.setGroupByCols(new String[0]);
+        rrs.setLimitSize(2);
+        MultiNodeSelectHandler handler = new MultiNodeSelectHandler(rrs, session);
+        handler.unResponseRrns.add(dn1);
+        handler.unResponseRrns.add(dn2);
+
+        handler.fieldEofResponse(new byte[]{1, 0, 0, 1, 0}, new ArrayList<byte[]>(), null, eofPacket(2), false, conn1);
+        for (int i = 0; i < 3; i++) {
+            handler.rowResponse(rowPacket(3 + i), null, false, conn1);
+        }
+        handler.rowEofResponse(eofPacket(6), false, conn1);
+        // the merge thread starts after the fields of all the connections are received
+        handler.fieldEofResponse(new byte[]{1, 0, 0, 1, 0}, new ArrayList<byte[]>(), null, eofPacket(2), false, conn2);
+        // conn2 keeps sending rows, enough to feed the merge until the limit
+        for (int i = 0; i < 4; i++) {
+            handler.rowResponse(rowPacket(3 + i), null, false, conn2);
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        verify(conn2).close(anyString());
+        verify(conn1, never()).close(anyString());
+        Assert.assertFalse(targetMap.containsKey(dn2));
+        verify(session).releaseConnectionIfSafe(conn1, false);
+        verify(session, never()).releaseConnectionIfSafe(conn2, false);
+        Assert.assertTrue(handler.rowResponse(rowPacket(7), null, false, conn2));
+
+        // header, eof of fields, 2 rows and eof
+        List<byte[]> packets = source.getPackets();
+        Assert.assertEquals(5, packets.size());
+        Assert.assertEquals(4, packets.get(2).length);
+        Assert.assertEquals(4, packets.get(3).length);
+        Assert.assertEquals((byte) 0xfe, packets.get(4)[4]);
+    }
+}
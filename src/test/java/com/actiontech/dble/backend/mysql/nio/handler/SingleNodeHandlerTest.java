@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.CapturedServerConnection;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.parser.ServerParse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.actiontech.dble.server.CapturedServerConnection.eofPacket;
+import static com.actiontech.dble.server.CapturedServerConnection.rowPacket;
+import static org.mockito.Mockito.*;
+
+public class SingleNodeHandlerTest {
+    private static final String SQL = "select id, name from travelrecord";
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private NonBlockingSession session;
+    private CapturedServerConnection source;
+    private BackendConnection conn;
+    private SingleNodeHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setUseSqlStat(0);
+        server.mockConfig(system);
+        server.disableFlowControl();
+
+        session = mock(NonBlockingSession.class);
+        when(session.getIsMultiStatement()).thenReturn(new AtomicBoolean(false));
+        source = new CapturedServerConnection(session);
+        when(session.getSource()).thenReturn(source);
+        conn = mock(BackendConnection.class);
+
+        RouteResultset rrs = new RouteResultset(SQL, ServerParse.SELECT);
+        rrs.setNodes(new RouteResultsetNode[]{new RouteResultsetNode("dn1", ServerParse.SELECT, SQL)});
+        handler = new SingleNodeHandler(rrs, session);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.restore();
+    }
+
+    /**
+     * the blocks of rows are forwarded as they are with the packet ids rewritten,
+     * the buffered header is flushed before the first block
+     */
+    @Test
+    public void testRowsPassthrough() {
+        handler.fieldEofResponse(new byte[]{1, 0, 0, 1, 2}, new ArrayList<byte[]>(), null, eofPacket(2), false, conn);
+
+        ByteBuffer rows = ByteBuffer.allocate(256);
+        rows.put(rowPacket(7, "1", "a"));
+        rows.put(rowPacket(8, "2", "bb"));
+        handler.rowsResponse(rows, conn);
+        Assert.assertEquals(2, source.getWritePartCount());
+
+        handler.rowResponse(rowPacket(9, "3", "ccc"), null, false, conn);
+        handler.rowEofResponse(eofPacket(10), false, conn);
+        verify(session).releaseConnectionIfSafe(conn, false);
+
+        List<byte[]> packets = source.getPackets();
+        Assert.assertEquals(6, packets.size());
+        for (int i = 0; i < packets.size(); i++) {
+            Assert.assertEquals(i + 1, packets.get(i)[3]);
+        }
+        Assert.assertArrayEquals(new byte[]{1, 0, 0, 1, 2}, packets.get(0));
+        Assert.assertArrayEquals(rowPacket(3, "1", "a"), packets.get(2));
+        Assert.assertArrayEquals(rowPacket(4, "2", "bb"), packets.get(3));
+        Assert.assertArrayEquals(rowPacket(5, "3", "ccc"), packets.get(4));
+        Assert.assertArrayEquals(eofPacket(6), packets.get(5));
+    }
+
+    /**
+     * the rows arriving after the client got its response are recycled instead of written
+     */
+    @Test
+    public void testRowsAfterResponseAreDropped() {
+        handler.fieldEofResponse(new byte[]{1, 0, 0, 1, 1}, new ArrayList<byte[]>(), null, eofPacket(2), false, conn);
+        handler.rowEofResponse(eofPacket(3), false, conn);
+        int writeParts = source.getWritePartCount();
+        int packets = source.getPackets().size();
+
+        ByteBuffer rows = ByteBuffer.allocate(64);
+        rows.put(rowPacket(4, "1"));
+        handler.rowsResponse(rows, conn);
+        Assert.assertEquals(writeParts, source.getWritePartCount());
+        // the block is only given back to the pool
+        Assert.assertEquals(packets + 1, source.getPackets().size());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the last handler of the handler tests, it keeps the rows and the eof sent to it by the other threads
+ */
+public class CapturedDMLHandler extends BaseDMLHandler {
+    private final List<RowDataPacket> rows = new CopyOnWriteArrayList<>();
+    private final CountDownLatch eofLatch = new CountDownLatch(1);
+    private volatile List<FieldPacket> capturedFields;
+    private final AtomicInteger eofCount = new AtomicInteger(0);
+
+    public CapturedDMLHandler() {
+        super(0, null);
+    }
+
+    @Override
+    public HandlerType type() {
+        return HandlerType.FINAL;
+    }
+
+    @Override
+    public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, List<FieldPacket> fieldPacketsNull,
+                                 byte[] eofNull, boolean isLeft, BackendConnection conn) {
+        capturedFields = fieldPacketsNull;
+    }
+
+    @Override
+    public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+        rows.add(rowPacket);
+        return false;
+    }
+
+    @Override
+    public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
+        eofCount.incrementAndGet();
+        eofLatch.countDown();
+    }
+
+    @Override
+    protected void onTerminate() {
+    }
+
+    /**
+     * @return true if the eof is received in the timeout
+     */
+    public boolean awaitEof(long timeoutMillis) throws InterruptedException {
+        return eofLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public List<RowDataPacket> getRows() {
+        return rows;
+    }
+
+    public List<FieldPacket> getCapturedFields() {
+        return capturedFields;
+    }
+
+    public int getEofCount() {
+        return eofCount.get();
+    }
+}
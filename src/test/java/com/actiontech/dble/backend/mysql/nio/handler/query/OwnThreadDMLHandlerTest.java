@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.server.MockedDbleServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the own task is run step by step by a manual executor, so every scheduling of the task is checked
+ */
+public class OwnThreadDMLHandlerTest {
+    private final MockedDbleServer server = new MockedDbleServer();
+    private final ManualExecutor executor = new ManualExecutor();
+    private TaskHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        server.mockConfig(new SystemConfig(null));
+        server.replace("complexQueryExecutor", executor);
+        handler = new TaskHandler();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.restore();
+    }
+
+    @Test
+    public void testResumeBeforeStart() {
+        handler.resumeOwnTask();
+        Assert.assertEquals(0, executor.size());
+    }
+
+    /**
+     * the task returns when its input is not available, and is scheduled once for the signals received then
+     */
+    @Test
+    public void testIdleUntilResumed() {
+        handler.startOwnTask();
+        Assert.assertEquals(1, executor.size());
+        executor.runNext();
+        Assert.assertEquals(1, handler.runs);
+        Assert.assertEquals(0, executor.size());
+
+        handler.resumeOwnTask();
+        handler.resumeOwnTask();
+        Assert.assertEquals(1, executor.size());
+        executor.runNext();
+        Assert.assertEquals(2, handler.runs);
+        Assert.assertEquals(0, executor.size());
+        Assert.assertEquals(0, handler.recycles);
+    }
+
+    /**
+     * the signal received while the task is running must not be lost
+     */
+    @Test
+    public void testResumeWhileRunning() {
+        handler.startOwnTask();
+        handler.resumeWhileRunning = true;
+        executor.runNext();
+        Assert.assertEquals(1, executor.size());
+        executor.runNext();
+        Assert.assertEquals(2, handler.runs);
+        Assert.assertEquals(0, executor.size());
+    }
+
+    @Test
+    public void testFinishRecyclesOnce() {
+        handler.startOwnTask();
+        handler.finished = true;
+        executor.runNext();
+        Assert.assertEquals(1, handler.recycles);
+
+        handler.resumeOwnTask();
+        Assert.assertEquals(0, executor.size());
+        handler.terminate();
+        Assert.assertEquals(0, handler.terminates);
+        Assert.assertEquals(1, handler.recycles);
+    }
+
+    @Test
+    public void testTerminateBeforeStart() {
+        handler.terminate();
+        Assert.assertEquals(1, handler.recycles);
+        Assert.assertEquals(0, handler.terminates);
+
+        handler.startOwnTask();
+        Assert.assertEquals(0, executor.size());
+        Assert.assertEquals(0, handler.runs);
+    }
+
+    /**
+     * the idle task is resumed by terminateThread, and recycles without running the job again
+     */
+    @Test
+    public void testTerminateWhileIdle() {
+        handler.startOwnTask();
+        executor.runNext();
+        handler.terminate();
+        Assert.assertEquals(1, handler.terminates);
+        Assert.assertEquals(1, executor.size());
+
+        executor.runNext();
+        Assert.assertEquals(1, handler.runs);
+        Assert.assertEquals(1, handler.recycles);
+        Assert.assertEquals(0, executor.size());
+    }
+
+    private static class TaskHandler extends OwnThreadDMLHandler {
+        private int runs = 0;
+        private int recycles = 0;
+        private int terminates = 0;
+        private boolean finished = false;
+        private boolean resumeWhileRunning = false;
+
+        TaskHandler() {
+            super(0, null);
+        }
+
+        @Override
+        protected boolean ownTaskJob() {
+            runs++;
+            if (resumeWhileRunning) {
+                resumeWhileRunning = false;
+                resumeOwnTask();
+            }
+            return finished;
+        }
+
+        @Override
+        protected void terminateThread() {
+            terminates++;
+            resumeOwnTask();
+        }
+
+        @Override
+        protected void recycleResources() {
+            recycles++;
+        }
+
+        @Override
+        public HandlerType type() {
+            return HandlerType.ORDERBY;
+        }
+
+        @Override
+        public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, List<FieldPacket> fieldPackets,
+                                     byte[] eofNull, boolean isLeft, BackendConnection conn) {
+        }
+
+        @Override
+        public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+            return false;
+        }
+
+        @Override
+        public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
+        }
+    }
+
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        void runNext() {
+            tasks.remove().run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
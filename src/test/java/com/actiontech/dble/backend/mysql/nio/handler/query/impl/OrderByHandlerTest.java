@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
+
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.CapturedDMLHandler;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.mysql.CharsetNames;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * the rows are pushed by the test thread and sorted by the own task on the executor,
+ * the small queue makes both threads add the rows to the local result
+ */
+public class OrderByHandlerTest {
+    private static final int ROW_COUNT = 2000;
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private ExecutorService executor;
+    private NonBlockingSession session;
+    private MySQLConnection conn;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setOrderByQueueSize(8);
+        system.setMappedFileSize(1024 * 1024);
+        system.setBufferPoolPageSize(64 * 1024);
+        system.setBufferPoolChunkSize((short) 4096);
+        system.setBufferPoolPageNumber((short) 16);
+        server.mockConfig(system);
+        executor = Executors.newSingleThreadExecutor();
+        server.replace("complexQueryExecutor", executor);
+        BufferPoolManager.getInstance().init(system);
+
+        session = mock(NonBlockingSession.class);
+        conn = mock(MySQLConnection.class);
+        when(conn.getCharset()).thenReturn(new CharsetNames());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.restore();
+    }
+
+    @Test
+    public void testSortInMemory() throws Exception {
+        assertSorted(sort(null));
+    }
+
+    /**
+     * the order buffer is used up after some rows, the rows are spilled by the task and by the pushing thread
+     */
+    @Test
+    public void testSortAfterSpill() throws Exception {
+        assertSorted(sort(new MemSizeController(4096)));
+    }
+
+    /**
+     * the handler terminated before the eof sends nothing, even if the eof comes after
+     */
+    @Test
+    public void testTerminateBeforeEof() throws Exception {
+        when(session.getOrderBufferMC()).thenReturn(new MemSizeController(4096));
+        OrderByHandler handler = newHandler();
+        CapturedDMLHandler captured = new CapturedDMLHandler();
+        handler.setNextHandler(captured);
+        handler.fieldEofResponse(null, null, fieldPackets(), null, false, conn);
+        for (RowDataPacket row : rows()) {
+            handler.rowResponse(null, row, false, conn);
+        }
+        handler.terminate();
+        handler.rowEofResponse(null, false, conn);
+        Assert.assertFalse(captured.awaitEof(200));
+        Assert.assertTrue(captured.getRows().isEmpty());
+        verify(session, never()).onQueryError(any(byte[].class));
+    }
+
+    private List<Long> sort(MemSizeController orderBufferMC) throws Exception {
+        when(session.getOrderBufferMC()).thenReturn(orderBufferMC);
+        OrderByHandler handler = newHandler();
+        CapturedDMLHandler captured = new CapturedDMLHandler();
+        handler.setNextHandler(captured);
+        handler.fieldEofResponse(null, null, fieldPackets(), null, false, conn);
+        for (RowDataPacket row : rows()) {
+            Assert.assertFalse(handler.rowResponse(null, row, false, conn));
+        }
+        handler.rowEofResponse(null, false, conn);
+        Assert.assertTrue(captured.awaitEof(10000));
+        Assert.assertEquals(1, captured.getEofCount());
+        verify(session, never()).onQueryError(any(byte[].class));
+        List<Long> values = new ArrayList<>();
+        for (RowDataPacket row : captured.getRows()) {
+            values.add(Long.parseLong(new String(row.getValue(0))));
+        }
+        return values;
+    }
+
+    private OrderByHandler newHandler() {
+        List<Order> orders = Collections.singletonList(new Order(new ItemField(null, "t", "a")));
+        return new OrderByHandler(1, session, orders);
+    }
+
+    private static void assertSorted(List<Long> values) {
+        Assert.assertEquals(ROW_COUNT, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(Long.valueOf(i), values.get(i));
+        }
+    }
+
+    private static List<RowDataPacket> rows() {
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < ROW_COUNT; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(ROW_COUNT));
+        List<RowDataPacket> rows = new ArrayList<>();
+        for (Long value : values) {
+            RowDataPacket row = new RowDataPacket(1);
+            row.add(String.valueOf(value).getBytes());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<FieldPacket> fieldPackets() {
+        FieldPacket fp = new FieldPacket();
+        fp.setName("a".getBytes());
+        fp.setTable("t".getBytes());
+        fp.setType(Fields.FIELD_TYPE_LONG);
+        fp.setCharsetIndex(33);
+        fp.setLength(11);
+        return Collections.singletonList(fp);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby;
+
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler.HandlerType;
+import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
+import com.actiontech.dble.backend.mysql.store.LocalResult;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.plan.common.item.function.sumfunc.Aggregator;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumAvg;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumCount;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumMax;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumMin;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumSum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the groups of the hash table are compared with the groups merged by the group by local result,
+ * which is how the buckets of the direct group by work
+ */
+public class GroupByHashTableTest {
+    private static final String CHARSET = "UTF-8";
+    private static final int ROW_COUNT = 3000;
+
+    private final List<FieldPacket> fieldPackets = Arrays.asList(fieldPacket("a"), fieldPacket("b"));
+    private final List<ItemSum> referredSums = new ArrayList<>();
+    private final List<Order> groupBys = Collections.singletonList(new Order(new ItemField(null, "t", "a")));
+
+    public GroupByHashTableTest() {
+        referredSums.add(new ItemSumCount(args(), false, false, null));
+        referredSums.add(new ItemSumSum(args(), false, false, null));
+        referredSums.add(new ItemSumAvg(args(), false, false, null));
+        referredSums.add(new ItemSumMin(args(), false, null));
+        referredSums.add(new ItemSumMax(args(), false, null));
+    }
+
+    @Test
+    public void testSameAsDirectGroupBy() {
+        Assert.assertEquals(directGroupBy(), hashGroupBy(null));
+    }
+
+    /**
+     * the memory is used up after some groups, the groups are spilled and the later rows are streamed
+     */
+    @Test
+    public void testSameAsDirectGroupByAfterSpill() {
+        Assert.assertEquals(directGroupBy(), hashGroupBy(new MemSizeController(4096)));
+    }
+
+    private List<String> hashGroupBy(MemSizeController bufferMC) {
+        List<ItemSum> sums = createSums();
+        Assert.assertTrue(GroupByHashTable.canAccumulate(sums));
+        GroupByHashTable hashTable = new GroupByHashTable(sums, newComparator(), newLocalResult(), bufferMC);
+        for (RowDataPacket row : rows()) {
+            hashTable.add(row);
+        }
+        hashTable.done();
+        List<String> groups = new ArrayList<>();
+        List<ItemSum> sendSums = createSums();
+        RowDataPacket group;
+        while ((group = hashTable.next()) != null) {
+            groups.add(toString(group, sendSums));
+        }
+        hashTable.close();
+        return groups;
+    }
+
+    private List<String> directGroupBy() {
+        LocalResult localResult = newLocalResult();
+        for (RowDataPacket row : rows()) {
+            localResult.add(new DGRowPacket(row, referredSums.size()));
+        }
+        localResult.done();
+        List<String> groups = new ArrayList<>();
+        List<ItemSum> sendSums = createSums();
+        RowDataPacket group;
+        while ((group = localResult.next()) != null) {
+            groups.add(toString(group, sendSums));
+        }
+        localResult.close();
+        return groups;
+    }
+
+    private static String toString(RowDataPacket group, List<ItemSum> sendSums) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sendSums.size(); i++) {
+            ItemSum sum = sendSums.get(i);
+            sum.resetAndAdd(group, ((DGRowPacket) group).getSumTran(i));
+            byte[] value = sum.getRowPacketByte();
+            sb.append(value == null ? "NULL" : new String(value)).append(',');
+        }
+        byte[] key = group.getValue(0);
+        return sb.append(key == null ? "NULL" : new String(key)).toString();
+    }
+
+    /**
+     * some groups and values are null, the values of a group come in several rounds
+     */
+    private static List<RowDataPacket> rows() {
+        List<RowDataPacket> rows = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            RowDataPacket row = new RowDataPacket(2);
+            row.add(i % 101 == 0 ? null : String.valueOf(i % 97 - 40).getBytes());
+            row.add(i % 7 == 0 ? null : String.valueOf((i * 31) % 1000 - 500).getBytes());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<ItemSum> createSums() {
+        List<Field> fields = HandlerTool.createFields(fieldPackets);
+        List<ItemSum> sums = new ArrayList<>();
+        for (ItemSum referredSum : referredSums) {
+            ItemSum sum = (ItemSum) HandlerTool.createItem(referredSum, fields, 0, false, HandlerType.GROUPBY);
+            sum.setAggregator(Aggregator.AggregatorType.SIMPLE_AGGREGATOR, null);
+            sum.aggregatorSetup();
+            sums.add(sum);
+        }
+        return sums;
+    }
+
+    private RowDataComparator newComparator() {
+        return new RowDataComparator(fieldPackets, groupBys, false, HandlerType.GROUPBY);
+    }
+
+    private LocalResult newLocalResult() {
+        return new GroupByLocalResult(null, fieldPackets.size(), newComparator(), fieldPackets, referredSums, false,
+                CHARSET);
+    }
+
+    private static List<Item> args() {
+        List<Item> args = new ArrayList<>();
+        args.add(new ItemField(null, "t", "b"));
+        return args;
+    }
+
+    private static FieldPacket fieldPacket(String name) {
+        FieldPacket fp = new FieldPacket();
+        fp.setName(name.getBytes());
+        fp.setTable("t".getBytes());
+        fp.setType(Fields.FIELD_TYPE_LONG);
+        fp.setCharsetIndex(33);
+        fp.setLength(11);
+        return fp;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.CapturedDMLHandler;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.mysql.CharsetNames;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * the rows joined by the hash join are compared with the rows joined by a nested loop in the test,
+ * which uses the equality of the case insensitive collation
+ */
+public class HashJoinHandlerTest {
+    private static final int SPILL_ROW_COUNT = 3000;
+    private static final long JOIN_MEM_SIZE = 1024 * 1024;
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private ExecutorService executor;
+    private NonBlockingSession session;
+    private MySQLConnection conn;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setJoinQueueSize(16);
+        system.setMappedFileSize(1024 * 1024);
+        system.setBufferPoolPageSize(64 * 1024);
+        system.setBufferPoolChunkSize((short) 4096);
+        system.setBufferPoolPageNumber((short) 64);
+        server.mockConfig(system);
+        executor = Executors.newCachedThreadPool();
+        server.replace("complexQueryExecutor", executor);
+        BufferPoolManager.getInstance().init(system);
+
+        CharsetNames charset = new CharsetNames();
+        charset.setNames("utf8", "utf8_general_ci");
+        ServerConnection source = mock(ServerConnection.class);
+        when(source.getCharset()).thenReturn(charset);
+        session = mock(NonBlockingSession.class);
+        when(session.getSource()).thenReturn(source);
+        conn = mock(MySQLConnection.class);
+        when(conn.getCharset()).thenReturn(charset);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.restore();
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        assertJoin(false, leftStringRows(), rightStringRows(), new MemSizeController(JOIN_MEM_SIZE));
+    }
+
+    /**
+     * the left rows without the match, including the null keys, are joined with nulls
+     */
+    @Test
+    public void testLeftJoin() throws Exception {
+        assertJoin(true, leftStringRows(), rightStringRows(), new MemSizeController(JOIN_MEM_SIZE));
+    }
+
+    /**
+     * the build side exceeds the join buffer, both sides are partitioned and the big partitions are partitioned again
+     */
+    @Test
+    public void testJoinAfterSpill() throws Exception {
+        assertJoin(false, spillRows(1), spillRows(2), new MemSizeController(2048));
+        assertJoin(true, spillRows(3), spillRows(4), new MemSizeController(2048));
+    }
+
+    /**
+     * the datetime and the date are joined by their packed values, not by their strings
+     */
+    @Test
+    public void testTemporalKeys() throws Exception {
+        List<FieldPacket> leftFields = Arrays.asList(fieldPacket("t1", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t1", "k", Fields.FIELD_TYPE_DATETIME));
+        List<FieldPacket> rightFields = Arrays.asList(fieldPacket("t2", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t2", "k", Fields.FIELD_TYPE_DATE));
+        List<RowDataPacket> leftRows = Arrays.asList(row("1", "2020-01-01 00:00:00"), row("2", "2020-01-02 10:00:00"),
+                row("3", null), row("4", "2020-01-03 00:00:00"));
+        List<RowDataPacket> rightRows = Arrays.asList(row("1", "2020-01-01"), row("2", "2020-01-02"),
+                row("3", "2020-01-03"), row("4", null));
+        List<String> joined = join(false, leftFields, rightFields, leftRows, rightRows,
+                new MemSizeController(JOIN_MEM_SIZE));
+        Assert.assertEquals(Arrays.asList("1,2020-01-01 00:00:00,1,2020-01-01", "4,2020-01-03 00:00:00,3,2020-01-03"),
+                joined);
+    }
+
+    /**
+     * the int and the string are compared as numbers
+     */
+    @Test
+    public void testMixedTypeKeys() throws Exception {
+        List<FieldPacket> leftFields = Arrays.asList(fieldPacket("t1", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t1", "k", Fields.FIELD_TYPE_LONG));
+        List<FieldPacket> rightFields = Arrays.asList(fieldPacket("t2", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t2", "k", Fields.FIELD_TYPE_VAR_STRING));
+        List<RowDataPacket> leftRows = Arrays.asList(row("1", "1"), row("2", "2"), row("3", "3"));
+        List<RowDataPacket> rightRows = Arrays.asList(row("1", "1.0"), row("2", "02"), row("3", "x"));
+        List<String> joined = join(false, leftFields, rightFields, leftRows, rightRows,
+                new MemSizeController(JOIN_MEM_SIZE));
+        Assert.assertEquals(Arrays.asList("1,1,1,1.0", "2,2,2,02"), joined);
+    }
+
+    private void assertJoin(boolean isLeftJoin, List<RowDataPacket> leftRows, List<RowDataPacket> rightRows,
+                            MemSizeController joinBufferMC) throws Exception {
+        List<FieldPacket> leftFields = Arrays.asList(fieldPacket("t1", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t1", "k", Fields.FIELD_TYPE_VAR_STRING));
+        List<FieldPacket> rightFields = Arrays.asList(fieldPacket("t2", "id", Fields.FIELD_TYPE_LONG),
+                fieldPacket("t2", "k", Fields.FIELD_TYPE_VAR_STRING));
+        List<String> expected = nestLoopJoin(isLeftJoin, leftRows, rightRows);
+        Assert.assertEquals(expected, join(isLeftJoin, leftFields, rightFields, leftRows, rightRows, joinBufferMC));
+    }
+
+    private List<String> join(boolean isLeftJoin, List<FieldPacket> leftFields, List<FieldPacket> rightFields,
+                              List<RowDataPacket> leftRows, List<RowDataPacket> rightRows,
+                              MemSizeController joinBufferMC) throws Exception {
+        when(session.getJoinBufferMC()).thenReturn(joinBufferMC);
+        List<Order> leftOrders = Collections.singletonList(new Order(new ItemField(null, "t1", "k")));
+        List<Order> rightOrders = Collections.singletonList(new Order(new ItemField(null, "t2", "k")));
+        HashJoinHandler handler = new HashJoinHandler(1, session, isLeftJoin, leftOrders, rightOrders, null);
+        CapturedDMLHandler captured = new CapturedDMLHandler();
+        handler.setNextHandler(captured);
+        handler.fieldEofResponse(null, null, leftFields, null, true, conn);
+        handler.fieldEofResponse(null, null, rightFields, null, false, conn);
+        // the probe rows come first, they are buffered until the build side is done
+        for (RowDataPacket row : leftRows) {
+            handler.rowResponse(null, row, true, conn);
+        }
+        for (RowDataPacket row : rightRows) {
+            handler.rowResponse(null, row, false, conn);
+        }
+        handler.rowEofResponse(null, false, conn);
+        handler.rowEofResponse(null, true, conn);
+        Assert.assertTrue(captured.awaitEof(10000));
+        verify(session, never()).onQueryError(any(byte[].class));
+        List<String> joined = new ArrayList<>();
+        for (RowDataPacket row : captured.getRows()) {
+            joined.add(toString(row));
+        }
+        Collections.sort(joined);
+        return joined;
+    }
+
+    private static List<String> nestLoopJoin(boolean isLeftJoin, List<RowDataPacket> leftRows,
+                                             List<RowDataPacket> rightRows) {
+        List<String> joined = new ArrayList<>();
+        for (RowDataPacket leftRow : leftRows) {
+            boolean matched = false;
+            for (RowDataPacket rightRow : rightRows) {
+                if (equalsIgnoreCase(leftRow.getValue(1), rightRow.getValue(1))) {
+                    joined.add(toString(leftRow) + "," + toString(rightRow));
+                    matched = true;
+                }
+            }
+            if (!matched && isLeftJoin) {
+                joined.add(toString(leftRow) + ",NULL,NULL");
+            }
+        }
+        Collections.sort(joined);
+        return joined;
+    }
+
+    private static boolean equalsIgnoreCase(byte[] leftKey, byte[] rightKey) {
+        return leftKey != null && rightKey != null &&
+                new String(leftKey, StandardCharsets.UTF_8).equalsIgnoreCase(
+                        new String(rightKey, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * the keys differ in case or in the trailing space, some are null or have no match
+     */
+    private static List<RowDataPacket> stringRows(String... keys) {
+        List<RowDataPacket> rows = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            rows.add(row(String.valueOf(i), keys[i]));
+        }
+        return rows;
+    }
+
+    private static List<RowDataPacket> leftStringRows() {
+        return stringRows("a", "A", "b", "B ", "c", null, "\u00e4", "\u00c4", "x");
+    }
+
+    private static List<RowDataPacket> rightStringRows() {
+        return stringRows("a", "b", "B", "\u00e4", null, "y", "C");
+    }
+
+    private static List<RowDataPacket> spillRows(long seed) {
+        Random random = new Random(seed);
+        List<RowDataPacket> rows = new ArrayList<>();
+        for (int i = 0; i < SPILL_ROW_COUNT; i++) {
+            String key = random.nextInt(50) == 0 ? null : "key" + random.nextInt(SPILL_ROW_COUNT / 5);
+            if (key != null && random.nextBoolean()) {
+                key = key.toUpperCase();
+            }
+            rows.add(row(String.valueOf(i), key));
+        }
+        return rows;
+    }
+
+    private static RowDataPacket row(String id, String key) {
+        RowDataPacket row = new RowDataPacket(2);
+        row.add(id.getBytes(StandardCharsets.UTF_8));
+        row.add(key == null ? null : key.getBytes(StandardCharsets.UTF_8));
+        return row;
+    }
+
+    private static String toString(RowDataPacket row) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < row.getFieldCount(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            byte[] value = row.getValue(i);
+            sb.append(value == null ? "NULL" : new String(value, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static FieldPacket fieldPacket(String table, String name, int type) {
+        FieldPacket fp = new FieldPacket();
+        fp.setName(name.getBytes());
+        fp.setTable(table.getBytes());
+        fp.setType(type);
+        fp.setCharsetIndex(33);
+        fp.setLength(type == Fields.FIELD_TYPE_VAR_STRING ? 96 : 20);
+        return fp;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class HandlerToolTest {
+
+    @Test
+    public void testDiscardQueuedRowsToEof() {
+        BlockingQueue<HeapItem> queue = new LinkedBlockingQueue<>();
+        queue.add(new HeapItem(new byte[]{1}, null, null));
+        queue.add(new HeapItem(new byte[]{2}, null, null));
+        queue.add(HeapItem.nullItem());
+        HeapItem afterEof = new HeapItem(new byte[]{3}, null, null);
+        queue.add(afterEof);
+        Assert.assertTrue(HandlerTool.discardQueuedRows(queue));
+        // the items after the eof are not touched
+        Assert.assertEquals(1, queue.size());
+        Assert.assertSame(afterEof, queue.peek());
+    }
+
+    @Test
+    public void testDiscardQueuedRowsWithoutEof() {
+        BlockingQueue<HeapItem> queue = new LinkedBlockingQueue<>();
+        queue.add(new HeapItem(new byte[]{1}, null, null));
+        queue.add(new HeapItem(new byte[]{2}, null, null));
+        Assert.assertFalse(HandlerTool.discardQueuedRows(queue));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(HandlerTool.discardQueuedRows(queue));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.field.FieldUtil;
+import com.actiontech.dble.plan.common.field.num.FieldLong;
+import com.actiontech.dble.plan.common.field.num.FieldLonglong;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.plan.common.item.ItemInt;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncEqual;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncGt;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncIsnull;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncNe;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.ItemFuncStrictEqual;
+import com.actiontech.dble.plan.common.item.function.operator.logic.ItemCondAnd;
+import com.actiontech.dble.plan.common.item.function.operator.logic.ItemCondOr;
+import com.actiontech.dble.plan.common.item.function.operator.logic.ItemFuncNot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RowPredicateTest {
+
+    @Test
+    public void testSameAsValBool() {
+        Field a = new FieldLong("a", "db", "t", "t", 33, 11, 0, 0);
+        Field b = new FieldLonglong("b", "db", "t", "t", 33, 20, 0, 0);
+        List<Field> fields = Arrays.asList(a, b);
+        List<Item> conditions = new ArrayList<>();
+        conditions.add(new ItemFuncGt(new ItemField(a), new ItemInt(5)));
+        conditions.add(new ItemFuncEqual(new ItemInt(7), new ItemField(b)));
+        conditions.add(new ItemFuncNe(new ItemField(a), new ItemField(b)));
+        conditions.add(new ItemFuncNot(new ItemFuncGt(new ItemField(b), new ItemInt(-3))));
+        conditions.add(new ItemCondAnd(new ArrayList<>(Arrays.asList(
+                new ItemFuncGt(new ItemField(a), new ItemInt(0)), new ItemFuncIsnull(new ItemField(b))))));
+        conditions.add(new ItemCondOr(new ArrayList<>(Arrays.asList(
+                new ItemFuncGt(new ItemField(b), new ItemField(a)), new ItemFuncGt(new ItemInt(10), new ItemField(a))))));
+        String[][] rows = {{"1", "2"}, {"7", "7"}, {"-4", null}, {null, "-5"}, {null, null},
+                {"99", "123456789012345678901"}, {"6", "-123456789012345678901"}};
+        for (Item condition : conditions) {
+            condition.fixFields();
+            RowPredicate predicate = RowPredicate.compile(condition, fields);
+            Assert.assertNotNull(predicate);
+            for (String[] row : rows) {
+                List<byte[]> values = new ArrayList<>();
+                for (String value : row) {
+                    values.add(value == null ? null : value.getBytes());
+                }
+                FieldUtil.initFields(fields, values);
+                Assert.assertEquals(Arrays.toString(row), condition.valBool(), predicate.isTrue(values));
+            }
+        }
+    }
+
+    @Test
+    public void testNotCompiled() {
+        Field a = new FieldLong("a", "db", "t", "t", 33, 11, 0, 0);
+        List<Field> fields = Arrays.asList(a);
+        Item equal = new ItemFuncStrictEqual(new ItemField(a), new ItemInt(1));
+        equal.fixFields();
+        Assert.assertNull(RowPredicate.compile(equal, fields));
+        Assert.assertNull(RowPredicate.compile(new ItemField(a), fields));
+    }
+}
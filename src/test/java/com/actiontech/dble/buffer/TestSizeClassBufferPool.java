@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestSizeClassBufferPool {
+
+    @Test
+    public void testSizeClass() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 16, (short) 1024, (short) 4);
+        Assert.assertEquals(1024, pool.allocate(1).capacity());
+        Assert.assertEquals(1024, pool.allocate(1024).capacity());
+        Assert.assertEquals(2048, pool.allocate(1025).capacity());
+        Assert.assertEquals(4096, pool.allocate(3000).capacity());
+        Assert.assertEquals(1024 * 16, pool.allocate(1024 * 16).capacity());
+        Assert.assertEquals(0, pool.getFallbackCount());
+        ByteBuffer heap = pool.allocate(1024 * 16 + 1);
+        Assert.assertFalse(heap.isDirect());
+        Assert.assertEquals(1, pool.getFallbackCount());
+    }
+
+    @Test
+    public void testRecycle() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 16, (short) 1024, (short) 2);
+        Assert.assertEquals(pool.capacity(), pool.size());
+        ByteBuffer buffer = pool.allocate(2048);
+        buffer.put((byte) 1);
+        Assert.assertEquals(pool.capacity() - 2048, pool.size());
+        pool.recycle(buffer);
+        Assert.assertEquals(pool.capacity(), pool.size());
+        ByteBuffer reused = pool.allocate(2000);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(2048, reused.limit());
+        pool.recycle(reused);
+        pool.recycle(ByteBuffer.allocateDirect(2048));
+        Assert.assertEquals(pool.capacity(), pool.size());
+    }
+
+    @Test
+    public void testExhausted() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 4, (short) 1024, (short) 2);
+        ByteBuffer[] buffers = new ByteBuffer[8];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = pool.allocate(1024);
+            Assert.assertTrue(buffers[i].isDirect());
+        }
+        Assert.assertEquals(0, pool.size());
+        Assert.assertFalse(pool.allocate(1024).isDirect());
+        Assert.assertEquals(1, pool.getFallbackCount());
+        for (ByteBuffer buffer : buffers) {
+            pool.recycle(buffer);
+        }
+        Assert.assertTrue(pool.allocate(1024).isDirect());
+    }
+
+    /**
+     * the pages freed by one class can be bound to another class
+     */
+    @Test
+    public void testMixedSizes() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 4, (short) 1024, (short) 2);
+        ByteBuffer[] small = new ByteBuffer[8];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = pool.allocate(1024);
+        }
+        for (ByteBuffer buffer : small) {
+            pool.recycle(buffer);
+        }
+        ByteBuffer large1 = pool.allocate(1024 * 4);
+        ByteBuffer large2 = pool.allocate(1024 * 4);
+        Assert.assertTrue(large1.isDirect());
+        Assert.assertTrue(large2.isDirect());
+        Assert.assertEquals(0, pool.getFallbackCount());
+        pool.recycle(large1);
+
+        // half of a page is still used by the small buffers, the other page is free
+        ByteBuffer[] half = new ByteBuffer[2];
+        for (int i = 0; i < half.length; i++) {
+            half[i] = pool.allocate(1024);
+        }
+        pool.recycle(large2);
+        ByteBuffer medium1 = pool.allocate(2048);
+        ByteBuffer medium2 = pool.allocate(2048);
+        Assert.assertTrue(medium1.isDirect());
+        Assert.assertTrue(medium2.isDirect());
+        Assert.assertEquals(0, pool.getFallbackCount());
+        Assert.assertFalse(pool.allocate(2048).isDirect());
+        Assert.assertEquals(1, pool.getFallbackCount());
+        Assert.assertTrue(pool.allocate(1024).isDirect());
+        Assert.assertTrue(pool.allocate(1024).isDirect());
+        Assert.assertFalse(pool.allocate(1024).isDirect());
+    }
+
+    @Test
+    public void testDoubleRecycle() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 4, (short) 1024, (short) 1);
+        ByteBuffer buffer = pool.allocate(1024);
+        pool.recycle(buffer);
+        pool.recycle(buffer);
+        Assert.assertEquals(1, pool.getInvalidRecycleCount());
+        Assert.assertEquals(pool.capacity(), pool.size());
+        ByteBuffer first = pool.allocate(1024);
+        ByteBuffer second = pool.allocate(1024);
+        Assert.assertNotEquals(((DirectBuffer) first).address(), ((DirectBuffer) second).address());
+        Assert.assertEquals(pool.capacity() - 2048, pool.size());
+    }
+
+    @Test
+    public void testDoubleRecycleInThreadCache() throws Exception {
+        final SizeClassBufferPool pool = new SizeClassBufferPool(1024 * 4, (short) 1024, (short) 1);
+        final AtomicReference<ByteBuffer[]> result = new AtomicReference<>();
+        Thread reactor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ByteBuffer buffer = pool.allocate(1024);
+                pool.recycle(buffer);
+                pool.recycle(buffer);
+                result.set(new ByteBuffer[]{pool.allocate(1024), pool.allocate(1024)});
+            }
+        }, DirectByteBufferPool.LOCAL_BUF_THREAD_PREX + "test");
+        reactor.start();
+        reactor.join();
+        Assert.assertEquals(1, pool.getInvalidRecycleCount());
+        ByteBuffer[] buffers = result.get();
+        Assert.assertNotEquals(((DirectBuffer) buffers[0]).address(), ((DirectBuffer) buffers[1]).address());
+        Assert.assertEquals(pool.capacity() - 2048, pool.size());
+        // the buffer kept by the thread cache can't be recycled by other threads either
+        pool.recycle(buffers[0]);
+        pool.recycle(buffers[0]);
+        Assert.assertEquals(2, pool.getInvalidRecycleCount());
+    }
+}
@@ -30,6 +30,7 @@ public class ConfigTest {
     private final Map<String, UserConfig> users;
     private Map<String, PhysicalDataHost> dataHosts;
     private Map<ERTable, Set<ERTable>> erRealtions;
+    private Map<String, SchemaConfig> schemas;
 
     public ConfigTest() {
 
@@ -43,6 +44,7 @@ public class ConfigTest {
         this.users = configLoader.getUserConfigs();
         this.dataHosts = initDataHosts(schemaLoader);
         this.erRealtions = schemaLoader.getErRelations();
+        this.schemas = schemaLoader.getSchemas();
 
     }
 
@@ -112,6 +114,22 @@ public class ConfigTest {
 
     }
 
+    /**
+     * er_grandson2 -> er_child4 -> er_parent, the join keys are not the partition column of the parents
+     */
+    @Test
+    public void testLocateRootParentSql() {
+        TableConfig grandson = schemas.get("ertest").getTables().get("er_grandson2");
+        Assert.assertEquals("SELECT er_parent.ID2 FROM er_child4,er_parent WHERE er_parent.ID2=er_child4.CHILD4_ID AND  er_child4.CHILD4_ID2=",
+                grandson.getLocateRTableKeySql());
+        // the batch one selects the parent key of the child itself, every row is mapped by its own join key
+        Assert.assertEquals("SELECT er_child4.CHILD4_ID2 FROM er_child4,er_parent WHERE er_parent.ID2=er_child4.CHILD4_ID AND  er_child4.CHILD4_ID2 IN (",
+                grandson.getLocateRTableKeysSql());
+
+        TableConfig child = schemas.get("ertest").getTables().get("er_child4");
+        Assert.assertEquals("SELECT er_parent.ID2 FROM er_parent WHERE  er_parent.ID2 IN (", child.getLocateRTableKeysSql());
+    }
+
     private boolean testSymmetryERJoin(ERTable er0, ERTable er1) {
         return testERjoin(er0, er1) && testERjoin(er1, er0);
     }
@@ -130,6 +130,20 @@ public class ManagerParserTest {
         Assert.assertEquals(ManagerParseShow.PROCESSOR, ManagerParseShow.parse("show @@PROCESSOR", 5));
     }
 
+    @Test
+    public void testShowPlanCache() {
+        Assert.assertEquals(ManagerParseShow.PLAN_CACHE, ManagerParseShow.parse("show @@plan_cache", 5));
+        Assert.assertEquals(ManagerParseShow.PLAN_CACHE, ManagerParseShow.parse("SHOW @@PLAN_CACHE ", 5));
+        Assert.assertEquals(ManagerParseShow.OTHER, ManagerParseShow.parse("show @@plan_cache1", 5));
+    }
+
+    @Test
+    public void testShowSqlDispatch() {
+        Assert.assertEquals(ManagerParseShow.SQL_DISPATCH, ManagerParseShow.parse("show @@sql.dispatch", 5));
+        Assert.assertEquals(ManagerParseShow.SQL_DISPATCH, ManagerParseShow.parse("SHOW @@SQL.DISPATCH ", 5));
+        Assert.assertEquals(ManagerParseShow.OTHER, ManagerParseShow.parse("show @@sql.dispatch1", 5));
+    }
+
     @Test
     public void testShowServer() {
         Assert.assertEquals(ManagerParseShow.SERVER, ManagerParseShow.parse("show @@server", 5));
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.common.field;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class SortKeyUtilTest {
+
+    @Test
+    public void testIntKey() {
+        String[] sorted = {"-1000", "-999", "-12", "-11", "-2", "0", "3", "10", "99", "100", "12345678901234567890"};
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = 0; j < sorted.length; j++) {
+                byte[] k1 = SortKeyUtil.intKey(sorted[i].getBytes());
+                byte[] k2 = SortKeyUtil.intKey(sorted[j].getBytes());
+                Assert.assertEquals(sorted[i] + " " + sorted[j], Integer.signum(Integer.compare(i, j)), Integer.signum(SortKeyUtil.compare(k1, k2)));
+            }
+        }
+    }
+
+    @Test
+    public void testDecimalKey() {
+        String[] sorted = {"-1E+20", "-100.5", "-1.55", "-1.5", "-0.05", "0", "0.05", "0.5", "1.5", "1.55", "9", "10", "1.2E+20"};
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = 0; j < sorted.length; j++) {
+                byte[] k1 = SortKeyUtil.decimalKey(new BigDecimal(sorted[i]));
+                byte[] k2 = SortKeyUtil.decimalKey(new BigDecimal(sorted[j]));
+                Assert.assertEquals(sorted[i] + " " + sorted[j], Integer.signum(Integer.compare(i, j)), Integer.signum(SortKeyUtil.compare(k1, k2)));
+            }
+        }
+        Assert.assertEquals(0, SortKeyUtil.compare(SortKeyUtil.decimalKey(new BigDecimal("1.50")), SortKeyUtil.decimalKey(new BigDecimal("1.5"))));
+    }
+
+    @Test
+    public void testStringKey() {
+        String[] sorted = {"", "\u0000", "\u0000a", "A", "AB", "B", "Ā", "￿"};
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = 0; j < sorted.length; j++) {
+                byte[] k1 = SortKeyUtil.stringKey(sorted[i]);
+                byte[] k2 = SortKeyUtil.stringKey(sorted[j]);
+                Assert.assertEquals(i + " " + j, Integer.signum(sorted[i].compareTo(sorted[j])), Integer.signum(SortKeyUtil.compare(k1, k2)));
+            }
+        }
+    }
+}
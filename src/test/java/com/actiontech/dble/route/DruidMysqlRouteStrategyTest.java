@@ -7,10 +7,13 @@ package com.actiontech.dble.route;
 
 import com.actiontech.dble.SimpleCachePool;
 import com.actiontech.dble.cache.LayerCachePool;
+import com.actiontech.dble.config.ServerConfig;
 import com.actiontech.dble.config.loader.SchemaLoader;
 import com.actiontech.dble.config.loader.xml.XMLSchemaLoader;
 import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.route.factory.RouteStrategyFactory;
+import com.actiontech.dble.server.MockedDbleServer;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
@@ -22,6 +25,8 @@ import org.junit.Test;
 import java.sql.SQLNonTransientException;
 import java.util.*;
 
+import static org.mockito.Mockito.when;
+
 @Ignore
 public class DruidMysqlRouteStrategyTest extends TestCase {
     protected Map<String, SchemaConfig> schemaMap;
@@ -867,14 +872,18 @@ public class DruidMysqlRouteStrategyTest extends TestCase {
 
         SchemaConfig schema = schemaMap.get("TESTDB");
         RouteResultset rrs = null;
-        //not supprot childtable batch insert
-        String sql = "insert into orders (id,name,customer_id) values(1,'testonly',1),(2,'testonly',2000001)";
-        try {
-            rrs = routeStrategy.route(schema, 1, sql, null,
-                    cachePool);
-        } catch (Exception e) {
-            Assert.assertEquals("ChildTable multi insert not provided", e.getMessage());
-        }
+        // childtable batch insert, the rows are grouped by the data nodes of their parents
+        String sql = "insert into orders (id,name,customer_id) values(1,'testonly',1),(2,'testonly',2000001),(3,'testonly',2)";
+        rrs = routeStrategy.route(schema, 1, sql, null,
+                cachePool);
+        Assert.assertEquals(2, rrs.getNodes().length);
+        Assert.assertEquals(false, rrs.isSqlRouteCacheAble());
+        Assert.assertEquals("dn1", rrs.getNodes()[0].getName());
+        Assert.assertEquals("dn2", rrs.getNodes()[1].getName());
+        Assert.assertEquals(formatSql("insert into orders (id,name,customer_id) values(1,'testonly',1),(3,'testonly',2)"),
+                rrs.getNodes()[0].getStatement());
+        Assert.assertEquals(formatSql("insert into orders (id,name,customer_id) values(2,'testonly',2000001)"),
+                rrs.getNodes()[1].getStatement());
 
         sql = "insert into employee (id,name,customer_id) select id,name,customer_id from customer";
         try {
@@ -1066,6 +1075,92 @@ public class DruidMysqlRouteStrategyTest extends TestCase {
         }
     }
 
+    /**
+     * the in list of the partition column is split by the data nodes, customer: 0-2000000 on dn1, the rest on dn2
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInListRewrite() throws Exception {
+        String sql = "select * from customer where id in (1, 2000001, 2, 2000002) and name = 'a'";
+        Map<String, RouteResultsetNode> nodeMap = getNodeMap(routeInList(ServerParse.SELECT, sql, 4), 2);
+        Assert.assertEquals(formatSql("select * from customer where id in (1, 2) and name = 'a' limit 100"),
+                nodeMap.get("dn1").getStatement());
+        Assert.assertEquals(formatSql("select * from customer where id in (2000001, 2000002) and name = 'a' limit 100"),
+                nodeMap.get("dn2").getStatement());
+
+        // the limit changed by DruidSelectParser.changeSql is kept
+        sql = "select * from customer where id in (1, 2000001, 2, 2000002) limit 10, 5";
+        nodeMap = getNodeMap(routeInList(ServerParse.SELECT, sql, 4), 2);
+        Assert.assertEquals(formatSql("select * from customer where id in (1, 2) limit 0, 15"),
+                nodeMap.get("dn1").getStatement());
+        Assert.assertEquals(formatSql("select * from customer where id in (2000001, 2000002) limit 0, 15"),
+                nodeMap.get("dn2").getStatement());
+
+        sql = "update customer set name = 'a' where id in (1, 2000001, 2, 2000002)";
+        nodeMap = getNodeMap(routeInList(ServerParse.UPDATE, sql, 4), 2);
+        Assert.assertEquals(formatSql("update customer set name = 'a' where id in (1, 2)"),
+                nodeMap.get("dn1").getStatement());
+        Assert.assertEquals(formatSql("update customer set name = 'a' where id in (2000001, 2000002)"),
+                nodeMap.get("dn2").getStatement());
+
+        sql = "delete from customer where id in (1, 2000001, 2, 2000002)";
+        nodeMap = getNodeMap(routeInList(ServerParse.DELETE, sql, 4), 2);
+        Assert.assertEquals(formatSql("delete from customer where id in (1, 2)"),
+                nodeMap.get("dn1").getStatement());
+        Assert.assertEquals(formatSql("delete from customer where id in (2000001, 2000002)"),
+                nodeMap.get("dn2").getStatement());
+    }
+
+    /**
+     * the statements which can't be split are sent to every data node as they are
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInListNotRewrite() throws Exception {
+        // shorter than the threshold
+        String sql = "delete from customer where id in (1, 2000001, 2)";
+        assertInListNotRewrite(routeInList(ServerParse.DELETE, sql, 4), 2);
+        // 0 means never split
+        sql = "delete from customer where id in (1, 2000001, 2, 2000002)";
+        assertInListNotRewrite(routeInList(ServerParse.DELETE, sql, 0), 2);
+
+        sql = "update customer set name = 'a' where id not in (1, 2000001, 2, 2000002)";
+        assertInListNotRewrite(routeInList(ServerParse.UPDATE, sql, 4), 2);
+        sql = "update customer set name = 'a' where id in (1, 2000001, 2, 2000002) or name = 'a'";
+        assertInListNotRewrite(routeInList(ServerParse.UPDATE, sql, 4), 2);
+        sql = "select * from customer where id in (1, 2000001, 2, 2000002) or id = 3";
+        assertInListNotRewrite(routeInList(ServerParse.SELECT, sql, 4), 2);
+
+        // a value which is not a literal
+        sql = "delete from customer where id in (1, 2000001, 2, 2000001 + 1)";
+        assertInListNotRewrite(routeInList(ServerParse.DELETE, sql, 4), 2);
+    }
+
+    private void assertInListNotRewrite(RouteResultset rrs, int expectSize) {
+        Map<String, RouteResultsetNode> nodeMap = getNodeMap(rrs, expectSize);
+        Assert.assertEquals(nodeMap.get("dn1").getStatement(), nodeMap.get("dn2").getStatement());
+        Assert.assertTrue(nodeMap.get("dn1").getStatement().contains("2000001"));
+        Assert.assertTrue(nodeMap.get("dn2").getStatement().contains("(1, "));
+    }
+
+    /**
+     * route with the inListRewriteThreshold, InListRewriteUtil reads it and the schemas from DbleServer
+     */
+    private RouteResultset routeInList(int sqlType, String sql, int threshold) throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setInListRewriteThreshold(threshold);
+        MockedDbleServer server = new MockedDbleServer();
+        ServerConfig config = server.mockConfig(system);
+        when(config.getSchemas()).thenReturn(schemaMap);
+        try {
+            return routeStrategy.route(schemaMap.get("TESTDB"), sqlType, sql, null, cachePool);
+        } finally {
+            server.restore();
+        }
+    }
+
     /**
      * testAlias
      *
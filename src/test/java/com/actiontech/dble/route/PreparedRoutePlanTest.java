@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.BindValue;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.loader.SchemaLoader;
+import com.actiontech.dble.config.loader.xml.XMLSchemaLoader;
+import com.actiontech.dble.config.model.SchemaConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.route.util.RouterUtil;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.singleton.ProxyMeta;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PreparedRoutePlanTest {
+    private static final String SELECT_SQL = "select * from travelrecord where id = ?";
+
+    private SchemaConfig schema;
+    private final MockedDbleServer server = new MockedDbleServer();
+    private ProxyMetaManager oldTmManager;
+
+    @Before
+    public void setUp() throws Exception {
+        SchemaLoader schemaLoader = new XMLSchemaLoader("/route/schema.xml", "/route/rule.xml", true, null);
+        schema = schemaLoader.getSchemas().get("TESTDB");
+        ServerConfig config = server.mockConfig(new SystemConfig(null));
+        when(config.getReloadTime()).thenReturn(1L);
+        oldTmManager = ProxyMeta.getInstance().getTmManager();
+        ProxyMeta.getInstance().setTmManager(mock(ProxyMetaManager.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.restore();
+        ProxyMeta.getInstance().setTmManager(oldTmManager);
+    }
+
+    /**
+     * the plan is verified by the first execution only, the later executions must still be routed by their own values
+     */
+    @Test
+    public void testLaterExecutionRoutesByItsOwnValues() {
+        PreparedRoutePlan plan = PreparedRoutePlan.build(SELECT_SQL, 1, schema);
+        Assert.assertNotNull(plan);
+
+        PreparedRoutePlan.BoundRoute first = plan.bind(new BindValue[]{longValue(1L)}, longType());
+        Assert.assertNotNull(first);
+        String firstSql = "select * from travelrecord where id = 1";
+        RouteResultset firstRoute = first.route(firstSql);
+        Assert.assertEquals("dn1", firstRoute.getNodes()[0].getName());
+        first.verify(parserRoute(firstSql, "dn1"), firstSql);
+        Assert.assertTrue(plan.isVerified());
+        Assert.assertTrue(plan.isAvailable(schema.getName()));
+
+        PreparedRoutePlan.BoundRoute second = plan.bind(new BindValue[]{longValue(3000000L)}, longType());
+        Assert.assertNotNull(second);
+        String secondSql = "select * from travelrecord where id = 3000000";
+        RouteResultset secondRoute = second.route(secondSql);
+        Assert.assertEquals(1, secondRoute.getNodes().length);
+        Assert.assertEquals("dn2", secondRoute.getNodes()[0].getName());
+        Assert.assertEquals(secondSql, secondRoute.getNodes()[0].getStatement());
+
+        BindValue stringValue = new BindValue();
+        stringValue.setValue("5000000");
+        PreparedRoutePlan.BoundRoute third = plan.bind(new BindValue[]{stringValue}, new int[]{Fields.FIELD_TYPE_VAR_STRING});
+        Assert.assertNotNull(third);
+        Assert.assertEquals("dn3", third.route("select * from travelrecord where id = '5000000'").getNodes()[0].getName());
+    }
+
+    /**
+     * the values which can't decide the dataNode must fall back to the normal route
+     */
+    @Test
+    public void testFallbackToNormalRoute() {
+        PreparedRoutePlan plan = PreparedRoutePlan.build(SELECT_SQL, 1, schema);
+        Assert.assertNotNull(plan);
+
+        BindValue nullValue = new BindValue();
+        nullValue.setNull(true);
+        Assert.assertNull(plan.bind(new BindValue[]{nullValue}, longType()));
+
+        BindValue longData = new BindValue();
+        longData.setLongData(true);
+        Assert.assertNull(plan.bind(new BindValue[]{longData}, longType()));
+
+        BindValue doubleValue = new BindValue();
+        doubleValue.setDoubleBinding(1.0);
+        Assert.assertNull(plan.bind(new BindValue[]{doubleValue}, new int[]{Fields.FIELD_TYPE_DOUBLE}));
+
+        // out of the ranges of the rule and no default node
+        Assert.assertNull(plan.bind(new BindValue[]{longValue(7000000L)}, longType()));
+
+        BindValue badString = new BindValue();
+        badString.setValue("abc");
+        Assert.assertNull(plan.bind(new BindValue[]{badString}, new int[]{Fields.FIELD_TYPE_VAR_STRING}));
+    }
+
+    @Test
+    public void testPlanNotMatchParserIsNotUsed() {
+        PreparedRoutePlan plan = PreparedRoutePlan.build(SELECT_SQL, 1, schema);
+        Assert.assertNotNull(plan);
+        PreparedRoutePlan.BoundRoute first = plan.bind(new BindValue[]{longValue(1L)}, longType());
+        Assert.assertNotNull(first);
+        String sql = "select * from travelrecord where id = 1";
+        first.verify(parserRoute(sql, "dn2"), sql);
+        Assert.assertFalse(plan.isVerified());
+        Assert.assertFalse(plan.isAvailable(schema.getName()));
+    }
+
+    @Test
+    public void testPlanNotAvailableAfterReload() {
+        PreparedRoutePlan plan = PreparedRoutePlan.build(SELECT_SQL, 1, schema);
+        Assert.assertNotNull(plan);
+        Assert.assertFalse(plan.isAvailable("cndb"));
+        when(DbleServer.getInstance().getConfig().getReloadTime()).thenReturn(2L);
+        Assert.assertFalse(plan.isAvailable(schema.getName()));
+    }
+
+    @Test
+    public void testNoShardingTable() {
+        PreparedRoutePlan plan = PreparedRoutePlan.build("select * from notpartionTable where id = ?", 1, schema);
+        Assert.assertNotNull(plan);
+        PreparedRoutePlan.BoundRoute route = plan.bind(new BindValue[]{longValue(5000000L)}, longType());
+        Assert.assertNotNull(route);
+        Assert.assertEquals("dn1", route.route("select * from notpartionTable where id = 5000000").getNodes()[0].getName());
+    }
+
+    @Test
+    public void testNotBuildPlan() {
+        Assert.assertNull(PreparedRoutePlan.build("select * from travelrecord where id = ? or id = ?", 2, schema));
+        Assert.assertNull(PreparedRoutePlan.build("select * from travelrecord where id > ?", 1, schema));
+        Assert.assertNull(PreparedRoutePlan.build("update travelrecord set id = ? where id = ?", 2, schema));
+        Assert.assertNull(PreparedRoutePlan.build("select * from company where id = ?", 1, schema));
+        Assert.assertNull(PreparedRoutePlan.build("select * from travelrecord where id = '?'", 1, schema));
+        Assert.assertNull(PreparedRoutePlan.build("insert into travelrecord (id) values (?)", 1, schema));
+    }
+
+    private static BindValue longValue(long value) {
+        BindValue bindValue = new BindValue();
+        bindValue.setLongBinding(value);
+        return bindValue;
+    }
+
+    private static int[] longType() {
+        return new int[]{Fields.FIELD_TYPE_LONGLONG};
+    }
+
+    private static RouteResultset parserRoute(String sql, String dataNode) {
+        return RouterUtil.routeToSingleNode(new RouteResultset(sql, ServerParse.SELECT), dataNode);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class SqlFingerprintTest {
+
+    @Test
+    public void testSameShape() {
+        SqlFingerprint fp1 = SqlFingerprint.parse("select * from t1 where id = 1 and name = 'a b'");
+        SqlFingerprint fp2 = SqlFingerprint.parse("select *  from t1\nwhere id = 22 and name = \"c\"");
+        Assert.assertNotNull(fp1);
+        Assert.assertNotNull(fp2);
+        Assert.assertEquals("select * from t1 where id = ? and name = ?", fp1.getFingerprint());
+        Assert.assertEquals(fp1.getFingerprint(), fp2.getFingerprint());
+        Assert.assertEquals(Arrays.asList("1", "a b"), fp1.getLiterals());
+        Assert.assertEquals(Arrays.asList("22", "c"), fp2.getLiterals());
+    }
+
+    @Test
+    public void testIdentifierWithDigits() {
+        SqlFingerprint fp = SqlFingerprint.parse("update `t_1` set c2 = 1.5 where id = 3");
+        Assert.assertNotNull(fp);
+        Assert.assertEquals("update `t_1` set c2 = ? where id = ?", fp.getFingerprint());
+        Assert.assertEquals(Arrays.asList("1.5", "3"), fp.getLiterals());
+    }
+
+    @Test
+    public void testNotSupported() {
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where name = 'a\\'b'"));
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where name = 'a''b'"));
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where id = 0x1F"));
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where name = _utf8'a'"));
+        Assert.assertNull(SqlFingerprint.parse("select /* comment */ * from t1"));
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where id = ?"));
+        Assert.assertNull(SqlFingerprint.parse("select * from t1 where id in (select id from t2)"));
+        Assert.assertNull(SqlFingerprint.parse("select id from t1 union select id from t2"));
+    }
+}
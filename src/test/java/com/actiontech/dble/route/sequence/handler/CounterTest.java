@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.sequence.handler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class CounterTest {
+
+    @Test
+    public void testBulkTake() {
+        // the values 1 to 10
+        Counter counter = new Counter(0, 11);
+        Assert.assertEquals(1, counter.getNext(3));
+        Assert.assertEquals(4, counter.getNext());
+        Assert.assertEquals(5, counter.getNext(5));
+        // only 10 is left, the failed take doesn't use it
+        Assert.assertEquals(-1, counter.getNext(2));
+        Assert.assertEquals(10, counter.getNext());
+        Assert.assertEquals(-1, counter.getNext());
+    }
+
+    @Test
+    public void testConcurrentBulkTake() throws InterruptedException {
+        final Counter counter = new Counter(0, 10001);
+        final Set<Long> values = new ConcurrentSkipListSet<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                long first;
+                while ((first = counter.getNext(3)) != -1) {
+                    for (int j = 0; j < 3; j++) {
+                        Assert.assertTrue(values.add(first + j));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 10000 = 3 * 3333 + 1, the last value is still there for the single take
+        Assert.assertEquals(9999, values.size());
+        Assert.assertEquals(10000, counter.getNext());
+    }
+
+    @Test
+    public void testIsUsed() {
+        Counter counter = new Counter(10, 21);
+        Assert.assertFalse(counter.isUsed(15, 50));
+        Assert.assertTrue(counter.isUsed(16, 50));
+        Assert.assertTrue(counter.isUsed(11, 0));
+    }
+}
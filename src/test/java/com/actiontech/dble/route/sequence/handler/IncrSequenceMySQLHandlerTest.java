@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.sequence.handler;
+
+import com.actiontech.dble.backend.datasource.PhysicalDataNode;
+import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.MockedDbleServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * the backend of the sequence is faked, every dble_seq_nextval returns a segment of SEGMENT values
+ */
+public class IncrSequenceMySQLHandlerTest {
+    private static final String SEQ_NAME = "`TESTDB`.`ORDERS`";
+    private static final int SEGMENT = 10;
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private IncrSequenceMySQLHandler handler;
+    private int fetchCount = 0;
+    private long backendValue = 1;
+    private boolean delayPrefetch = false;
+    private SequenceVal delayedFetch;
+    private SequenceVal seqVal;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setSequencePrefetchPercent(50);
+        PhysicalDataNode dataNode = mock(PhysicalDataNode.class);
+        when(dataNode.getDatabase()).thenReturn("db1");
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                fetch((SequenceVal) invocation.getArguments()[5]);
+                return null;
+            }
+        }).when(dataNode).getConnection(anyString(), anyBoolean(), anyBoolean(), any(RouteResultsetNode.class),
+                any(ResponseHandler.class), any());
+        Map<String, PhysicalDataNode> dataNodes = new HashMap<>();
+        dataNodes.put("dn1", dataNode);
+        ServerConfig config = server.mockConfig(system);
+        when(config.getDataNodes()).thenReturn(dataNodes);
+
+        handler = new IncrSequenceMySQLHandler();
+        handler.load(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.restore();
+    }
+
+    private void fetch(SequenceVal fetchVal) {
+        fetchCount++;
+        if (seqVal == null) {
+            seqVal = fetchVal;
+        }
+        fetchVal.dbretVal = backendValue + "," + SEGMENT;
+        backendValue += SEGMENT;
+        if (delayPrefetch && fetchVal != seqVal) {
+            delayedFetch = fetchVal;
+            return;
+        }
+        fetchVal.fetchFinished();
+    }
+
+    /**
+     * the next segment is fetched when half of the current one is used, the callers never wait for it
+     */
+    @Test
+    public void testPrefetch() throws Exception {
+        for (long i = 1; i <= 5; i++) {
+            Assert.assertEquals(i, handler.nextId(SEQ_NAME));
+        }
+        Assert.assertEquals(1, fetchCount);
+        Assert.assertEquals(6, handler.nextId(SEQ_NAME));
+        Assert.assertEquals(2, fetchCount);
+        // the prefetched segment is taken without fetching again
+        for (long i = 7; i <= 15; i++) {
+            Assert.assertEquals(i, handler.nextId(SEQ_NAME));
+        }
+        Assert.assertEquals(2, fetchCount);
+        Assert.assertEquals(16, handler.nextId(SEQ_NAME));
+        Assert.assertEquals(3, fetchCount);
+        Assert.assertEquals(-1, seqVal.prefetchPercent);
+    }
+
+    /**
+     * the percent is halved when a segment runs out before the prefetch arrives,
+     * and it goes back to the configured one when the prefetches arrive in time again
+     */
+    @Test
+    public void testPrefetchPercentRecovers() throws Exception {
+        delayPrefetch = true;
+        for (long i = 1; i <= 10; i++) {
+            Assert.assertEquals(i, handler.nextId(SEQ_NAME));
+        }
+        Assert.assertNotNull(delayedFetch);
+        // the segment 11-20 is still on the way, 21-30 is fetched synchronously
+        Assert.assertEquals(21, handler.nextId(SEQ_NAME));
+        Assert.assertEquals(25, seqVal.prefetchPercent);
+
+        delayPrefetch = false;
+        delayedFetch.fetchFinished();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            Assert.assertTrue(ids.add(handler.nextId(SEQ_NAME)));
+        }
+        // the delayed segment arrives in time for the next one
+        Assert.assertEquals(11, handler.nextId(SEQ_NAME));
+        Assert.assertEquals(38, seqVal.prefetchPercent);
+
+        int taken = 0;
+        while (seqVal.prefetchPercent != -1 && taken++ < 1000) {
+            Assert.assertTrue(ids.add(handler.nextId(SEQ_NAME)));
+        }
+        Assert.assertEquals(-1, seqVal.prefetchPercent);
+    }
+
+    @Test
+    public void testNextIds() throws Exception {
+        Assert.assertEquals(1, handler.nextId(SEQ_NAME));
+        long[] ids = handler.nextIds(SEQ_NAME, 4);
+        Assert.assertEquals(4, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Assert.assertEquals(2 + i, ids[i]);
+        }
+        // 6 to 10 are left, the ids crossing the segment are taken one by one
+        ids = handler.nextIds(SEQ_NAME, 8);
+        Set<Long> values = new HashSet<>();
+        for (long id : ids) {
+            Assert.assertTrue(values.add(id));
+        }
+        for (long i = 6; i <= 13; i++) {
+            Assert.assertTrue(values.contains(i));
+        }
+    }
+}
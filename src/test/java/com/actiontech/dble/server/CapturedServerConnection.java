@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server;
+
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.NIOProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the front connection of the handler tests, it has no socket.
+ * it is marked closed, so every buffer written to it is recycled at once and the bytes are captured by the pool.
+ */
+public class CapturedServerConnection extends ServerConnection {
+    private final CapturedBufferPool pool;
+    private int writePartCount = 0;
+
+    public CapturedServerConnection(NonBlockingSession session) throws IOException {
+        super();
+        this.pool = new CapturedBufferPool();
+        this.processor = new NIOProcessor("test", pool);
+        this.isClosed = true;
+        setSession2(session);
+        setAutocommit(true);
+    }
+
+    @Override
+    public void writePart(ByteBuffer buffer) {
+        writePartCount++;
+        super.writePart(buffer);
+    }
+
+    @Override
+    public void markFinished() {
+    }
+
+    public int getWritePartCount() {
+        return writePartCount;
+    }
+
+    /**
+     * @return the packets in the buffers written or recycled, in order
+     */
+    public List<byte[]> getPackets() {
+        List<byte[]> packets = new ArrayList<>();
+        byte[] data = pool.captured.toByteArray();
+        int offset = 0;
+        while (offset + 4 <= data.length) {
+            int length = (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16;
+            byte[] packet = new byte[length + 4];
+            System.arraycopy(data, offset, packet, 0, packet.length);
+            packets.add(packet);
+            offset += packet.length;
+        }
+        return packets;
+    }
+
+    /**
+     * @return a packet of the id whose payload is the length encoded strings of the values
+     */
+    public static byte[] rowPacket(int packetId, String... values) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        for (String value : values) {
+            payload.write(value.length());
+            byte[] bytes = value.getBytes();
+            payload.write(bytes, 0, bytes.length);
+        }
+        byte[] body = payload.toByteArray();
+        byte[] packet = new byte[body.length + 4];
+        packet[0] = (byte) body.length;
+        packet[1] = (byte) (body.length >>> 8);
+        packet[2] = (byte) (body.length >>> 16);
+        packet[3] = (byte) packetId;
+        System.arraycopy(body, 0, packet, 4, body.length);
+        return packet;
+    }
+
+    public static byte[] eofPacket(int packetId) {
+        return new byte[]{5, 0, 0, (byte) packetId, (byte) 0xfe, 0, 0, 2, 0};
+    }
+
+    private static final class CapturedBufferPool implements BufferPool {
+        private static final int CHUNK_SIZE = 4096;
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        @Override
+        public ByteBuffer allocate() {
+            return allocate(CHUNK_SIZE);
+        }
+
+        @Override
+        public ByteBuffer allocate(int size) {
+            return ByteBuffer.allocate(size);
+        }
+
+        @Override
+        public synchronized void recycle(ByteBuffer theBuf) {
+            captured.write(theBuf.array(), 0, theBuf.position());
+        }
+
+        @Override
+        public long capacity() {
+            return 0;
+        }
+
+        @Override
+        public long size() {
+            return 0;
+        }
+
+        @Override
+        public int getSharedOptsCount() {
+            return 0;
+        }
+
+        @Override
+        public int getChunkSize() {
+            return CHUNK_SIZE;
+        }
+
+        @Override
+        public long getFallbackCount() {
+            return 0;
+        }
+    }
+}
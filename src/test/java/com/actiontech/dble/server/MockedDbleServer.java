@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.config.FlowCotrollerConfig;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.singleton.WriteQueueFlowController;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * replaces the private fields of DbleServer, eg: the config and the executors, for the tests without a started server.
+ * create it in the @Before of the test and call restore in the @After, the old values are put back in order.
+ */
+public class MockedDbleServer {
+    private final Map<Field, Object> oldValues = new LinkedHashMap<>();
+    private FlowCotrollerConfig oldFlowConfig;
+
+    /**
+     * replace the config of DbleServer by a mocked ServerConfig whose system is the given one
+     *
+     * @return the mocked config, the test may stub more of it
+     */
+    public ServerConfig mockConfig(SystemConfig system) throws ReflectiveOperationException {
+        ServerConfig config = mock(ServerConfig.class);
+        when(config.getSystem()).thenReturn(system);
+        replace("config", config);
+        return config;
+    }
+
+    /**
+     * replace the private field of DbleServer, the first old value of the field is kept for restore
+     */
+    public void replace(String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = DbleServer.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        if (!oldValues.containsKey(field)) {
+            oldValues.put(field, field.get(DbleServer.getInstance()));
+        }
+        field.set(DbleServer.getInstance(), value);
+    }
+
+    /**
+     * disable the flow control, the handler tests write to the front connection without a write queue
+     */
+    public void disableFlowControl() {
+        if (oldFlowConfig == null) {
+            oldFlowConfig = WriteQueueFlowController.getFlowCotrollerConfig();
+        }
+        WriteQueueFlowController.configChange(new FlowCotrollerConfig(false, 256, 64));
+    }
+
+    public void restore() throws ReflectiveOperationException {
+        for (Map.Entry<Field, Object> entry : oldValues.entrySet()) {
+            entry.getKey().set(DbleServer.getInstance(), entry.getValue());
+        }
+        oldValues.clear();
+        if (oldFlowConfig != null) {
+            WriteQueueFlowController.configChange(oldFlowConfig);
+            oldFlowConfig = null;
+        }
+    }
+
+    /**
+     * @return the backend connection attached to the route node, as the handlers find the node of a response by it
+     */
+    public static MySQLConnection mockConnection(RouteResultsetNode node) {
+        MySQLConnection conn = mock(MySQLConnection.class);
+        when(conn.getAttachment()).thenReturn(node);
+        return conn;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.FrontendConnection;
+import com.actiontech.dble.net.SocketWR;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * the client is paused when 4MB are waiting, and resumed when the parser consumes them down to 1MB
+ */
+public class LoadDataStreamTest {
+    private static final int PACKET_SIZE = 64 * 1024;
+    // 4MB
+    private static final int PAUSE_PACKETS = 64;
+
+    private SocketWR socketWR;
+    private LoadDataStream stream;
+
+    @Before
+    public void setUp() {
+        FrontendConnection source = mock(FrontendConnection.class);
+        socketWR = mock(SocketWR.class);
+        when(source.getSocketWR()).thenReturn(socketWR);
+        stream = new LoadDataStream(source);
+    }
+
+    @Test
+    public void testPauseAndResume() throws Exception {
+        byte[] packet = new byte[PACKET_SIZE];
+        for (int i = 0; i < PAUSE_PACKETS - 1; i++) {
+            stream.write(packet);
+        }
+        verify(socketWR, never()).disableRead();
+        stream.write(packet);
+        verify(socketWR, times(1)).disableRead();
+        stream.write(packet);
+        verify(socketWR, times(1)).disableRead();
+
+        // a packet is counted until the parser moves to the next one, 16 packets are 1MB
+        byte[] buffer = new byte[PACKET_SIZE];
+        int waitingPackets = PAUSE_PACKETS + 1;
+        Assert.assertEquals(PACKET_SIZE, stream.read(buffer, 0, buffer.length));
+        while (waitingPackets - 1 > 16) {
+            Assert.assertEquals(PACKET_SIZE, stream.read(buffer, 0, buffer.length));
+            waitingPackets--;
+            verify(socketWR, never()).enableRead();
+        }
+        Assert.assertEquals(PACKET_SIZE, stream.read(buffer, 0, buffer.length));
+        verify(socketWR, times(1)).enableRead();
+    }
+
+    @Test
+    public void testReadUntilFinish() throws Exception {
+        stream.write("ab".getBytes());
+        stream.write(new byte[0]);
+        stream.write("c".getBytes());
+        stream.finish();
+        Assert.assertEquals('a', stream.read());
+        byte[] buffer = new byte[8];
+        Assert.assertEquals(1, stream.read(buffer, 0, buffer.length));
+        Assert.assertEquals('b', buffer[0]);
+        Assert.assertEquals('c', stream.read());
+        Assert.assertEquals(-1, stream.read());
+        Assert.assertEquals(-1, stream.read(buffer, 0, buffer.length));
+    }
+
+    /**
+     * the aborted stream resumes the client and drops the data received after
+     */
+    @Test
+    public void testAbortResumesRead() throws Exception {
+        byte[] packet = new byte[PACKET_SIZE];
+        for (int i = 0; i < PAUSE_PACKETS; i++) {
+            stream.write(packet);
+        }
+        verify(socketWR, times(1)).disableRead();
+        stream.abort();
+        verify(socketWR, times(1)).enableRead();
+        Assert.assertTrue(stream.isAborted());
+
+        stream.write(packet);
+        stream.skipToEnd();
+        Assert.assertEquals(-1, stream.read());
+        verify(socketWR, times(1)).disableRead();
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.backend.mysql.LoadDataUtil;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.SingleNodeHandler;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.loader.xml.XMLSchemaLoader;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.CapturedServerConnection;
+import com.actiontech.dble.server.MockedDbleServer;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.singleton.ProxyMeta;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * the streamed load data into mysqldb.offer, which is sharded by id to dn1 and dn2.
+ * the backends are mocked connections which request the file as the response handlers do
+ */
+public class ServerLoadDataInfileHandlerTest {
+    private static final String SQL = "LOAD DATA LOCAL INFILE 'offer.txt' INTO TABLE offer FIELDS TERMINATED BY ',' (id, name)";
+    // the packets to the backends are 59 bytes
+    private static final short CHUNK_SIZE = 64;
+    private static final int CLIENT_PACKET_SIZE = 100;
+    private static final int ROW_COUNT = 200;
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private ExecutorService executor;
+    private ProxyMetaManager oldTmManager;
+    private NonBlockingSession session;
+    private CapturedServerConnection source;
+    private ServerLoadDataInfileHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        SystemConfig system = new SystemConfig(null);
+        system.setUseStreamLoadData(true);
+        system.setBufferPoolChunkSize(CHUNK_SIZE);
+        ServerConfig config = server.mockConfig(system);
+        when(config.getSchemas()).thenReturn(new XMLSchemaLoader("/route/schema.xml", "/route/rule.xml", true, null).getSchemas());
+        server.disableFlowControl();
+        executor = Executors.newCachedThreadPool();
+        server.replace("complexQueryExecutor", executor);
+
+        oldTmManager = ProxyMeta.getInstance().getTmManager();
+        ProxyMetaManager tmManager = mock(ProxyMetaManager.class);
+        when(tmManager.checkTableExists("mysqldb", "offer")).thenReturn(true);
+        ProxyMeta.getInstance().setTmManager(tmManager);
+
+        session = mock(NonBlockingSession.class);
+        when(session.getPacketId()).thenReturn(new AtomicInteger(0));
+        source = new CapturedServerConnection(session);
+        source.setSchema("mysqldb");
+        handler = new ServerLoadDataInfileHandler(source);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        handler.clear();
+        executor.shutdownNow();
+        ProxyMeta.getInstance().setTmManager(oldTmManager);
+        server.restore();
+    }
+
+    /**
+     * the file is requested after all the backends request it, and the rows are forwarded to their data nodes
+     * in the packets of the chunk size, the packet ids follow the request of each backend
+     */
+    @Test
+    public void testForwardRows() throws Exception {
+        RouteResultset rrs = start();
+        Backend dn1 = new Backend(node(rrs, "dn1"));
+        Backend dn2 = new Backend(node(rrs, "dn2"));
+        dn1.requestFile();
+        Thread.sleep(100);
+        Assert.assertTrue(source.getPackets().isEmpty());
+        dn2.requestFile();
+        awaitFileRequest();
+        Assert.assertTrue(handler.isStartLoadData());
+
+        StringBuilder file = new StringBuilder();
+        StringBuilder dn1Rows = new StringBuilder();
+        StringBuilder dn2Rows = new StringBuilder();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            long id = i % 2 == 0 ? i : 200000001L + i;
+            String line = id + ",name" + i + "\n";
+            file.append(line);
+            (i % 2 == 0 ? dn1Rows : dn2Rows).append(line);
+        }
+        byte lastPacketId = sendFile(file.toString());
+
+        Assert.assertTrue(dn1.await());
+        Assert.assertTrue(dn2.await());
+        Assert.assertFalse(handler.isStartLoadData());
+        for (Backend backend : new Backend[]{dn1, dn2}) {
+            verify(backend.respHandler).requestDataEnd(lastPacketId);
+            verify(backend.conn, never()).closeInner(anyString());
+        }
+        dn1.assertFile(dn1Rows.toString());
+        dn2.assertFile(dn2Rows.toString());
+    }
+
+    /**
+     * the row without the partition column stops the load, the backends are closed so the rows sent are not committed
+     */
+    @Test
+    public void testRowError() throws Exception {
+        RouteResultset rrs = start();
+        Backend dn1 = new Backend(node(rrs, "dn1"));
+        Backend dn2 = new Backend(node(rrs, "dn2"));
+        dn1.requestFile();
+        dn2.requestFile();
+        awaitFileRequest();
+
+        byte lastPacketId = sendFile("1,a\n200000001,b\n,c\n2,d\n");
+        Assert.assertTrue(dn1.await());
+        Assert.assertTrue(dn2.await());
+        for (Backend backend : new Backend[]{dn1, dn2}) {
+            verify(backend.respHandler).requestDataEnd(lastPacketId);
+            Assert.assertTrue(backend.closeReason, backend.closeReason.contains("Partition column is empty"));
+            Assert.assertFalse(backend.isFinished());
+        }
+        Assert.assertFalse(handler.isStartLoadData());
+    }
+
+    /**
+     * the failed backend aborts the load before the file is requested, the connected one is closed
+     */
+    @Test
+    public void testBackendFailedBeforeRequest() throws Exception {
+        RouteResultset rrs = start();
+        Backend dn1 = new Backend(node(rrs, "dn1"));
+        dn1.requestFile();
+        // done by the response handler when dn2 fails to connect
+        LoadDataUtil.abortFileData(rrs, null);
+
+        Assert.assertTrue(dn1.await());
+        Assert.assertEquals("load data is aborted", dn1.closeReason);
+        Assert.assertTrue(source.getPackets().isEmpty());
+        Assert.assertFalse(handler.isStartLoadData());
+    }
+
+    /**
+     * clear() is called by the closed client while the parser thread is routing the rows
+     */
+    @Test
+    public void testClearWhileReceiving() throws Exception {
+        RouteResultset rrs = start();
+        Backend dn1 = new Backend(node(rrs, "dn1"));
+        Backend dn2 = new Backend(node(rrs, "dn2"));
+        dn1.requestFile();
+        dn2.requestFile();
+        awaitFileRequest();
+
+        handler.handle(clientPacket(2, "1,a\n200000001,b\n"));
+        handler.clear();
+        Assert.assertTrue(dn1.await());
+        Assert.assertTrue(dn2.await());
+        Assert.assertEquals("load data is aborted", dn1.closeReason);
+        Assert.assertEquals("load data is aborted", dn2.closeReason);
+        Assert.assertFalse(handler.isStartLoadData());
+    }
+
+    private RouteResultset start() {
+        handler.start(SQL);
+        ArgumentCaptor<RouteResultset> captor = ArgumentCaptor.forClass(RouteResultset.class);
+        verify(session).execute(captor.capture());
+        RouteResultset rrs = captor.getValue();
+        Assert.assertEquals(2, rrs.getNodes().length);
+        Assert.assertTrue(rrs.isLoadData());
+        return rrs;
+    }
+
+    private static RouteResultsetNode node(RouteResultset rrs, String name) {
+        for (RouteResultsetNode node : rrs.getNodes()) {
+            if (node.getName().equals(name)) {
+                return node;
+            }
+        }
+        throw new AssertionError(name + " is not routed");
+    }
+
+    private void awaitFileRequest() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (source.getPackets().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        List<byte[]> packets = source.getPackets();
+        Assert.assertEquals(1, packets.size());
+        Assert.assertEquals(1, packets.get(0)[3]);
+        Assert.assertEquals((byte) 0xfb, packets.get(0)[4]);
+    }
+
+    /**
+     * @return the id of the empty packet which ends the file
+     */
+    private byte sendFile(String file) {
+        byte[] data = file.getBytes(StandardCharsets.UTF_8);
+        int packetId = 2;
+        for (int offset = 0; offset < data.length; offset += CLIENT_PACKET_SIZE) {
+            int length = Math.min(CLIENT_PACKET_SIZE, data.length - offset);
+            byte[] payload = new byte[length];
+            System.arraycopy(data, offset, payload, 0, length);
+            handler.handle(clientPacket(packetId++, payload));
+        }
+        handler.end((byte) packetId);
+        return (byte) packetId;
+    }
+
+    private static byte[] clientPacket(int packetId, String payload) {
+        return clientPacket(packetId, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] clientPacket(int packetId, byte[] payload) {
+        byte[] packet = new byte[payload.length + 4];
+        packet[0] = (byte) payload.length;
+        packet[1] = (byte) (payload.length >>> 8);
+        packet[2] = (byte) (payload.length >>> 16);
+        packet[3] = (byte) packetId;
+        System.arraycopy(payload, 0, packet, 4, payload.length);
+        return packet;
+    }
+
+    /**
+     * the backend connection keeps the packets written to it, it's done when the empty packet is written or it's closed
+     */
+    private static final class Backend {
+        private static final byte REQUEST_PACKET_ID = 1;
+        private final MySQLConnection conn = mock(MySQLConnection.class);
+        private final SingleNodeHandler respHandler = mock(SingleNodeHandler.class);
+        private final List<byte[]> packets = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile String closeReason;
+
+        Backend(RouteResultsetNode node) {
+            when(conn.getAttachment()).thenReturn(node);
+            when(conn.getRespHandler()).thenReturn(respHandler);
+            when(conn.allocate()).thenAnswer(new Answer<ByteBuffer>() {
+                @Override
+                public ByteBuffer answer(InvocationOnMock invocation) {
+                    return ByteBuffer.allocate(CHUNK_SIZE);
+                }
+            });
+            when(conn.checkWriteBuffer(any(ByteBuffer.class), anyInt(), anyBoolean())).thenAnswer(new Answer<ByteBuffer>() {
+                @Override
+                public ByteBuffer answer(InvocationOnMock invocation) {
+                    ByteBuffer buffer = (ByteBuffer) invocation.getArguments()[0];
+                    int capacity = (Integer) invocation.getArguments()[1];
+                    return buffer.remaining() >= capacity ? buffer : ByteBuffer.allocate(capacity);
+                }
+            });
+            doAnswer(new Answer<Object>() {
+                @Override
+                public Object answer(InvocationOnMock invocation) {
+                    ByteBuffer buffer = (ByteBuffer) invocation.getArguments()[0];
+                    byte[] packet = new byte[buffer.position()];
+                    System.arraycopy(buffer.array(), 0, packet, 0, packet.length);
+                    add(packet);
+                    return null;
+                }
+            }).when(conn).write(any(ByteBuffer.class));
+            doAnswer(new Answer<Object>() {
+                @Override
+                public Object answer(InvocationOnMock invocation) {
+                    add((byte[]) invocation.getArguments()[0]);
+                    done.countDown();
+                    return null;
+                }
+            }).when(conn).write(any(byte[].class));
+            doAnswer(new Answer<Object>() {
+                @Override
+                public Object answer(InvocationOnMock invocation) {
+                    closeReason = (String) invocation.getArguments()[0];
+                    done.countDown();
+                    return null;
+                }
+            }).when(conn).closeInner(anyString());
+        }
+
+        void requestFile() {
+            LoadDataUtil.requestFileDataResponse(new byte[]{1, 0, 0, REQUEST_PACKET_ID, (byte) 0xfb}, conn);
+        }
+
+        boolean await() throws InterruptedException {
+            return done.await(5, TimeUnit.SECONDS);
+        }
+
+        private synchronized void add(byte[] packet) {
+            packets.add(packet);
+        }
+
+        synchronized boolean isFinished() {
+            return !packets.isEmpty() && packets.get(packets.size() - 1).length == 4;
+        }
+
+        /**
+         * the packets are full except the last ones, and their ids are in order
+         */
+        synchronized void assertFile(String expected) {
+            Assert.assertTrue(isFinished());
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            byte packetId = REQUEST_PACKET_ID;
+            for (int i = 0; i < packets.size(); i++) {
+                byte[] packet = packets.get(i);
+                int length = (packet[0] & 0xff) | (packet[1] & 0xff) << 8 | (packet[2] & 0xff) << 16;
+                Assert.assertEquals(length + 4, packet.length);
+                Assert.assertEquals(++packetId, packet[3]);
+                if (i < packets.size() - 2) {
+                    Assert.assertEquals(CHUNK_SIZE - 5, length);
+                }
+                file.write(packet, 4, length);
+            }
+            Assert.assertEquals(expected, new String(file.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
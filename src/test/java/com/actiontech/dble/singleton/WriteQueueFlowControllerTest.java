@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.singleton;
+
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.config.FlowCotrollerConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.AbstractConnection;
+import com.actiontech.dble.server.MockedDbleServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * the thresholds are counted in the chunks of bufferPoolChunkSize bytes, the write queue is counted in bytes
+ */
+public class WriteQueueFlowControllerTest {
+    private static final int CHUNK_SIZE = 1024;
+    private static final int START = 16;
+    private static final int STOP = 4;
+
+    private final MockedDbleServer server = new MockedDbleServer();
+    private FlowCotrollerConfig oldConfig;
+
+    @Before
+    public void setUp() throws Exception {
+        oldConfig = WriteQueueFlowController.getFlowCotrollerConfig();
+        SystemConfig system = new SystemConfig(null);
+        system.setEnableFlowControl(true);
+        system.setBufferPoolChunkSize((short) CHUNK_SIZE);
+        system.setFlowControlStartThreshold(START);
+        system.setFlowControlStopThreshold(STOP);
+        server.mockConfig(system);
+        WriteQueueFlowController.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        WriteQueueFlowController.checkMemory(pool(100, 100), 100);
+        WriteQueueFlowController.configChange(oldConfig);
+        server.restore();
+    }
+
+    @Test
+    public void testStartAndStopThreshold() {
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(connection(START * CHUNK_SIZE)));
+        Assert.assertTrue(WriteQueueFlowController.isOverBudget(connection(START * CHUNK_SIZE + 1)));
+
+        Assert.assertTrue(WriteQueueFlowController.isUnderBudget(connection(STOP * CHUNK_SIZE)));
+        Assert.assertFalse(WriteQueueFlowController.isUnderBudget(connection(STOP * CHUNK_SIZE + 1)));
+    }
+
+    @Test
+    public void testDisabled() {
+        WriteQueueFlowController.configChange(new FlowCotrollerConfig(false, START, STOP));
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(connection(START * CHUNK_SIZE + 1)));
+    }
+
+    /**
+     * when the buffer pool is short, the write queue above the stop threshold is over budget
+     */
+    @Test
+    public void testMemoryShort() {
+        AbstractConnection con = connection(STOP * CHUNK_SIZE + 1);
+        WriteQueueFlowController.checkMemory(pool(100, 21), 80);
+        Assert.assertEquals(79, WriteQueueFlowController.getMemoryUsagePercent());
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(con));
+
+        WriteQueueFlowController.checkMemory(pool(100, 20), 80);
+        Assert.assertEquals(80, WriteQueueFlowController.getMemoryUsagePercent());
+        Assert.assertTrue(WriteQueueFlowController.isOverBudget(con));
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(connection(STOP * CHUNK_SIZE)));
+
+        // 100 means the usage of the pool is never checked
+        WriteQueueFlowController.checkMemory(pool(100, 0), 100);
+        Assert.assertEquals(100, WriteQueueFlowController.getMemoryUsagePercent());
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(con));
+    }
+
+    @Test
+    public void testEmptyPool() {
+        WriteQueueFlowController.checkMemory(pool(0, 0), 80);
+        Assert.assertEquals(0, WriteQueueFlowController.getMemoryUsagePercent());
+        Assert.assertFalse(WriteQueueFlowController.isOverBudget(connection(STOP * CHUNK_SIZE + 1)));
+    }
+
+    private static AbstractConnection connection(long writeQueueBytes) {
+        AbstractConnection con = mock(AbstractConnection.class);
+        when(con.getWriteQueueBytes()).thenReturn(writeQueueBytes);
+        return con;
+    }
+
+    private static BufferPool pool(long capacity, long free) {
+        BufferPool pool = mock(BufferPool.class);
+        when(pool.capacity()).thenReturn(capacity);
+        when(pool.size()).thenReturn(free);
+        return pool;
+    }
+}